@@ -0,0 +1,64 @@
+package dev.automation.assistant.benchmark;
+
+import dev.automation.assistant.action.ActionDispatcher;
+import dev.automation.assistant.action.ActionLane;
+import dev.automation.assistant.action.AutomationAction;
+import dev.automation.assistant.action.OverflowPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durchsatz des {@link ActionDispatcher}: Einreihen bis Abschluss einer
+ * Aktionssalve pro Spur.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionDispatchBenchmark {
+
+    private static final int BURST = 1000;
+
+    @Param({"MOUSE", "HANDLE"})
+    ActionLane lane;
+
+    private ActionDispatcher dispatcher;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.quietLogging();
+        dispatcher = new ActionDispatcher(4, BURST, OverflowPolicy.BLOCK);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dispatcher.shutdown(5_000);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void dispatchBurst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(BURST);
+        for (int i = 0; i < BURST; i++) {
+            dispatcher.submit(new AutomationAction("bench", lane, done::countDown));
+        }
+        done.await();
+    }
+}
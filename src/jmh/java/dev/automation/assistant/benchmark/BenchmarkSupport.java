@@ -0,0 +1,45 @@
+package dev.automation.assistant.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+/**
+ * Gemeinsame Hilfsfunktionen fuer die JMH-Benchmarks.
+ */
+final class BenchmarkSupport {
+
+    static final String[] WORDS = {
+            "Fehler", "Merge", "Datei", "Noah", "Warnung", "Speichern", "Bericht", "Launcher",
+            "Dialog", "Update", "Export", "Import", "Drucken", "Verbindung", "Server", "Job"};
+
+    private BenchmarkSupport() {
+        // utility class
+    }
+
+    /**
+     * Reduziert das Logging auf Warnungen, damit INFO-Meldungen pro Treffer nicht mitgemessen werden.
+     */
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    static String randomTitle(Random random) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(200);
+    }
+
+    /**
+     * Erstellt einen simulierten Desktop mit der angegebenen Anzahl Fenster.
+     */
+    static InMemoryWindowBackend desktop(int windows, long seed) {
+        Random random = new Random(seed);
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        for (int i = 0; i < windows; i++) {
+            backend.openWindow(randomTitle(random));
+        }
+        return backend;
+    }
+}
@@ -0,0 +1,88 @@
+package dev.automation.assistant.benchmark;
+
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import dev.automation.assistant.service.MonitorTarget;
+import dev.automation.assistant.service.MultiTargetMonitor;
+import dev.automation.assistant.service.ParallelMatchStage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Skalierung des Regelabgleichs ueber 1 bis N Kerne.
+ * <p>
+ * Jeder Aufruf registriert ein Ziel neu, sodass der Tick den vollstaendigen
+ * Schnappschuss gegen 32 regulaere Ausdruecke abgleicht (wie beim ersten Tick auf einem
+ * Terminalserver). {@code parallelism=1} ist der serielle Referenzwert; Werte ueber der
+ * Kernzahl der Maschine zeigen den Overhead der Aufteilung.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelMatchBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    int parallelism;
+
+    @Param({"1000", "10000"})
+    int windows;
+
+    private MultiTargetMonitor monitor;
+    private MonitorTarget target;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.quietLogging();
+        InMemoryWindowBackend backend = BenchmarkSupport.desktop(windows, 9);
+        monitor = new MultiTargetMonitor(backend, 1000, new AutomationMetrics(), parallelism,
+                ParallelMatchStage.DEFAULT_THRESHOLD);
+        monitor.tick();
+
+        List<Pattern> patterns = new ArrayList<>();
+        for (String word : BenchmarkSupport.WORDS) {
+            patterns.add(Pattern.compile("^" + word + " 1[0-4]\\d$"));
+            patterns.add(Pattern.compile("(?i)" + word + ".*(abbrechen|ignorieren)"));
+        }
+        target = new MonitorTarget("Regeln", title -> {
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(title).find()) {
+                    return true;
+                }
+            }
+            return false;
+        }, (h, t) -> { });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        monitor.stop();
+    }
+
+    @Benchmark
+    public int fullScan() {
+        monitor.addTarget(target);
+        int hits = monitor.tick();
+        monitor.removeTarget(target);
+        return hits;
+    }
+}
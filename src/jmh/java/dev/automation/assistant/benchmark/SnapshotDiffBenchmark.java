@@ -0,0 +1,75 @@
+package dev.automation.assistant.benchmark;
+
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import dev.automation.assistant.service.MonitorTarget;
+import dev.automation.assistant.service.MultiTargetMonitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ein vollstaendiger Monitor-Tick: Schnappschuss erstellen und gegen den
+ * vorherigen Stand abgleichen, mit und ohne Fensterwechsel zwischen den Ticks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotDiffBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    int windows;
+
+    /** Anzahl Fenster, die pro Tick geschlossen und neu geoeffnet werden */
+    @Param({"0", "10"})
+    int churn;
+
+    private InMemoryWindowBackend backend;
+    private MultiTargetMonitor monitor;
+    private long[] openHandles;
+    private int cursor;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.quietLogging();
+        backend = BenchmarkSupport.desktop(windows, 3);
+        openHandles = new long[windows];
+        int[] count = new int[1];
+        backend.enumerateWindows(h -> {
+            openHandles[count[0]++] = h;
+            return true;
+        });
+
+        monitor = new MultiTargetMonitor(backend, 1000);
+        for (String word : BenchmarkSupport.WORDS) {
+            monitor.addTarget(new MonitorTarget(word, t -> t.startsWith(word), (h, t) -> { }));
+        }
+        monitor.tick();
+        random = new Random(4);
+    }
+
+    @Benchmark
+    public int tick() {
+        for (int i = 0; i < churn; i++) {
+            int slot = cursor++ % openHandles.length;
+            backend.closeWindow(openHandles[slot]);
+            openHandles[slot] = backend.openWindow(BenchmarkSupport.randomTitle(random));
+        }
+        return monitor.tick();
+    }
+}
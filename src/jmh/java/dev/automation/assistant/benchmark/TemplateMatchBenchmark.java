@@ -0,0 +1,112 @@
+package dev.automation.assistant.benchmark;
+
+import dev.automation.assistant.vision.GrayImage;
+import dev.automation.assistant.vision.Template;
+import dev.automation.assistant.vision.TemplateMatch;
+import dev.automation.assistant.vision.TemplateMatcher;
+import dev.automation.assistant.vision.TileHashGate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bildsuche auf einem simulierten Bildschirmausschnitt: Vollsuche gegen
+ * Pyramidensuche (ein Kern bzw. alle Kerne) sowie die Kosten des Kachel-Hash-Filters,
+ * der unveraenderte Frames ohne Suche verwirft.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateMatchBenchmark {
+
+    @Param({"640x480", "1280x720"})
+    String region;
+
+    private BufferedImage screen;
+    private GrayImage frame;
+    private Template template;
+    private TileHashGate gate;
+    private TemplateMatcher parallel;
+    private TemplateMatcher sequential;
+    private ForkJoinPool singleThread;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.quietLogging();
+        String[] size = region.split("x");
+        screen = blocks(Integer.parseInt(size[0]), Integer.parseInt(size[1]), 5, 1);
+        BufferedImage button = blocks(48, 24, 6, 42);
+        screen.getGraphics().drawImage(button, screen.getWidth() - 101, screen.getHeight() - 77, null);
+        frame = GrayImage.of(screen);
+        template = Template.of("ok", button);
+        gate = new TileHashGate();
+        gate.update(screen);
+        parallel = new TemplateMatcher();
+        singleThread = new ForkJoinPool(1);
+        sequential = new TemplateMatcher(singleThread);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        singleThread.shutdown();
+    }
+
+    @Benchmark
+    public TemplateMatch exhaustive() {
+        return sequential.findExhaustive(frame, template, 0.9);
+    }
+
+    @Benchmark
+    public TemplateMatch pyramidSingleCore() {
+        return sequential.find(frame, template, 0.9);
+    }
+
+    @Benchmark
+    public TemplateMatch pyramidForkJoin() {
+        return parallel.find(frame, template, 0.9);
+    }
+
+    @Benchmark
+    public TemplateMatch grayscaleAndPyramid() {
+        return parallel.find(GrayImage.of(screen), template, 0.9);
+    }
+
+    @Benchmark
+    public int unchangedFrameGate() {
+        return gate.update(screen);
+    }
+
+    private static BufferedImage blocks(int width, int height, int blockSize, long seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(seed);
+        for (int by = 0; by < height; by += blockSize) {
+            for (int bx = 0; bx < width; bx += blockSize) {
+                int rgb = random.nextInt(0x1000000);
+                for (int y = by; y < Math.min(height, by + blockSize); y++) {
+                    for (int x = bx; x < Math.min(width, bx + blockSize); x++) {
+                        image.setRGB(x, y, rgb);
+                    }
+                }
+            }
+        }
+        return image;
+    }
+}
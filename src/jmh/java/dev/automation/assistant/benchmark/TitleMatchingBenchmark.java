@@ -0,0 +1,95 @@
+package dev.automation.assistant.benchmark;
+
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import dev.automation.assistant.rules.RuleIndex;
+import dev.automation.assistant.rules.TitleRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Titel lesen und abgleichen pro Tick.
+ * <p>
+ * {@code readAndEquals} entspricht dem bisherigen Ablauf aus
+ * {@code WindowsUtils.getWindowTitle} und dem Vergleich mit {@code equals} in
+ * {@code MainWindow.onNewWindowDetected}; {@code readAndMatchIndex} verwendet
+ * den {@link RuleIndex}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TitleMatchingBenchmark {
+
+    @Param({"200", "2000"})
+    int windows;
+
+    @Param({"1", "1000"})
+    int rules;
+
+    private InMemoryWindowBackend backend;
+    private long[] handles;
+    private String target;
+    private RuleIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.quietLogging();
+        backend = BenchmarkSupport.desktop(windows, 1);
+        handles = new long[windows];
+        int[] count = new int[1];
+        backend.enumerateWindows(h -> {
+            handles[count[0]++] = h;
+            return true;
+        });
+
+        Random random = new Random(2);
+        List<TitleRule> ruleList = new ArrayList<>(rules);
+        for (int i = 0; i < rules; i++) {
+            String word = BenchmarkSupport.randomTitle(random);
+            switch (i % 4) {
+                case 0: ruleList.add(TitleRule.prefix("r" + i, word)); break;
+                case 1: ruleList.add(TitleRule.contains("r" + i, word)); break;
+                default: ruleList.add(TitleRule.exact("r" + i, word)); break;
+            }
+        }
+        index = RuleIndex.compile(ruleList);
+        target = ruleList.get(0).getPattern();
+    }
+
+    @Benchmark
+    public int readAndEquals() {
+        int hits = 0;
+        for (long handle : handles) {
+            if (target.equals(backend.getWindowTitle(handle))) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public void readAndMatchIndex(Blackhole blackhole) {
+        for (long handle : handles) {
+            blackhole.consume(index.match(backend.getWindowTitle(handle)));
+        }
+    }
+}
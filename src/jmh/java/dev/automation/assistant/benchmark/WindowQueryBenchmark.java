@@ -0,0 +1,64 @@
+package dev.automation.assistant.benchmark;
+
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import dev.automation.assistant.platform.WindowBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aufruferseite der Fensterabfragen: Einzelabfragen pro Fenster gegen eine
+ * Sammelabfrage ({@link WindowBackend#queryWindows}) mit wiederverwendeter Info.
+ * Laeuft gegen {@link InMemoryWindowBackend}; die nativen Kosten unter Windows
+ * kommen dort noch hinzu.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WindowQueryBenchmark {
+
+    @Param({"100", "1000"})
+    int windows;
+
+    private InMemoryWindowBackend backend;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.quietLogging();
+        backend = BenchmarkSupport.desktop(windows, 5);
+    }
+
+    @Benchmark
+    public void perWindowQueries(Blackhole bh) {
+        backend.enumerateWindows(handle -> {
+            bh.consume(backend.getWindowTitle(handle));
+            bh.consume(backend.getClassName(handle));
+            return true;
+        });
+    }
+
+    @Benchmark
+    public void batchQuery(Blackhole bh) {
+        backend.queryWindows(info -> {
+            bh.consume(info.getTitle());
+            bh.consume(info.getClassName());
+            bh.consume(info.getProcessId());
+            return true;
+        });
+    }
+}
@@ -1,16 +1,16 @@
 package dev.automation.assistant;
 
-import ch.qos.logback.classic.LoggerContext;
-import ch.qos.logback.classic.joran.JoranConfigurator;
-import ch.qos.logback.core.util.StatusPrinter;
+import dev.automation.assistant.metrics.AutomationMetrics;
 import dev.automation.assistant.ui.MainWindow;
+import dev.automation.assistant.util.ExecutionMode;
+import dev.automation.assistant.util.LoggingProfile;
+import dev.automation.assistant.util.TaskExecutors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.io.File;
-import java.net.URL;
 
 /**
  * Einstiegspunkt der Anwendung "Automation Assistant".
@@ -21,7 +21,8 @@ import java.net.URL;
  *
  * <h2>Hauptfunktionen:</h2>
  * <ul>
- *     <li>Zeigt beim Start einen Dialog zur Auswahl der Logdatei an.</li>
+ *     <li>Zeigt beim Start einen Dialog zur Auswahl der Logdatei an, sofern kein
+ *     Logging-Profil per {@code -Dlog.profile} vorgegeben ist.</li>
  *     <li>Setzt den Pfad der Logdatei in der System-Property {@code log.file}.</li>
  *     <li>Lädt die Logback-Konfiguration neu, damit die Datei sofort aktiv ist.</li>
  *     <li>Startet danach das Swing-Hauptfenster.</li>
@@ -35,7 +36,7 @@ import java.net.URL;
  * <h2>Technische Details:</h2>
  * <ul>
  *     <li>GUI wird im Event Dispatch Thread gestartet (SwingUtilities.invokeLater).</li>
- *     <li>Logback wird nachträglich mit {@link JoranConfigurator} reinitialisiert.</li>
+ *     <li>Logback wird nachträglich über {@link LoggingProfile} reinitialisiert.</li>
  * </ul>
  *
  * @author <PRIVATE_PERSON>
@@ -58,6 +59,25 @@ public class ApplicationLauncher {
      * @param args Kommandozeilenargumente (werden nicht verwendet)
      */
     public static void main(String[] args) {
+        // Ausfuehrungsmodus fuer Monitore und Handler (-Dexecution.mode=auto|virtual|platform)
+        TaskExecutors.configure(ExecutionMode.fromSystemProperty());
+
+        // Kennzahlen per JMX bereitstellen und minuetlich zusammenfassen
+        AutomationMetrics.global().startSummaryLogging(60_000);
+
+        if (LoggingProfile.isSelectedBySystemProperty()) {
+            // Profil vorgegeben (z. B. Dauerbetrieb): kein Dateidialog
+            LoggingProfile profile = LoggingProfile.fromSystemProperty();
+            File logFile = new File(System.getProperty("log.file", "logs/automation-assistant.log"));
+            logFile.getAbsoluteFile().getParentFile().mkdirs();
+            System.setProperty("log.file", logFile.getAbsolutePath());
+            profile.apply();
+            log.info("Logging-Profil {} aktiv, Logdatei: {}", profile, logFile.getAbsolutePath());
+
+            SwingUtilities.invokeLater(MainWindow::new);
+            return;
+        }
+
         SwingUtilities.invokeLater(() -> {
             try {
                 File logFile = chooseLogFile();
@@ -124,24 +144,10 @@ public class ApplicationLauncher {
      * Lädt die Logback-Konfiguration nachträglich neu,
      * damit die geänderte Logdatei sofort aktiv wird.
      * <p>
-     * Dazu wird die aktuelle {@link LoggerContext}-Instanz zurückgesetzt
-     * und die Konfigurationsdatei {@code logback.xml} erneut eingelesen.
+     * Verwendet das Standardprofil ({@code logback.xml}).
      * </p>
      */
     private static void reconfigureLogback() {
-        try {
-            LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
-            context.reset(); // alte Konfiguration entfernen
-
-            URL configUrl = ApplicationLauncher.class.getClassLoader().getResource("logback.xml");
-            if (configUrl != null) {
-                JoranConfigurator configurator = new JoranConfigurator();
-                configurator.setContext(context);
-                configurator.doConfigure(configUrl);
-                StatusPrinter.printInCaseOfErrorsOrWarnings(context);
-            }
-        } catch (Exception ex) {
-            System.err.println("Fehler beim Reinitialisieren von Logback: " + ex.getMessage());
-        }
+        LoggingProfile.DEFAULT.apply();
     }
 }
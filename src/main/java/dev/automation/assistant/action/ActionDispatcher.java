@@ -0,0 +1,264 @@
+package dev.automation.assistant.action;
+
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.util.TaskExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Begrenzte Ausfuehrung automatischer Aktionen.
+ * <p>
+ * Ersetzt das bisherige "ein Thread pro Klick"-Modell. Aktionen werden in zwei
+ * Spuren mit jeweils begrenzter Warteschlange ausgefuehrt:
+ * </p>
+ * <ul>
+ *     <li>{@link ActionLane#MOUSE}: genau ein Worker, damit sich {@code Robot}-Klicks
+ *         auf der echten Maus nie ueberschneiden</li>
+ *     <li>{@link ActionLane#HANDLE}: konfigurierbare Anzahl Worker fuer handle-basierte
+ *         Aktionen wie {@code SendMessage}</li>
+ * </ul>
+ * <p>
+ * Ist eine Warteschlange voll, greift die konfigurierte {@link OverflowPolicy}.
+ * Verzoegerte Aktionen (z. B. "in 5 s Cursorposition lesen") werden ueber einen
+ * Timer eingeplant und belegen waehrend der Wartezeit keinen Worker.
+ * Die Worker stammen aus {@link TaskExecutors} und sind je nach Ausfuehrungsmodus
+ * virtuelle oder Plattform-Threads.
+ * </p>
+ */
+public class ActionDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ActionDispatcher.class);
+
+    /** Maximale Wartezeit des Aufrufers bei {@link OverflowPolicy#BLOCK} */
+    private static final long BLOCK_TIMEOUT_MS = 2000;
+
+    private final ThreadPoolExecutor mouseLane;
+    private final ThreadPoolExecutor handleLane;
+    private final ScheduledExecutorService timer;
+    private final OverflowPolicy overflowPolicy;
+    private final AutomationMetrics metrics;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder latencySumNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * Erstellt einen Dispatcher mit Standardwerten (4 Handle-Worker, 256 Plaetze, Backpressure).
+     */
+    public ActionDispatcher() {
+        this(4, 256, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * @param handleWorkers  Anzahl paralleler Worker fuer {@link ActionLane#HANDLE}
+     * @param queueCapacity  Kapazitaet jeder Warteschlange
+     * @param overflowPolicy Verhalten bei voller Warteschlange
+     */
+    public ActionDispatcher(int handleWorkers, int queueCapacity, OverflowPolicy overflowPolicy) {
+        this(handleWorkers, queueCapacity, overflowPolicy, AutomationMetrics.global());
+    }
+
+    /**
+     * @param handleWorkers  Anzahl paralleler Worker fuer {@link ActionLane#HANDLE}
+     * @param queueCapacity  Kapazitaet jeder Warteschlange
+     * @param overflowPolicy Verhalten bei voller Warteschlange
+     * @param metrics        Ziel fuer Ausfuehrungsdauer und Fehlerzaehler
+     */
+    public ActionDispatcher(int handleWorkers, int queueCapacity, OverflowPolicy overflowPolicy,
+                            AutomationMetrics metrics) {
+        this.metrics = metrics;
+        if (handleWorkers < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Worker und Kapazitaet muessen positiv sein");
+        }
+        this.overflowPolicy = overflowPolicy;
+        this.mouseLane = newLane(1, queueCapacity, "Action-Mouse");
+        this.handleLane = newLane(handleWorkers, queueCapacity, "Action-Handle");
+        this.timer = Executors.newSingleThreadScheduledExecutor(TaskExecutors.threadFactory("Action-Timer"));
+    }
+
+    private ThreadPoolExecutor newLane(int workers, int capacity, String name) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), TaskExecutors.threadFactory(name), overflowHandler());
+        executor.prestartAllCoreThreads();
+        return executor;
+    }
+
+    private RejectedExecutionHandler overflowHandler() {
+        return (task, executor) -> {
+            if (executor.isShutdown()) {
+                drop(task, "Dispatcher beendet");
+                return;
+            }
+            switch (overflowPolicy) {
+                case BLOCK:
+                    try {
+                        if (!executor.getQueue().offer(task, BLOCK_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                            drop(task, "Warteschlange voll (Timeout)");
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        drop(task, "unterbrochen");
+                    }
+                    break;
+                case DROP_OLDEST:
+                    Runnable oldest = executor.getQueue().poll();
+                    if (oldest != null) {
+                        drop(oldest, "verdraengt");
+                    }
+                    executor.execute(task);
+                    break;
+                case DROP_NEWEST:
+                default:
+                    drop(task, "Warteschlange voll");
+                    break;
+            }
+        };
+    }
+
+    private void drop(Runnable task, String reason) {
+        dropped.increment();
+        log.warn("Aktion verworfen ({}): {}", reason, task);
+    }
+
+    /**
+     * Reiht eine Aktion zur sofortigen Ausfuehrung ein.
+     *
+     * @param action Aktion
+     */
+    public void submit(AutomationAction action) {
+        submitted.increment();
+        ThreadPoolExecutor lane = action.getLane() == ActionLane.MOUSE ? mouseLane : handleLane;
+        lane.execute(new DispatchTask(action, System.nanoTime()));
+    }
+
+    /**
+     * Reiht eine Aktion nach einer Verzoegerung ein, ohne waehrend der Wartezeit einen Worker zu belegen.
+     *
+     * @param action  Aktion
+     * @param delayMs Verzoegerung in Millisekunden
+     */
+    public void submitDelayed(AutomationAction action, long delayMs) {
+        timer.schedule(() -> submit(action), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Beendet alle Worker nach Abarbeitung der Warteschlangen.
+     *
+     * @param timeoutMs Maximale Wartezeit
+     * @return {@code true}, falls alle Worker rechtzeitig beendet wurden
+     */
+    public boolean shutdown(long timeoutMs) {
+        timer.shutdownNow();
+        mouseLane.shutdown();
+        handleLane.shutdown();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            boolean mouseDone = mouseLane.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return mouseDone && handleLane.awaitTermination(remaining, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * @return Anzahl wartender Aktionen in beiden Spuren
+     */
+    public int getQueueDepth() {
+        return mouseLane.getQueue().size() + handleLane.getQueue().size();
+    }
+
+    /**
+     * @return Anzahl wartender Aktionen der angegebenen Spur
+     */
+    public int getQueueDepth(ActionLane lane) {
+        return (lane == ActionLane.MOUSE ? mouseLane : handleLane).getQueue().size();
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return Mittlere Zeit zwischen Einreihen und Ausfuehrungsbeginn in Nanosekunden
+     */
+    public long getAverageDispatchLatencyNanos() {
+        long count = completed.sum() + failed.sum();
+        return count == 0 ? 0 : latencySumNanos.sum() / count;
+    }
+
+    /**
+     * @return Groesste gemessene Zeit zwischen Einreihen und Ausfuehrungsbeginn in Nanosekunden
+     */
+    public long getMaxDispatchLatencyNanos() {
+        return maxLatencyNanos.get();
+    }
+
+    /**
+     * Huelle um eine Aktion, die Einreihungszeit und Ergebnis erfasst.
+     */
+    private final class DispatchTask implements Runnable {
+        private final AutomationAction action;
+        private final long enqueuedAt;
+
+        private DispatchTask(AutomationAction action, long enqueuedAt) {
+            this.action = action;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            long latency = start - enqueuedAt;
+            latencySumNanos.add(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            boolean success = false;
+            try {
+                action.execute();
+                completed.increment();
+                success = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.increment();
+                log.warn("Aktion '{}' unterbrochen", action.getName());
+            } catch (Exception e) {
+                failed.increment();
+                log.error("Fehler bei Aktion '{}'", action.getName(), e);
+            } finally {
+                if (action.isMetered()) {
+                    metrics.recordAction(System.nanoTime() - start, success);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return action.toString();
+        }
+    }
+}
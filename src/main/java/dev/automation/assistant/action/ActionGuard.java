@@ -0,0 +1,185 @@
+package dev.automation.assistant.action;
+
+import dev.automation.assistant.metrics.AutomationMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Vorgeschaltete Drosselung aller automatischen Aktionen.
+ * <p>
+ * Erzeugt eine fehlerhafte Anwendung denselben Dialog in einer Schleife, wuerde der Bot
+ * sonst so schnell wie moeglich klicken und Log sowie Oberflaeche fluten. Vor jeder
+ * Aktion prueft der Waechter deshalb nacheinander:
+ * </p>
+ * <ol>
+ *     <li>den {@link CircuitBreaker} der Regel, der jeden Versuch zaehlt und bei einem
+ *         Sturm wiederholter oder fehlschlagender Aktionen mit wachsender Sperrzeit oeffnet</li>
+ *     <li>den {@link TokenBucket} der Regel</li>
+ *     <li>den gemeinsamen {@link TokenBucket} aller Regeln</li>
+ * </ol>
+ * <p>
+ * Alle Pruefungen sind sperrfrei. Abgelehnte Aktionen werden in den
+ * {@link AutomationMetrics} gezaehlt und nur auf Debug-Level geloggt.
+ * </p>
+ */
+public final class ActionGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(ActionGuard.class);
+
+    /** Ergebnis einer Pruefung */
+    public enum Decision {
+        ALLOWED,
+        RATE_LIMITED,
+        CIRCUIT_OPEN
+    }
+
+    /** Standard: 20 Aktionen/s insgesamt */
+    public static final int DEFAULT_GLOBAL_PER_SECOND = 20;
+
+    /** Standard: 2 Aktionen/s pro Regel */
+    public static final int DEFAULT_RULE_PER_SECOND = 2;
+
+    /** Standard: erlaubte Versuche einer Regel pro Fenster */
+    public static final int DEFAULT_REPEAT_THRESHOLD = 20;
+
+    /** Standard: Fehlschlaege einer Regel pro Fenster, bevor der Schutzschalter oeffnet */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+    /** Standard: Zaehlfenster des Schutzschalters */
+    public static final long DEFAULT_WINDOW_MS = 10_000;
+
+    private static final long BASE_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    private final TokenBucket global;
+    private final int rulePerSecond;
+    private final int repeatThreshold;
+    private final int failureThreshold;
+    private final long windowMs;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final AutomationMetrics metrics;
+    private final ConcurrentHashMap<String, RuleGuard> rules = new ConcurrentHashMap<>();
+
+    /**
+     * Erstellt einen Waechter mit Standardwerten.
+     *
+     * @param metrics Ziel fuer abgelehnte Aktionen und Ausloesungen
+     */
+    public ActionGuard(AutomationMetrics metrics) {
+        this(DEFAULT_GLOBAL_PER_SECOND, DEFAULT_RULE_PER_SECOND, DEFAULT_REPEAT_THRESHOLD,
+                DEFAULT_FAILURE_THRESHOLD, DEFAULT_WINDOW_MS, metrics);
+    }
+
+    /**
+     * @param globalPerSecond  Aktionen pro Sekunde ueber alle Regeln (zugleich Burst)
+     * @param rulePerSecond    Aktionen pro Sekunde und Regel (zugleich Burst)
+     * @param repeatThreshold  Versuche einer Regel pro Fenster, bevor der Schutzschalter oeffnet
+     * @param failureThreshold Fehlschlaege einer Regel pro Fenster, bevor der Schutzschalter oeffnet
+     * @param windowMs         Zaehlfenster des Schutzschalters
+     * @param metrics          Ziel fuer abgelehnte Aktionen und Ausloesungen
+     */
+    public ActionGuard(int globalPerSecond, int rulePerSecond, int repeatThreshold, int failureThreshold,
+                       long windowMs, AutomationMetrics metrics) {
+        this(globalPerSecond, rulePerSecond, repeatThreshold, failureThreshold, windowMs,
+                BASE_BACKOFF_MS, MAX_BACKOFF_MS, metrics);
+    }
+
+    ActionGuard(int globalPerSecond, int rulePerSecond, int repeatThreshold, int failureThreshold,
+                long windowMs, long baseBackoffMs, long maxBackoffMs, AutomationMetrics metrics) {
+        if (globalPerSecond < 1 || rulePerSecond < 1 || repeatThreshold < 1 || failureThreshold < 1
+                || windowMs < 1 || baseBackoffMs < 1 || maxBackoffMs < baseBackoffMs) {
+            throw new IllegalArgumentException("Grenzwerte der Aktionsdrosselung muessen positiv sein");
+        }
+        this.global = new TokenBucket(globalPerSecond, globalPerSecond);
+        this.rulePerSecond = rulePerSecond;
+        this.repeatThreshold = repeatThreshold;
+        this.failureThreshold = failureThreshold;
+        this.windowMs = windowMs;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.metrics = metrics;
+        metrics.bindOpenCircuits(this::getOpenCircuits);
+    }
+
+    /**
+     * Prueft, ob eine Aktion ausgefuehrt werden darf.
+     *
+     * @param key Regel-ID oder Fenstertitel
+     * @return Entscheidung; nur bei {@link Decision#ALLOWED} ausfuehren
+     */
+    public Decision tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    Decision tryAcquire(String key, long nowNanos) {
+        RuleGuard guard = guardFor(key);
+        if (!guard.breaker.tryAcquire(nowNanos)) {
+            metrics.recordCircuitRejected();
+            log.debug("Aktion fuer '{}' abgelehnt: Schutzschalter offen", key);
+            return Decision.CIRCUIT_OPEN;
+        }
+        if (!guard.bucket.tryAcquire(nowNanos) || !global.tryAcquire(nowNanos)) {
+            metrics.recordRateLimited();
+            log.debug("Aktion fuer '{}' gedrosselt", key);
+            return Decision.RATE_LIMITED;
+        }
+        return Decision.ALLOWED;
+    }
+
+    /**
+     * Meldet das Ergebnis einer erlaubten Aktion; Fehlschlaege zaehlen fuer den Schutzschalter.
+     *
+     * @param key     Schluessel aus {@link #tryAcquire(String)}
+     * @param success {@code false}, falls die Aktion fehlgeschlagen ist
+     */
+    public void recordResult(String key, boolean success) {
+        recordResult(key, success, System.nanoTime());
+    }
+
+    void recordResult(String key, boolean success, long nowNanos) {
+        if (!success) {
+            guardFor(key).breaker.recordFailure(nowNanos);
+        }
+    }
+
+    /**
+     * @return Zustand des Schutzschalters fuer einen Schluessel
+     */
+    public CircuitBreaker.State getState(String key) {
+        RuleGuard guard = rules.get(key);
+        return guard != null ? guard.breaker.getState() : CircuitBreaker.State.CLOSED;
+    }
+
+    /**
+     * @return Anzahl derzeit offener Schutzschalter
+     */
+    public int getOpenCircuits() {
+        long now = System.nanoTime();
+        int open = 0;
+        for (RuleGuard guard : rules.values()) {
+            if (guard.breaker.getState(now) == CircuitBreaker.State.OPEN) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    private RuleGuard guardFor(String key) {
+        RuleGuard guard = rules.get(key);
+        return guard != null ? guard : rules.computeIfAbsent(key, RuleGuard::new);
+    }
+
+    /** Drosselung und Schutzschalter einer Regel */
+    private final class RuleGuard {
+        private final TokenBucket bucket = new TokenBucket(rulePerSecond, rulePerSecond);
+        private final CircuitBreaker breaker;
+
+        private RuleGuard(String key) {
+            this.breaker = new CircuitBreaker(key, repeatThreshold, failureThreshold, windowMs,
+                    baseBackoffMs, maxBackoffMs, metrics);
+        }
+    }
+}
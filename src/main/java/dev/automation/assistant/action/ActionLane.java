@@ -0,0 +1,19 @@
+package dev.automation.assistant.action;
+
+/**
+ * Ausfuehrungsspur einer {@link AutomationAction}.
+ */
+public enum ActionLane {
+
+    /**
+     * Aktionen, die die physische Maus benutzen (z. B. {@code Robot}-Klicks).
+     * Sie werden streng nacheinander ausgefuehrt, damit sich Klicks nicht ueberschneiden.
+     */
+    MOUSE,
+
+    /**
+     * Aktionen auf Fensterhandles (z. B. {@code SendMessage}, {@code PostMessage}).
+     * Sie werden parallel auf mehreren Workern ausgefuehrt.
+     */
+    HANDLE
+}
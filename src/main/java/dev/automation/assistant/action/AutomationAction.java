@@ -0,0 +1,90 @@
+package dev.automation.assistant.action;
+
+import java.util.Objects;
+
+/**
+ * Einzelne automatische Aktion, die ueber den {@link ActionDispatcher} ausgefuehrt wird.
+ */
+public final class AutomationAction {
+
+    private final String name;
+    private final ActionLane lane;
+    private final ActionTask task;
+    private final boolean metered;
+
+    /**
+     * @param name Bezeichnung fuer Logging und Statistik
+     * @param lane Ausfuehrungsspur
+     * @param task Auszufuehrende Arbeit
+     */
+    public AutomationAction(String name, ActionLane lane, ActionTask task) {
+        this(name, lane, task, true);
+    }
+
+    /**
+     * @param name    Bezeichnung fuer Logging und Statistik
+     * @param lane    Ausfuehrungsspur
+     * @param task    Auszufuehrende Arbeit
+     * @param metered Dauer und Erfolg in die Aktionskennzahlen aufnehmen
+     */
+    public AutomationAction(String name, ActionLane lane, ActionTask task, boolean metered) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.lane = Objects.requireNonNull(lane, "lane");
+        this.task = Objects.requireNonNull(task, "task");
+        this.metered = metered;
+    }
+
+    /**
+     * Aktion, die die physische Maus benoetigt und daher serialisiert wird.
+     */
+    public static AutomationAction mouse(String name, ActionTask task) {
+        return new AutomationAction(name, ActionLane.MOUSE, task);
+    }
+
+    /**
+     * Aktion auf einem Fensterhandle, die parallel ausgefuehrt werden darf.
+     */
+    public static AutomationAction handle(String name, ActionTask task) {
+        return new AutomationAction(name, ActionLane.HANDLE, task);
+    }
+
+    /**
+     * Interaktive Aufgabe der Oberflaeche (z. B. Auswahl per Maus). Laeuft wie
+     * {@link #handle}, zaehlt aber nicht als automatische Aktion in den Kennzahlen.
+     */
+    public static AutomationAction interactive(String name, ActionTask task) {
+        return new AutomationAction(name, ActionLane.HANDLE, task, false);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ActionLane getLane() {
+        return lane;
+    }
+
+    /**
+     * @return {@code false} fuer Aufgaben, die nicht in die Aktionskennzahlen eingehen
+     */
+    public boolean isMetered() {
+        return metered;
+    }
+
+    void execute() throws Exception {
+        task.run();
+    }
+
+    @Override
+    public String toString() {
+        return "AutomationAction[" + name + ", " + lane + "]";
+    }
+
+    /**
+     * Eigentliche Arbeit einer Aktion.
+     */
+    @FunctionalInterface
+    public interface ActionTask {
+        void run() throws Exception;
+    }
+}
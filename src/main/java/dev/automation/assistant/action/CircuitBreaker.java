@@ -0,0 +1,228 @@
+package dev.automation.assistant.action;
+
+import dev.automation.assistant.metrics.AutomationMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sperrfreier Schutzschalter gegen Aktionsstuerme einer einzelnen Regel.
+ * <p>
+ * Innerhalb eines Zeitfensters werden Versuche und Fehlschlaege gezaehlt. Werden mehr
+ * als {@code repeatThreshold} Versuche oder {@code failureThreshold} Fehlschlaege
+ * erreicht, oeffnet der Schalter und lehnt alle Aktionen fuer eine Sperrzeit ab. Jede
+ * weitere Ausloesung direkt nach einer Sperre verdoppelt die Sperrzeit bis zu einem
+ * Maximum.
+ * </p>
+ * <p>
+ * Nach Ablauf der Sperre ist der Schalter ein Zeitfenster lang halb offen: Ein einzelner
+ * Versuch ist erlaubt, ein zweiter Versuch oder ein Fehlschlag oeffnet ihn sofort wieder.
+ * Bleibt es ruhig, schliesst er und die Sperrzeit beginnt wieder beim Grundwert.
+ * </p>
+ * <p>
+ * Der Zustand liegt in drei atomaren Feldern; Fensterbeginn und beide Zaehler sind in
+ * einem {@code long} gepackt und werden gemeinsam per {@code compareAndSet} fortgeschrieben.
+ * </p>
+ */
+public final class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /** Zustand aus Sicht eines Aufrufers */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final int COUNT_BITS = 12;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final String name;
+    private final int repeatThreshold;
+    private final int failureThreshold;
+    private final long windowNanos;
+    private final long baseBackoffNanos;
+    private final long maxBackoffNanos;
+    private final AutomationMetrics metrics;
+
+    /** Bezugspunkt der Zeitstempel, eine Fensterlaenge vor der Erzeugung */
+    private final long epoch;
+
+    /** Ende der aktuellen Sperre (System.nanoTime); liegt in der Vergangenheit, solange nicht gesperrt */
+    private final AtomicLong openUntil;
+
+    /** Aufeinanderfolgende Ausloesungen, bestimmt die naechste Sperrzeit */
+    private final AtomicInteger level = new AtomicInteger();
+
+    /** Fensterbeginn in ms seit {@link #epoch} | Fehlschlaege | Versuche */
+    private final AtomicLong window = new AtomicLong();
+
+    private final LongAdder trips = new LongAdder();
+
+    /**
+     * @param name             Bezeichnung fuer das Log (z. B. Regel-ID)
+     * @param repeatThreshold  Erlaubte Versuche pro Fenster
+     * @param failureThreshold Fehlschlaege pro Fenster, ab denen der Schalter oeffnet
+     * @param windowMs         Laenge des Zaehlfensters
+     * @param baseBackoffMs    Erste Sperrzeit
+     * @param maxBackoffMs     Laengste Sperrzeit
+     * @param metrics          Ziel fuer die Anzahl der Ausloesungen
+     */
+    public CircuitBreaker(String name, int repeatThreshold, int failureThreshold, long windowMs,
+                          long baseBackoffMs, long maxBackoffMs, AutomationMetrics metrics) {
+        if (repeatThreshold < 1 || failureThreshold < 1 || windowMs < 1 || baseBackoffMs < 1
+                || maxBackoffMs < baseBackoffMs) {
+            throw new IllegalArgumentException("Ungueltige Schwellwerte fuer " + name);
+        }
+        this.name = name;
+        this.repeatThreshold = (int) Math.min(repeatThreshold, COUNT_MASK - 1);
+        this.failureThreshold = (int) Math.min(failureThreshold, COUNT_MASK - 1);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.baseBackoffNanos = TimeUnit.MILLISECONDS.toNanos(baseBackoffMs);
+        this.maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(maxBackoffMs);
+        this.metrics = metrics;
+        // Zurueckdatiert, damit auch kurz zuvor genommene Zeitstempel ein neues Fenster beginnen
+        this.epoch = System.nanoTime() - windowNanos;
+        this.openUntil = new AtomicLong(epoch);
+    }
+
+    /**
+     * Zaehlt einen Versuch und prueft, ob er erlaubt ist.
+     *
+     * @return {@code false}, falls der Schalter offen ist oder durch diesen Versuch oeffnet
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    boolean tryAcquire(long nowNanos) {
+        long until = openUntil.get();
+        if (nowNanos - until < 0) {
+            return false;
+        }
+        boolean halfOpen = isHalfOpen(until, nowNanos);
+        long counts = count(nowNanos, false);
+        int limit = halfOpen ? 1 : repeatThreshold;
+        if ((int) (counts & COUNT_MASK) > limit) {
+            trip(until, nowNanos, "wiederholte Aktionen");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Zaehlt einen Fehlschlag einer erlaubten Aktion.
+     */
+    public void recordFailure() {
+        recordFailure(System.nanoTime());
+    }
+
+    void recordFailure(long nowNanos) {
+        long until = openUntil.get();
+        if (nowNanos - until < 0) {
+            return;
+        }
+        boolean halfOpen = isHalfOpen(until, nowNanos);
+        long counts = count(nowNanos, true);
+        int limit = halfOpen ? 1 : failureThreshold;
+        if ((int) ((counts >>> COUNT_BITS) & COUNT_MASK) >= limit) {
+            trip(until, nowNanos, "Fehlschlaege");
+        }
+    }
+
+    /**
+     * @return Aktueller Zustand
+     */
+    public State getState() {
+        return getState(System.nanoTime());
+    }
+
+    State getState(long nowNanos) {
+        long until = openUntil.get();
+        if (nowNanos - until < 0) {
+            return State.OPEN;
+        }
+        return level.get() > 0 && nowNanos - until < windowNanos ? State.HALF_OPEN : State.CLOSED;
+    }
+
+    /**
+     * @return Bisherige Ausloesungen
+     */
+    public long getTrips() {
+        return trips.sum();
+    }
+
+    /**
+     * Halb offen ist der Schalter ein Fenster lang nach einer Sperre. Danach wird die
+     * Sperrzeit zurueckgesetzt.
+     */
+    private boolean isHalfOpen(long until, long nowNanos) {
+        int current = level.get();
+        if (current == 0) {
+            return false;
+        }
+        if (nowNanos - until < windowNanos) {
+            return true;
+        }
+        level.compareAndSet(current, 0);
+        return false;
+    }
+
+    /**
+     * Addiert auf die Zaehler des aktuellen Fensters; ein abgelaufenes Fenster beginnt neu.
+     *
+     * @return Gepackter Stand nach der Addition
+     */
+    private long count(long nowNanos, boolean failure) {
+        long nowMs = Math.max(0, TimeUnit.NANOSECONDS.toMillis(nowNanos - epoch));
+        long windowMs = TimeUnit.NANOSECONDS.toMillis(windowNanos);
+        while (true) {
+            long current = window.get();
+            long start = current >>> (2 * COUNT_BITS);
+            long repeats = current & COUNT_MASK;
+            long failures = (current >>> COUNT_BITS) & COUNT_MASK;
+            if (nowMs - start >= windowMs) {
+                start = nowMs;
+                repeats = 0;
+                failures = 0;
+            }
+            // Zaehler bleiben am Ende ihres Feldes stehen
+            if (failure) {
+                failures = Math.min(failures + 1, COUNT_MASK);
+            } else {
+                repeats = Math.min(repeats + 1, COUNT_MASK);
+            }
+            long counts = (failures << COUNT_BITS) | repeats;
+            if (window.compareAndSet(current, (start << (2 * COUNT_BITS)) | counts)) {
+                return counts;
+            }
+        }
+    }
+
+    private void trip(long expectedUntil, long nowNanos, String reason) {
+        int current = level.get();
+        long backoff = Math.min(baseBackoffNanos << Math.min(current, 30), maxBackoffNanos);
+        if (backoff < 0) {
+            backoff = maxBackoffNanos;
+        }
+        long until = nowNanos + backoff;
+        if (!openUntil.compareAndSet(expectedUntil, until)) {
+            // Ein anderer Thread hat den Schalter bereits geoeffnet
+            return;
+        }
+        level.incrementAndGet();
+        // Zaehlung nach der Sperre neu beginnen
+        window.set(Math.max(0, TimeUnit.NANOSECONDS.toMillis(until - epoch)) << (2 * COUNT_BITS));
+        trips.increment();
+        if (metrics != null) {
+            metrics.recordCircuitTrip();
+        }
+        log.warn("Schutzschalter '{}' geoeffnet ({}), Aktionen fuer {} ms gesperrt",
+                name, reason, TimeUnit.NANOSECONDS.toMillis(backoff));
+    }
+}
@@ -0,0 +1,16 @@
+package dev.automation.assistant.action;
+
+/**
+ * Verhalten des {@link ActionDispatcher}, wenn eine Warteschlange voll ist.
+ */
+public enum OverflowPolicy {
+
+    /** Der Aufrufer wird blockiert, bis Platz frei ist oder die Wartezeit ablaeuft (Backpressure) */
+    BLOCK,
+
+    /** Die neue Aktion wird verworfen */
+    DROP_NEWEST,
+
+    /** Die aelteste wartende Aktion wird verworfen, um Platz fuer die neue zu schaffen */
+    DROP_OLDEST
+}
@@ -0,0 +1,68 @@
+package dev.automation.assistant.action;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sperrfreier Token-Bucket fuer die Drosselung von Aktionen.
+ * <p>
+ * Umgesetzt als Generic Cell Rate Algorithm: Statt eines Token-Zaehlers wird nur der
+ * theoretische Zeitpunkt gespeichert, ab dem der Eimer wieder voll waere. Ein Aufruf
+ * ist damit ein einzelnes {@code compareAndSet} auf einem {@link AtomicLong}, ohne
+ * Lock, ohne Hintergrund-Thread zum Nachfuellen und ohne Allokation.
+ * </p>
+ */
+public final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+
+    /** Theoretischer Ankunftszeitpunkt der naechsten Aktion (System.nanoTime) */
+    private final AtomicLong nextFree = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param perSecond Dauerhaft erlaubte Aktionen pro Sekunde
+     * @param burst     Aktionen, die nach einer Pause sofort erlaubt sind
+     */
+    public TokenBucket(double perSecond, int burst) {
+        if (perSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate und Burst muessen positiv sein");
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / perSecond));
+        this.burstNanos = intervalNanos * burst;
+    }
+
+    /**
+     * Entnimmt ein Token, falls eines verfuegbar ist.
+     *
+     * @return {@code true}, falls die Aktion erlaubt ist
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    boolean tryAcquire(long nowNanos) {
+        while (true) {
+            long current = nextFree.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            if (next - nowNanos > burstNanos) {
+                return false;
+            }
+            if (nextFree.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return Derzeit verfuegbare Tokens
+     */
+    public int available() {
+        return available(System.nanoTime());
+    }
+
+    int available(long nowNanos) {
+        long used = Math.max(nextFree.get(), nowNanos) - nowNanos;
+        return (int) ((burstNanos - used) / intervalNanos);
+    }
+}
@@ -0,0 +1,98 @@
+package dev.automation.assistant.control;
+
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.rules.AutomationRule;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fernsteuerbare Funktionen des Bots, die ueber den {@link ControlServer} angeboten werden.
+ * <p>
+ * Die Aufrufe erfolgen auf dem Event-Loop-Thread des Servers und sollten daher
+ * zuegig zurueckkehren.
+ * </p>
+ */
+public interface AutomationControl {
+
+    /**
+     * @return Alle registrierten Regeln
+     * @throws IOException falls das Regeljournal nicht gelesen werden kann
+     */
+    List<AutomationRule> getRules() throws IOException;
+
+    /**
+     * Fuegt eine Regel hinzu oder ersetzt eine gleichnamige.
+     *
+     * @throws IOException falls die Regel nicht gespeichert werden kann
+     */
+    void putRule(AutomationRule rule) throws IOException;
+
+    /**
+     * Entfernt eine Regel.
+     *
+     * @return {@code true}, falls die Regel existierte
+     * @throws IOException falls das Regeljournal nicht geschrieben werden kann
+     */
+    boolean removeRule(String id) throws IOException;
+
+    /**
+     * Uebernimmt mehrere Regelaenderungen auf einmal, z. B. einen Regelstand des Koordinators.
+     * Bei {@code reset} werden zuerst alle Regeln entfernt, die nicht in {@code puts} stehen,
+     * danach {@code puts} gespeichert und {@code removes} entfernt.
+     * <p>
+     * Die Standardimplementierung ruft {@link #putRule} und {@link #removeRule} einzeln auf.
+     * Implementierungen mit Journal pruefen den neuen Stand vorab und schreiben ihn in einem
+     * Schritt.
+     * </p>
+     *
+     * @throws IOException              falls das Regeljournal nicht geschrieben werden kann
+     * @throws IllegalArgumentException falls der neue Regelsatz ungueltig ist
+     */
+    default void applyRules(boolean reset, List<AutomationRule> puts, List<String> removes) throws IOException {
+        if (reset) {
+            Set<String> keep = new HashSet<>();
+            for (AutomationRule rule : puts) {
+                keep.add(rule.getId());
+            }
+            for (AutomationRule rule : getRules()) {
+                if (!keep.contains(rule.getId())) {
+                    removeRule(rule.getId());
+                }
+            }
+        }
+        for (AutomationRule rule : puts) {
+            putRule(rule);
+        }
+        for (String id : removes) {
+            removeRule(id);
+        }
+    }
+
+    /**
+     * Startet die Fensterueberwachung.
+     *
+     * @return {@code false}, falls sie bereits lief
+     * @throws IOException falls die Regeln nicht geladen werden koennen
+     */
+    boolean startMonitoring() throws IOException;
+
+    /**
+     * Stoppt die Fensterueberwachung.
+     *
+     * @return {@code false}, falls sie nicht lief
+     */
+    boolean stopMonitoring();
+
+    /**
+     * @return {@code true}, solange die Ueberwachung laeuft
+     */
+    boolean isMonitoring();
+
+    /**
+     * @return Laufende Kennzahlen
+     */
+    AutomationMetrics getMetrics();
+}
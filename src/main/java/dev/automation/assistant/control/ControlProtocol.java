@@ -0,0 +1,169 @@
+package dev.automation.assistant.control;
+
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.rules.ActionType;
+import dev.automation.assistant.rules.AutomationRule;
+import dev.automation.assistant.rules.MatchType;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Zeilenbasiertes Textprotokoll der Steuerschnittstelle.
+ *
+ * <h2>Befehle:</h2>
+ * <pre>
+ * PING                                   OK PONG
+ * RULES                                  * id TAB matchType TAB action TAB x TAB y TAB muster ... OK anzahl
+ * ADD id matchType action x y muster     OK hinzugefuegt
+ * REMOVE id                              OK entfernt | ERR unbekannte Regel
+ * START | STOP                           OK gestartet | OK gestoppt | OK unveraendert
+ * STATUS                                 OK running | OK stopped
+ * STATS                                  * name wert ... OK anzahl
+ * QUIT                                   OK bye (Verbindung wird geschlossen)
+ * </pre>
+ * <p>
+ * Jede Antwort endet mit genau einer Zeile, die mit {@code OK} oder {@code ERR} beginnt;
+ * mehrzeilige Antworten stellen ihren Datenzeilen {@code *} voran. Das Muster bei
+ * {@code ADD} ist der Rest der Zeile und darf Leerzeichen enthalten.
+ * </p>
+ */
+final class ControlProtocol {
+
+    private final AutomationControl control;
+    private final ControlServer server;
+
+    ControlProtocol(AutomationControl control, ControlServer server) {
+        this.control = control;
+        this.server = server;
+    }
+
+    /**
+     * Fuehrt einen Befehl aus und haengt die Antwort an.
+     *
+     * @param line     Befehlszeile ohne Zeilenende
+     * @param response Ziel der Antwort
+     * @return {@code false}, falls die Verbindung danach geschlossen werden soll
+     */
+    boolean handle(String line, StringBuilder response) {
+        String trimmed = line.trim();
+        int space = trimmed.indexOf(' ');
+        String command = (space < 0 ? trimmed : trimmed.substring(0, space)).toUpperCase(Locale.ROOT);
+        String args = space < 0 ? "" : trimmed.substring(space + 1).trim();
+        try {
+            switch (command) {
+                case "PING":
+                    ok(response, "PONG");
+                    return true;
+                case "RULES":
+                    rules(response);
+                    return true;
+                case "ADD":
+                    add(args, response);
+                    return true;
+                case "REMOVE":
+                    if (args.isEmpty()) {
+                        error(response, "REMOVE erwartet eine Regel-ID");
+                    } else if (control.removeRule(args)) {
+                        ok(response, "entfernt");
+                    } else {
+                        error(response, "unbekannte Regel " + args);
+                    }
+                    return true;
+                case "START":
+                    ok(response, control.startMonitoring() ? "gestartet" : "unveraendert");
+                    return true;
+                case "STOP":
+                    ok(response, control.stopMonitoring() ? "gestoppt" : "unveraendert");
+                    return true;
+                case "STATUS":
+                    ok(response, control.isMonitoring() ? "running" : "stopped");
+                    return true;
+                case "STATS":
+                    stats(response);
+                    return true;
+                case "QUIT":
+                    ok(response, "bye");
+                    return false;
+                case "":
+                    error(response, "leerer Befehl");
+                    return true;
+                default:
+                    error(response, "unbekannter Befehl " + command);
+                    return true;
+            }
+        } catch (IOException | RuntimeException ex) {
+            error(response, ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+            return true;
+        }
+    }
+
+    private void rules(StringBuilder response) throws IOException {
+        List<AutomationRule> rules = control.getRules();
+        for (AutomationRule rule : rules) {
+            response.append("* ").append(rule.getId())
+                    .append('\t').append(rule.getMatchType())
+                    .append('\t').append(rule.getAction())
+                    .append('\t').append(rule.getX())
+                    .append('\t').append(rule.getY())
+                    .append('\t').append(rule.getPattern()).append('\n');
+        }
+        ok(response, Integer.toString(rules.size()));
+    }
+
+    private void add(String args, StringBuilder response) throws IOException {
+        String[] parts = args.split(" +", 6);
+        if (parts.length < 6) {
+            error(response, "ADD erwartet: id matchType action x y muster");
+            return;
+        }
+        AutomationRule rule = new AutomationRule(parts[0],
+                MatchType.valueOf(parts[1].toUpperCase(Locale.ROOT)),
+                parts[5],
+                ActionType.valueOf(parts[2].toUpperCase(Locale.ROOT)),
+                Integer.parseInt(parts[3]),
+                Integer.parseInt(parts[4]));
+        control.putRule(rule);
+        ok(response, "hinzugefuegt");
+    }
+
+    private void stats(StringBuilder response) {
+        AutomationMetrics metrics = control.getMetrics();
+        int lines = 0;
+        lines += stat(response, "monitoring", control.isMonitoring() ? 1 : 0);
+        lines += stat(response, "detections", metrics.getDetections());
+        lines += stat(response, "actions", metrics.getActions());
+        lines += stat(response, "failures", metrics.getFailures());
+        lines += stat(response, "duplicates", metrics.getDuplicates());
+        lines += stat(response, "detectionDelayP50Micros", metrics.getDetectionDelayP50Micros());
+        lines += stat(response, "detectionDelayP99Micros", metrics.getDetectionDelayP99Micros());
+        lines += stat(response, "detectionDelayMaxMicros", metrics.getDetectionDelayMaxMicros());
+        lines += stat(response, "ruleMatchP99Micros", metrics.getRuleMatchP99Micros());
+        lines += stat(response, "actionExecutionP99Micros", metrics.getActionExecutionP99Micros());
+        lines += stat(response, "ruleReloads", metrics.getRuleReloads());
+        lines += stat(response, "ruleReloadFailures", metrics.getRuleReloadFailures());
+        lines += stat(response, "ruleReloadP99Micros", metrics.getRuleReloadP99Micros());
+        lines += stat(response, "rateLimited", metrics.getRateLimited());
+        lines += stat(response, "circuitRejected", metrics.getCircuitRejected());
+        lines += stat(response, "circuitTrips", metrics.getCircuitTrips());
+        lines += stat(response, "openCircuits", metrics.getOpenCircuits());
+        lines += stat(response, "prefiltered", metrics.getPrefiltered());
+        lines += stat(response, "controlClients", server.getOpenConnections());
+        lines += stat(response, "controlCommands", server.getCommands());
+        ok(response, Integer.toString(lines));
+    }
+
+    private static int stat(StringBuilder response, String name, long value) {
+        response.append("* ").append(name).append(' ').append(value).append('\n');
+        return 1;
+    }
+
+    private static void ok(StringBuilder response, String message) {
+        response.append("OK ").append(message).append('\n');
+    }
+
+    private static void error(StringBuilder response, String message) {
+        response.append("ERR ").append(message.replace('\n', ' ')).append('\n');
+    }
+}
@@ -0,0 +1,372 @@
+package dev.automation.assistant.control;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Lokale Steuer- und Statistikschnittstelle ueber nicht-blockierendes NIO.
+ * <p>
+ * Ein einzelner Event-Loop-Thread bedient ueber einen {@link Selector} beliebig viele
+ * Verbindungen. Pro Verbindung werden ein Eingabe- und ein Ausgabepuffer sowie ein
+ * {@link StringBuilder} fuer die Antwort einmalig angelegt und danach wiederverwendet.
+ * Das Protokoll ist zeilenbasiert (UTF-8, siehe {@link ControlProtocol}) und laesst sich
+ * z. B. mit {@code nc 127.0.0.1 47800} bedienen.
+ * </p>
+ * <p>
+ * Solange eine Verbindung noch Antworten schuldet, wird von ihr nicht weiter gelesen und
+ * es werden keine weiteren Befehle ausgefuehrt. Ein Client, der Befehle sendet, ohne die
+ * Antworten abzuholen, bremst sich so ueber TCP selbst aus, statt den Ausgabepuffer auf dem
+ * Event-Loop-Thread unbegrenzt wachsen zu lassen.
+ * </p>
+ * <p>
+ * Standardmaessig wird nur an die Loopback-Adresse gebunden, da die Schnittstelle
+ * keine Authentifizierung kennt.
+ * </p>
+ */
+public class ControlServer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ControlServer.class);
+
+    /** Maximale Laenge einer Befehlszeile in Bytes */
+    static final int MAX_LINE = 4096;
+
+    private static final int OUTPUT_BUFFER = 8192;
+    private static final int BACKLOG = 128;
+
+    private final ControlProtocol protocol;
+    private final InetSocketAddress address;
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread loop;
+    private volatile boolean running;
+
+    private volatile int openConnections;
+    private volatile long commands;
+
+    /**
+     * @param control Gesteuerte Anwendung
+     * @param address Adresse, an die gebunden wird (Port 0 fuer einen freien Port)
+     */
+    public ControlServer(AutomationControl control, InetSocketAddress address) {
+        this.protocol = new ControlProtocol(control, this);
+        this.address = address;
+    }
+
+    /**
+     * Erstellt einen Server, der nur an die Loopback-Adresse gebunden wird.
+     *
+     * @param control Gesteuerte Anwendung
+     * @param port    Port oder 0 fuer einen freien Port
+     */
+    public static ControlServer loopback(AutomationControl control, int port) {
+        return new ControlServer(control, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Bindet den Port und startet den Event-Loop.
+     *
+     * @throws IOException falls der Port nicht gebunden werden kann
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            log.warn("Steuerschnittstelle laeuft bereits.");
+            return;
+        }
+        selector = Selector.open();
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.configureBlocking(false);
+            serverChannel.bind(address, BACKLOG);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException ex) {
+            selector.close();
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+            throw ex;
+        }
+        if (!address.getAddress().isLoopbackAddress()) {
+            log.warn("Steuerschnittstelle ist nicht auf Loopback beschraenkt: {}", address);
+        }
+        running = true;
+        loop = new Thread(this::run, "Control-API");
+        loop.setDaemon(true);
+        loop.start();
+        log.info("Steuerschnittstelle lauscht auf {}", serverChannel.getLocalAddress());
+    }
+
+    /**
+     * @return Tatsaechlich gebundener Port oder -1, falls nicht gestartet
+     */
+    public int getPort() {
+        ServerSocketChannel channel = serverChannel;
+        if (channel == null || !channel.isOpen()) {
+            return -1;
+        }
+        try {
+            return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+        } catch (IOException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return {@code true}, solange der Event-Loop laeuft
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return Anzahl aktuell offener Verbindungen
+     */
+    public int getOpenConnections() {
+        return openConnections;
+    }
+
+    /**
+     * @return Anzahl bisher ausgefuehrter Befehle
+     */
+    public long getCommands() {
+        return commands;
+    }
+
+    /**
+     * Beendet den Event-Loop und schliesst alle Verbindungen.
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            loop.join(1000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Steuerschnittstelle beendet.");
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                            continue;
+                        }
+                        if (key.isReadable()) {
+                            read(key);
+                        } else if (key.isWritable()) {
+                            serve(key);
+                        }
+                    } catch (IOException ex) {
+                        log.debug("Verbindung zur Steuerschnittstelle abgebrochen: {}", ex.getMessage());
+                        disconnect(key);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.error("Event-Loop der Steuerschnittstelle abgebrochen", ex);
+        } finally {
+            running = false;
+            shutdown();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.register(selector, SelectionKey.OP_READ, new Connection());
+            openConnections++;
+        }
+    }
+
+    /**
+     * Liest verfuegbare Bytes und fuehrt die vollstaendigen Zeilen aus.
+     */
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+        if (channel.read(connection.in) < 0) {
+            disconnect(key);
+            return;
+        }
+        serve(key);
+    }
+
+    /**
+     * Fuehrt gepufferte Zeilen aus und schreibt die Antworten. Was der Socket nicht sofort
+     * aufnimmt, wird beim naechsten {@code OP_WRITE} nachgereicht; bis dahin ruht {@code OP_READ}.
+     */
+    private void serve(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        boolean drained;
+        do {
+            execute(connection);
+            drained = write(key);
+        } while (drained && connection.pending && !connection.closing);
+        if (!drained) {
+            key.interestOps(SelectionKey.OP_WRITE);
+        } else if (connection.closing) {
+            disconnect(key);
+        } else {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Fuehrt vollstaendige Zeilen aus, bis die gesammelte Antwort {@link #OUTPUT_BUFFER}
+     * erreicht; weitere Zeilen bleiben im Eingabepuffer ({@code pending}).
+     */
+    private void execute(Connection connection) {
+        ByteBuffer in = connection.in;
+        in.flip();
+        int lineStart = in.position();
+        connection.pending = false;
+        for (int i = lineStart; i < in.limit() && !connection.closing; i++) {
+            if (in.get(i) != '\n') {
+                continue;
+            }
+            if (connection.response.length() >= OUTPUT_BUFFER) {
+                connection.pending = true;
+                break;
+            }
+            int end = i;
+            if (end > lineStart && in.get(end - 1) == '\r') {
+                end--;
+            }
+            String line = new String(in.array(), lineStart, end - lineStart, StandardCharsets.UTF_8);
+            commands++;
+            if (!protocol.handle(line, connection.response)) {
+                connection.closing = true;
+            }
+            lineStart = i + 1;
+        }
+        in.position(lineStart);
+        in.compact();
+        if (!in.hasRemaining() && !connection.pending && !connection.closing) {
+            connection.response.append("ERR Zeile zu lang (max. ").append(MAX_LINE).append(" Bytes)\n");
+            connection.closing = true;
+        }
+        if (connection.response.length() > 0) {
+            connection.encodeResponse();
+        }
+    }
+
+    /**
+     * Schreibt so viel der ausstehenden Antworten, wie der Socket ohne Blockieren aufnimmt.
+     *
+     * @return {@code true}, falls keine Antworten mehr ausstehen
+     */
+    private boolean write(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        ByteBuffer out = ((Connection) key.attachment()).out;
+        out.flip();
+        channel.write(out);
+        out.compact();
+        return out.position() == 0;
+    }
+
+    private void disconnect(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ex) {
+            log.debug("Fehler beim Schliessen einer Verbindung: {}", ex.getMessage());
+        }
+        if (key.attachment() != null) {
+            key.attach(null);
+            openConnections--;
+        }
+    }
+
+    private void shutdown() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.channel() != serverChannel) {
+                disconnect(key);
+            }
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException ex) {
+            log.warn("Fehler beim Schliessen der Steuerschnittstelle: {}", ex.getMessage());
+        }
+        openConnections = 0;
+    }
+
+    /** Zustand einer Verbindung; die Puffer werden ueber die gesamte Lebensdauer wiederverwendet */
+    private static final class Connection {
+        private final ByteBuffer in = ByteBuffer.allocate(MAX_LINE);
+        private ByteBuffer out = ByteBuffer.allocate(OUTPUT_BUFFER);
+        private final StringBuilder response = new StringBuilder(256);
+        private boolean closing;
+        /** Im Eingabepuffer warten noch vollstaendige Zeilen */
+        private boolean pending;
+
+        /**
+         * Kodiert die gesammelte Antwort als UTF-8 in den Ausgabepuffer und leert sie.
+         */
+        private void encodeResponse() {
+            int length = response.length();
+            for (int i = 0; i < length; i++) {
+                int c = response.charAt(i);
+                if (Character.isHighSurrogate((char) c) && i + 1 < length) {
+                    c = Character.toCodePoint((char) c, response.charAt(++i));
+                }
+                ensure(4);
+                if (c < 0x80) {
+                    out.put((byte) c);
+                } else if (c < 0x800) {
+                    out.put((byte) (0xC0 | (c >> 6)));
+                    out.put((byte) (0x80 | (c & 0x3F)));
+                } else if (c < 0x10000) {
+                    out.put((byte) (0xE0 | (c >> 12)));
+                    out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    out.put((byte) (0x80 | (c & 0x3F)));
+                } else {
+                    out.put((byte) (0xF0 | (c >> 18)));
+                    out.put((byte) (0x80 | ((c >> 12) & 0x3F)));
+                    out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    out.put((byte) (0x80 | (c & 0x3F)));
+                }
+            }
+            response.setLength(0);
+        }
+
+        private void ensure(int bytes) {
+            if (out.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(out.capacity() * 2);
+                out.flip();
+                larger.put(out);
+                out = larger;
+            }
+        }
+    }
+}
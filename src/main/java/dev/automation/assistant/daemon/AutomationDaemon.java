@@ -0,0 +1,704 @@
+package dev.automation.assistant.daemon;
+
+import com.sun.jna.platform.win32.WinDef.HWND;
+import dev.automation.assistant.action.ActionDispatcher;
+import dev.automation.assistant.action.ActionGuard;
+import dev.automation.assistant.action.AutomationAction;
+import dev.automation.assistant.action.OverflowPolicy;
+import dev.automation.assistant.control.AutomationControl;
+import dev.automation.assistant.control.ControlServer;
+import dev.automation.assistant.fleet.FleetAgent;
+import dev.automation.assistant.macro.Macro;
+import dev.automation.assistant.macro.MacroCompiler;
+import dev.automation.assistant.macro.MacroEngine;
+import dev.automation.assistant.macro.MacroRun;
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.platform.ProcessBackend;
+import dev.automation.assistant.platform.ProcessIndex;
+import dev.automation.assistant.platform.WindowActions;
+import dev.automation.assistant.platform.WindowBackend;
+import dev.automation.assistant.rules.ActionType;
+import dev.automation.assistant.rules.AutomationRule;
+import dev.automation.assistant.rules.RuleFileWatcher;
+import dev.automation.assistant.rules.RuleIndex;
+import dev.automation.assistant.rules.RuleSet;
+import dev.automation.assistant.rules.RuleStore;
+import dev.automation.assistant.service.MonitorTarget;
+import dev.automation.assistant.service.ControlResolver;
+import dev.automation.assistant.service.MultiTargetMonitor;
+import dev.automation.assistant.service.ProcessPrefilter;
+import dev.automation.assistant.service.WindowStateTracker;
+import dev.automation.assistant.util.PeriodicTask;
+import dev.automation.assistant.util.TaskExecutors;
+import dev.automation.assistant.util.WindowsUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Hintergrunddienst ohne Benutzeroberflaeche.
+ * <p>
+ * Liest Regeln und Logziel aus einer {@link DaemonConfig}, startet sofort die
+ * Ueberwachung und fuehrt passende Aktionen ueber den {@link ActionDispatcher} aus.
+ * AWT und Swing werden nie geladen; Regeln mit {@link ActionType#MACRO} und der
+ * Mausklick-Rueckfall laufen ueber eine {@link MacroEngine}.
+ * </p>
+ * <p>
+ * Ist {@code control.port} gesetzt, laesst sich der Dienst ueber einen lokalen
+ * {@link ControlServer} steuern (Regeln pflegen, Ueberwachung starten und stoppen,
+ * Kennzahlen abfragen).
+ * </p>
+ * <p>
+ * Ist {@code fleet.coordinator} gesetzt, bezieht der Dienst seine Regeln zusaetzlich
+ * ueber einen {@link FleetAgent} vom Koordinator und meldet Erkennungen und Aktionen zurueck.
+ * </p>
+ * <p>
+ * Ist {@code rules.watch.file} gesetzt, werden Regeln aus dieser Textdatei bei jeder
+ * Aenderung ueber einen {@link RuleFileWatcher} uebernommen, ohne die Ueberwachung neu
+ * zu starten. Sie ergaenzen die Regeln des Journals und ersetzen solche mit gleicher ID.
+ * </p>
+ * <p>
+ * Regeln mit Prozesskriterium gelten nur fuer Fenster des genannten Programms. Sind alle
+ * Regeln so eingeschraenkt, verwirft ein {@link ProcessPrefilter} Fenster anderer Prozesse
+ * bereits vor dem Titelabruf.
+ * </p>
+ *
+ * <h2>Aufruf:</h2>
+ * <pre>
+ * java -cp automation-assistant.jar dev.automation.assistant.daemon.AutomationDaemon [--check] [config]
+ * </pre>
+ * Mit {@code --check} werden nur Konfiguration und Regeln geladen und die Startzeit
+ * ausgegeben; das wird auch fuer das Class-Data-Sharing-Archiv im Build verwendet.
+ */
+public class AutomationDaemon implements AutomationControl, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AutomationDaemon.class);
+
+    /** Standardpfad der Konfiguration, falls kein Argument uebergeben wird */
+    public static final String DEFAULT_CONFIG = "automation-daemon.properties";
+
+    /** Pause vor dem Druecken und vor dem Loslassen beim Mausklick-Rueckfall */
+    private static final int MOUSE_PAUSE_MS = 200;
+
+    /** Threads der {@link MacroEngine}; Makroschritte blockieren nicht */
+    private static final int MACRO_THREADS = 1;
+
+    private final DaemonConfig config;
+    private final WindowBackend backend;
+    private final AutomationMetrics metrics;
+    private final WindowActions actions;
+
+    private RuleStore ruleStore;
+    private ActionDispatcher dispatcher;
+    private volatile MacroEngine macroEngine;
+    private MultiTargetMonitor monitor;
+    private PeriodicTask summaryTask;
+    private ControlServer controlServer;
+    private volatile FleetAgent fleetAgent;
+    private RuleFileWatcher ruleWatcher;
+
+    /** Aktiver Regelsatz; wird bei Aenderungen als Ganzes ersetzt */
+    private volatile RuleSet rules = RuleSet.EMPTY;
+
+    /** Bereits ausgefuehrte Aktionen pro Fensterlebensdauer (Schutz vor Doppelausfuehrung) */
+    private final WindowStateTracker windowStates = new WindowStateTracker();
+
+    /** Findet die zu klickenden Steuerelemente ueber ihre Identitaet */
+    private final ControlResolver controlResolver;
+
+    /** Drosselung und Schutzschalter gegen Aktionsstuerme */
+    private final ActionGuard actionGuard;
+
+    /** Programmnamen der Fensterprozesse */
+    private final ProcessIndex processIndex;
+
+    /** Verwirft Fenster fremder Prozesse vor dem Titelabruf */
+    private final ProcessPrefilter prefilter;
+
+    /**
+     * @param config  Konfiguration
+     * @param backend Zugriff auf die Fensterliste
+     * @param metrics Ziel fuer Kennzahlen
+     */
+    public AutomationDaemon(DaemonConfig config, WindowBackend backend, AutomationMetrics metrics) {
+        this(config, backend, ProcessBackend.platformDefault(), metrics);
+    }
+
+    /**
+     * @param config    Konfiguration
+     * @param backend   Zugriff auf die Fensterliste
+     * @param processes Zugriff auf die Prozesse der Fenster
+     * @param metrics   Ziel fuer Kennzahlen
+     */
+    public AutomationDaemon(DaemonConfig config, WindowBackend backend, ProcessBackend processes,
+                            AutomationMetrics metrics) {
+        this(config, backend, processes, WindowActions.platformDefault(), metrics);
+    }
+
+    /**
+     * @param config    Konfiguration
+     * @param backend   Zugriff auf die Fensterliste
+     * @param processes Zugriff auf die Prozesse der Fenster
+     * @param actions   Fensteraktionen der Makros
+     * @param metrics   Ziel fuer Kennzahlen
+     */
+    public AutomationDaemon(DaemonConfig config, WindowBackend backend, ProcessBackend processes,
+                            WindowActions actions, AutomationMetrics metrics) {
+        this.config = config;
+        this.backend = backend;
+        this.actions = actions;
+        this.processIndex = new ProcessIndex(processes);
+        this.prefilter = new ProcessPrefilter(backend, processIndex, metrics);
+        this.controlResolver = new ControlResolver(backend);
+        this.metrics = metrics;
+        this.actionGuard = new ActionGuard(config.getActionRateGlobal(), config.getActionRateRule(),
+                config.getActionBreakerRepeats(), config.getActionBreakerFailures(),
+                config.getActionBreakerWindowMs(), metrics);
+    }
+
+    /**
+     * Laedt die Regeln und kompiliert den Index, ohne die Ueberwachung zu starten.
+     *
+     * @return Anzahl geladener Regeln
+     * @throws IOException falls das Regeljournal nicht gelesen werden kann
+     */
+    public synchronized int loadRules() throws IOException {
+        if (ruleStore == null) {
+            ruleStore = RuleStore.open(config.getRulesFile());
+        }
+        return reindex();
+    }
+
+    /**
+     * Kompiliert den Regelsatz aus dem Regeljournal und ggf. der beobachteten Regeldatei.
+     * Laufende Ueberwachungen sehen den neuen Stand ab dem naechsten Fenster; bereits
+     * eingereihte Aktionen behalten ihre Regel.
+     */
+    private int reindex() {
+        return install(compile(ruleStore.getRules()));
+    }
+
+    /**
+     * Kompiliert Journalregeln zusammen mit den Regeln der beobachteten Datei, ohne den
+     * aktiven Regelsatz zu veraendern.
+     *
+     * @throws IllegalArgumentException bei ungueltigen regulaeren Ausdruecken
+     */
+    private RuleSet compile(Collection<AutomationRule> journalRules) {
+        List<AutomationRule> combined = new ArrayList<>(journalRules);
+        if (ruleWatcher != null) {
+            combined.addAll(ruleWatcher.current().getRules());
+        }
+        return RuleSet.of(combined);
+    }
+
+    private int install(RuleSet next) {
+        rules = next;
+        prefilter.setExecutables(next.getExecutables());
+        return next.size();
+    }
+
+    private void onRuleFileChanged(RuleSet fileRules) {
+        synchronized (this) {
+            if (ruleStore != null) {
+                reindex();
+            }
+        }
+    }
+
+    /**
+     * Laedt die Regeln und startet Dispatcher, Ueberwachung und ggf. die Steuerschnittstelle.
+     *
+     * @throws IOException falls das Regeljournal nicht gelesen oder der Port nicht gebunden werden kann
+     */
+    public synchronized void start() throws IOException {
+        if (monitor != null) {
+            log.warn("Dienst laeuft bereits.");
+            return;
+        }
+        loadRules();
+        if (ruleWatcher == null && config.getRulesWatchFile() != null) {
+            ruleWatcher = new RuleFileWatcher(config.getRulesWatchFile(), metrics, this::onRuleFileChanged);
+            ruleWatcher.start();
+        }
+        int count = rules.size();
+        startMonitoring();
+        if (summaryTask == null) {
+            summaryTask = metrics.startSummaryLogging(config.getMetricsSummaryMs());
+        }
+        if (controlServer == null && config.getControlPort() >= 0) {
+            controlServer = new ControlServer(this, new InetSocketAddress(
+                    InetAddress.getByName(config.getControlBind()), config.getControlPort()));
+            controlServer.start();
+        }
+        if (fleetAgent == null && config.getFleetCoordinator() != null) {
+            fleetAgent = new FleetAgent(fleetAgentId(), config.getFleetCoordinator(), this);
+            fleetAgent.start();
+        }
+
+        log.info("Dienst gestartet: {} Regeln aus {}, Intervall {} ms",
+                count, config.getRulesFile(), config.getPollIntervalMs());
+    }
+
+    /**
+     * @return {@code true}, solange die Ueberwachung laeuft
+     */
+    public synchronized boolean isRunning() {
+        return monitor != null;
+    }
+
+    /**
+     * @return Port der Steuerschnittstelle oder -1, falls sie nicht laeuft
+     */
+    public synchronized int getControlPort() {
+        return controlServer != null ? controlServer.getPort() : -1;
+    }
+
+    /**
+     * @return Agent fuer den Flottenbetrieb oder {@code null}
+     */
+    public FleetAgent getFleetAgent() {
+        return fleetAgent;
+    }
+
+    private String fleetAgentId() {
+        if (!config.getFleetAgentId().isEmpty()) {
+            return config.getFleetAgentId();
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            log.warn("Rechnername unbekannt, verwende 'agent': {}", e.getMessage());
+            return "agent";
+        }
+    }
+
+    @Override
+    public synchronized List<AutomationRule> getRules() throws IOException {
+        if (ruleStore == null) {
+            loadRules();
+        }
+        return ruleStore.getRules();
+    }
+
+    /**
+     * Kompiliert den Regelsatz mit der neuen Regel vorab; eine ungueltige Regel wird
+     * abgewiesen, bevor sie das Journal erreicht.
+     *
+     * @throws IllegalArgumentException bei einem ungueltigen regulaeren Ausdruck
+     */
+    @Override
+    public synchronized void putRule(AutomationRule rule) throws IOException {
+        if (ruleStore == null) {
+            loadRules();
+        }
+        // Gleiche Reihenfolge wie im Journal: eine ersetzte Regel rueckt ans Ende
+        Map<String, AutomationRule> journal = new LinkedHashMap<>();
+        for (AutomationRule existing : ruleStore.getRules()) {
+            journal.put(existing.getId(), existing);
+        }
+        journal.remove(rule.getId());
+        journal.put(rule.getId(), rule);
+        RuleSet next = compile(journal.values());
+        ruleStore.put(rule);
+        install(next);
+        log.info("Regel {} gespeichert", rule.getId());
+    }
+
+    /**
+     * Prueft den gesamten neuen Regelsatz, bevor etwas geschrieben wird, und schreibt dann
+     * alle Aenderungen in einem Schritt ins Journal. Ueberwachungen sehen nur den alten oder
+     * den vollstaendig neuen Stand.
+     *
+     * @throws IllegalArgumentException bei ungueltigen Regeln; Journal und Regelsatz bleiben unveraendert
+     */
+    @Override
+    public synchronized void applyRules(boolean reset, List<AutomationRule> puts, List<String> removes)
+            throws IOException {
+        if (ruleStore == null) {
+            loadRules();
+        }
+        Map<String, AutomationRule> journal = new LinkedHashMap<>();
+        for (AutomationRule existing : ruleStore.getRules()) {
+            journal.put(existing.getId(), existing);
+        }
+        if (reset) {
+            Set<String> keep = new HashSet<>();
+            for (AutomationRule rule : puts) {
+                keep.add(rule.getId());
+            }
+            journal.keySet().retainAll(keep);
+        }
+        for (AutomationRule rule : puts) {
+            journal.remove(rule.getId());
+            journal.put(rule.getId(), rule);
+        }
+        journal.keySet().removeAll(removes);
+        RuleSet next = compile(journal.values());
+        ruleStore.apply(reset, puts, removes);
+        install(next);
+        log.info("{} Regeln uebernommen ({}{} gespeichert, {} entfernt)", journal.size(),
+                reset ? "vollstaendig, " : "", puts.size(), removes.size());
+    }
+
+    @Override
+    public synchronized boolean removeRule(String id) throws IOException {
+        if (ruleStore == null) {
+            loadRules();
+        }
+        if (!ruleStore.remove(id)) {
+            return false;
+        }
+        reindex();
+        log.info("Regel {} entfernt", id);
+        return true;
+    }
+
+    /**
+     * Startet Dispatcher und Ueberwachung mit den bereits geladenen Regeln.
+     */
+    @Override
+    public synchronized boolean startMonitoring() throws IOException {
+        if (monitor != null) {
+            return false;
+        }
+        if (ruleStore == null) {
+            loadRules();
+        }
+        if (dispatcher == null) {
+            dispatcher = new ActionDispatcher(config.getHandleWorkers(), config.getQueueCapacity(),
+                    OverflowPolicy.BLOCK, metrics);
+        }
+        if (macroEngine == null) {
+            macroEngine = new MacroEngine(backend, actions, MACRO_THREADS, MacroEngine.DEFAULT_POLL_INTERVAL_MS);
+        }
+        monitor = new MultiTargetMonitor(backend, config.getPollIntervalMs(), metrics,
+                config.getMatchParallelism(), config.getMatchParallelThreshold());
+        monitor.setWindowFilter(prefilter);
+        monitor.setRemovalListener(this::onWindowRemoved);
+        monitor.addTarget(new MonitorTarget("Regeln", title -> rules.getIndex().matchesAny(title), this::onWindow));
+        monitor.start();
+        return true;
+    }
+
+    /**
+     * Stoppt nur die Ueberwachung; Dispatcher, Regeljournal und Steuerschnittstelle bleiben offen.
+     */
+    @Override
+    public synchronized boolean stopMonitoring() {
+        if (monitor == null) {
+            return false;
+        }
+        monitor.stop();
+        monitor = null;
+        log.info("Ueberwachung gestoppt.");
+        return true;
+    }
+
+    @Override
+    public boolean isMonitoring() {
+        return isRunning();
+    }
+
+    @Override
+    public AutomationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return Aktueller Regelindex
+     */
+    public RuleIndex getRuleIndex() {
+        return rules.getIndex();
+    }
+
+    /**
+     * @return Vorfilter nach Prozess
+     */
+    public ProcessPrefilter getPrefilter() {
+        return prefilter;
+    }
+
+    /**
+     * @return Beobachter der Regeldatei oder {@code null}, falls keine konfiguriert ist
+     */
+    public RuleFileWatcher getRuleWatcher() {
+        return ruleWatcher;
+    }
+
+    /**
+     * Vergisst ein geschlossenes Fenster, damit ein Dialog, der dessen Handle wiederverwendet,
+     * als neues Fenster gilt, auch wenn Prozess und Fensterklasse gleich sind.
+     */
+    private void onWindowRemoved(long handle) {
+        synchronized (windowStates) {
+            windowStates.remove(handle);
+        }
+    }
+
+    private void onWindow(long handle, String title) {
+        RuleSet current = rules;
+        String executable = current.hasProcessRules() ? prefilter.executableOf(handle) : null;
+        AutomationRule rule = current.firstMatch(title, executable);
+        if (rule == null) {
+            return;
+        }
+        long signature = WindowStateTracker.signature(backend.getProcessId(handle), backend.getClassName(handle));
+        synchronized (windowStates) {
+            windowStates.observe(handle, signature, title, System.nanoTime());
+            windowStates.sweep(16, backend::isWindow);
+            if (!windowStates.markAction(handle, rule.getAction().ordinal())) {
+                log.debug("Aktion {} fuer Fenster {} bereits ausgefuehrt", rule.getAction(), Long.toHexString(handle));
+                return;
+            }
+        }
+        FleetAgent agent = fleetAgent;
+        if (agent != null) {
+            agent.recordDetection(rule.getId(), -1);
+        }
+        ActionGuard.Decision decision = actionGuard.tryAcquire(rule.getId());
+        if (decision != ActionGuard.Decision.ALLOWED) {
+            log.debug("Aktion {} fuer '{}' unterdrueckt: {}", rule.getAction(), title, decision);
+            return;
+        }
+        executeRule(rule, handle, title);
+    }
+
+    /**
+     * Fuehrt die Aktion einer Regel fuer ein erkanntes Fenster aus.
+     * <p>
+     * {@link ActionType#CLOSE} schliesst das Fenster ueber sein Handle.
+     * {@link ActionType#CLICK_POSITION} sendet BM_CLICK an das ueber seinen
+     * {@link dev.automation.assistant.rules.ControlSelector} aufgeloeste Steuerelement,
+     * bei Regeln ohne Selektor an das Steuerelement unter der gespeicherten Position.
+     * Nur wenn keines gefunden wird, klickt ein Makro mit der Maus auf die Position; dessen
+     * Ergebnis wird erst nach dem Ende des Makros gemeldet.
+     * {@link ActionType#MACRO} startet das Makro der Regel auf dem Fenster.
+     * </p>
+     *
+     * @param rule   Passende Regel
+     * @param handle Fensterhandle
+     * @param title  Fenstertitel
+     */
+    protected void executeRule(AutomationRule rule, long handle, String title) {
+        if (rule.getAction() == ActionType.CLOSE) {
+            dispatcher.submit(AutomationAction.handle("Close", reported(rule, () ->
+                    WindowsUtils.closeWindow(WindowsUtils.hwndOf(handle), title))));
+            return;
+        }
+        if (rule.getAction() == ActionType.MACRO) {
+            startMacro(rule, rule.getMacro(), handle);
+            return;
+        }
+        int x = rule.getX();
+        int y = rule.getY();
+        dispatcher.submit(AutomationAction.handle("AutoClick", () -> {
+            long start = System.nanoTime();
+            HWND control = null;
+            boolean success = false;
+            try {
+                control = rule.getControl() != null
+                        ? WindowsUtils.hwndOf(controlResolver.resolve(handle, rule.getControl()))
+                        : WindowsUtils.windowAt(x, y);
+                if (control != null) {
+                    WindowsUtils.sendVirtualClick(control);
+                }
+                success = true;
+            } finally {
+                // Das Ergebnis des Fallbacks meldet das Makro nach seinem Ende
+                if (control != null || !success) {
+                    report(rule, System.nanoTime() - start, success);
+                }
+            }
+            if (control == null) {
+                log.warn("Kein Steuerelement bei ({}, {}) – klicke mit der Maus als Fallback.", x, y);
+                startMacro(rule, MacroCompiler.mouseClick(x, y, MOUSE_PAUSE_MS), handle);
+            }
+        }));
+    }
+
+    /**
+     * Startet ein Makro und kehrt sofort zurueck; Pausen und Warteschritte belegen keinen Thread.
+     * Dauer und Erfolg gehen nach dem Ende an Kennzahlen, Schutzschalter und Koordinator.
+     */
+    private void startMacro(AutomationRule rule, Macro macro, long handle) {
+        MacroEngine engine = macroEngine;
+        if (engine == null) {
+            log.warn("Makro fuer Regel '{}' verworfen: Dienst beendet", rule.getId());
+            return;
+        }
+        engine.start(macro, handle, run -> {
+            boolean success = run.getStatus() == MacroRun.Status.DONE;
+            if (!success) {
+                log.warn("Makro fuer Regel '{}' beendet: {}", rule.getId(), run);
+            }
+            metrics.recordAction(run.getElapsedNanos(), success);
+            report(rule, run.getElapsedNanos(), success);
+        });
+    }
+
+    /**
+     * @return Drosselung vor der Aktionsausfuehrung
+     */
+    public ActionGuard getActionGuard() {
+        return actionGuard;
+    }
+
+    /**
+     * Meldet Dauer und Erfolg einer Aktion an den Schutzschalter der Regel und an den
+     * Flotten-Koordinator, falls verbunden.
+     */
+    private AutomationAction.ActionTask reported(AutomationRule rule, AutomationAction.ActionTask task) {
+        return () -> {
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                task.run();
+                success = true;
+            } finally {
+                report(rule, System.nanoTime() - start, success);
+            }
+        };
+    }
+
+    private void report(AutomationRule rule, long nanos, boolean success) {
+        actionGuard.recordResult(rule.getId(), success);
+        FleetAgent agent = fleetAgent;
+        if (agent != null) {
+            agent.recordAction(rule.getId(), nanos, success);
+        }
+    }
+
+    /**
+     * Beendet Flottenagent, Steuerschnittstelle, Ueberwachung und Dispatcher und schliesst das Regeljournal.
+     */
+    @Override
+    public void close() {
+        // Agent, Regeldatei und Steuerschnittstelle ohne Lock beenden, da alle diesen Dienst aufrufen
+        FleetAgent agent;
+        RuleFileWatcher watcher;
+        ControlServer control;
+        synchronized (this) {
+            agent = fleetAgent;
+            watcher = ruleWatcher;
+            control = controlServer;
+            fleetAgent = null;
+            ruleWatcher = null;
+            controlServer = null;
+        }
+        if (agent != null) {
+            agent.close();
+        }
+        if (watcher != null) {
+            watcher.close();
+        }
+        if (control != null) {
+            control.close();
+        }
+        synchronized (this) {
+            closeServices();
+        }
+        log.info("Dienst beendet.");
+    }
+
+    private void closeServices() {
+        if (summaryTask != null) {
+            summaryTask.cancel();
+            summaryTask = null;
+        }
+        if (monitor != null) {
+            monitor.stop();
+            monitor = null;
+        }
+        processIndex.close();
+        if (dispatcher != null) {
+            dispatcher.shutdown(2000);
+            dispatcher = null;
+        }
+        if (macroEngine != null) {
+            macroEngine.close();
+            macroEngine = null;
+        }
+        if (ruleStore != null) {
+            try {
+                ruleStore.close();
+            } catch (IOException e) {
+                log.warn("Regeljournal konnte nicht geschlossen werden: {}", e.getMessage());
+            }
+            ruleStore = null;
+        }
+    }
+
+    /**
+     * Einstiegspunkt fuer den Betrieb ohne Oberflaeche.
+     *
+     * @param args {@code [--check] [Konfigurationsdatei]}
+     */
+    public static void main(String[] args) {
+        long startNanos = System.nanoTime();
+        boolean check = false;
+        String configPath = DEFAULT_CONFIG;
+        for (String arg : args) {
+            if ("--check".equals(arg)) {
+                check = true;
+            } else {
+                configPath = arg;
+            }
+        }
+
+        DaemonConfig config;
+        try {
+            config = DaemonConfig.load(Path.of(configPath));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Konfiguration '" + configPath + "' ungueltig: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        config.getLogFile().toAbsolutePath().getParent().toFile().mkdirs();
+        System.setProperty("log.file", config.getLogFile().toString());
+        config.getLogProfile().apply();
+        TaskExecutors.configure(config.getExecutionMode());
+
+        AutomationDaemon daemon = new AutomationDaemon(config,
+                check ? null : WindowBackend.platformDefault(), AutomationMetrics.global());
+        try {
+            if (check) {
+                int count = daemon.loadRules();
+                daemon.close();
+                System.out.printf("Konfiguration OK: %d Regeln, Start in %d ms%n",
+                        count, (System.nanoTime() - startNanos) / 1_000_000);
+                return;
+            }
+            daemon.start();
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Dienst konnte nicht gestartet werden", e);
+            System.exit(1);
+            return;
+        }
+        log.info("Startzeit: {} ms", (System.nanoTime() - startNanos) / 1_000_000);
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            daemon.close();
+            stopped.countDown();
+        }, "Daemon-Shutdown"));
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
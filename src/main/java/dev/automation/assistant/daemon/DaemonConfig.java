@@ -0,0 +1,318 @@
+package dev.automation.assistant.daemon;
+
+import dev.automation.assistant.action.ActionGuard;
+import dev.automation.assistant.service.ParallelMatchStage;
+import dev.automation.assistant.util.ExecutionMode;
+import dev.automation.assistant.util.LoggingProfile;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Konfiguration des Hintergrunddienstes ({@link AutomationDaemon}).
+ * <p>
+ * Wird aus einer Properties-Datei gelesen. Relative Pfade werden relativ zum
+ * Verzeichnis der Konfigurationsdatei aufgeloest, damit der Dienst unabhaengig
+ * vom Arbeitsverzeichnis startet. Beispiel:
+ * </p>
+ * <pre>
+ * rules.file=data/automation-rules.journal
+ * log.file=logs/automation-daemon.log
+ * log.profile=production
+ * poll.interval.ms=250
+ * control.port=47800
+ * </pre>
+ */
+public final class DaemonConfig {
+
+    public static final String RULES_FILE = "rules.file";
+    public static final String RULES_WATCH_FILE = "rules.watch.file";
+    public static final String LOG_FILE = "log.file";
+    public static final String LOG_PROFILE = "log.profile";
+    public static final String POLL_INTERVAL_MS = "poll.interval.ms";
+    public static final String MATCH_PARALLELISM = "match.parallelism";
+    public static final String MATCH_PARALLEL_THRESHOLD = "match.parallel.threshold";
+    public static final String EXECUTION_MODE = "execution.mode";
+    public static final String HANDLE_WORKERS = "action.workers";
+    public static final String QUEUE_CAPACITY = "action.queue.capacity";
+    public static final String METRICS_SUMMARY_MS = "metrics.summary.ms";
+    public static final String ACTION_RATE_GLOBAL = "action.rate.global";
+    public static final String ACTION_RATE_RULE = "action.rate.rule";
+    public static final String ACTION_BREAKER_REPEATS = "action.breaker.repeats";
+    public static final String ACTION_BREAKER_FAILURES = "action.breaker.failures";
+    public static final String ACTION_BREAKER_WINDOW_MS = "action.breaker.window.ms";
+    public static final String CONTROL_PORT = "control.port";
+    public static final String CONTROL_BIND = "control.bind";
+    public static final String FLEET_COORDINATOR = "fleet.coordinator";
+    public static final String FLEET_AGENT_ID = "fleet.agent.id";
+
+    private final Path rulesFile;
+    private final Path rulesWatchFile;
+    private final Path logFile;
+    private final LoggingProfile logProfile;
+    private final long pollIntervalMs;
+    private final int matchParallelism;
+    private final int matchParallelThreshold;
+    private final ExecutionMode executionMode;
+    private final int handleWorkers;
+    private final int queueCapacity;
+    private final long metricsSummaryMs;
+    private final int actionRateGlobal;
+    private final int actionRateRule;
+    private final int actionBreakerRepeats;
+    private final int actionBreakerFailures;
+    private final long actionBreakerWindowMs;
+    private final int controlPort;
+    private final String controlBind;
+    private final InetSocketAddress fleetCoordinator;
+    private final String fleetAgentId;
+
+    private DaemonConfig(Properties props, Path baseDir) {
+        this.rulesFile = resolve(baseDir, props.getProperty(RULES_FILE, "data/automation-rules.journal"));
+        String watchFile = props.getProperty(RULES_WATCH_FILE, "");
+        this.rulesWatchFile = watchFile.isBlank() ? null : resolve(baseDir, watchFile);
+        this.logFile = resolve(baseDir, props.getProperty(LOG_FILE, "logs/automation-daemon.log"));
+        this.logProfile = parseEnum(LoggingProfile.class, props, LOG_PROFILE, LoggingProfile.PRODUCTION);
+        this.executionMode = parseEnum(ExecutionMode.class, props, EXECUTION_MODE, ExecutionMode.AUTO);
+        this.pollIntervalMs = parsePositive(props, POLL_INTERVAL_MS, 250);
+        this.matchParallelism = (int) parsePositive(props, MATCH_PARALLELISM,
+                Runtime.getRuntime().availableProcessors());
+        this.matchParallelThreshold = (int) parsePositive(props, MATCH_PARALLEL_THRESHOLD,
+                ParallelMatchStage.DEFAULT_THRESHOLD);
+        this.handleWorkers = (int) parsePositive(props, HANDLE_WORKERS, 4);
+        this.queueCapacity = (int) parsePositive(props, QUEUE_CAPACITY, 256);
+        this.metricsSummaryMs = parsePositive(props, METRICS_SUMMARY_MS, 60_000);
+        this.actionRateGlobal = (int) parsePositive(props, ACTION_RATE_GLOBAL, ActionGuard.DEFAULT_GLOBAL_PER_SECOND);
+        this.actionRateRule = (int) parsePositive(props, ACTION_RATE_RULE, ActionGuard.DEFAULT_RULE_PER_SECOND);
+        this.actionBreakerRepeats = (int) parsePositive(props, ACTION_BREAKER_REPEATS,
+                ActionGuard.DEFAULT_REPEAT_THRESHOLD);
+        this.actionBreakerFailures = (int) parsePositive(props, ACTION_BREAKER_FAILURES,
+                ActionGuard.DEFAULT_FAILURE_THRESHOLD);
+        this.actionBreakerWindowMs = parsePositive(props, ACTION_BREAKER_WINDOW_MS, ActionGuard.DEFAULT_WINDOW_MS);
+        this.controlPort = parsePort(props, CONTROL_PORT);
+        this.controlBind = props.getProperty(CONTROL_BIND, "127.0.0.1").trim();
+        this.fleetCoordinator = parseAddress(props, FLEET_COORDINATOR);
+        this.fleetAgentId = props.getProperty(FLEET_AGENT_ID, "").trim();
+    }
+
+    /**
+     * Liest die Konfiguration aus einer Datei.
+     *
+     * @param file Properties-Datei (UTF-8)
+     * @return Geladene Konfiguration
+     * @throws IOException              falls die Datei nicht gelesen werden kann
+     * @throws IllegalArgumentException bei ungueltigen Werten
+     */
+    public static DaemonConfig load(Path file) throws IOException {
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(reader);
+        }
+        Path baseDir = file.toAbsolutePath().getParent();
+        return new DaemonConfig(props, baseDir);
+    }
+
+    /**
+     * Erstellt eine Konfiguration aus bereits geladenen Properties.
+     *
+     * @param props   Werte
+     * @param baseDir Basis fuer relative Pfade
+     * @return Konfiguration
+     */
+    public static DaemonConfig of(Properties props, Path baseDir) {
+        return new DaemonConfig(props, baseDir.toAbsolutePath());
+    }
+
+    private static Path resolve(Path baseDir, String value) {
+        Path path = Path.of(value.trim());
+        return path.isAbsolute() ? path : baseDir.resolve(path).normalize();
+    }
+
+    private static long parsePositive(Properties props, String key, long defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            long parsed = Long.parseLong(value.trim());
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+            // Fehlermeldung unten
+        }
+        throw new IllegalArgumentException("Ungueltiger Wert fuer " + key + ": '" + value + "'");
+    }
+
+    /**
+     * @return Port, 0 fuer einen freien Port oder -1, falls nicht gesetzt (deaktiviert)
+     */
+    private static int parsePort(Properties props, String key) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed >= 0 && parsed <= 0xFFFF) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+            // Fehlermeldung unten
+        }
+        throw new IllegalArgumentException("Ungueltiger Wert fuer " + key + ": '" + value + "'");
+    }
+
+    /**
+     * @return Unaufgeloeste Adresse aus {@code host:port} oder {@code null}, falls nicht gesetzt
+     */
+    private static InetSocketAddress parseAddress(Properties props, String key) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        int colon = value.lastIndexOf(':');
+        if (colon > 0) {
+            try {
+                int port = Integer.parseInt(value.substring(colon + 1).trim());
+                if (port > 0 && port <= 0xFFFF) {
+                    return InetSocketAddress.createUnresolved(value.substring(0, colon).trim(), port);
+                }
+            } catch (NumberFormatException ignored) {
+                // Fehlermeldung unten
+            }
+        }
+        throw new IllegalArgumentException("Ungueltiger Wert fuer " + key + ": '" + value + "' (erwartet host:port)");
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, Properties props, String key, E defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Ungueltiger Wert fuer " + key + ": '" + value + "'");
+        }
+    }
+
+    public Path getRulesFile() {
+        return rulesFile;
+    }
+
+    /**
+     * @return Von Hand gepflegte Regeldatei, die bei Aenderungen neu geladen wird, oder {@code null}
+     */
+    public Path getRulesWatchFile() {
+        return rulesWatchFile;
+    }
+
+    public Path getLogFile() {
+        return logFile;
+    }
+
+    public LoggingProfile getLogProfile() {
+        return logProfile;
+    }
+
+    public long getPollIntervalMs() {
+        return pollIntervalMs;
+    }
+
+    /**
+     * @return Threads fuer den parallelen Regelabgleich (1 = seriell)
+     */
+    public int getMatchParallelism() {
+        return matchParallelism;
+    }
+
+    /**
+     * @return Anzahl zu pruefender Fenster, ab der parallel abgeglichen wird
+     */
+    public int getMatchParallelThreshold() {
+        return matchParallelThreshold;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public int getHandleWorkers() {
+        return handleWorkers;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getMetricsSummaryMs() {
+        return metricsSummaryMs;
+    }
+
+    /**
+     * @return Aktionen pro Sekunde ueber alle Regeln
+     */
+    public int getActionRateGlobal() {
+        return actionRateGlobal;
+    }
+
+    /**
+     * @return Aktionen pro Sekunde und Regel
+     */
+    public int getActionRateRule() {
+        return actionRateRule;
+    }
+
+    /**
+     * @return Versuche einer Regel pro Fenster, bevor ihr Schutzschalter oeffnet
+     */
+    public int getActionBreakerRepeats() {
+        return actionBreakerRepeats;
+    }
+
+    /**
+     * @return Fehlschlaege einer Regel pro Fenster, bevor ihr Schutzschalter oeffnet
+     */
+    public int getActionBreakerFailures() {
+        return actionBreakerFailures;
+    }
+
+    public long getActionBreakerWindowMs() {
+        return actionBreakerWindowMs;
+    }
+
+    /**
+     * @return Port der Steuerschnittstelle, 0 fuer einen freien Port oder -1 (deaktiviert)
+     */
+    public int getControlPort() {
+        return controlPort;
+    }
+
+    /**
+     * @return Adresse, an die die Steuerschnittstelle gebunden wird (Standard: Loopback)
+     */
+    public String getControlBind() {
+        return controlBind;
+    }
+
+    /**
+     * @return Adresse des Flotten-Koordinators oder {@code null}, falls der Dienst eigenstaendig laeuft
+     */
+    public InetSocketAddress getFleetCoordinator() {
+        return fleetCoordinator;
+    }
+
+    /**
+     * @return Name dieser Instanz in der Flotte (leer = Rechnername)
+     */
+    public String getFleetAgentId() {
+        return fleetAgentId;
+    }
+}
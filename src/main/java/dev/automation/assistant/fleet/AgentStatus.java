@@ -0,0 +1,91 @@
+package dev.automation.assistant.fleet;
+
+/**
+ * Stand eines Agenten aus Sicht des {@link FleetCoordinator}.
+ * <p>
+ * Wird nur vom Event-Loop des Koordinators geschrieben und kann von anderen Threads
+ * gelesen werden.
+ * </p>
+ */
+public final class AgentStatus {
+
+    private final String id;
+    private volatile String remoteAddress = "";
+    private volatile boolean connected;
+    private volatile long appliedVersion = -1;
+    private volatile long detections;
+    private volatile long actions;
+    private volatile long failures;
+
+    /** Verbindung, der der Status aktuell gehoert */
+    Object owner;
+
+    AgentStatus(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * @return Vom Agenten bestaetigte Regelversion oder -1
+     */
+    public long getAppliedVersion() {
+        return appliedVersion;
+    }
+
+    public long getDetections() {
+        return detections;
+    }
+
+    public long getActions() {
+        return actions;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    void connected(Object owner, String remoteAddress) {
+        this.owner = owner;
+        this.remoteAddress = remoteAddress;
+        this.connected = true;
+    }
+
+    void disconnected(Object owner) {
+        if (this.owner == owner) {
+            this.owner = null;
+            this.connected = false;
+        }
+    }
+
+    void applied(long version) {
+        appliedVersion = version;
+    }
+
+    void countDetection() {
+        detections++;
+    }
+
+    void countAction(boolean success) {
+        actions++;
+        if (!success) {
+            failures++;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return id + (connected ? " (verbunden, " : " (getrennt, ") + "Version " + appliedVersion
+                + ", Erkennungen " + detections + ", Aktionen " + actions + ", Fehler " + failures + ")";
+    }
+}
@@ -0,0 +1,428 @@
+package dev.automation.assistant.fleet;
+
+import dev.automation.assistant.control.AutomationControl;
+import dev.automation.assistant.rules.AutomationRule;
+import dev.automation.assistant.util.PeriodicTask;
+import dev.automation.assistant.util.TaskExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agent einer Bot-Instanz fuer den {@link FleetCoordinator}.
+ * <p>
+ * Haelt eine Verbindung zum Koordinator, uebernimmt dessen Regel-Diffs in die lokale
+ * {@link AutomationControl} und bestaetigt jede erreichte Version. Ein Regelstand, den die
+ * Anwendung als ungueltig ablehnt, wird nicht bestaetigt; die Verbindung bleibt bestehen und
+ * die bisherigen Regeln aktiv. Erkennungen und
+ * Aktionen werden in festen Arrays gepuffert und periodisch als ein EVENTS-Frame
+ * gesendet; laeuft der Puffer zwischen zwei Sendungen voll, werden weitere Ereignisse
+ * verworfen und gezaehlt. Bricht die Verbindung ab, wird nach kurzer Pause neu verbunden
+ * und ab dem zuletzt bestaetigten Stand fortgesetzt.
+ * </p>
+ * <p>
+ * Die Klasse ist threadsicher.
+ * </p>
+ */
+public class FleetAgent implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetAgent.class);
+
+    /** Standardintervall fuer das Senden gepufferter Ereignisse */
+    public static final long DEFAULT_FLUSH_MS = 250;
+
+    /** Standardpause vor einem erneuten Verbindungsversuch */
+    public static final long DEFAULT_RECONNECT_MS = 2000;
+
+    /** Maximale Anzahl gepufferter Ereignisse zwischen zwei Sendungen */
+    static final int MAX_PENDING_EVENTS = 4096;
+
+    private static final int READ_BUFFER = 64 * 1024;
+
+    private final String agentId;
+    private final InetSocketAddress coordinator;
+    private final AutomationControl target;
+    private final long flushIntervalMs;
+    private final long reconnectDelayMs;
+
+    // Ereignispuffer (geschuetzt durch "this")
+    private final byte[] eventKinds = new byte[MAX_PENDING_EVENTS];
+    private final String[] eventRules = new String[MAX_PENDING_EVENTS];
+    private final long[] eventMicros = new long[MAX_PENDING_EVENTS];
+    private int pendingEvents;
+    private long droppedEvents;
+
+    // Sendeseite (geschuetzt durch "sendLock")
+    private final Object sendLock = new Object();
+    private final FleetCodec codec = new FleetCodec(8 * 1024);
+    private final Map<String, Integer> ruleRefs = new HashMap<>();
+    private SocketChannel channel;
+    private long sentEvents;
+
+    // Regelstand (geschuetzt durch "this")
+    private long epoch;
+    private long version;
+    private long snapshots;
+    private long diffs;
+    private long rejected;
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private Thread connection;
+    private PeriodicTask flushTask;
+
+    /**
+     * @param agentId     Eindeutiger Name dieser Instanz (z. B. Rechnername)
+     * @param coordinator Adresse des Koordinators
+     * @param target      Lokale Anwendung, in die die Regeln uebernommen werden
+     */
+    public FleetAgent(String agentId, InetSocketAddress coordinator, AutomationControl target) {
+        this(agentId, coordinator, target, DEFAULT_FLUSH_MS, DEFAULT_RECONNECT_MS);
+    }
+
+    FleetAgent(String agentId, InetSocketAddress coordinator, AutomationControl target,
+               long flushIntervalMs, long reconnectDelayMs) {
+        this.agentId = agentId;
+        this.coordinator = coordinator;
+        this.target = target;
+        this.flushIntervalMs = flushIntervalMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    /**
+     * Startet Verbindungsaufbau und periodisches Senden.
+     */
+    public synchronized void start() {
+        if (running) {
+            log.warn("Agent {} laeuft bereits.", agentId);
+            return;
+        }
+        running = true;
+        connection = new Thread(this::run, "Fleet-Agent");
+        connection.setDaemon(true);
+        connection.start();
+        flushTask = TaskExecutors.schedulePeriodic("Fleet-Events", this::flushEvents, flushIntervalMs);
+    }
+
+    /**
+     * Meldet eine Erkennung.
+     *
+     * @param ruleId     Passende Regel
+     * @param delayNanos Erkennungsverzoegerung oder -1, falls unbekannt
+     */
+    public void recordDetection(String ruleId, long delayNanos) {
+        record(FleetCodec.EVENT_DETECTION, ruleId, delayNanos);
+    }
+
+    /**
+     * Meldet eine ausgefuehrte Aktion.
+     *
+     * @param ruleId  Ausloesende Regel
+     * @param nanos   Ausfuehrungsdauer
+     * @param success {@code false}, falls die Aktion fehlgeschlagen ist
+     */
+    public void recordAction(String ruleId, long nanos, boolean success) {
+        record(success ? FleetCodec.EVENT_ACTION : FleetCodec.EVENT_ACTION_FAILED, ruleId, nanos);
+    }
+
+    private synchronized void record(byte kind, String ruleId, long nanos) {
+        if (pendingEvents == MAX_PENDING_EVENTS) {
+            droppedEvents++;
+            return;
+        }
+        eventKinds[pendingEvents] = kind;
+        eventRules[pendingEvents] = ruleId;
+        eventMicros[pendingEvents] = nanos < 0 ? -1 : nanos / 1_000;
+        pendingEvents++;
+    }
+
+    /**
+     * Sendet alle gepufferten Ereignisse als einen Frame. Ohne Verbindung bleiben sie gepuffert.
+     */
+    void flushEvents() {
+        synchronized (sendLock) {
+            if (channel == null) {
+                return;
+            }
+            int count;
+            synchronized (this) {
+                count = pendingEvents;
+                if (count == 0) {
+                    return;
+                }
+                codec.begin(FleetCodec.EVENTS).putVarLong(count);
+                for (int i = 0; i < count; i++) {
+                    codec.putByte(eventKinds[i]);
+                    Integer ref = ruleRefs.get(eventRules[i]);
+                    if (ref != null) {
+                        codec.putVarLong(ref);
+                    } else {
+                        ref = ruleRefs.size();
+                        ruleRefs.put(eventRules[i], ref);
+                        codec.putVarLong(ref).putString(eventRules[i]);
+                    }
+                    codec.putVarLong(eventMicros[i] + 1);
+                    eventRules[i] = null;
+                }
+                codec.end();
+                pendingEvents = 0;
+            }
+            try {
+                send();
+                sentEvents += count;
+            } catch (IOException ex) {
+                log.debug("Ereignisse konnten nicht gesendet werden: {}", ex.getMessage());
+                synchronized (this) {
+                    droppedEvents += count;
+                }
+                closeChannel();
+            }
+        }
+    }
+
+    /**
+     * Wartet, bis eine Regelversion uebernommen wurde.
+     *
+     * @return {@code true}, falls die Version innerhalb der Zeit erreicht wurde
+     */
+    public synchronized boolean awaitVersion(long expected, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (version < expected) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * @return Zuletzt uebernommene Regelversion
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Anzahl uebernommener vollstaendiger Regelsaetze
+     */
+    public synchronized long getSnapshots() {
+        return snapshots;
+    }
+
+    /**
+     * @return Anzahl uebernommener inkrementeller Diffs
+     */
+    public synchronized long getDiffs() {
+        return diffs;
+    }
+
+    /**
+     * @return Abgelehnte Regelstaende (ungueltige Regeln)
+     */
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return Verworfene Ereignisse (Puffer voll oder Verbindung abgebrochen)
+     */
+    public synchronized long getDroppedEvents() {
+        return droppedEvents;
+    }
+
+    /**
+     * @return Gesendete Ereignisse
+     */
+    public long getSentEvents() {
+        synchronized (sendLock) {
+            return sentEvents;
+        }
+    }
+
+    /**
+     * @return {@code true}, solange eine Verbindung zum Koordinator besteht
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Sendet verbleibende Ereignisse und trennt die Verbindung.
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            flushTask.cancel();
+            thread = connection;
+        }
+        flushEvents();
+        closeChannel();
+        thread.interrupt();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Agent {} beendet.", agentId);
+    }
+
+    private void run() {
+        while (running) {
+            try (SocketChannel socket = SocketChannel.open()) {
+                socket.connect(new InetSocketAddress(coordinator.getHostString(), coordinator.getPort()));
+                socket.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                synchronized (sendLock) {
+                    channel = socket;
+                    ruleRefs.clear();
+                    codec.buffer().clear();
+                    long knownEpoch;
+                    long knownVersion;
+                    synchronized (this) {
+                        knownEpoch = epoch;
+                        knownVersion = version;
+                    }
+                    codec.begin(FleetCodec.HELLO).putString(agentId).putLong(knownEpoch).putVarLong(knownVersion).end();
+                    send();
+                }
+                connected = true;
+                log.info("Agent {} mit Koordinator {} verbunden", agentId, coordinator);
+                receive(socket);
+            } catch (IOException | RuntimeException ex) {
+                if (running) {
+                    log.warn("Verbindung zum Koordinator {} unterbrochen: {}", coordinator, ex.toString());
+                }
+            } finally {
+                connected = false;
+                synchronized (sendLock) {
+                    channel = null;
+                }
+            }
+            if (running) {
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(SocketChannel socket) throws IOException {
+        ByteBuffer in = ByteBuffer.allocate(READ_BUFFER);
+        while (running) {
+            if (socket.read(in) < 0) {
+                throw new EOFException("Koordinator hat die Verbindung geschlossen");
+            }
+            in.flip();
+            ByteBuffer frame;
+            while ((frame = FleetCodec.nextFrame(in)) != null) {
+                byte type = frame.get();
+                if (type != FleetCodec.RULES) {
+                    throw new ProtocolException("Unerwarteter Frame-Typ " + type);
+                }
+                applyRules(frame);
+            }
+            in.compact();
+            in = FleetCodec.ensureFrameCapacity(in);
+        }
+    }
+
+    /**
+     * Uebernimmt einen RULES-Frame in die lokale Anwendung und bestaetigt die Version.
+     */
+    private void applyRules(ByteBuffer frame) throws IOException {
+        long frameEpoch = frame.getLong();
+        long from = FleetCodec.getVarLong(frame);
+        long to = FleetCodec.getVarLong(frame);
+        boolean reset = frame.get() != 0;
+        int putCount = (int) FleetCodec.getVarLong(frame);
+        List<AutomationRule> puts = new ArrayList<>(putCount);
+        for (int i = 0; i < putCount; i++) {
+            puts.add(FleetCodec.getRule(frame));
+        }
+        int removeCount = (int) FleetCodec.getVarLong(frame);
+        List<String> removes = new ArrayList<>(removeCount);
+        for (int i = 0; i < removeCount; i++) {
+            removes.add(FleetCodec.getString(frame));
+        }
+
+        try {
+            target.applyRules(reset, puts, removes);
+        } catch (IllegalArgumentException ex) {
+            // Erneutes Verbinden wuerde denselben Stand wieder liefern
+            synchronized (this) {
+                rejected++;
+            }
+            log.warn("Regelstand {} -> {} abgelehnt, bisherige Regeln bleiben aktiv: {}", from, to, ex.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            epoch = frameEpoch;
+            version = to;
+            if (reset) {
+                snapshots++;
+            } else {
+                diffs++;
+            }
+            notifyAll();
+        }
+        log.info("Regelstand {} -> {} uebernommen ({}{} neu/geaendert, {} entfernt)",
+                from, to, reset ? "vollstaendig, " : "", puts.size(), removes.size());
+
+        synchronized (sendLock) {
+            codec.begin(FleetCodec.ACK).putVarLong(to).end();
+            send();
+        }
+    }
+
+    /**
+     * Schreibt den Sendepuffer vollstaendig; Aufrufer haelt {@code sendLock}.
+     */
+    private void send() throws IOException {
+        ByteBuffer out = codec.buffer();
+        if (channel == null) {
+            out.clear();
+            throw new IOException("Keine Verbindung zum Koordinator");
+        }
+        out.flip();
+        try {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        } finally {
+            out.clear();
+        }
+    }
+
+    private void closeChannel() {
+        synchronized (sendLock) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ex) {
+                    log.debug("Fehler beim Schliessen der Verbindung: {}", ex.getMessage());
+                }
+            }
+        }
+    }
+}
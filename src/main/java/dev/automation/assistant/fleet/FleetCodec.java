@@ -0,0 +1,271 @@
+package dev.automation.assistant.fleet;
+
+import dev.automation.assistant.macro.Macro;
+import dev.automation.assistant.macro.MacroCompiler;
+import dev.automation.assistant.rules.ActionType;
+import dev.automation.assistant.rules.AutomationRule;
+import dev.automation.assistant.rules.ControlSelector;
+import dev.automation.assistant.rules.MatchType;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Kodierung des binaeren Flottenprotokolls zwischen {@link FleetCoordinator} und {@link FleetAgent}.
+ *
+ * <h2>Format:</h2>
+ * <pre>
+ * Frame:   int laenge | byte typ | nutzdaten             (laenge = 1 + nutzdaten)
+ * HELLO:   string agentId | long epoche | varlong version   Agent -&gt; Koordinator
+ * RULES:   long epoche | varlong von | varlong bis | byte reset
+ *          | varint anzahl | regel... | varint anzahl | string id...   Koordinator -&gt; Agent
+ * ACK:     varlong version                                  Agent -&gt; Koordinator
+ * EVENTS:  varint anzahl | ereignis...                      Agent -&gt; Koordinator
+ * Ereignis: byte art | varint regelRef [| string id] | varlong mikros+1
+ * Regel:   string id | byte matchType | string muster | byte action | zigzag x | zigzag y
+ *          | byte flags [| string klasse | string text | zigzag controlId] [| string prozess]
+ *          [| string makro]   (flags: Bit 0 = Steuerelement, Bit 1 = Prozess, Bit 2 = Makro)
+ * String:  varint laenge | UTF-8-Bytes
+ * </pre>
+ * <p>
+ * Regel-IDs in Ereignissen werden pro Verbindung ueber eine implizite Tabelle
+ * referenziert: Eine unbekannte ID erhaelt die naechste freie Nummer und wird einmalig
+ * inline mitgeschickt. Beide Seiten duerfen mehrere Frames senden, ohne auf eine
+ * Antwort zu warten.
+ * </p>
+ * <p>
+ * Eine Instanz kapselt einen wachsenden Sendepuffer und ist nicht threadsicher.
+ * </p>
+ */
+final class FleetCodec {
+
+    static final byte HELLO = 1;
+    static final byte RULES = 2;
+    static final byte ACK = 3;
+    static final byte EVENTS = 4;
+
+    static final byte EVENT_DETECTION = 0;
+    static final byte EVENT_ACTION = 1;
+    static final byte EVENT_ACTION_FAILED = 2;
+
+    /** Flags einer Regel; Bit 0 entspricht dem frueheren Selektor-Byte */
+    static final int RULE_CONTROL = 1;
+    static final int RULE_PROCESS = 2;
+    static final int RULE_MACRO = 4;
+
+    /** Groesster erlaubter Frame (Schutz vor fehlerhaften Laengenangaben) */
+    static final int MAX_FRAME = 4 * 1024 * 1024;
+
+    // Reihenfolge der Enum-Werte ist Teil des Protokolls
+    private static final MatchType[] MATCH_TYPES = MatchType.values();
+    private static final ActionType[] ACTION_TYPES = ActionType.values();
+
+    private ByteBuffer buffer;
+    private int frameStart = -1;
+
+    FleetCodec(int initialCapacity) {
+        this.buffer = ByteBuffer.allocate(initialCapacity);
+    }
+
+    /**
+     * Beginnt einen neuen Frame am Ende des Puffers.
+     */
+    FleetCodec begin(byte type) {
+        ensure(5);
+        frameStart = buffer.position();
+        buffer.putInt(0);
+        buffer.put(type);
+        return this;
+    }
+
+    /**
+     * Schliesst den aktuellen Frame ab, indem die Laenge eingetragen wird.
+     */
+    void end() {
+        buffer.putInt(frameStart, buffer.position() - frameStart - 4);
+        frameStart = -1;
+    }
+
+    /**
+     * @return Puffer im Schreibmodus; zum Senden {@code flip()} und danach {@code compact()}
+     */
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @return Anzahl geschriebener, noch nicht gesendeter Bytes
+     */
+    int size() {
+        return buffer.position();
+    }
+
+    FleetCodec putByte(int value) {
+        ensure(1);
+        buffer.put((byte) value);
+        return this;
+    }
+
+    FleetCodec putLong(long value) {
+        ensure(8);
+        buffer.putLong(value);
+        return this;
+    }
+
+    FleetCodec putVarLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+        return this;
+    }
+
+    FleetCodec putZigZag(long value) {
+        return putVarLong((value << 1) ^ (value >> 63));
+    }
+
+    FleetCodec putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarLong(bytes.length);
+        ensure(bytes.length);
+        buffer.put(bytes);
+        return this;
+    }
+
+    FleetCodec putBytes(byte[] bytes, int offset, int length) {
+        ensure(length);
+        buffer.put(bytes, offset, length);
+        return this;
+    }
+
+    FleetCodec putRule(AutomationRule rule) {
+        putString(rule.getId());
+        putByte(rule.getMatchType().ordinal());
+        putString(rule.getPattern());
+        putByte(rule.getAction().ordinal());
+        putZigZag(rule.getX());
+        putZigZag(rule.getY());
+        ControlSelector control = rule.getControl();
+        String process = rule.getProcess();
+        Macro macro = rule.getMacro();
+        putByte((control != null ? RULE_CONTROL : 0) | (process != null ? RULE_PROCESS : 0)
+                | (macro != null ? RULE_MACRO : 0));
+        if (control != null) {
+            putString(control.getClassName());
+            putString(control.getText());
+            putZigZag(control.getControlId());
+        }
+        if (process != null) {
+            putString(process);
+        }
+        if (macro != null) {
+            putString(macro.getSource());
+        }
+        return this;
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+
+    /**
+     * Schneidet den naechsten vollstaendigen Frame aus einem Lesepuffer heraus.
+     *
+     * @param in Lesepuffer im Lesemodus (nach {@code flip()})
+     * @return Frame ab dem Typbyte oder {@code null}, falls noch nicht vollstaendig empfangen
+     * @throws ProtocolException bei einer ungueltigen Laengenangabe
+     */
+    static ByteBuffer nextFrame(ByteBuffer in) throws ProtocolException {
+        if (in.remaining() < 4) {
+            return null;
+        }
+        int length = in.getInt(in.position());
+        if (length < 1 || length > MAX_FRAME) {
+            throw new ProtocolException("Ungueltige Framelaenge " + length);
+        }
+        if (in.remaining() < 4 + length) {
+            return null;
+        }
+        ByteBuffer frame = in.slice(in.position() + 4, length);
+        in.position(in.position() + 4 + length);
+        return frame;
+    }
+
+    /**
+     * Liefert einen Lesepuffer, der mindestens einen Frame der angekuendigten Laenge aufnehmen kann.
+     *
+     * @param in Lesepuffer im Schreibmodus
+     * @return {@code in} oder ein vergroesserter Puffer mit demselben Inhalt
+     */
+    static ByteBuffer ensureFrameCapacity(ByteBuffer in) {
+        if (in.position() < 4) {
+            return in;
+        }
+        int needed = 4 + in.getInt(0);
+        if (needed <= in.capacity() || needed > MAX_FRAME + 4) {
+            return in;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(needed);
+        in.flip();
+        larger.put(in);
+        return larger;
+    }
+
+    static long getVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new ProtocolException("Varint zu lang");
+    }
+
+    static long getZigZag(ByteBuffer in) throws IOException {
+        long raw = getVarLong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    static String getString(ByteBuffer in) throws IOException {
+        long length = getVarLong(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new ProtocolException("Ungueltige Stringlaenge " + length);
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), (int) length, StandardCharsets.UTF_8);
+        in.position(in.position() + (int) length);
+        return value;
+    }
+
+    static AutomationRule getRule(ByteBuffer in) throws IOException {
+        String id = getString(in);
+        MatchType matchType = MATCH_TYPES[in.get()];
+        String pattern = getString(in);
+        ActionType action = ACTION_TYPES[in.get()];
+        int x = (int) getZigZag(in);
+        int y = (int) getZigZag(in);
+        int flags = in.get();
+        ControlSelector control = null;
+        if ((flags & RULE_CONTROL) != 0) {
+            control = new ControlSelector(getString(in), getString(in), (int) getZigZag(in));
+        }
+        String process = (flags & RULE_PROCESS) != 0 ? getString(in) : null;
+        String source = (flags & RULE_MACRO) != 0 ? getString(in) : null;
+        try {
+            Macro macro = source != null ? MacroCompiler.compile(source) : null;
+            return new AutomationRule(id, matchType, pattern, action, x, y, control, process, macro);
+        } catch (IllegalArgumentException ex) {
+            throw new ProtocolException("Ungueltige Regel '" + id + "': " + ex.getMessage());
+        }
+    }
+}
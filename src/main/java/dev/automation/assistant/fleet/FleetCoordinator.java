@@ -0,0 +1,558 @@
+package dev.automation.assistant.fleet;
+
+import dev.automation.assistant.control.AutomationControl;
+import dev.automation.assistant.control.ControlServer;
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.rules.AutomationRule;
+import dev.automation.assistant.rules.RuleStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Koordinator fuer viele Bot-Instanzen ({@link FleetAgent}).
+ * <p>
+ * Haelt den Regelsatz der Flotte in einem {@link RuleStore} und verteilt jede Aenderung
+ * als versionierten Diff an alle verbundenen Agenten. Ein Agent meldet beim Verbinden
+ * seinen Stand und erhaelt nur die Aenderungen seitdem; ist sein Stand unbekannt oder
+ * zu alt, bekommt er den vollstaendigen Regelsatz. Umgekehrt schicken die Agenten
+ * Erkennungen und Aktionen gebuendelt zurueck; diese werden pro Agent gezaehlt und in
+ * die {@link AutomationMetrics} des Koordinators uebernommen.
+ * </p>
+ * <p>
+ * Ein einzelner Event-Loop-Thread bedient alle Agenten ueber einen {@link Selector}
+ * (Protokoll siehe {@link FleetCodec}). Neue Diffs werden ohne Warten auf Bestaetigungen
+ * gesendet; solange ein Agent noch Daten im Sendepuffer hat, werden weitere Aenderungen
+ * zusammengefasst und erst danach als ein Diff nachgeschickt. Gleiche Diffs fuer mehrere
+ * Agenten werden nur einmal kodiert.
+ * </p>
+ * <p>
+ * Regeln werden ueber {@link AutomationControl} gepflegt, z. B. per {@link ControlServer}.
+ * </p>
+ *
+ * <h2>Aufruf:</h2>
+ * <pre>
+ * java -cp automation-assistant.jar dev.automation.assistant.fleet.FleetCoordinator journal [port] [steuerPort]
+ * </pre>
+ */
+public class FleetCoordinator implements AutomationControl, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetCoordinator.class);
+
+    /** Standardport fuer Agentenverbindungen */
+    public static final int DEFAULT_PORT = 47900;
+
+    /** Aufbewahrte Aenderungen fuer Diffs; aeltere Agenten erhalten den vollstaendigen Regelsatz */
+    static final int HISTORY_LIMIT = 4096;
+
+    private static final int READ_BUFFER = 16 * 1024;
+    private static final int WRITE_BUFFER = 8 * 1024;
+    private static final int BACKLOG = 512;
+
+    private final RuleStore store;
+    private final InetSocketAddress address;
+    private final AutomationMetrics metrics;
+    private final RuleHistory history;
+    private final long epoch = ThreadLocalRandom.current().nextLong() | 1L;
+    private final Map<String, AgentStatus> agents = new ConcurrentHashMap<>();
+
+    /** Schuetzt Start und Stopp; getrennt vom Regel-Lock, den auch der Event-Loop nimmt */
+    private final Object lifecycle = new Object();
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread loop;
+    private volatile boolean running;
+    private volatile boolean pushPending;
+
+    /**
+     * @param store   Persistenter Regelsatz der Flotte (bleibt im Besitz des Aufrufers)
+     * @param address Adresse fuer Agentenverbindungen (Port 0 fuer einen freien Port)
+     * @param metrics Ziel fuer die gesammelten Kennzahlen aller Agenten
+     */
+    public FleetCoordinator(RuleStore store, InetSocketAddress address, AutomationMetrics metrics) {
+        this(store, address, metrics, HISTORY_LIMIT);
+    }
+
+    FleetCoordinator(RuleStore store, InetSocketAddress address, AutomationMetrics metrics, int historyLimit) {
+        this.store = store;
+        this.address = address;
+        this.metrics = metrics;
+        this.history = new RuleHistory(store.getRules(), historyLimit);
+    }
+
+    /**
+     * Bindet den Port und startet den Event-Loop.
+     *
+     * @throws IOException falls der Port nicht gebunden werden kann
+     */
+    public void start() throws IOException {
+        synchronized (lifecycle) {
+            if (running) {
+                log.warn("Koordinator laeuft bereits.");
+                return;
+            }
+            bind();
+        }
+    }
+
+    private void bind() throws IOException {
+        selector = Selector.open();
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.configureBlocking(false);
+            serverChannel.bind(address, BACKLOG);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException ex) {
+            selector.close();
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+            throw ex;
+        }
+        running = true;
+        loop = new Thread(this::run, "Fleet-Coordinator");
+        loop.setDaemon(true);
+        loop.start();
+        log.info("Koordinator lauscht auf {} ({} Regeln)", serverChannel.getLocalAddress(), history.getRules().size());
+    }
+
+    /**
+     * @return Tatsaechlich gebundener Port oder -1, falls nicht gestartet
+     */
+    public int getPort() {
+        ServerSocketChannel channel = serverChannel;
+        if (channel == null || !channel.isOpen()) {
+            return -1;
+        }
+        try {
+            return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+        } catch (IOException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return Aktuelle Version des Regelsatzes
+     */
+    public synchronized long getVersion() {
+        return history.getVersion();
+    }
+
+    /**
+     * @return Alle bisher bekannten Agenten (auch getrennte)
+     */
+    public List<AgentStatus> getAgents() {
+        return new ArrayList<>(agents.values());
+    }
+
+    /**
+     * @return Status eines Agenten oder {@code null}
+     */
+    public AgentStatus getAgent(String id) {
+        return agents.get(id);
+    }
+
+    @Override
+    public synchronized List<AutomationRule> getRules() {
+        return history.getRules();
+    }
+
+    @Override
+    public void putRule(AutomationRule rule) throws IOException {
+        synchronized (this) {
+            store.put(rule);
+            history.put(rule);
+        }
+        requestPush();
+    }
+
+    @Override
+    public boolean removeRule(String id) throws IOException {
+        synchronized (this) {
+            if (history.remove(id) < 0) {
+                return false;
+            }
+            store.remove(id);
+        }
+        requestPush();
+        return true;
+    }
+
+    @Override
+    public boolean startMonitoring() {
+        throw new UnsupportedOperationException("Der Koordinator ueberwacht keine Fenster");
+    }
+
+    @Override
+    public boolean stopMonitoring() {
+        throw new UnsupportedOperationException("Der Koordinator ueberwacht keine Fenster");
+    }
+
+    @Override
+    public boolean isMonitoring() {
+        return false;
+    }
+
+    @Override
+    public AutomationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Beendet den Event-Loop und trennt alle Agenten.
+     */
+    @Override
+    public void close() {
+        synchronized (lifecycle) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            selector.wakeup();
+            try {
+                loop.join(1000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("Koordinator beendet.");
+    }
+
+    private void requestPush() {
+        pushPending = true;
+        Selector current = selector;
+        if (current != null) {
+            current.wakeup();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                if (pushPending) {
+                    pushPending = false;
+                    pushAll();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                            continue;
+                        }
+                        if (key.isReadable()) {
+                            read(key);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(key);
+                        }
+                    } catch (IOException | RuntimeException ex) {
+                        Session session = (Session) key.attachment();
+                        log.warn("Verbindung zu Agent {} getrennt: {}",
+                                session != null && session.status != null ? session.status.getId() : "?", ex.toString());
+                        disconnect(key);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.error("Event-Loop des Koordinators abgebrochen", ex);
+        } finally {
+            running = false;
+            shutdown();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.register(selector, SelectionKey.OP_READ, new Session(String.valueOf(channel.getRemoteAddress())));
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Session session = (Session) key.attachment();
+        if (channel.read(session.in) < 0) {
+            disconnect(key);
+            return;
+        }
+        session.in.flip();
+        ByteBuffer frame;
+        while ((frame = FleetCodec.nextFrame(session.in)) != null) {
+            handle(session, frame);
+        }
+        session.in.compact();
+        session.in = FleetCodec.ensureFrameCapacity(session.in);
+        if (session.out.size() > 0) {
+            flush(key);
+        }
+    }
+
+    private void handle(Session session, ByteBuffer frame) throws IOException {
+        byte type = frame.get();
+        if (session.status == null && type != FleetCodec.HELLO) {
+            throw new ProtocolException("HELLO erwartet, erhalten: " + type);
+        }
+        switch (type) {
+            case FleetCodec.HELLO:
+                hello(session, frame);
+                break;
+            case FleetCodec.ACK:
+                session.status.applied(FleetCodec.getVarLong(frame));
+                break;
+            case FleetCodec.EVENTS:
+                events(session, frame);
+                break;
+            default:
+                throw new ProtocolException("Unbekannter Frame-Typ " + type);
+        }
+    }
+
+    private void hello(Session session, ByteBuffer frame) throws IOException {
+        String id = FleetCodec.getString(frame);
+        long agentEpoch = frame.getLong();
+        long agentVersion = FleetCodec.getVarLong(frame);
+        AgentStatus status = agents.computeIfAbsent(id, AgentStatus::new);
+        status.connected(session, session.remoteAddress);
+        session.status = status;
+        long from = agentEpoch == epoch ? agentVersion : -1;
+        log.info("Agent {} verbunden von {} (Version {})", id, session.remoteAddress, from);
+        Encoded diff = encodeDiff(from);
+        if (diff.frame != null) {
+            session.out.putBytes(diff.frame, 0, diff.frame.length);
+        }
+        session.sentVersion = diff.to;
+    }
+
+    private void events(Session session, ByteBuffer frame) throws IOException {
+        long count = FleetCodec.getVarLong(frame);
+        for (long i = 0; i < count; i++) {
+            byte kind = frame.get();
+            long ref = FleetCodec.getVarLong(frame);
+            if (ref == session.ruleRefs.size()) {
+                session.ruleRefs.add(FleetCodec.getString(frame));
+            } else if (ref > session.ruleRefs.size()) {
+                throw new ProtocolException("Unbekannte Regelreferenz " + ref);
+            }
+            long micros = FleetCodec.getVarLong(frame) - 1;
+            switch (kind) {
+                case FleetCodec.EVENT_DETECTION:
+                    session.status.countDetection();
+                    metrics.recordDetection(micros < 0 ? -1 : micros * 1_000);
+                    break;
+                case FleetCodec.EVENT_ACTION:
+                case FleetCodec.EVENT_ACTION_FAILED:
+                    boolean success = kind == FleetCodec.EVENT_ACTION;
+                    session.status.countAction(success);
+                    metrics.recordAction(Math.max(0, micros) * 1_000, success);
+                    break;
+                default:
+                    throw new ProtocolException("Unbekannte Ereignisart " + kind);
+            }
+        }
+    }
+
+    /**
+     * Schickt allen Agenten mit leerem Sendepuffer die Aenderungen seit ihrem letzten Stand.
+     */
+    private void pushAll() throws IOException {
+        Map<Long, Encoded> encoded = new HashMap<>();
+        for (SelectionKey key : selector.keys()) {
+            if (!key.isValid() || !(key.attachment() instanceof Session)) {
+                continue;
+            }
+            Session session = (Session) key.attachment();
+            if (session.status != null && session.out.size() == 0) {
+                push(key, session, encoded);
+            }
+        }
+    }
+
+    private void push(SelectionKey key, Session session, Map<Long, Encoded> encoded) {
+        Encoded diff = encoded.get(session.sentVersion);
+        if (diff == null) {
+            diff = encodeDiff(session.sentVersion);
+            encoded.put(session.sentVersion, diff);
+        }
+        if (diff.frame == null) {
+            return;
+        }
+        session.out.putBytes(diff.frame, 0, diff.frame.length);
+        session.sentVersion = diff.to;
+        try {
+            flush(key);
+        } catch (IOException ex) {
+            log.warn("Verbindung zu Agent {} getrennt: {}", session.status.getId(), ex.toString());
+            disconnect(key);
+        }
+    }
+
+    /**
+     * Kodiert die Aenderungen seit einer Version als RULES-Frame.
+     *
+     * @return Frame ({@code null}, falls der Agent aktuell ist) und erreichte Version
+     */
+    private Encoded encodeDiff(long from) {
+        RuleHistory.Diff diff;
+        synchronized (this) {
+            diff = history.diffSince(from);
+        }
+        if (!diff.reset && diff.to == from) {
+            return new Encoded(null, from);
+        }
+        FleetCodec codec = new FleetCodec(256 + diff.puts.size() * 64);
+        codec.begin(FleetCodec.RULES)
+                .putLong(epoch)
+                .putVarLong(diff.from)
+                .putVarLong(diff.to)
+                .putByte(diff.reset ? 1 : 0)
+                .putVarLong(diff.puts.size());
+        for (AutomationRule rule : diff.puts) {
+            codec.putRule(rule);
+        }
+        codec.putVarLong(diff.removes.size());
+        for (String id : diff.removes) {
+            codec.putString(id);
+        }
+        codec.end();
+        return new Encoded(Arrays.copyOf(codec.buffer().array(), codec.size()), diff.to);
+    }
+
+    private void flush(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Session session = (Session) key.attachment();
+        ByteBuffer out = session.out.buffer();
+        out.flip();
+        channel.write(out);
+        out.compact();
+        if (out.position() > 0) {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            return;
+        }
+        key.interestOps(SelectionKey.OP_READ);
+        if (session.status != null && session.sentVersion < getVersion()) {
+            // Waehrend des Sendens aufgelaufene Aenderungen als einen Diff nachschicken
+            push(key, session, new HashMap<>());
+        }
+    }
+
+    private void disconnect(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ex) {
+            log.debug("Fehler beim Schliessen einer Agentenverbindung: {}", ex.getMessage());
+        }
+        Session session = (Session) key.attachment();
+        if (session != null && session.status != null) {
+            session.status.disconnected(session);
+            log.info("Agent {} getrennt", session.status.getId());
+        }
+        key.attach(null);
+    }
+
+    private void shutdown() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.channel() != serverChannel) {
+                disconnect(key);
+            }
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException ex) {
+            log.warn("Fehler beim Schliessen des Koordinators: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Einstiegspunkt fuer den Koordinator.
+     *
+     * @param args {@code journal [port] [steuerPort]}
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Aufruf: FleetCoordinator <regeljournal> [port] [steuerPort]");
+            System.exit(1);
+            return;
+        }
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        RuleStore store = RuleStore.open(Path.of(args[0]));
+        FleetCoordinator coordinator = new FleetCoordinator(store, new InetSocketAddress(port), AutomationMetrics.global());
+        coordinator.start();
+        ControlServer control = null;
+        if (args.length > 2) {
+            control = ControlServer.loopback(coordinator, Integer.parseInt(args[2]));
+            control.start();
+        }
+
+        ControlServer controlServer = control;
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (controlServer != null) {
+                controlServer.close();
+            }
+            coordinator.close();
+            try {
+                store.close();
+            } catch (IOException e) {
+                log.warn("Regeljournal konnte nicht geschlossen werden: {}", e.getMessage());
+            }
+            stopped.countDown();
+        }, "Coordinator-Shutdown"));
+        stopped.await();
+    }
+
+    /** Zustand einer Agentenverbindung */
+    private static final class Session {
+        private final String remoteAddress;
+        private ByteBuffer in = ByteBuffer.allocate(READ_BUFFER);
+        private final FleetCodec out = new FleetCodec(WRITE_BUFFER);
+        private final List<String> ruleRefs = new ArrayList<>();
+        private AgentStatus status;
+        private long sentVersion = -1;
+
+        private Session(String remoteAddress) {
+            this.remoteAddress = remoteAddress;
+        }
+    }
+
+    /** Kodierter Diff und die Version, die der Agent danach erreicht */
+    private static final class Encoded {
+        private final byte[] frame;
+        private final long to;
+
+        private Encoded(byte[] frame, long to) {
+            this.frame = frame;
+            this.to = to;
+        }
+    }
+}
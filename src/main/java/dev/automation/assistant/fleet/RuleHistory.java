@@ -0,0 +1,153 @@
+package dev.automation.assistant.fleet;
+
+import dev.automation.assistant.rules.AutomationRule;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versionierte Aenderungshistorie des Regelsatzes auf dem Koordinator.
+ * <p>
+ * Jede Aenderung erhoeht die Version um eins. Fuer einen Agenten mit bekanntem Stand
+ * wird daraus ein Diff berechnet, in dem pro Regel nur die letzte Aenderung enthalten ist.
+ * Liegt der Stand des Agenten vor der aufbewahrten Historie, wird stattdessen ein
+ * vollstaendiger Regelsatz (Reset) geliefert.
+ * </p>
+ * <p>
+ * Die Klasse ist nicht threadsicher; der {@link FleetCoordinator} synchronisiert die Zugriffe.
+ * </p>
+ */
+final class RuleHistory {
+
+    private final int limit;
+    private final Map<String, AutomationRule> current = new LinkedHashMap<>();
+    private final ArrayDeque<Change> changes = new ArrayDeque<>();
+    private long version;
+
+    /** Aelteste Version, ab der ein Diff noch moeglich ist */
+    private long floor;
+
+    /**
+     * @param rules Ausgangsbestand (Version 0)
+     * @param limit Maximale Anzahl aufbewahrter Aenderungen
+     */
+    RuleHistory(Collection<AutomationRule> rules, int limit) {
+        this.limit = limit;
+        for (AutomationRule rule : rules) {
+            current.put(rule.getId(), rule);
+        }
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    long getFloor() {
+        return floor;
+    }
+
+    List<AutomationRule> getRules() {
+        return new ArrayList<>(current.values());
+    }
+
+    /**
+     * Fuegt eine Regel hinzu oder ersetzt sie.
+     *
+     * @return Neue Version oder die bisherige, falls sich nichts geaendert hat
+     */
+    long put(AutomationRule rule) {
+        if (rule.equals(current.get(rule.getId()))) {
+            return version;
+        }
+        current.put(rule.getId(), rule);
+        return record(rule.getId(), rule);
+    }
+
+    /**
+     * Entfernt eine Regel.
+     *
+     * @return Neue Version oder -1, falls die Regel nicht existierte
+     */
+    long remove(String id) {
+        if (current.remove(id) == null) {
+            return -1;
+        }
+        return record(id, null);
+    }
+
+    private long record(String id, AutomationRule rule) {
+        version++;
+        changes.addLast(new Change(version, id, rule));
+        while (changes.size() > limit) {
+            floor = changes.removeFirst().version;
+        }
+        return version;
+    }
+
+    /**
+     * Berechnet die Aenderungen seit einer Version.
+     *
+     * @param from Stand des Agenten oder -1, falls unbekannt
+     * @return Diff bis zur aktuellen Version
+     */
+    Diff diffSince(long from) {
+        if (from < floor || from > version) {
+            return new Diff(0, version, true, getRules(), List.of());
+        }
+        // Letzte Aenderung pro Regel, in der Reihenfolge dieser letzten Aenderungen
+        Map<String, AutomationRule> latest = new LinkedHashMap<>();
+        for (Change change : changes) {
+            if (change.version > from) {
+                latest.remove(change.id);
+                latest.put(change.id, change.rule);
+            }
+        }
+        List<AutomationRule> puts = new ArrayList<>();
+        List<String> removes = new ArrayList<>();
+        for (Map.Entry<String, AutomationRule> entry : latest.entrySet()) {
+            if (entry.getValue() != null) {
+                puts.add(entry.getValue());
+            } else {
+                removes.add(entry.getKey());
+            }
+        }
+        return new Diff(from, version, false, puts, removes);
+    }
+
+    /** Eine einzelne Aenderung; {@code rule == null} bedeutet Entfernen */
+    private static final class Change {
+        private final long version;
+        private final String id;
+        private final AutomationRule rule;
+
+        private Change(long version, String id, AutomationRule rule) {
+            this.version = version;
+            this.id = id;
+            this.rule = rule;
+        }
+    }
+
+    /**
+     * Aenderungen zwischen zwei Versionen. Bei {@code reset} enthaelt {@code puts}
+     * den vollstaendigen Regelsatz, alle anderen Regeln des Agenten sind zu verwerfen.
+     */
+    static final class Diff {
+        final long from;
+        final long to;
+        final boolean reset;
+        final List<AutomationRule> puts;
+        final List<String> removes;
+
+        Diff(long from, long to, boolean reset, List<AutomationRule> puts, List<String> removes) {
+            this.from = from;
+            this.to = to;
+            this.reset = reset;
+            this.puts = puts;
+            this.removes = removes;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package dev.automation.assistant.macro;
+
+import dev.automation.assistant.rules.ControlSelector;
+
+/**
+ * Kompiliertes Makro: ein flaches Befehlsarray plus Konstanten, erzeugt vom {@link MacroCompiler}.
+ * <p>
+ * Jeder Befehl belegt {@link #WIDTH} aufeinanderfolgende {@code int}-Werte: Opcode und zwei
+ * Operanden. Zeichenketten und Steuerelement-Selektoren stehen in eigenen Tabellen und werden
+ * ueber ihren Index referenziert. Ein Makro ist unveraenderlich und kann von beliebig vielen
+ * gleichzeitigen Laeufen der {@link MacroEngine} geteilt werden.
+ * </p>
+ */
+public final class Macro {
+
+    /** Anzahl {@code int}-Werte pro Befehl */
+    static final int WIDTH = 3;
+
+    /** Steuerelement klicken: a = Selektor */
+    static final int OP_CLICK = 1;
+    /** Tastenfolge senden: a = Zeichenkette */
+    static final int OP_KEYS = 2;
+    /** Auf ein Fenster mit exaktem Titel warten und es zum aktuellen Fenster machen: a = Titel, b = Timeout (ms) */
+    static final int OP_WAIT_WINDOW = 3;
+    /** Auf eine Titelaenderung des aktuellen Fensters warten: a = Titel oder -1 fuer jede Aenderung, b = Timeout (ms) */
+    static final int OP_WAIT_TITLE = 4;
+    /** Aktuelles Fenster schliessen */
+    static final int OP_CLOSE = 5;
+    /** Feste Wartezeit: a = Millisekunden */
+    static final int OP_DELAY = 6;
+    /** Mauszeiger auf eine Bildschirmposition setzen: a = x, b = y */
+    static final int OP_MOVE = 7;
+    /** Linke Maustaste druecken */
+    static final int OP_PRESS = 8;
+    /** Linke Maustaste loslassen */
+    static final int OP_RELEASE = 9;
+
+    private final String source;
+    private final int[] code;
+    private final String[] strings;
+    private final ControlSelector[] controls;
+    private final boolean mouse;
+
+    Macro(String source, int[] code, String[] strings, ControlSelector[] controls) {
+        this.source = source;
+        this.code = code;
+        this.strings = strings;
+        this.controls = controls;
+        boolean usesMouse = false;
+        for (int i = 0; i < code.length; i += WIDTH) {
+            int op = code[i];
+            usesMouse |= op == OP_MOVE || op == OP_PRESS || op == OP_RELEASE;
+        }
+        this.mouse = usesMouse;
+    }
+
+    /**
+     * @return Textdefinition, aus der das Makro kompiliert wurde
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return Anzahl Schritte
+     */
+    public int size() {
+        return code.length / WIDTH;
+    }
+
+    /**
+     * @return {@code true}, falls das Makro die physische Maus bewegt oder klickt
+     */
+    public boolean usesMouse() {
+        return mouse;
+    }
+
+    int opAt(int step) {
+        return code[step * WIDTH];
+    }
+
+    int argA(int step) {
+        return code[step * WIDTH + 1];
+    }
+
+    int argB(int step) {
+        return code[step * WIDTH + 2];
+    }
+
+    String string(int index) {
+        return strings[index];
+    }
+
+    ControlSelector control(int index) {
+        return controls[index];
+    }
+
+    /**
+     * @return Lesbare Darstellung eines Schritts, z. B. fuer Fehlermeldungen
+     */
+    String describe(int step) {
+        int a = argA(step);
+        int b = argB(step);
+        switch (opAt(step)) {
+            case OP_CLICK:
+                return "click " + control(a);
+            case OP_KEYS:
+                return "keys (" + string(a).length() + " Zeichen)";
+            case OP_WAIT_WINDOW:
+                return "wait window '" + string(a) + "' " + b;
+            case OP_WAIT_TITLE:
+                return "wait title " + (a >= 0 ? "'" + string(a) + "' " : "") + b;
+            case OP_CLOSE:
+                return "close";
+            case OP_DELAY:
+                return "delay " + a;
+            case OP_MOVE:
+                return "move " + a + " " + b;
+            case OP_PRESS:
+                return "press";
+            case OP_RELEASE:
+                return "release";
+            default:
+                return "op " + opAt(step);
+        }
+    }
+
+    /**
+     * Makros sind gleich, wenn sie aus derselben Textdefinition kompiliert wurden.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Macro)) return false;
+        return source.equals(((Macro) o).source);
+    }
+
+    @Override
+    public int hashCode() {
+        return source.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "Macro[" + size() + " Schritte]";
+    }
+}
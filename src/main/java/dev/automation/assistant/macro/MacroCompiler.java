@@ -0,0 +1,317 @@
+package dev.automation.assistant.macro;
+
+import dev.automation.assistant.platform.WindowActions;
+import dev.automation.assistant.rules.ControlSelector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Uebersetzt die Textdefinition eines Makros in ein {@link Macro}.
+ *
+ * <h2>Format:</h2>
+ * <pre>
+ * # Speichern-Dialog bestaetigen
+ * click Button "&amp;Ja" 6
+ * wait window "Speichern unter" 5000
+ * keys "bericht.txt{ENTER}"
+ * wait title "Gespeichert"
+ * close
+ * </pre>
+ * <p>
+ * Schritte stehen je in einer Zeile oder sind durch {@code ;} getrennt. Argumente mit
+ * Leerzeichen werden in {@code "} gesetzt; {@code \"} und {@code \\} maskieren innerhalb
+ * davon. Zeilen mit {@code #} werden ignoriert.
+ * </p>
+ * <ul>
+ *   <li>{@code click klasse text controlId} &ndash; Steuerelement des aktuellen Fensters klicken</li>
+ *   <li>{@code keys text} &ndash; Tastenfolge senden; {@code {ENTER}}, {@code {TAB}}, {@code {ESC}},
+ *       {@code {{}} fuer eine geschweifte Klammer</li>
+ *   <li>{@code wait window titel [ms]} &ndash; auf ein Fenster mit exaktem Titel warten; es wird
+ *       zum aktuellen Fenster</li>
+ *   <li>{@code wait title [titel] [ms]} &ndash; warten, bis das aktuelle Fenster den Titel
+ *       annimmt bzw. ohne Titel, bis er sich aendert</li>
+ *   <li>{@code delay ms} &ndash; feste Wartezeit</li>
+ *   <li>{@code move x y} &ndash; Mauszeiger auf eine Bildschirmposition setzen</li>
+ *   <li>{@code press} / {@code release} &ndash; linke Maustaste druecken bzw. loslassen</li>
+ *   <li>{@code close} &ndash; aktuelles Fenster schliessen</li>
+ * </ul>
+ * <p>
+ * Ohne Angabe warten Warteschritte hoechstens {@link #DEFAULT_TIMEOUT_MS} Millisekunden.
+ * </p>
+ */
+public final class MacroCompiler {
+
+    /** Standard-Timeout der Warteschritte in Millisekunden */
+    public static final int DEFAULT_TIMEOUT_MS = 5000;
+
+    private int[] code = new int[16 * Macro.WIDTH];
+    private int size;
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+    private final List<ControlSelector> controls = new ArrayList<>();
+
+    private MacroCompiler() {
+    }
+
+    /**
+     * Makro fuer einen Mausklick auf eine Bildschirmposition, wie ihn ein Benutzer ausfuehrt:
+     * Zeiger setzen, warten, druecken, warten, loslassen. Die Wartezeiten belegen keinen Thread.
+     *
+     * @param x       X-Koordinate
+     * @param y       Y-Koordinate
+     * @param pauseMs Pause vor dem Druecken und vor dem Loslassen in Millisekunden
+     * @return Kompiliertes Makro
+     */
+    public static Macro mouseClick(int x, int y, int pauseMs) {
+        return compile("move " + x + " " + y + "; delay " + pauseMs + "; press; delay " + pauseMs + "; release");
+    }
+
+    /**
+     * Kompiliert eine Makrodefinition.
+     *
+     * @param source Textdefinition
+     * @return Kompiliertes Makro
+     * @throws IllegalArgumentException bei ungueltigen Schritten (mit Schrittnummer)
+     */
+    public static Macro compile(String source) {
+        MacroCompiler compiler = new MacroCompiler();
+        List<List<String>> steps = tokenize(source);
+        for (int i = 0; i < steps.size(); i++) {
+            try {
+                compiler.step(steps.get(i));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Schritt " + (i + 1) + ": " + ex.getMessage(), ex);
+            }
+        }
+        if (compiler.size == 0) {
+            throw new IllegalArgumentException("Makro ohne Schritte");
+        }
+        return new Macro(source, Arrays.copyOf(compiler.code, compiler.size * Macro.WIDTH),
+                compiler.strings.toArray(new String[0]), compiler.controls.toArray(new ControlSelector[0]));
+    }
+
+    private void step(List<String> tokens) {
+        String command = tokens.get(0).toLowerCase(Locale.ROOT);
+        switch (command) {
+            case "click":
+                arguments(tokens, 4, 4);
+                controls.add(new ControlSelector(tokens.get(1), tokens.get(2), parseInt(tokens.get(3), "controlId")));
+                emit(Macro.OP_CLICK, controls.size() - 1, 0);
+                break;
+            case "keys":
+                arguments(tokens, 2, 2);
+                emit(Macro.OP_KEYS, intern(parseKeys(tokens.get(1))), 0);
+                break;
+            case "wait":
+                compileWait(tokens);
+                break;
+            case "delay":
+                arguments(tokens, 2, 2);
+                emit(Macro.OP_DELAY, parseMillis(tokens.get(1)), 0);
+                break;
+            case "close":
+                arguments(tokens, 1, 1);
+                emit(Macro.OP_CLOSE, 0, 0);
+                break;
+            case "move":
+                arguments(tokens, 3, 3);
+                emit(Macro.OP_MOVE, parseInt(tokens.get(1), "x"), parseInt(tokens.get(2), "y"));
+                break;
+            case "press":
+                arguments(tokens, 1, 1);
+                emit(Macro.OP_PRESS, 0, 0);
+                break;
+            case "release":
+                arguments(tokens, 1, 1);
+                emit(Macro.OP_RELEASE, 0, 0);
+                break;
+            default:
+                throw new IllegalArgumentException("unbekannter Befehl '" + tokens.get(0) + "'");
+        }
+    }
+
+    private void compileWait(List<String> tokens) {
+        if (tokens.size() < 2) {
+            throw new IllegalArgumentException("wait erwartet 'window' oder 'title'");
+        }
+        String kind = tokens.get(1).toLowerCase(Locale.ROOT);
+        if (kind.equals("window")) {
+            arguments(tokens, 3, 4);
+            int timeout = tokens.size() == 4 ? parseMillis(tokens.get(3)) : DEFAULT_TIMEOUT_MS;
+            emit(Macro.OP_WAIT_WINDOW, intern(tokens.get(2)), timeout);
+        } else if (kind.equals("title")) {
+            arguments(tokens, 2, 4);
+            int title = -1;
+            int timeout = DEFAULT_TIMEOUT_MS;
+            if (tokens.size() == 4) {
+                title = intern(tokens.get(2));
+                timeout = parseMillis(tokens.get(3));
+            } else if (tokens.size() == 3) {
+                // Ein einzelnes Argument ist ein Titel, sofern es nicht rein numerisch ist
+                String argument = tokens.get(2);
+                if (isNumber(argument)) {
+                    timeout = parseMillis(argument);
+                } else {
+                    title = intern(argument);
+                }
+            }
+            emit(Macro.OP_WAIT_TITLE, title, timeout);
+        } else {
+            throw new IllegalArgumentException("wait erwartet 'window' oder 'title', gefunden: '" + tokens.get(1) + "'");
+        }
+    }
+
+    private void emit(int op, int a, int b) {
+        if ((size + 1) * Macro.WIDTH > code.length) {
+            code = Arrays.copyOf(code, code.length * 2);
+        }
+        int offset = size * Macro.WIDTH;
+        code[offset] = op;
+        code[offset + 1] = a;
+        code[offset + 2] = b;
+        size++;
+    }
+
+    private int intern(String value) {
+        Integer index = stringIndex.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.add(value);
+            stringIndex.put(value, index);
+        }
+        return index;
+    }
+
+    private static void arguments(List<String> tokens, int min, int max) {
+        if (tokens.size() < min || tokens.size() > max) {
+            throw new IllegalArgumentException(tokens.get(0) + ": " + (min == max ? min - 1 : (min - 1) + " bis " + (max - 1))
+                    + " Argumente erwartet, gefunden: " + (tokens.size() - 1));
+        }
+    }
+
+    /**
+     * Ersetzt die Sondertasten in geschweiften Klammern durch ihre Steuerzeichen.
+     */
+    static String parseKeys(String text) {
+        StringBuilder keys = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '{') {
+                keys.append(c);
+                continue;
+            }
+            if (i + 1 < text.length() && text.charAt(i + 1) == '{') {
+                keys.append('{');
+                i++;
+                continue;
+            }
+            int end = text.indexOf('}', i);
+            if (end < 0) {
+                throw new IllegalArgumentException("nicht geschlossene Sondertaste in '" + text + "'");
+            }
+            String name = text.substring(i + 1, end).toUpperCase(Locale.ROOT);
+            switch (name) {
+                case "ENTER":
+                    keys.append(WindowActions.KEY_ENTER);
+                    break;
+                case "TAB":
+                    keys.append(WindowActions.KEY_TAB);
+                    break;
+                case "ESC":
+                    keys.append(WindowActions.KEY_ESCAPE);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unbekannte Sondertaste {" + name + "}");
+            }
+            i = end;
+        }
+        return keys.toString();
+    }
+
+    /**
+     * Zerlegt die Definition in Schritte aus Woertern bzw. Zeichenketten in Anfuehrungszeichen.
+     */
+    static List<List<String>> tokenize(String source) {
+        List<List<String>> steps = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean inToken = false;
+        boolean quoted = false;
+        boolean comment = false;
+        for (int i = 0; i <= source.length(); i++) {
+            char c = i < source.length() ? source.charAt(i) : '\n';
+            if (comment) {
+                if (c == '\n') {
+                    comment = false;
+                } else {
+                    continue;
+                }
+            }
+            if (quoted) {
+                if (c == '\\' && i + 1 < source.length() && (source.charAt(i + 1) == '"' || source.charAt(i + 1) == '\\')) {
+                    token.append(source.charAt(++i));
+                } else if (c == '"') {
+                    quoted = false;
+                } else if (c == '\n') {
+                    throw new IllegalArgumentException("Schritt " + (steps.size() + 1) + ": nicht geschlossene Anfuehrungszeichen");
+                } else {
+                    token.append(c);
+                }
+                continue;
+            }
+            if (c == '"') {
+                quoted = true;
+                inToken = true;
+            } else if (c == '#' && !inToken && tokens.isEmpty()) {
+                comment = true;
+            } else if (Character.isWhitespace(c) || c == ';') {
+                if (inToken) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    inToken = false;
+                }
+                if ((c == ';' || c == '\n') && !tokens.isEmpty()) {
+                    steps.add(tokens);
+                    tokens = new ArrayList<>();
+                }
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        return steps;
+    }
+
+    private static boolean isNumber(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parseMillis(String value) {
+        int millis = parseInt(value, "Millisekunden");
+        if (millis < 0) {
+            throw new IllegalArgumentException("negative Wartezeit: " + millis);
+        }
+        return millis;
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("ungueltiger Wert fuer " + name + ": '" + value + "'");
+        }
+    }
+}
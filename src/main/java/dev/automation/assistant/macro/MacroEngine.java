@@ -0,0 +1,382 @@
+package dev.automation.assistant.macro;
+
+import dev.automation.assistant.platform.WindowActions;
+import dev.automation.assistant.platform.WindowBackend;
+import dev.automation.assistant.service.ControlResolver;
+import dev.automation.assistant.util.TaskExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Fuehrt kompilierte {@link Macro}s als nicht blockierende Zustandsmaschinen aus.
+ * <p>
+ * Ein Lauf fuehrt Schritte aus, bis er warten muss, und gibt den Thread dann sofort
+ * zurueck. Feste Wartezeiten ({@code delay}) werden als Scheduler-Aufgabe zum exakten
+ * Zeitpunkt fortgesetzt. Warteschritte auf Fenster oder Titel setzen eine Frist und
+ * landen in einer gemeinsamen Warteliste, die ein einziger periodischer Durchlauf alle
+ * {@code pollIntervalMs} prueft: Fenster werden dabei einmal pro Durchlauf enumeriert,
+ * unabhaengig davon, wie viele Laeufe warten. Abgelaufene Fristen beenden den Lauf mit
+ * {@link MacroRun.Status#TIMED_OUT}, spaetestens einen Durchlauf nach der Frist.
+ * </p>
+ * <p>
+ * Kein Thread schlaeft fuer einen Lauf; tausende gleichzeitige Makros teilen sich die
+ * wenigen Threads des Schedulers. Alle Fensteraktionen werden nur zugestellt
+ * ({@link WindowActions}) und blockieren nicht.
+ * </p>
+ * <p>
+ * Es gibt nur einen Mauszeiger: Makros mit Mausschritten ({@link Macro#usesMouse()}) laufen
+ * deshalb nacheinander. Ein solcher Lauf startet erst, wenn der vorherige Mauslauf beendet ist,
+ * damit sich Bewegen, Druecken und Loslassen zweier Klicks nicht mischen.
+ * </p>
+ */
+public final class MacroEngine implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MacroEngine.class);
+
+    /** Standardabstand der Pruefung wartender Laeufe */
+    public static final long DEFAULT_POLL_INTERVAL_MS = 20;
+
+    private final WindowBackend backend;
+    private final WindowActions actions;
+    private final ControlResolver resolver;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /** Alle nicht beendeten Laeufe */
+    private final Set<MacroRun> active = ConcurrentHashMap.newKeySet();
+
+    /** Laeufe in einem Warteschritt; nur der Pruefdurchlauf entnimmt */
+    private final Queue<MacroRun> waiting = new ConcurrentLinkedQueue<>();
+
+    /** Mauslaeufe, die auf die Maus warten; geschuetzt durch sich selbst */
+    private final ArrayDeque<MacroRun> mouseQueue = new ArrayDeque<>();
+
+    /** Lauf, der die Maus gerade belegt; geschuetzt durch {@link #mouseQueue} */
+    private MacroRun mouseOwner;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder polls = new LongAdder();
+
+    /**
+     * @param backend        Zugriff auf Fensterliste und Titel
+     * @param actions        Fensteraktionen
+     * @param threads        Threads des Schedulers
+     * @param pollIntervalMs Abstand der Pruefung wartender Laeufe in Millisekunden
+     */
+    public MacroEngine(WindowBackend backend, WindowActions actions, int threads, long pollIntervalMs) {
+        if (threads < 1 || pollIntervalMs < 1) {
+            throw new IllegalArgumentException("Threads und Pruefintervall muessen positiv sein");
+        }
+        this.backend = backend;
+        this.actions = actions;
+        this.resolver = new ControlResolver(backend);
+        this.scheduler = new ScheduledThreadPoolExecutor(threads, TaskExecutors.threadFactory("Macro"));
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler.scheduleWithFixedDelay(this::pollSafely, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Startet ein Makro auf einem Fenster.
+     *
+     * @param macro  Kompiliertes Makro
+     * @param window Aktuelles Fenster zu Beginn (z. B. der erkannte Dialog)
+     * @return Lauf
+     */
+    public MacroRun start(Macro macro, long window) {
+        return start(macro, window, null);
+    }
+
+    /**
+     * Startet ein Makro auf einem Fenster.
+     *
+     * @param macro      Kompiliertes Makro
+     * @param window     Aktuelles Fenster zu Beginn (z. B. der erkannte Dialog)
+     * @param onComplete Wird nach dem Ende auf dem beendenden Thread aufgerufen; darf {@code null} sein
+     * @return Lauf
+     */
+    public MacroRun start(Macro macro, long window, Consumer<MacroRun> onComplete) {
+        MacroRun run = new MacroRun(macro, window, onComplete, this::retire);
+        active.add(run);
+        if (macro.usesMouse()) {
+            synchronized (mouseQueue) {
+                if (mouseOwner != null) {
+                    mouseQueue.add(run);
+                    return run;
+                }
+                mouseOwner = run;
+            }
+        }
+        submit(run);
+        return run;
+    }
+
+    /**
+     * @return Anzahl laufender oder wartender Makros
+     */
+    public int getInFlight() {
+        return active.size();
+    }
+
+    /**
+     * @return Anzahl Makros in einem Warteschritt auf Fenster oder Titel
+     */
+    public int getWaiting() {
+        return waiting.size();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return Anzahl bisheriger Pruefdurchlaeufe mit wartenden Laeufen
+     */
+    public long getPolls() {
+        return polls.sum();
+    }
+
+    /**
+     * Bricht alle Laeufe ab und beendet die Scheduler-Threads.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        for (MacroRun run : active) {
+            run.cancel();
+        }
+        waiting.clear();
+        synchronized (mouseQueue) {
+            mouseQueue.clear();
+        }
+    }
+
+    private void retire(MacroRun run) {
+        active.remove(run);
+        if (run.getMacro().usesMouse()) {
+            releaseMouse(run);
+        }
+        if (run.getStatus() == MacroRun.Status.DONE) {
+            completed.increment();
+        } else {
+            failed.increment();
+        }
+    }
+
+    /**
+     * Gibt die Maus frei bzw. entfernt einen wartenden Lauf und startet den naechsten Mauslauf.
+     */
+    private void releaseMouse(MacroRun run) {
+        MacroRun next;
+        synchronized (mouseQueue) {
+            if (mouseOwner != run) {
+                mouseQueue.remove(run);
+                return;
+            }
+            next = mouseQueue.poll();
+            mouseOwner = next;
+        }
+        if (next != null) {
+            submit(next);
+        }
+    }
+
+    private void submit(MacroRun run) {
+        try {
+            scheduler.execute(() -> execute(run));
+        } catch (RejectedExecutionException ex) {
+            run.cancel();
+        }
+    }
+
+    /**
+     * Interpreter: fuehrt Schritte aus, bis der Lauf endet oder warten muss.
+     */
+    void execute(MacroRun run) {
+        Macro macro = run.getMacro();
+        try {
+            while (run.isRunning()) {
+                int step = run.pc;
+                if (step >= macro.size()) {
+                    run.finish(MacroRun.Status.DONE, null, -1);
+                    return;
+                }
+                int a = macro.argA(step);
+                int b = macro.argB(step);
+                switch (macro.opAt(step)) {
+                    case Macro.OP_CLICK:
+                        long control = resolver.resolve(run.window, macro.control(a));
+                        if (control == 0 || !actions.click(control)) {
+                            fail(run, step, "Steuerelement " + macro.control(a) + " nicht gefunden");
+                            return;
+                        }
+                        break;
+                    case Macro.OP_KEYS:
+                        if (!actions.sendKeys(run.window, macro.string(a))) {
+                            fail(run, step, "Fenster existiert nicht mehr");
+                            return;
+                        }
+                        break;
+                    case Macro.OP_CLOSE:
+                        if (!actions.close(run.window)) {
+                            fail(run, step, "Fenster existiert nicht mehr");
+                            return;
+                        }
+                        break;
+                    case Macro.OP_MOVE:
+                        if (!actions.moveMouse(a, b)) {
+                            fail(run, step, "Mauszeiger nicht gesetzt");
+                            return;
+                        }
+                        break;
+                    case Macro.OP_PRESS:
+                    case Macro.OP_RELEASE:
+                        if (!actions.mouseButton(macro.opAt(step) == Macro.OP_PRESS)) {
+                            fail(run, step, "Mausereignis nicht zugestellt");
+                            return;
+                        }
+                        break;
+                    case Macro.OP_DELAY:
+                        if (a > 0) {
+                            run.pc = step + 1;
+                            scheduler.schedule(() -> execute(run), a, TimeUnit.MILLISECONDS);
+                            return;
+                        }
+                        break;
+                    case Macro.OP_WAIT_WINDOW:
+                        // Fenstersuche erfolgt gesammelt im naechsten Pruefdurchlauf
+                        arm(run, b);
+                        waiting.add(run);
+                        return;
+                    case Macro.OP_WAIT_TITLE:
+                        String current = backend.getWindowTitle(run.window);
+                        if (a >= 0 && macro.string(a).equals(current)) {
+                            break;
+                        }
+                        arm(run, b);
+                        run.baselineTitle = current;
+                        waiting.add(run);
+                        return;
+                    default:
+                        fail(run, step, "unbekannter Befehl " + macro.opAt(step));
+                        return;
+                }
+                run.pc = step + 1;
+            }
+        } catch (RejectedExecutionException ex) {
+            run.cancel();
+        } catch (RuntimeException ex) {
+            log.warn("Makroschritt {} fehlgeschlagen", macro.describe(run.pc), ex);
+            fail(run, run.pc, ex.toString());
+        }
+    }
+
+    private static void arm(MacroRun run, int timeoutMs) {
+        run.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    private boolean titleReached(MacroRun run, Macro macro, int title) {
+        String current = backend.getWindowTitle(run.window);
+        return title >= 0 ? macro.string(title).equals(current) : !current.equals(run.baselineTitle);
+    }
+
+    private static void fail(MacroRun run, int step, String reason) {
+        run.finish(MacroRun.Status.FAILED, run.getMacro().describe(step) + ": " + reason, step);
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException ex) {
+            log.warn("Pruefung wartender Makros fehlgeschlagen", ex);
+        }
+    }
+
+    /**
+     * Prueft alle wartenden Laeufe. Fenster werden dabei hoechstens einmal enumeriert.
+     */
+    void poll() {
+        if (waiting.isEmpty()) {
+            return;
+        }
+        polls.increment();
+        long now = System.nanoTime();
+        Map<String, Long> windowsByTitle = null;
+
+        for (Iterator<MacroRun> it = waiting.iterator(); it.hasNext(); ) {
+            MacroRun run = it.next();
+            if (!run.isRunning()) {
+                it.remove();
+                continue;
+            }
+            Macro macro = run.getMacro();
+            int step = run.pc;
+            boolean reached;
+            if (macro.opAt(step) == Macro.OP_WAIT_WINDOW) {
+                if (windowsByTitle == null) {
+                    windowsByTitle = findWaitedWindows();
+                }
+                Long found = windowsByTitle.get(macro.string(macro.argA(step)));
+                reached = found != null;
+                if (reached) {
+                    run.window = found;
+                }
+            } else if (!backend.isWindow(run.window)) {
+                it.remove();
+                fail(run, step, "Fenster existiert nicht mehr");
+                continue;
+            } else {
+                reached = titleReached(run, macro, macro.argA(step));
+            }
+
+            if (reached) {
+                it.remove();
+                run.pc = step + 1;
+                submit(run);
+            } else if (now - run.deadlineNanos >= 0) {
+                it.remove();
+                run.finish(MacroRun.Status.TIMED_OUT, macro.describe(step) + ": Frist abgelaufen", step);
+            }
+        }
+    }
+
+    /**
+     * Enumeriert die Fenster einmal und liefert zu jedem erwarteten Titel das erste passende Fenster.
+     */
+    private Map<String, Long> findWaitedWindows() {
+        Map<String, Long> wanted = new HashMap<>();
+        for (MacroRun run : waiting) {
+            Macro macro = run.getMacro();
+            int step = run.pc;
+            if (step < macro.size() && macro.opAt(step) == Macro.OP_WAIT_WINDOW) {
+                wanted.put(macro.string(macro.argA(step)), null);
+            }
+        }
+        Map<String, Long> found = new HashMap<>();
+        backend.enumerateWindows(handle -> {
+            String title = backend.getWindowTitle(handle);
+            if (wanted.containsKey(title)) {
+                found.putIfAbsent(title, handle);
+            }
+            return found.size() < wanted.size();
+        });
+        return found;
+    }
+}
@@ -0,0 +1,148 @@
+package dev.automation.assistant.macro;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Ein laufendes oder beendetes Makro in der {@link MacroEngine}.
+ * <p>
+ * Der Zustand des Interpreters (Befehlszaehler, aktuelles Fenster, Frist des laufenden
+ * Warteschritts) wird immer nur von einem Thread gleichzeitig veraendert: Die Engine reicht
+ * den Lauf zwischen Scheduler-Aufgaben und Warteliste weiter, ohne dass ein Thread auf ihn
+ * wartet. Status, Ergebnis und {@link #cancel()} sind von jedem Thread aus nutzbar.
+ * </p>
+ */
+public final class MacroRun {
+
+    /** Zustand eines Laufs */
+    public enum Status {
+        /** Wird ausgefuehrt oder wartet */
+        RUNNING,
+        /** Alle Schritte ausgefuehrt */
+        DONE,
+        /** Ein Schritt ist fehlgeschlagen */
+        FAILED,
+        /** Ein Warteschritt hat seine Frist ueberschritten */
+        TIMED_OUT,
+        /** Abgebrochen */
+        CANCELLED
+    }
+
+    private final Macro macro;
+    private final Consumer<MacroRun> onComplete;
+    private final long startNanos = System.nanoTime();
+    private final AtomicReference<Outcome> outcome = new AtomicReference<>(Outcome.RUNNING);
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final Consumer<MacroRun> onFinish;
+
+    // Interpreterzustand; nur vom jeweils ausfuehrenden Thread benutzt
+    int pc;
+    long window;
+    long deadlineNanos;
+    String baselineTitle;
+
+    private volatile long endNanos;
+
+    MacroRun(Macro macro, long window, Consumer<MacroRun> onComplete, Consumer<MacroRun> onFinish) {
+        this.macro = macro;
+        this.window = window;
+        this.onComplete = onComplete;
+        this.onFinish = onFinish;
+    }
+
+    public Macro getMacro() {
+        return macro;
+    }
+
+    public Status getStatus() {
+        return outcome.get().status;
+    }
+
+    /**
+     * @return {@code true}, solange das Makro laeuft oder wartet
+     */
+    public boolean isRunning() {
+        return outcome.get() == Outcome.RUNNING;
+    }
+
+    /**
+     * @return Grund des Fehlschlags oder {@code null}
+     */
+    public String getFailure() {
+        return outcome.get().failure;
+    }
+
+    /**
+     * @return Index des fehlgeschlagenen Schritts oder -1
+     */
+    public int getFailedStep() {
+        return outcome.get().step;
+    }
+
+    /**
+     * @return Dauer des Laufs bis jetzt bzw. bis zum Ende in Nanosekunden
+     */
+    public long getElapsedNanos() {
+        long end = endNanos;
+        return (end != 0 ? end : System.nanoTime()) - startNanos;
+    }
+
+    /**
+     * Bricht den Lauf ab. Ein gerade ausgefuehrter Schritt wird noch beendet, danach
+     * folgt kein weiterer.
+     *
+     * @return {@code false}, falls der Lauf bereits beendet war
+     */
+    public boolean cancel() {
+        return finish(Status.CANCELLED, "abgebrochen", -1);
+    }
+
+    /**
+     * Wartet auf das Ende des Laufs.
+     *
+     * @return {@code true}, falls der Lauf innerhalb der Zeit beendet wurde
+     * @throws InterruptedException falls der wartende Thread unterbrochen wird
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    /**
+     * Beendet den Lauf genau einmal.
+     */
+    boolean finish(Status result, String reason, int step) {
+        if (!outcome.compareAndSet(Outcome.RUNNING, new Outcome(result, reason, step))) {
+            return false;
+        }
+        endNanos = System.nanoTime();
+        onFinish.accept(this);
+        done.countDown();
+        if (onComplete != null) {
+            onComplete.accept(this);
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        Outcome current = outcome.get();
+        return "MacroRun[" + current.status + (current.failure != null ? ", " + current.failure : "") + "]";
+    }
+
+    /** Ergebnis als Ganzes, damit Status und Grund immer zusammenpassen */
+    private static final class Outcome {
+        static final Outcome RUNNING = new Outcome(Status.RUNNING, null, -1);
+
+        final Status status;
+        final String failure;
+        final int step;
+
+        Outcome(Status status, String failure, int step) {
+            this.status = status;
+            this.failure = failure;
+            this.step = step;
+        }
+    }
+}
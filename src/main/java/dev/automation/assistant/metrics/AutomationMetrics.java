@@ -0,0 +1,365 @@
+package dev.automation.assistant.metrics;
+
+import dev.automation.assistant.util.PeriodicTask;
+import dev.automation.assistant.util.TaskExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Kennzahlen vom Erscheinen eines Fensters bis zur ausgefuehrten Aktion.
+ * <p>
+ * Erfasst werden vier Latenz-Histogramme sowie Zaehler:
+ * </p>
+ * <ul>
+ *     <li>Erkennungsverzoegerung: Fensterereignis bis Aufruf des Callbacks</li>
+ *     <li>Regelabgleich: Dauer des Titelabgleichs gegen die Regeln</li>
+ *     <li>Aktionsausfuehrung: Dauer eines Klicks bzw. Schliessens</li>
+ *     <li>Regel-Neuladen: Dateiaenderung bis zum aktiven neuen Regelsatz</li>
+ *     <li>Erkennungen, Aktionen, Fehler und unterdrueckte Duplikate</li>
+ *     <li>Gedrosselte Aktionen, Ausloesungen und offene Schutzschalter der Aktionsdrosselung</li>
+ * </ul>
+ * <p>
+ * Die Standardinstanz {@link #global()} wird als MBean unter {@value #OBJECT_NAME}
+ * registriert und kann per JConsole/VisualVM gelesen werden. Zusaetzlich kann eine
+ * periodische Zusammenfassung ins Log geschrieben werden.
+ * </p>
+ */
+public class AutomationMetrics implements AutomationMetricsMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AutomationMetrics.class);
+
+    /** JMX-Name der Standardinstanz */
+    public static final String OBJECT_NAME = "dev.automation.assistant:type=AutomationMetrics";
+
+    private static final AutomationMetrics GLOBAL = new AutomationMetrics();
+    private static boolean globalRegistered;
+
+    private final LatencyHistogram detectionDelay = new LatencyHistogram();
+    private final LatencyHistogram ruleMatch = new LatencyHistogram();
+    private final LatencyHistogram actionExecution = new LatencyHistogram();
+    private final LatencyHistogram ruleReload = new LatencyHistogram();
+
+    private final LongAdder detections = new LongAdder();
+    private final LongAdder actions = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder ruleReloads = new LongAdder();
+    private final LongAdder ruleReloadFailures = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder circuitRejected = new LongAdder();
+    private final LongAdder circuitTrips = new LongAdder();
+    private final LongAdder prefiltered = new LongAdder();
+
+    /** Liefert die Anzahl offener Schutzschalter der zuletzt gebundenen Drosselung */
+    private volatile IntSupplier openCircuits = () -> 0;
+
+    /**
+     * Liefert die anwendungsweite Instanz und registriert sie beim ersten Aufruf als MBean.
+     *
+     * @return Standardinstanz
+     */
+    public static AutomationMetrics global() {
+        synchronized (AutomationMetrics.class) {
+            if (!globalRegistered) {
+                globalRegistered = true;
+                GLOBAL.registerMBean(OBJECT_NAME);
+            }
+        }
+        return GLOBAL;
+    }
+
+    /**
+     * Registriert diese Instanz im Plattform-MBean-Server.
+     *
+     * @param objectName JMX-Name
+     * @return {@code true}, falls die Registrierung erfolgreich war
+     */
+    public boolean registerMBean(String objectName) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(objectName);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+            return true;
+        } catch (Exception ex) {
+            log.warn("Metriken konnten nicht als MBean registriert werden: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Startet eine periodische Zusammenfassung im Log.
+     *
+     * @param intervalMs Abstand zwischen zwei Logzeilen
+     * @return Handle zum Beenden
+     */
+    public PeriodicTask startSummaryLogging(long intervalMs) {
+        return TaskExecutors.schedulePeriodic("Metrics-Summary", () -> log.info(summary()), intervalMs);
+    }
+
+    /**
+     * @return Einzeilige Zusammenfassung aller Kennzahlen
+     */
+    public String summary() {
+        return String.format("Metriken: Erkennungen=%d Aktionen=%d Fehler=%d Duplikate=%d | "
+                        + "Erkennung p50=%dus p99=%dus | Abgleich p50=%dus p99=%dus | Aktion p50=%dus p99=%dus max=%dus | "
+                        + "Gedrosselt=%d Gesperrt=%d Ausloesungen=%d Offen=%d | Vorgefiltert=%d",
+                getDetections(), getActions(), getFailures(), getDuplicates(),
+                getDetectionDelayP50Micros(), getDetectionDelayP99Micros(),
+                getRuleMatchP50Micros(), getRuleMatchP99Micros(),
+                getActionExecutionP50Micros(), getActionExecutionP99Micros(), getActionExecutionMaxMicros(),
+                getRateLimited(), getCircuitRejected(), getCircuitTrips(), getOpenCircuits(), getPrefiltered());
+    }
+
+    // ---- Erfassung -------------------------------------------------------
+
+    /**
+     * Erfasst eine Erkennung.
+     *
+     * @param delayNanos Zeit vom Fensterereignis bis zum Callback (negativ, falls unbekannt)
+     */
+    public void recordDetection(long delayNanos) {
+        detections.increment();
+        if (delayNanos >= 0) {
+            detectionDelay.record(delayNanos);
+        }
+    }
+
+    /**
+     * Erfasst die Dauer eines Regelabgleichs.
+     */
+    public void recordRuleMatch(long nanos) {
+        ruleMatch.record(nanos);
+    }
+
+    /**
+     * Erfasst eine ausgefuehrte Aktion.
+     *
+     * @param nanos   Ausfuehrungsdauer
+     * @param success {@code false}, falls die Aktion fehlgeschlagen ist
+     */
+    public void recordAction(long nanos, boolean success) {
+        actions.increment();
+        actionExecution.record(nanos);
+        if (!success) {
+            failures.increment();
+        }
+    }
+
+    /**
+     * Erfasst eine unterdrueckte doppelte Erkennung.
+     */
+    public void recordDuplicate() {
+        duplicates.increment();
+    }
+
+    /**
+     * Erfasst ein Neuladen der Regeln.
+     *
+     * @param nanos   Zeit von der Dateiaenderung bis zum aktiven Regelsatz
+     * @param success {@code false}, falls die Datei ungueltig war und der alte Stand aktiv bleibt
+     */
+    public void recordRuleReload(long nanos, boolean success) {
+        if (success) {
+            ruleReloads.increment();
+            ruleReload.record(nanos);
+        } else {
+            ruleReloadFailures.increment();
+        }
+    }
+
+    /**
+     * Erfasst eine durch einen Token-Bucket abgelehnte Aktion.
+     */
+    public void recordRateLimited() {
+        rateLimited.increment();
+    }
+
+    /**
+     * Erfasst eine Aktion, die ein offener Schutzschalter abgelehnt hat.
+     */
+    public void recordCircuitRejected() {
+        circuitRejected.increment();
+    }
+
+    /**
+     * Erfasst das Oeffnen eines Schutzschalters.
+     */
+    public void recordCircuitTrip() {
+        circuitTrips.increment();
+    }
+
+    /**
+     * Erfasst ein Fenster, das wegen seines Prozesses ohne Titelabruf verworfen wurde.
+     */
+    public void recordPrefiltered() {
+        prefiltered.increment();
+    }
+
+    /**
+     * Bindet die Quelle fuer die Anzahl offener Schutzschalter.
+     *
+     * @param source Wird bei jeder Abfrage aufgerufen
+     */
+    public void bindOpenCircuits(IntSupplier source) {
+        openCircuits = source;
+    }
+
+    public LatencyHistogram getDetectionDelay() {
+        return detectionDelay;
+    }
+
+    public LatencyHistogram getRuleMatch() {
+        return ruleMatch;
+    }
+
+    public LatencyHistogram getActionExecution() {
+        return actionExecution;
+    }
+
+    public LatencyHistogram getRuleReload() {
+        return ruleReload;
+    }
+
+    // ---- MXBean ----------------------------------------------------------
+
+    @Override
+    public long getDetections() {
+        return detections.sum();
+    }
+
+    @Override
+    public long getActions() {
+        return actions.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    @Override
+    public long getDetectionDelayP50Micros() {
+        return micros(detectionDelay.percentile(50));
+    }
+
+    @Override
+    public long getDetectionDelayP99Micros() {
+        return micros(detectionDelay.percentile(99));
+    }
+
+    @Override
+    public long getDetectionDelayMaxMicros() {
+        return micros(detectionDelay.getMaxNanos());
+    }
+
+    @Override
+    public long getRuleMatchP50Micros() {
+        return micros(ruleMatch.percentile(50));
+    }
+
+    @Override
+    public long getRuleMatchP99Micros() {
+        return micros(ruleMatch.percentile(99));
+    }
+
+    @Override
+    public long getRuleMatchMaxMicros() {
+        return micros(ruleMatch.getMaxNanos());
+    }
+
+    @Override
+    public long getActionExecutionP50Micros() {
+        return micros(actionExecution.percentile(50));
+    }
+
+    @Override
+    public long getActionExecutionP99Micros() {
+        return micros(actionExecution.percentile(99));
+    }
+
+    @Override
+    public long getActionExecutionMaxMicros() {
+        return micros(actionExecution.getMaxNanos());
+    }
+
+    @Override
+    public long getRuleReloads() {
+        return ruleReloads.sum();
+    }
+
+    @Override
+    public long getRuleReloadFailures() {
+        return ruleReloadFailures.sum();
+    }
+
+    @Override
+    public long getRuleReloadP99Micros() {
+        return micros(ruleReload.percentile(99));
+    }
+
+    @Override
+    public long getRuleReloadMaxMicros() {
+        return micros(ruleReload.getMaxNanos());
+    }
+
+    @Override
+    public long getRateLimited() {
+        return rateLimited.sum();
+    }
+
+    @Override
+    public long getCircuitRejected() {
+        return circuitRejected.sum();
+    }
+
+    @Override
+    public long getCircuitTrips() {
+        return circuitTrips.sum();
+    }
+
+    @Override
+    public int getOpenCircuits() {
+        return openCircuits.getAsInt();
+    }
+
+    @Override
+    public long getPrefiltered() {
+        return prefiltered.sum();
+    }
+
+    @Override
+    public void reset() {
+        detectionDelay.reset();
+        ruleMatch.reset();
+        actionExecution.reset();
+        ruleReload.reset();
+        ruleReloads.reset();
+        ruleReloadFailures.reset();
+        rateLimited.reset();
+        circuitRejected.reset();
+        circuitTrips.reset();
+        prefiltered.reset();
+        detections.reset();
+        actions.reset();
+        failures.reset();
+        duplicates.reset();
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,60 @@
+package dev.automation.assistant.metrics;
+
+/**
+ * JMX-Sicht auf die {@link AutomationMetrics}.
+ * <p>
+ * Registriert unter {@value AutomationMetrics#OBJECT_NAME}. Alle Latenzen
+ * werden in Mikrosekunden geliefert.
+ * </p>
+ */
+public interface AutomationMetricsMXBean {
+
+    long getDetections();
+
+    long getActions();
+
+    long getFailures();
+
+    long getDuplicates();
+
+    long getDetectionDelayP50Micros();
+
+    long getDetectionDelayP99Micros();
+
+    long getDetectionDelayMaxMicros();
+
+    long getRuleMatchP50Micros();
+
+    long getRuleMatchP99Micros();
+
+    long getRuleMatchMaxMicros();
+
+    long getActionExecutionP50Micros();
+
+    long getActionExecutionP99Micros();
+
+    long getActionExecutionMaxMicros();
+
+    long getRuleReloads();
+
+    long getRuleReloadFailures();
+
+    long getRuleReloadP99Micros();
+
+    long getRuleReloadMaxMicros();
+
+    long getRateLimited();
+
+    long getCircuitRejected();
+
+    long getCircuitTrips();
+
+    int getOpenCircuits();
+
+    long getPrefiltered();
+
+    /**
+     * Setzt alle Zaehler und Histogramme zurueck.
+     */
+    void reset();
+}
@@ -0,0 +1,127 @@
+package dev.automation.assistant.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock- und allokationsfreies Latenz-Histogramm in Nanosekunden.
+ * <p>
+ * Die Buckets sind log-linear aufgebaut: Werte unter 64 ns werden exakt gezaehlt,
+ * jede weitere Zweierpotenz ist in 32 Unter-Buckets geteilt. Der relative Fehler
+ * liegt damit unter 3,2 % bei festem Speicherbedarf von rund 15 KB.
+ * {@link #record(long)} erhoeht nur einen Zaehler und erzeugt keine Objekte,
+ * sodass es auch im Monitor- und Klickpfad verwendet werden kann.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int BUCKETS = LINEAR_LIMIT + (63 - SUB_BITS - 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Erfasst einen Messwert. Negative Werte werden als 0 gezaehlt.
+     *
+     * @param nanos Dauer in Nanosekunden
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        totalCount.incrementAndGet();
+        totalNanos.addAndGet(value);
+        long max;
+        while (value > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, value)) {
+            // erneut versuchen
+        }
+    }
+
+    /**
+     * Erfasst die Zeit seit einem Startzeitpunkt aus {@link System#nanoTime()}.
+     *
+     * @param startNanos Startzeitpunkt
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (msb - SUB_BITS - 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return Obere Grenze (inklusive) des Buckets
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int offset = bucket - LINEAR_LIMIT;
+        int msb = offset / SUB_BUCKETS + SUB_BITS + 1;
+        int sub = offset % SUB_BUCKETS;
+        int shift = msb - SUB_BITS;
+        long lower = ((long) (SUB_BUCKETS + sub)) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Liefert das Perzentil der erfassten Werte.
+     *
+     * @param percentile Wert zwischen 0 und 100
+     * @return Obere Bucketgrenze des Perzentils in Nanosekunden (0 ohne Messwerte)
+     */
+    public long percentile(double percentile) {
+        long total = totalCount.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * @return Mittelwert in Nanosekunden (0 ohne Messwerte)
+     */
+    public long getMeanNanos() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : totalNanos.get() / count;
+    }
+
+    /**
+     * Setzt alle Zaehler zurueck. Gleichzeitige Messungen koennen dabei teilweise verloren gehen.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+}
@@ -0,0 +1,62 @@
+package dev.automation.assistant.platform;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.win32.StdCallLibrary;
+
+/**
+ * Direkt gemappte User32-Funktionen ({@link Native#register(String)}).
+ * <p>
+ * Im Gegensatz zu {@code User32.INSTANCE} laufen die Aufrufe nicht ueber einen
+ * Interface-Proxy mit Reflection, sondern werden als {@code native}-Methoden
+ * gebunden. Fensterhandles werden als {@code long} uebergeben, um keine
+ * {@code HWND}/{@code Pointer}-Objekte zu erzeugen; das setzt eine 64-Bit-JVM voraus
+ * (siehe {@link DirectUser32WindowBackend#isSupported()}). Die Klasse darf erst
+ * nach dieser Pruefung geladen werden, da die Registrierung sonst fehlschlaegt.
+ * </p>
+ */
+final class DirectUser32 {
+
+    static {
+        Native.register("user32");
+    }
+
+    private DirectUser32() {}
+
+    /** Callback fuer {@code EnumWindows}/{@code EnumChildWindows} */
+    interface EnumWindowsProc extends StdCallLibrary.StdCallCallback {
+        boolean invoke(long hwnd, long lParam);
+    }
+
+    static native boolean EnumWindows(EnumWindowsProc proc, long lParam);
+
+    static native boolean EnumChildWindows(long parent, EnumWindowsProc proc, long lParam);
+
+    static native long GetParent(long hwnd);
+
+    static native int GetDlgCtrlID(long hwnd);
+
+    static native long GetDlgItem(long dialog, int controlId);
+
+    static native int GetWindowTextW(long hwnd, Pointer buffer, int maxCount);
+
+    static native int GetClassNameW(long hwnd, Pointer buffer, int maxCount);
+
+    static native boolean GetWindowRect(long hwnd, Pointer rect);
+
+    static native int GetWindowThreadProcessId(long hwnd, Pointer processId);
+
+    static native boolean IsWindow(long hwnd);
+
+    /** {@code POINT} wird unter x64 als ein 64-Bit-Wert (y in den oberen 32 Bit) uebergeben */
+    static native long WindowFromPoint(long point);
+
+    static native boolean GetCursorPos(Pointer point);
+
+    /**
+     * Packt eine Bildschirmposition fuer {@link #WindowFromPoint(long)}.
+     */
+    static long packPoint(int x, int y) {
+        return ((long) y << 32) | (x & 0xFFFFFFFFL);
+    }
+}
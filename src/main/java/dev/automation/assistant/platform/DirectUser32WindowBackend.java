@@ -0,0 +1,170 @@
+package dev.automation.assistant.platform;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+
+/**
+ * {@link WindowBackend} fuer 64-Bit-Windows auf Basis direkt gemappter JNA-Aufrufe.
+ * <p>
+ * Textpuffer, {@code RECT}, {@code POINT} und PID werden pro Thread einmal als nativer
+ * Speicher angelegt und wiederverwendet; pro Abfrage entsteht nur der Ergebnis-String.
+ * Die Enumerations-Callbacks sind statische Instanzen, die ueber den Thread-Zustand an
+ * den jeweiligen Visitor weiterleiten, sodass pro Durchlauf kein neuer nativer
+ * Callback-Stub erzeugt wird.
+ * </p>
+ */
+public class DirectUser32WindowBackend implements WindowBackend {
+
+    /** Maximale Laenge von Titel und Klassenname in Zeichen (inkl. Nullterminator) */
+    private static final int TEXT_CHARS = 512;
+
+    /** Wiederverwendeter nativer Speicher und Callback-Zustand eines Threads */
+    private static final class Buffers {
+        final Memory text = new Memory(TEXT_CHARS * 2L);
+        final Memory rect = new Memory(16);
+        final Memory scalar = new Memory(8);
+        final WindowInfo info = new WindowInfo();
+        WindowVisitor visitor;
+        WindowInfoVisitor infoVisitor;
+    }
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private static final DirectUser32.EnumWindowsProc HANDLE_PROC =
+            (hwnd, data) -> BUFFERS.get().visitor.visit(hwnd);
+
+    private static final DirectUser32.EnumWindowsProc INFO_PROC = (hwnd, data) -> {
+        Buffers buffers = BUFFERS.get();
+        fill(buffers, hwnd);
+        return buffers.infoVisitor.visit(buffers.info);
+    };
+
+    /**
+     * @return {@code true} auf Windows mit 64-Bit-JVM
+     */
+    public static boolean isSupported() {
+        return Platform.isWindows() && Native.POINTER_SIZE == 8;
+    }
+
+    /**
+     * @throws UnsupportedOperationException falls die Plattform nicht unterstuetzt wird
+     */
+    public DirectUser32WindowBackend() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Direktes JNA-Mapping benoetigt 64-Bit-Windows");
+        }
+    }
+
+    @Override
+    public void enumerateWindows(WindowVisitor visitor) {
+        Buffers buffers = BUFFERS.get();
+        WindowVisitor previous = buffers.visitor;
+        buffers.visitor = visitor;
+        try {
+            DirectUser32.EnumWindows(HANDLE_PROC, 0L);
+        } finally {
+            buffers.visitor = previous;
+        }
+    }
+
+    @Override
+    public void queryWindows(WindowInfoVisitor visitor) {
+        Buffers buffers = BUFFERS.get();
+        WindowInfoVisitor previous = buffers.infoVisitor;
+        buffers.infoVisitor = visitor;
+        try {
+            DirectUser32.EnumWindows(INFO_PROC, 0L);
+        } finally {
+            buffers.infoVisitor = previous;
+        }
+    }
+
+    @Override
+    public void enumerateChildWindows(long parent, WindowVisitor visitor) {
+        Buffers buffers = BUFFERS.get();
+        WindowVisitor previous = buffers.visitor;
+        buffers.visitor = visitor;
+        try {
+            DirectUser32.EnumChildWindows(parent, HANDLE_PROC, 0L);
+        } finally {
+            buffers.visitor = previous;
+        }
+    }
+
+    @Override
+    public long getParent(long handle) {
+        return DirectUser32.GetParent(handle);
+    }
+
+    @Override
+    public int getControlId(long handle) {
+        return DirectUser32.GetDlgCtrlID(handle);
+    }
+
+    @Override
+    public long getDialogItem(long parent, int controlId) {
+        return DirectUser32.GetDlgItem(parent, controlId);
+    }
+
+    @Override
+    public String getWindowTitle(long handle) {
+        Buffers buffers = BUFFERS.get();
+        return readText(buffers.text, DirectUser32.GetWindowTextW(handle, buffers.text, TEXT_CHARS));
+    }
+
+    @Override
+    public String getClassName(long handle) {
+        Buffers buffers = BUFFERS.get();
+        return readText(buffers.text, DirectUser32.GetClassNameW(handle, buffers.text, TEXT_CHARS));
+    }
+
+    @Override
+    public int getProcessId(long handle) {
+        Memory pid = BUFFERS.get().scalar;
+        pid.setInt(0, 0);
+        DirectUser32.GetWindowThreadProcessId(handle, pid);
+        return pid.getInt(0);
+    }
+
+    @Override
+    public boolean isWindow(long handle) {
+        return handle != 0 && DirectUser32.IsWindow(handle);
+    }
+
+    @Override
+    public long windowAt(int x, int y) {
+        return DirectUser32.WindowFromPoint(DirectUser32.packPoint(x, y));
+    }
+
+    /**
+     * @return Handle des Fensters unter dem Mauszeiger oder 0
+     */
+    public long windowUnderCursor() {
+        Memory point = BUFFERS.get().scalar;
+        if (!DirectUser32.GetCursorPos(point)) {
+            return 0L;
+        }
+        return windowAt(point.getInt(0), point.getInt(4));
+    }
+
+    private static void fill(Buffers buffers, long hwnd) {
+        String title = readText(buffers.text, DirectUser32.GetWindowTextW(hwnd, buffers.text, TEXT_CHARS));
+        String className = readText(buffers.text, DirectUser32.GetClassNameW(hwnd, buffers.text, TEXT_CHARS));
+
+        Memory rect = buffers.rect;
+        if (!DirectUser32.GetWindowRect(hwnd, rect)) {
+            rect.clear();
+        }
+        Memory pid = buffers.scalar;
+        pid.setInt(0, 0);
+        DirectUser32.GetWindowThreadProcessId(hwnd, pid);
+
+        buffers.info.set(hwnd, title, className,
+                rect.getInt(0), rect.getInt(4), rect.getInt(8), rect.getInt(12), pid.getInt(0));
+    }
+
+    private static String readText(Memory buffer, int length) {
+        return length <= 0 ? "" : buffer.getWideString(0);
+    }
+}
@@ -0,0 +1,112 @@
+package dev.automation.assistant.platform;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Speicherbasierte Fake-Implementierung von {@link ProcessBackend}.
+ * <p>
+ * Ergaenzt das {@link InMemoryWindowBackend}: Fenster erhalten dort ueber
+ * {@code setProcessId} eine Prozess-ID, hier wird der zugehoerige Prozess gestartet und
+ * beendet. Wie unter Windows bleibt ein beendeter Prozess ueber seine Referenz abfragbar,
+ * bis sie geschlossen wird. Alle "nativen" Aufrufe werden gezaehlt. Die Klasse ist threadsicher.
+ * </p>
+ */
+public class InMemoryProcessBackend implements ProcessBackend {
+
+    /** Laufende Prozesse nach ID */
+    private final Map<Integer, FakeProcess> running = new HashMap<>();
+
+    /** Geoeffnete Referenzen */
+    private final Map<Long, FakeProcess> open = new HashMap<>();
+    private long nextReference = 0x400;
+
+    private final AtomicLong openCalls = new AtomicLong();
+    private final AtomicLong imageNameReads = new AtomicLong();
+    private final AtomicLong exitChecks = new AtomicLong();
+
+    /**
+     * Startet einen Prozess.
+     *
+     * @param processId Prozess-ID
+     * @param imagePath Pfad der ausfuehrbaren Datei
+     */
+    public synchronized void startProcess(int processId, String imagePath) {
+        running.put(processId, new FakeProcess(imagePath));
+    }
+
+    /**
+     * Beendet einen Prozess; die ID kann danach neu vergeben werden.
+     *
+     * @return {@code false}, falls kein Prozess mit der ID laeuft
+     */
+    public synchronized boolean exitProcess(int processId) {
+        FakeProcess process = running.remove(processId);
+        if (process == null) {
+            return false;
+        }
+        process.exited = true;
+        return true;
+    }
+
+    /**
+     * @return Anzahl noch nicht geschlossener Referenzen
+     */
+    public synchronized int openReferences() {
+        return open.size();
+    }
+
+    @Override
+    public synchronized long openProcess(int processId) {
+        openCalls.incrementAndGet();
+        FakeProcess process = running.get(processId);
+        if (process == null) {
+            return 0L;
+        }
+        long reference = nextReference;
+        nextReference += 4;
+        open.put(reference, process);
+        return reference;
+    }
+
+    @Override
+    public synchronized String getImageName(long process) {
+        imageNameReads.incrementAndGet();
+        FakeProcess fake = open.get(process);
+        return fake != null ? fake.imagePath : "";
+    }
+
+    @Override
+    public synchronized boolean hasExited(long process) {
+        exitChecks.incrementAndGet();
+        FakeProcess fake = open.get(process);
+        return fake == null || fake.exited;
+    }
+
+    @Override
+    public synchronized void closeProcess(long process) {
+        open.remove(process);
+    }
+
+    public long getOpenCalls() {
+        return openCalls.get();
+    }
+
+    public long getImageNameReads() {
+        return imageNameReads.get();
+    }
+
+    public long getExitChecks() {
+        return exitChecks.get();
+    }
+
+    private static final class FakeProcess {
+        private final String imagePath;
+        private boolean exited;
+
+        private FakeProcess(String imagePath) {
+            this.imagePath = imagePath;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package dev.automation.assistant.platform;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Speicherbasierte Fake-Implementierung von {@link WindowActions} fuer einen simulierten
+ * Desktop auf Basis von {@link InMemoryWindowBackend}.
+ * <p>
+ * Schliessen entfernt das Fenster samt Steuerelementen aus dem Backend, Tastenfolgen werden
+ * pro Fenster gesammelt. Auf Klicks kann ein Test mit {@link #onClick(long, Runnable)}
+ * reagieren, z. B. indem er einen Folgedialog oeffnet. Mausaktionen werden nur mitgeschrieben. Aktionen auf nicht existierende
+ * Fenster schlagen wie unter Windows fehl. Die Klasse ist threadsicher; Reaktionen laufen
+ * ausserhalb der internen Sperre.
+ * </p>
+ */
+public class InMemoryWindowActions implements WindowActions {
+
+    private final InMemoryWindowBackend backend;
+
+    private final Map<Long, Runnable> clickReactions = new HashMap<>();
+    private final Map<Long, StringBuilder> typed = new HashMap<>();
+    private final StringBuilder mouseEvents = new StringBuilder();
+
+    private final AtomicLong clicks = new AtomicLong();
+    private final AtomicLong keyMessages = new AtomicLong();
+    private final AtomicLong closes = new AtomicLong();
+
+    /**
+     * @param backend Simulierter Desktop
+     */
+    public InMemoryWindowActions(InMemoryWindowBackend backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * Legt fest, was ein Klick auf ein Steuerelement ausloest.
+     *
+     * @param control  Handle des Steuerelements
+     * @param reaction Reaktion der simulierten Anwendung
+     */
+    public synchronized void onClick(long control, Runnable reaction) {
+        clickReactions.put(control, reaction);
+    }
+
+    /**
+     * @return Alle bisher an das Fenster gesendeten Zeichen
+     */
+    public synchronized String getTypedText(long window) {
+        StringBuilder text = typed.get(window);
+        return text != null ? text.toString() : "";
+    }
+
+    @Override
+    public boolean click(long control) {
+        if (!backend.isWindow(control)) {
+            return false;
+        }
+        clicks.incrementAndGet();
+        Runnable reaction;
+        synchronized (this) {
+            reaction = clickReactions.get(control);
+        }
+        if (reaction != null) {
+            reaction.run();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean sendKeys(long window, String keys) {
+        if (!backend.isWindow(window)) {
+            return false;
+        }
+        keyMessages.addAndGet(keys.length());
+        synchronized (this) {
+            typed.computeIfAbsent(window, w -> new StringBuilder()).append(keys);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean close(long window) {
+        if (!backend.closeWindow(window)) {
+            return false;
+        }
+        closes.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean moveMouse(int x, int y) {
+        mouseEvents.append("move ").append(x).append(' ').append(y).append(';');
+        return true;
+    }
+
+    @Override
+    public synchronized boolean mouseButton(boolean down) {
+        mouseEvents.append(down ? "press;" : "release;");
+        return true;
+    }
+
+    /**
+     * @return Bisherige Mausaktionen, z. B. {@code "move 10 20;press;release;"}
+     */
+    public synchronized String getMouseEvents() {
+        return mouseEvents.toString();
+    }
+
+    public long getClicks() {
+        return clicks.get();
+    }
+
+    public long getKeyMessages() {
+        return keyMessages.get();
+    }
+
+    public long getCloses() {
+        return closes.get();
+    }
+}
@@ -0,0 +1,367 @@
+package dev.automation.assistant.platform;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Speicherbasierte Fake-Implementierung von {@link WindowBackend}.
+ * <p>
+ * Simuliert einen Desktop mit Top-Level-Fenstern und deren Steuerelementen, damit Monitoring-Logik,
+ * Tests und Benchmarks ohne Windows-API laufen. Zusaetzlich werden alle
+ * "nativen" Aufrufe gezaehlt, um den Aufwand pro Tick pruefen zu koennen.
+ * Die Klasse ist threadsicher.
+ * </p>
+ */
+public class InMemoryWindowBackend implements WindowBackend {
+
+    /** Fenster und Steuerelemente in Enumerationsreihenfolge */
+    private final Map<Long, FakeWindow> windows = new LinkedHashMap<>();
+    private long nextHandle = 0x10010;
+
+    private final AtomicLong enumerateCalls = new AtomicLong();
+    private final AtomicLong titleReads = new AtomicLong();
+    private final AtomicLong isWindowCalls = new AtomicLong();
+    private final AtomicLong infoReads = new AtomicLong();
+    private final AtomicLong childEnumerations = new AtomicLong();
+
+    /**
+     * Oeffnet ein neues Fenster mit automatisch vergebenem Handle.
+     *
+     * @param title Fenstertitel
+     * @return Handle des neuen Fensters
+     */
+    public synchronized long openWindow(String title) {
+        long handle = nextHandle;
+        nextHandle += 4;
+        windows.put(handle, new FakeWindow(title));
+        return handle;
+    }
+
+    /**
+     * Oeffnet ein Fenster mit vorgegebenem Handle (z. B. zur Simulation von Handle-Recycling).
+     *
+     * @param handle Gewuenschtes Handle
+     * @param title  Fenstertitel
+     */
+    public synchronized void openWindow(long handle, String title) {
+        windows.put(handle, new FakeWindow(title));
+        nextHandle = Math.max(nextHandle, handle + 4);
+    }
+
+    /**
+     * Legt ein Steuerelement (Kindfenster) mit automatisch vergebenem Handle an.
+     *
+     * @param parent    Elternfenster
+     * @param className Fensterklasse (z. B. {@code Button})
+     * @param text      Beschriftung
+     * @param controlId Control-ID
+     * @return Handle des Steuerelements
+     */
+    public synchronized long openControl(long parent, String className, String text, int controlId) {
+        long handle = openWindow(text);
+        FakeWindow control = windows.get(handle);
+        FakeWindow owner = windows.get(parent);
+        if (owner != null) {
+            owner.children.add(handle);
+        }
+        control.parent = parent;
+        control.className = className;
+        control.controlId = controlId;
+        return handle;
+    }
+
+    /**
+     * Schliesst ein Fenster samt aller Steuerelemente.
+     *
+     * @param handle Fensterhandle
+     * @return {@code true}, falls das Fenster existierte
+     */
+    public synchronized boolean closeWindow(long handle) {
+        FakeWindow window = windows.remove(handle);
+        if (window == null) {
+            return false;
+        }
+        for (long child : window.children) {
+            closeWindow(child);
+        }
+        return true;
+    }
+
+    /**
+     * Aendert den Titel eines bestehenden Fensters.
+     *
+     * @param handle Fensterhandle
+     * @param title  Neuer Titel
+     */
+    public synchronized void setTitle(long handle, String title) {
+        FakeWindow window = windows.get(handle);
+        if (window != null) {
+            window.title = title;
+        }
+    }
+
+    /**
+     * Setzt den Fensterklassennamen.
+     */
+    public synchronized void setClassName(long handle, String className) {
+        FakeWindow window = windows.get(handle);
+        if (window != null) {
+            window.className = className;
+        }
+    }
+
+    /**
+     * Setzt das Fensterrechteck in Bildschirmkoordinaten.
+     */
+    public synchronized void setBounds(long handle, int left, int top, int right, int bottom) {
+        FakeWindow window = windows.get(handle);
+        if (window != null) {
+            window.left = left;
+            window.top = top;
+            window.right = right;
+            window.bottom = bottom;
+        }
+    }
+
+    /**
+     * Setzt die Prozess-ID des Fensters.
+     */
+    public synchronized void setProcessId(long handle, int processId) {
+        FakeWindow window = windows.get(handle);
+        if (window != null) {
+            window.processId = processId;
+        }
+    }
+
+    /**
+     * Entfernt alle Fenster.
+     */
+    public synchronized void clear() {
+        windows.clear();
+    }
+
+    /**
+     * @return Anzahl aktuell geoeffneter Fenster
+     */
+    public synchronized int windowCount() {
+        return windows.size();
+    }
+
+    @Override
+    public void enumerateWindows(WindowVisitor visitor) {
+        enumerateCalls.incrementAndGet();
+        for (long handle : topLevelHandles()) {
+            if (!visitor.visit(handle)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Enumeriert alle Nachfahren in Tiefensuche, wie {@code EnumChildWindows}.
+     */
+    @Override
+    public void enumerateChildWindows(long parent, WindowVisitor visitor) {
+        childEnumerations.incrementAndGet();
+        long[] handles;
+        synchronized (this) {
+            handles = new long[windows.size()];
+            int count = collectDescendants(parent, handles, 0);
+            handles = Arrays.copyOf(handles, count);
+        }
+        for (long handle : handles) {
+            if (!visitor.visit(handle)) {
+                return;
+            }
+        }
+    }
+
+    private int collectDescendants(long parent, long[] target, int count) {
+        for (Map.Entry<Long, FakeWindow> entry : windows.entrySet()) {
+            if (entry.getValue().parent == parent) {
+                target[count++] = entry.getKey();
+                count = collectDescendants(entry.getKey(), target, count);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized long getParent(long handle) {
+        infoReads.incrementAndGet();
+        FakeWindow window = windows.get(handle);
+        return window != null ? window.parent : 0L;
+    }
+
+    @Override
+    public synchronized int getControlId(long handle) {
+        infoReads.incrementAndGet();
+        FakeWindow window = windows.get(handle);
+        return window != null ? window.controlId : 0;
+    }
+
+    @Override
+    public synchronized long getDialogItem(long parent, int controlId) {
+        infoReads.incrementAndGet();
+        for (Map.Entry<Long, FakeWindow> entry : windows.entrySet()) {
+            FakeWindow window = entry.getValue();
+            if (window.parent == parent && window.controlId == controlId) {
+                return entry.getKey();
+            }
+        }
+        return 0L;
+    }
+
+    @Override
+    public synchronized String getWindowTitle(long handle) {
+        titleReads.incrementAndGet();
+        FakeWindow window = windows.get(handle);
+        return window != null ? window.title : "";
+    }
+
+    @Override
+    public synchronized boolean isWindow(long handle) {
+        isWindowCalls.incrementAndGet();
+        return windows.containsKey(handle);
+    }
+
+    @Override
+    public synchronized String getClassName(long handle) {
+        infoReads.incrementAndGet();
+        FakeWindow window = windows.get(handle);
+        return window != null ? window.className : "";
+    }
+
+    @Override
+    public synchronized int getProcessId(long handle) {
+        infoReads.incrementAndGet();
+        FakeWindow window = windows.get(handle);
+        return window != null ? window.processId : 0;
+    }
+
+    /**
+     * Liefert das oberste Fenster (erstes in Enumerationsreihenfolge), dessen Rechteck den Punkt enthaelt.
+     */
+    @Override
+    public synchronized long windowAt(int x, int y) {
+        infoReads.incrementAndGet();
+        for (Map.Entry<Long, FakeWindow> entry : windows.entrySet()) {
+            FakeWindow window = entry.getValue();
+            if (window.parent == 0 && x >= window.left && x < window.right && y >= window.top && y < window.bottom) {
+                return entry.getKey();
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Sammelabfrage wie unter Windows: ein Enumerationsdurchlauf, eine wiederverwendete
+     * {@link WindowInfo}; pro Fenster wird ein Info-Abruf gezaehlt.
+     */
+    @Override
+    public void queryWindows(WindowInfoVisitor visitor) {
+        enumerateCalls.incrementAndGet();
+        WindowInfo info = new WindowInfo();
+        for (long handle : topLevelHandles()) {
+            synchronized (this) {
+                FakeWindow window = windows.get(handle);
+                if (window == null) {
+                    continue;
+                }
+                infoReads.incrementAndGet();
+                info.set(handle, window.title, window.className,
+                        window.left, window.top, window.right, window.bottom, window.processId);
+            }
+            if (!visitor.visit(info)) {
+                return;
+            }
+        }
+    }
+
+    private synchronized long[] topLevelHandles() {
+        long[] handles = new long[windows.size()];
+        int i = 0;
+        for (Map.Entry<Long, FakeWindow> entry : windows.entrySet()) {
+            if (entry.getValue().parent == 0) {
+                handles[i++] = entry.getKey();
+            }
+        }
+        return i == handles.length ? handles : Arrays.copyOf(handles, i);
+    }
+
+    /**
+     * @return Anzahl der {@code EnumWindows}-Aufrufe
+     */
+    public long getEnumerateCalls() {
+        return enumerateCalls.get();
+    }
+
+    /**
+     * @return Anzahl der {@code GetWindowText}-Aufrufe
+     */
+    public long getTitleReads() {
+        return titleReads.get();
+    }
+
+    /**
+     * @return Anzahl der {@code EnumChildWindows}-Aufrufe
+     */
+    public long getChildEnumerations() {
+        return childEnumerations.get();
+    }
+
+    /**
+     * @return Anzahl der {@code IsWindow}-Aufrufe
+     */
+    public long getIsWindowCalls() {
+        return isWindowCalls.get();
+    }
+
+    /**
+     * @return Summe aller simulierten nativen Aufrufe
+     */
+    public long getNativeCalls() {
+        return enumerateCalls.get() + titleReads.get() + isWindowCalls.get() + infoReads.get()
+                + childEnumerations.get();
+    }
+
+    /**
+     * @return Anzahl der Abrufe von Klasse, Position oder Sammelinformationen
+     */
+    public long getInfoReads() {
+        return infoReads.get();
+    }
+
+    /**
+     * Setzt alle Aufrufzaehler zurueck.
+     */
+    public void resetCounters() {
+        enumerateCalls.set(0);
+        titleReads.set(0);
+        isWindowCalls.set(0);
+        infoReads.set(0);
+        childEnumerations.set(0);
+    }
+
+    /** Zustand eines simulierten Fensters */
+    private static final class FakeWindow {
+        private String title;
+        private String className = "";
+        private int left;
+        private int top;
+        private int right;
+        private int bottom;
+        private int processId;
+        private long parent;
+        private int controlId;
+        private final List<Long> children = new ArrayList<>();
+
+        private FakeWindow(String title) {
+            this.title = title;
+        }
+    }
+}
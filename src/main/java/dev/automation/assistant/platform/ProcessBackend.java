@@ -0,0 +1,76 @@
+package dev.automation.assistant.platform;
+
+import com.sun.jna.Platform;
+
+/**
+ * Abstraktion der nativen Prozessabfragen fuer den {@link ProcessIndex}.
+ * <p>
+ * Ein geoeffneter Prozess wird als {@code long} (unter Windows das Prozesshandle)
+ * weitergereicht. Solange er geoeffnet ist, vergibt Windows seine Prozess-ID nicht neu;
+ * ein zwischengespeicherter Eintrag kann daher nicht versehentlich zu einem spaeteren
+ * Prozess mit derselben ID gehoeren. Unter Windows liefert {@link Win32ProcessBackend}
+ * die echten Daten, in Tests {@link InMemoryProcessBackend}.
+ * </p>
+ */
+public interface ProcessBackend {
+
+    /** Backend fuer Plattformen ohne Prozessabfragen: jeder Prozess ist unbekannt */
+    ProcessBackend UNSUPPORTED = new ProcessBackend() {
+        @Override
+        public long openProcess(int processId) {
+            return 0L;
+        }
+
+        @Override
+        public String getImageName(long process) {
+            return "";
+        }
+
+        @Override
+        public boolean hasExited(long process) {
+            return true;
+        }
+
+        @Override
+        public void closeProcess(long process) {
+        }
+    };
+
+    /**
+     * Oeffnet einen Prozess zur Abfrage ({@code OpenProcess}).
+     *
+     * @param processId Prozess-ID
+     * @return Referenz auf den Prozess oder 0, falls er nicht existiert oder nicht geoeffnet werden darf
+     */
+    long openProcess(int processId);
+
+    /**
+     * Liest den Pfad der ausfuehrbaren Datei ({@code QueryFullProcessImageName}).
+     *
+     * @param process Referenz aus {@link #openProcess(int)}
+     * @return Pfad oder Dateiname; leer, falls unbekannt
+     */
+    String getImageName(long process);
+
+    /**
+     * Prueft ohne zu warten, ob der Prozess beendet ist ({@code WaitForSingleObject} mit Timeout 0).
+     *
+     * @param process Referenz aus {@link #openProcess(int)}
+     * @return {@code true}, falls der Prozess beendet ist
+     */
+    boolean hasExited(long process);
+
+    /**
+     * Gibt die Referenz frei ({@code CloseHandle}).
+     *
+     * @param process Referenz aus {@link #openProcess(int)}
+     */
+    void closeProcess(long process);
+
+    /**
+     * @return {@link Win32ProcessBackend} unter Windows, sonst {@link #UNSUPPORTED}
+     */
+    static ProcessBackend platformDefault() {
+        return Platform.isWindows() ? new Win32ProcessBackend() : UNSUPPORTED;
+    }
+}
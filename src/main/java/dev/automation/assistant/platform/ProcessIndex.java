@@ -0,0 +1,183 @@
+package dev.automation.assistant.platform;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache von Prozess-ID zu Name der ausfuehrbaren Datei.
+ * <p>
+ * Jeder Eintrag haelt den Prozess geoeffnet. Solange die Referenz besteht, vergibt
+ * Windows die Prozess-ID nicht neu; ein Treffer gehoert deshalb immer zum selben Prozess.
+ * Beendete Prozesse werden hoechstens einmal pro {@link #SWEEP_INTERVAL_NANOS} erkannt
+ * ({@code WaitForSingleObject} mit Timeout 0), verworfen und geschlossen. Prozesse, die
+ * nicht geoeffnet werden koennen, werden fuer {@link #NEGATIVE_TTL_NANOS} als unbekannt
+ * gemerkt, damit nicht jeder Tick erneut {@code OpenProcess} aufruft.
+ * </p>
+ * <p>
+ * Namen werden normalisiert: nur der Dateiname, klein geschrieben ({@code notepad.exe}).
+ * Die Klasse ist threadsicher; Treffer kosten einen Map-Zugriff ohne nativen Aufruf.
+ * </p>
+ */
+public final class ProcessIndex implements AutoCloseable {
+
+    /** Abstand zwischen zwei Pruefungen auf beendete Prozesse */
+    static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** Wie lange ein nicht abfragbarer Prozess als unbekannt gilt */
+    static final long NEGATIVE_TTL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final ProcessBackend backend;
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param backend Zugriff auf die Prozesse
+     */
+    public ProcessIndex(ProcessBackend backend) {
+        this.backend = backend;
+        this.nextSweep = new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+    }
+
+    /**
+     * Liefert den normalisierten Namen der ausfuehrbaren Datei eines Prozesses.
+     *
+     * @param processId Prozess-ID, z. B. aus {@link WindowBackend#getProcessId(long)}
+     * @return Dateiname in Kleinbuchstaben oder {@code null}, falls unbekannt
+     */
+    public String executableOf(int processId) {
+        return executableOf(processId, System.nanoTime());
+    }
+
+    String executableOf(int processId, long nowNanos) {
+        if (processId == 0) {
+            return null;
+        }
+        sweepIfDue(nowNanos);
+        Entry entry = entries.get(processId);
+        if (entry != null && (entry.process != 0 || nowNanos - entry.createdNanos < NEGATIVE_TTL_NANOS)) {
+            hits.increment();
+            return entry.executable;
+        }
+        misses.increment();
+        return load(processId, nowNanos);
+    }
+
+    private String load(int processId, long nowNanos) {
+        long process = backend.openProcess(processId);
+        String executable = process != 0 ? normalize(backend.getImageName(process)) : null;
+        Entry entry = new Entry(process, executable, nowNanos);
+        Entry previous = entries.put(processId, entry);
+        if (previous != null && previous.process != 0) {
+            backend.closeProcess(previous.process);
+        }
+        return executable;
+    }
+
+    /**
+     * Prueft alle Eintraege auf beendete Prozesse, falls das Intervall abgelaufen ist.
+     * Nur ein Thread prueft gleichzeitig.
+     */
+    private void sweepIfDue(long nowNanos) {
+        long due = nextSweep.get();
+        if (nowNanos - due < 0 || !nextSweep.compareAndSet(due, nowNanos + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        sweep(nowNanos);
+    }
+
+    /**
+     * Verwirft beendete Prozesse und abgelaufene negative Eintraege.
+     *
+     * @return Anzahl verworfener Eintraege
+     */
+    int sweep(long nowNanos) {
+        int evicted = 0;
+        Iterator<Map.Entry<Integer, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, Entry> mapping = it.next();
+            Entry entry = mapping.getValue();
+            boolean stale = entry.process != 0
+                    ? backend.hasExited(entry.process)
+                    : nowNanos - entry.createdNanos >= NEGATIVE_TTL_NANOS;
+            if (stale && entries.remove(mapping.getKey(), entry)) {
+                if (entry.process != 0) {
+                    backend.closeProcess(entry.process);
+                }
+                evicted++;
+            }
+        }
+        evictions.add(evicted);
+        return evicted;
+    }
+
+    /**
+     * Reduziert einen Pfad auf den klein geschriebenen Dateinamen.
+     *
+     * @param path Pfad oder Dateiname, z. B. {@code C:\Windows\Notepad.EXE}
+     * @return Dateiname, z. B. {@code notepad.exe}; {@code null} fuer leere Eingaben
+     */
+    public static String normalize(String path) {
+        if (path == null) {
+            return null;
+        }
+        String trimmed = path.trim();
+        int slash = Math.max(trimmed.lastIndexOf('\\'), trimmed.lastIndexOf('/'));
+        String name = trimmed.substring(slash + 1);
+        return name.isEmpty() ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return Anzahl zwischengespeicherter Prozesse
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Schliesst alle gehaltenen Prozessreferenzen und leert den Cache.
+     */
+    @Override
+    public void close() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            it.remove();
+            if (entry.process != 0) {
+                backend.closeProcess(entry.process);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final long process;
+        private final String executable;
+        private final long createdNanos;
+
+        private Entry(long process, String executable, long createdNanos) {
+            this.process = process;
+            this.executable = executable;
+            this.createdNanos = createdNanos;
+        }
+    }
+}
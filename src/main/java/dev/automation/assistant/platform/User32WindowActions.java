@@ -0,0 +1,95 @@
+package dev.automation.assistant.platform;
+
+import com.sun.jna.platform.win32.User32;
+import com.sun.jna.platform.win32.WinDef.DWORD;
+import com.sun.jna.platform.win32.WinDef.HWND;
+import com.sun.jna.platform.win32.WinDef.LPARAM;
+import com.sun.jna.platform.win32.WinDef.WPARAM;
+import com.sun.jna.platform.win32.WinUser.INPUT;
+import dev.automation.assistant.util.WindowsUtils;
+
+/**
+ * {@link WindowActions} fuer Windows auf Basis von JNA {@link User32}.
+ * <p>
+ * Alle Aktionen laufen ueber {@code PostMessage} und blockieren daher nicht, auch wenn
+ * der Thread des Zielfensters haengt. Als nicht zugestellt gilt eine Aktion nur, wenn das
+ * Fenster nicht mehr existiert. Nur die Mausaktionen wirken global auf den Desktop.
+ * </p>
+ */
+public class User32WindowActions implements WindowActions {
+
+    private static final int WM_CLOSE = 0x0010;
+    private static final int WM_KEYDOWN = 0x0100;
+    private static final int WM_KEYUP = 0x0101;
+    private static final int WM_CHAR = 0x0102;
+    private static final int BM_CLICK = 0x00F5;
+
+    private static final int VK_RETURN = 0x0D;
+    private static final int VK_TAB = 0x09;
+    private static final int VK_ESCAPE = 0x1B;
+
+    private static final int MOUSEEVENTF_LEFTDOWN = 0x0002;
+    private static final int MOUSEEVENTF_LEFTUP = 0x0004;
+
+    @Override
+    public boolean click(long control) {
+        return post(control, BM_CLICK, 0, 0);
+    }
+
+    @Override
+    public boolean sendKeys(long window, String keys) {
+        for (int i = 0; i < keys.length(); i++) {
+            char c = keys.charAt(i);
+            int virtualKey = virtualKey(c);
+            boolean sent = virtualKey != 0
+                    ? post(window, WM_KEYDOWN, virtualKey, 1) && post(window, WM_KEYUP, virtualKey, 0xC0000001L)
+                    : post(window, WM_CHAR, c, 1);
+            if (!sent) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean close(long window) {
+        return post(window, WM_CLOSE, 0, 0);
+    }
+
+    @Override
+    public boolean moveMouse(int x, int y) {
+        return User32.INSTANCE.SetCursorPos(x, y);
+    }
+
+    @Override
+    public boolean mouseButton(boolean down) {
+        INPUT input = new INPUT();
+        input.type = new DWORD(INPUT.INPUT_MOUSE);
+        input.input.setType("mi");
+        input.input.mi.dwFlags = new DWORD(down ? MOUSEEVENTF_LEFTDOWN : MOUSEEVENTF_LEFTUP);
+        INPUT[] inputs = (INPUT[]) input.toArray(1);
+        return User32.INSTANCE.SendInput(new DWORD(1), inputs, input.size()).intValue() == 1;
+    }
+
+    private static int virtualKey(char c) {
+        switch (c) {
+            case KEY_ENTER:
+                return VK_RETURN;
+            case KEY_TAB:
+                return VK_TAB;
+            case KEY_ESCAPE:
+                return VK_ESCAPE;
+            default:
+                return 0;
+        }
+    }
+
+    private static boolean post(long handle, int message, long wParam, long lParam) {
+        HWND hwnd = WindowsUtils.hwndOf(handle);
+        if (hwnd == null || !User32.INSTANCE.IsWindow(hwnd)) {
+            return false;
+        }
+        User32.INSTANCE.PostMessage(hwnd, message, new WPARAM(wParam), new LPARAM(lParam));
+        return true;
+    }
+}
@@ -0,0 +1,87 @@
+package dev.automation.assistant.platform;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.User32;
+import com.sun.jna.platform.win32.WinDef.HWND;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.win32.StdCallLibrary;
+import com.sun.jna.win32.W32APIOptions;
+import dev.automation.assistant.util.WindowsUtils;
+
+/**
+ * {@link WindowBackend} fuer Windows auf Basis von JNA {@link User32}.
+ * <p>
+ * Laeuft ueber die Interface-Proxies von JNA und dient als Rueckfall, wenn
+ * {@link DirectUser32WindowBackend} nicht verfuegbar ist (32-Bit-JVM).
+ * </p>
+ */
+public class User32WindowBackend implements WindowBackend {
+
+    @Override
+    public void enumerateWindows(WindowVisitor visitor) {
+        User32.INSTANCE.EnumWindows((hWnd, data) -> visitor.visit(WindowsUtils.handleOf(hWnd)), Pointer.NULL);
+    }
+
+    @Override
+    public void enumerateChildWindows(long parent, WindowVisitor visitor) {
+        User32.INSTANCE.EnumChildWindows(WindowsUtils.hwndOf(parent),
+                (hWnd, data) -> visitor.visit(WindowsUtils.handleOf(hWnd)), Pointer.NULL);
+    }
+
+    @Override
+    public long getParent(long handle) {
+        return WindowsUtils.handleOf(User32.INSTANCE.GetParent(WindowsUtils.hwndOf(handle)));
+    }
+
+    @Override
+    public int getControlId(long handle) {
+        return DialogApi.INSTANCE.GetDlgCtrlID(WindowsUtils.hwndOf(handle));
+    }
+
+    @Override
+    public long getDialogItem(long parent, int controlId) {
+        return WindowsUtils.handleOf(DialogApi.INSTANCE.GetDlgItem(WindowsUtils.hwndOf(parent), controlId));
+    }
+
+    @Override
+    public String getWindowTitle(long handle) {
+        String title = WindowsUtils.getWindowTitle(WindowsUtils.hwndOf(handle));
+        return title != null ? title : "";
+    }
+
+    @Override
+    public boolean isWindow(long handle) {
+        return handle != 0 && User32.INSTANCE.IsWindow(WindowsUtils.hwndOf(handle));
+    }
+
+    @Override
+    public String getClassName(long handle) {
+        char[] buffer = new char[256];
+        User32.INSTANCE.GetClassName(WindowsUtils.hwndOf(handle), buffer, buffer.length);
+        return Native.toString(buffer);
+    }
+
+    @Override
+    public int getProcessId(long handle) {
+        IntByReference pid = new IntByReference();
+        User32.INSTANCE.GetWindowThreadProcessId(WindowsUtils.hwndOf(handle), pid);
+        return pid.getValue();
+    }
+
+    @Override
+    public long windowAt(int x, int y) {
+        return WindowsUtils.handleOf(WindowsUtils.windowAt(x, y));
+    }
+
+    /**
+     * Dialogfunktionen, die in JNA {@link User32} fehlen.
+     */
+    private interface DialogApi extends StdCallLibrary {
+        DialogApi INSTANCE = Native.load("user32", DialogApi.class, W32APIOptions.DEFAULT_OPTIONS);
+
+        int GetDlgCtrlID(HWND hwnd);
+
+        HWND GetDlgItem(HWND dialog, int controlId);
+    }
+}
@@ -0,0 +1,54 @@
+package dev.automation.assistant.platform;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.Kernel32;
+import com.sun.jna.platform.win32.WinBase;
+import com.sun.jna.platform.win32.WinNT;
+import com.sun.jna.platform.win32.WinNT.HANDLE;
+import com.sun.jna.ptr.IntByReference;
+
+/**
+ * {@link ProcessBackend} fuer Windows auf Basis von JNA {@link Kernel32}.
+ * <p>
+ * Prozesse werden nur mit {@code PROCESS_QUERY_LIMITED_INFORMATION} und {@code SYNCHRONIZE}
+ * geoeffnet; das genuegt fuer den Namen der ausfuehrbaren Datei und die Pruefung auf
+ * Prozessende und gelingt auch fuer die meisten Prozesse anderer Benutzer.
+ * </p>
+ */
+public class Win32ProcessBackend implements ProcessBackend {
+
+    private static final int ACCESS = WinNT.PROCESS_QUERY_LIMITED_INFORMATION | WinNT.SYNCHRONIZE;
+
+    @Override
+    public long openProcess(int processId) {
+        if (processId == 0) {
+            return 0L;
+        }
+        HANDLE process = Kernel32.INSTANCE.OpenProcess(ACCESS, false, processId);
+        return process != null ? Pointer.nativeValue(process.getPointer()) : 0L;
+    }
+
+    @Override
+    public String getImageName(long process) {
+        char[] buffer = new char[WinNT.MAX_PATH * 2];
+        IntByReference length = new IntByReference(buffer.length);
+        if (!Kernel32.INSTANCE.QueryFullProcessImageName(handle(process), 0, buffer, length)) {
+            return "";
+        }
+        return new String(buffer, 0, length.getValue());
+    }
+
+    @Override
+    public boolean hasExited(long process) {
+        return Kernel32.INSTANCE.WaitForSingleObject(handle(process), 0) == WinBase.WAIT_OBJECT_0;
+    }
+
+    @Override
+    public void closeProcess(long process) {
+        Kernel32.INSTANCE.CloseHandle(handle(process));
+    }
+
+    private static HANDLE handle(long process) {
+        return new HANDLE(new Pointer(process));
+    }
+}
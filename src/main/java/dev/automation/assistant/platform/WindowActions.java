@@ -0,0 +1,73 @@
+package dev.automation.assistant.platform;
+
+/**
+ * Abstraktion der Fensteraktionen fuer Makros.
+ * <p>
+ * Alle Aktionen werden nur zugestellt und kehren sofort zurueck ({@code PostMessage}),
+ * damit ein Makro-Thread nie auf eine haengende Anwendung wartet. Ob eine Aktion gewirkt
+ * hat, prueft das Makro anschliessend ueber Warteschritte. Unter Windows liefert
+ * {@link User32WindowActions} die echten Aktionen, in Tests {@link InMemoryWindowActions}.
+ * </p>
+ */
+public interface WindowActions {
+
+    /** Taste Eingabe in einer Tastenfolge */
+    char KEY_ENTER = '\r';
+
+    /** Taste Tabulator in einer Tastenfolge */
+    char KEY_TAB = '\t';
+
+    /** Taste Escape in einer Tastenfolge */
+    char KEY_ESCAPE = '\u001b';
+
+    /**
+     * Klickt ein Steuerelement ({@code BM_CLICK}).
+     *
+     * @param control Handle des Steuerelements
+     * @return {@code false}, falls die Nachricht nicht zugestellt werden konnte
+     */
+    boolean click(long control);
+
+    /**
+     * Sendet eine Tastenfolge an ein Fenster ({@code WM_CHAR}; {@link #KEY_ENTER},
+     * {@link #KEY_TAB} und {@link #KEY_ESCAPE} als {@code WM_KEYDOWN}/{@code WM_KEYUP}).
+     *
+     * @param window Fensterhandle
+     * @param keys   Zeichen und Sondertasten
+     * @return {@code false}, falls die Nachrichten nicht zugestellt werden konnten
+     */
+    boolean sendKeys(long window, String keys);
+
+    /**
+     * Fordert ein Fenster zum Schliessen auf ({@code WM_CLOSE}).
+     *
+     * @param window Fensterhandle
+     * @return {@code false}, falls die Nachricht nicht zugestellt werden konnte
+     */
+    boolean close(long window);
+
+    /**
+     * Setzt den Mauszeiger auf eine Bildschirmposition ({@code SetCursorPos}).
+     * Nur fuer den Rueckfall, wenn kein Steuerelement gefunden wird.
+     *
+     * @param x X-Koordinate
+     * @param y Y-Koordinate
+     * @return {@code false}, falls der Zeiger nicht gesetzt werden konnte
+     */
+    boolean moveMouse(int x, int y);
+
+    /**
+     * Drueckt oder loest die linke Maustaste an der aktuellen Zeigerposition ({@code SendInput}).
+     *
+     * @param down {@code true} fuer Druecken, {@code false} fuer Loslassen
+     * @return {@code false}, falls das Ereignis nicht eingespeist werden konnte
+     */
+    boolean mouseButton(boolean down);
+
+    /**
+     * @return {@link User32WindowActions} fuer die aktuelle Plattform
+     */
+    static WindowActions platformDefault() {
+        return new User32WindowActions();
+    }
+}
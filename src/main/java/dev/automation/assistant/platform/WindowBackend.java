@@ -0,0 +1,153 @@
+package dev.automation.assistant.platform;
+
+/**
+ * Abstraktion der nativen Fensterabfragen.
+ * <p>
+ * Fensterhandles werden als primitive {@code long}-Werte uebergeben, damit
+ * Aufrufer in engen Schleifen keine {@code HWND}-Objekte erzeugen muessen.
+ * Unter Windows liefern {@link DirectUser32WindowBackend} bzw. {@link User32WindowBackend}
+ * die echten Daten, in Tests und Benchmarks {@link InMemoryWindowBackend}.
+ * </p>
+ */
+public interface WindowBackend {
+
+    /**
+     * Enumeriert alle Top-Level-Fenster in einem einzigen Durchlauf ({@code EnumWindows}).
+     *
+     * @param visitor Wird fuer jedes Fenster aufgerufen; {@code false} bricht die Enumeration ab
+     */
+    void enumerateWindows(WindowVisitor visitor);
+
+    /**
+     * Liest den Titel eines Fensters ({@code GetWindowText}).
+     *
+     * @param handle Fensterhandle
+     * @return Titel oder ein leerer String
+     */
+    String getWindowTitle(long handle);
+
+    /**
+     * Prueft, ob das Handle noch auf ein existierendes Fenster zeigt ({@code IsWindow}).
+     *
+     * @param handle Fensterhandle
+     * @return {@code true}, falls das Fenster existiert
+     */
+    boolean isWindow(long handle);
+
+    /**
+     * Liest den Fensterklassennamen ({@code GetClassName}).
+     *
+     * @param handle Fensterhandle
+     * @return Klassenname oder ein leerer String, falls nicht unterstuetzt
+     */
+    default String getClassName(long handle) {
+        return "";
+    }
+
+    /**
+     * Liest die Prozess-ID des Fensters ({@code GetWindowThreadProcessId}).
+     *
+     * @param handle Fensterhandle
+     * @return Prozess-ID oder 0, falls nicht unterstuetzt
+     */
+    default int getProcessId(long handle) {
+        return 0;
+    }
+
+    /**
+     * Liefert das Fenster an einer Bildschirmposition ({@code WindowFromPoint}).
+     *
+     * @return Handle oder 0, falls keines gefunden wurde oder nicht unterstuetzt
+     */
+    default long windowAt(int x, int y) {
+        return 0L;
+    }
+
+    /**
+     * Enumeriert alle Kindfenster (Steuerelemente) eines Fensters rekursiv ({@code EnumChildWindows}).
+     *
+     * @param parent  Elternfenster
+     * @param visitor Wird fuer jedes Kindfenster aufgerufen; {@code false} bricht die Enumeration ab
+     */
+    default void enumerateChildWindows(long parent, WindowVisitor visitor) {
+    }
+
+    /**
+     * Liefert das direkte Elternfenster ({@code GetParent}).
+     *
+     * @return Handle oder 0 fuer Top-Level-Fenster bzw. falls nicht unterstuetzt
+     */
+    default long getParent(long handle) {
+        return 0L;
+    }
+
+    /**
+     * Liest die Control-ID eines Steuerelements ({@code GetDlgCtrlID}).
+     *
+     * @return Control-ID oder 0, falls keine vorhanden bzw. nicht unterstuetzt
+     */
+    default int getControlId(long handle) {
+        return 0;
+    }
+
+    /**
+     * Sucht ein direktes Kindfenster ueber seine Control-ID ({@code GetDlgItem}).
+     *
+     * @return Handle oder 0, falls keines gefunden wurde oder nicht unterstuetzt
+     */
+    default long getDialogItem(long parent, int controlId) {
+        return 0L;
+    }
+
+    /**
+     * Sammelabfrage: Titel, Klasse, Rechteck und Prozess-ID aller Top-Level-Fenster
+     * in einem Durchlauf. Die Standardimplementierung fuellt nur Handle, Titel und Klasse.
+     *
+     * @param visitor Wird pro Fenster mit einer wiederverwendeten {@link WindowInfo} aufgerufen;
+     *                {@code false} bricht ab
+     */
+    default void queryWindows(WindowInfoVisitor visitor) {
+        WindowInfo info = new WindowInfo();
+        enumerateWindows(handle -> {
+            info.set(handle, getWindowTitle(handle), getClassName(handle), 0, 0, 0, 0, 0);
+            return visitor.visit(info);
+        });
+    }
+
+    /**
+     * Liefert das schnellste verfuegbare Backend fuer die aktuelle Plattform:
+     * direkt gemapptes JNA ({@link DirectUser32WindowBackend}) auf 64-Bit-Windows,
+     * sonst die Interface-basierte Variante ({@link User32WindowBackend}).
+     *
+     * @return Backend fuer die echte Fensterliste
+     */
+    static WindowBackend platformDefault() {
+        return DirectUser32WindowBackend.isSupported() ? new DirectUser32WindowBackend() : new User32WindowBackend();
+    }
+
+    /**
+     * Callback fuer die Fensterenumeration.
+     */
+    @FunctionalInterface
+    interface WindowVisitor {
+
+        /**
+         * @param handle Handle des aktuellen Fensters
+         * @return {@code true}, um mit dem naechsten Fenster fortzufahren
+         */
+        boolean visit(long handle);
+    }
+
+    /**
+     * Callback fuer {@link #queryWindows(WindowInfoVisitor)}.
+     */
+    @FunctionalInterface
+    interface WindowInfoVisitor {
+
+        /**
+         * @param info Metadaten des aktuellen Fensters (nur im Callback gueltig)
+         * @return {@code true}, um mit dem naechsten Fenster fortzufahren
+         */
+        boolean visit(WindowInfo info);
+    }
+}
@@ -0,0 +1,89 @@
+package dev.automation.assistant.platform;
+
+/**
+ * Metadaten eines Fensters aus einer Sammelabfrage ({@link WindowBackend#queryWindows}).
+ * <p>
+ * Die Instanz wird vom Backend fuer alle Fenster eines Durchlaufs wiederverwendet und
+ * ist nur innerhalb des Callbacks gueltig. Werte, die laenger benoetigt werden, muessen
+ * kopiert werden.
+ * </p>
+ */
+public final class WindowInfo {
+
+    private long handle;
+    private String title = "";
+    private String className = "";
+    private int left;
+    private int top;
+    private int right;
+    private int bottom;
+    private int processId;
+
+    /**
+     * Setzt alle Werte fuer das naechste Fenster.
+     */
+    public void set(long handle, String title, String className,
+                    int left, int top, int right, int bottom, int processId) {
+        this.handle = handle;
+        this.title = title;
+        this.className = className;
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        this.processId = processId;
+    }
+
+    public long getHandle() {
+        return handle;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public int getRight() {
+        return right;
+    }
+
+    public int getBottom() {
+        return bottom;
+    }
+
+    public int getWidth() {
+        return right - left;
+    }
+
+    public int getHeight() {
+        return bottom - top;
+    }
+
+    public int getProcessId() {
+        return processId;
+    }
+
+    /**
+     * @return {@code true}, falls der Punkt im Fensterrechteck liegt
+     */
+    public boolean contains(int x, int y) {
+        return x >= left && x < right && y >= top && y < bottom;
+    }
+
+    @Override
+    public String toString() {
+        return "WindowInfo[" + Long.toHexString(handle) + " '" + title + "' " + className
+                + " (" + left + "," + top + ")-(" + right + "," + bottom + ") pid=" + processId + "]";
+    }
+}
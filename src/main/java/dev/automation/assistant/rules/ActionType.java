@@ -0,0 +1,16 @@
+package dev.automation.assistant.rules;
+
+/**
+ * Aktion, die eine {@link AutomationRule} bei einem Treffer ausfuehrt.
+ */
+public enum ActionType {
+
+    /** Fenster per {@code WM_CLOSE} schliessen */
+    CLOSE,
+
+    /** Klick auf eine gespeicherte Bildschirmposition */
+    CLICK_POSITION,
+
+    /** Mehrschrittiges {@link dev.automation.assistant.macro.Macro} auf dem erkannten Fenster ausfuehren */
+    MACRO
+}
@@ -0,0 +1,74 @@
+package dev.automation.assistant.rules;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Aho-Corasick-Automat fuer Teilstring-Regeln.
+ * <p>
+ * Findet in einem Durchlauf ueber den Titel alle enthaltenen Muster.
+ * Die Ausgaben jedes Knotens enthalten bereits die Ausgaben seiner
+ * Fehlerkette, sodass beim Suchen keine Kette verfolgt werden muss.
+ * </p>
+ */
+final class AhoCorasick extends CharTrie {
+
+    /** Fehler-Links (laengstes echtes Suffix, das ebenfalls Knoten ist) */
+    private final int[] fail;
+
+    AhoCorasick(Builder builder) {
+        super(builder);
+        fail = new int[size()];
+        buildFailureLinks();
+    }
+
+    private void buildFailureLinks() {
+        int[] queue = new int[size()];
+        int head = 0;
+        int tail = 0;
+        for (int child : next[0]) {
+            fail[child] = 0;
+            queue[tail++] = child;
+        }
+        while (head < tail) {
+            int node = queue[head++];
+            char[] k = keys[node];
+            for (int i = 0; i < k.length; i++) {
+                int child = next[node][i];
+                int f = fail[node];
+                while (f != 0 && child(f, k[i]) < 0) {
+                    f = fail[f];
+                }
+                int target = child(f, k[i]);
+                fail[child] = (target >= 0 && target != child) ? target : 0;
+                outputs[child] = merge(outputs[child], outputs[fail[child]]);
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    private static int[] merge(int[] own, int[] inherited) {
+        if (inherited.length == 0) return own;
+        if (own.length == 0) return inherited;
+        int[] merged = Arrays.copyOf(own, own.length + inherited.length);
+        System.arraycopy(inherited, 0, merged, own.length, inherited.length);
+        return merged;
+    }
+
+    /**
+     * Meldet alle Regelindizes, deren Muster im Titel vorkommt.
+     * Ein Index kann mehrfach gemeldet werden.
+     */
+    void collect(String text, IntConsumer sink) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int n;
+            while ((n = child(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = Math.max(n, 0);
+            emit(outputs[state], sink);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package dev.automation.assistant.rules;
+
+import dev.automation.assistant.macro.Macro;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Zuordnung eines Fenstermusters zu einer automatischen Aktion.
+ * <p>
+ * Ersetzt die bisher einzelnen Felder {@code autoActionWindowTitle} und
+ * {@code autoActionButtonPosition} im Hauptfenster und wird dauerhaft im
+ * {@link RuleStore} gespeichert.
+ * </p>
+ */
+public final class AutomationRule {
+
+    private final String id;
+    private final MatchType matchType;
+    private final String pattern;
+    private final ActionType action;
+    private final int x;
+    private final int y;
+    private final ControlSelector control;
+    private final String process;
+    private final Macro macro;
+
+    /**
+     * @param id        Eindeutige Kennung
+     * @param matchType Vergleichsart fuer den Fenstertitel
+     * @param pattern   Titelmuster
+     * @param action    Auszufuehrende Aktion
+     * @param x         X-Koordinate (nur fuer {@link ActionType#CLICK_POSITION})
+     * @param y         Y-Koordinate (nur fuer {@link ActionType#CLICK_POSITION})
+     */
+    public AutomationRule(String id, MatchType matchType, String pattern, ActionType action, int x, int y) {
+        this(id, matchType, pattern, action, x, y, null);
+    }
+
+    /**
+     * @param id        Eindeutige Kennung
+     * @param matchType Vergleichsart fuer den Fenstertitel
+     * @param pattern   Titelmuster
+     * @param action    Auszufuehrende Aktion
+     * @param x         X-Koordinate (Rueckfall, falls das Steuerelement nicht aufgeloest werden kann)
+     * @param y         Y-Koordinate (Rueckfall, falls das Steuerelement nicht aufgeloest werden kann)
+     * @param control   Zu klickendes Steuerelement oder {@code null} fuer einen reinen Positionsklick
+     */
+    public AutomationRule(String id, MatchType matchType, String pattern, ActionType action, int x, int y,
+                          ControlSelector control) {
+        this(id, matchType, pattern, action, x, y, control, null);
+    }
+
+    /**
+     * @param id        Eindeutige Kennung
+     * @param matchType Vergleichsart fuer den Fenstertitel
+     * @param pattern   Titelmuster
+     * @param action    Auszufuehrende Aktion
+     * @param x         X-Koordinate (Rueckfall, falls das Steuerelement nicht aufgeloest werden kann)
+     * @param y         Y-Koordinate (Rueckfall, falls das Steuerelement nicht aufgeloest werden kann)
+     * @param control   Zu klickendes Steuerelement oder {@code null} fuer einen reinen Positionsklick
+     * @param process   Programm, dem das Fenster gehoeren muss (z. B. {@code notepad.exe}),
+     *                  oder {@code null} fuer beliebige Prozesse
+     */
+    public AutomationRule(String id, MatchType matchType, String pattern, ActionType action, int x, int y,
+                          ControlSelector control, String process) {
+        this(id, matchType, pattern, action, x, y, control, process, null);
+    }
+
+    /**
+     * @param id        Eindeutige Kennung
+     * @param matchType Vergleichsart fuer den Fenstertitel
+     * @param pattern   Titelmuster
+     * @param action    Auszufuehrende Aktion
+     * @param x         X-Koordinate (Rueckfall, falls das Steuerelement nicht aufgeloest werden kann)
+     * @param y         Y-Koordinate (Rueckfall, falls das Steuerelement nicht aufgeloest werden kann)
+     * @param control   Zu klickendes Steuerelement oder {@code null} fuer einen reinen Positionsklick
+     * @param process   Programm, dem das Fenster gehoeren muss (z. B. {@code notepad.exe}),
+     *                  oder {@code null} fuer beliebige Prozesse
+     * @param macro     Auszufuehrendes Makro; genau bei {@link ActionType#MACRO} erforderlich
+     * @throws IllegalArgumentException falls Makro und Aktion nicht zusammenpassen
+     */
+    public AutomationRule(String id, MatchType matchType, String pattern, ActionType action, int x, int y,
+                          ControlSelector control, String process, Macro macro) {
+        if ((action == ActionType.MACRO) != (macro != null)) {
+            throw new IllegalArgumentException(action == ActionType.MACRO
+                    ? "Aktion MACRO ohne Makro" : "Makro nur mit Aktion MACRO erlaubt");
+        }
+        this.id = Objects.requireNonNull(id, "id");
+        this.matchType = Objects.requireNonNull(matchType, "matchType");
+        this.pattern = Objects.requireNonNull(pattern, "pattern");
+        this.action = Objects.requireNonNull(action, "action");
+        this.x = x;
+        this.y = y;
+        this.control = control;
+        this.process = process == null || process.isBlank() ? null : process.trim().toLowerCase(Locale.ROOT);
+        this.macro = macro;
+    }
+
+    /**
+     * Regel, die bei exaktem Titel auf eine Position klickt.
+     */
+    public static AutomationRule clickAt(String title, int x, int y) {
+        return new AutomationRule(title, MatchType.EXACT, title, ActionType.CLICK_POSITION, x, y);
+    }
+
+    /**
+     * Regel, die bei exaktem Titel ein Steuerelement ueber seine Identitaet klickt.
+     * Die Position dient nur als Rueckfall.
+     */
+    public static AutomationRule clickControl(String title, ControlSelector control, int x, int y) {
+        return new AutomationRule(title, MatchType.EXACT, title, ActionType.CLICK_POSITION, x, y,
+                Objects.requireNonNull(control, "control"));
+    }
+
+    /**
+     * Regel, die ein Fenster mit exaktem Titel schliesst.
+     */
+    public static AutomationRule close(String title) {
+        return new AutomationRule(title, MatchType.EXACT, title, ActionType.CLOSE, 0, 0);
+    }
+
+    /**
+     * Regel, die bei passendem Titel ein Makro auf dem erkannten Fenster startet.
+     */
+    public static AutomationRule macro(String id, MatchType matchType, String pattern, Macro macro) {
+        return new AutomationRule(id, matchType, pattern, ActionType.MACRO, 0, 0, null, null,
+                Objects.requireNonNull(macro, "macro"));
+    }
+
+    /**
+     * @return Die Titelregel fuer den {@link RuleIndex}
+     */
+    public TitleRule toTitleRule() {
+        return new TitleRule(id, matchType, pattern);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public MatchType getMatchType() {
+        return matchType;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public ActionType getAction() {
+        return action;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * @return Zu klickendes Steuerelement oder {@code null}
+     */
+    public ControlSelector getControl() {
+        return control;
+    }
+
+    /**
+     * @return Programmname in Kleinbuchstaben, dem das Fenster gehoeren muss, oder {@code null}
+     */
+    public String getProcess() {
+        return process;
+    }
+
+    /**
+     * @return Kompiliertes Makro bei {@link ActionType#MACRO}, sonst {@code null}
+     */
+    public Macro getMacro() {
+        return macro;
+    }
+
+    /**
+     * Prueft das Prozesskriterium.
+     *
+     * @param executable Normalisierter Programmname des Fensters oder {@code null}, falls unbekannt
+     * @return {@code true}, falls die Regel keinen Prozess verlangt oder er uebereinstimmt
+     */
+    public boolean matchesProcess(String executable) {
+        return process == null || process.equals(executable);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AutomationRule)) return false;
+        AutomationRule other = (AutomationRule) o;
+        return x == other.x && y == other.y && id.equals(other.id) && matchType == other.matchType
+                && pattern.equals(other.pattern) && action == other.action
+                && Objects.equals(control, other.control) && Objects.equals(process, other.process)
+                && Objects.equals(macro, other.macro);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, matchType, pattern, action, x, y, control, process, macro);
+    }
+
+    @Override
+    public String toString() {
+        return "AutomationRule[" + id + ", " + matchType + " '" + pattern + "' -> " + action
+                + (action == ActionType.CLICK_POSITION ? " (" + x + ", " + y + ")" : "")
+                + (control != null ? " [" + control + "]" : "")
+                + (process != null ? " @" + process : "")
+                + (macro != null ? " " + macro : "") + "]";
+    }
+}
@@ -0,0 +1,113 @@
+package dev.automation.assistant.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Kompakter, unveraenderlicher Zeichen-Trie.
+ * <p>
+ * Nach dem Aufbau werden alle Knoten in flache Arrays ueberfuehrt
+ * (sortierte Kindzeichen mit Binaersuche), damit die Suche ohne Boxing
+ * und ohne Map-Zugriffe auskommt. Der Trie dient als Basis fuer
+ * {@link PrefixTrie} und {@link AhoCorasick}.
+ * </p>
+ */
+class CharTrie {
+
+    /** Sortierte Kindzeichen je Knoten */
+    final char[][] keys;
+
+    /** Kindknoten je Knoten (parallel zu {@link #keys}) */
+    final int[][] next;
+
+    /** Regelindizes, deren Muster an diesem Knoten endet */
+    final int[][] outputs;
+
+    CharTrie(Builder builder) {
+        int size = builder.children.size();
+        keys = new char[size][];
+        next = new int[size][];
+        outputs = new int[size][];
+        for (int node = 0; node < size; node++) {
+            TreeMap<Character, Integer> children = builder.children.get(node);
+            keys[node] = new char[children.size()];
+            next[node] = new int[children.size()];
+            int i = 0;
+            for (var entry : children.entrySet()) {
+                keys[node][i] = entry.getKey();
+                next[node][i] = entry.getValue();
+                i++;
+            }
+            outputs[node] = builder.outputs.get(node);
+        }
+    }
+
+    /**
+     * @return Kindknoten fuer das Zeichen oder {@code -1}
+     */
+    final int child(int node, char c) {
+        char[] k = keys[node];
+        int idx = Arrays.binarySearch(k, c);
+        return idx >= 0 ? next[node][idx] : -1;
+    }
+
+    final int size() {
+        return keys.length;
+    }
+
+    static void emit(int[] values, IntConsumer sink) {
+        for (int value : values) {
+            sink.accept(value);
+        }
+    }
+
+    /**
+     * Sammelt Muster und baut die Knotenstruktur auf.
+     */
+    static class Builder {
+        private static final int[] NONE = new int[0];
+
+        final List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        final List<int[]> outputs = new ArrayList<>();
+
+        Builder() {
+            newNode();
+        }
+
+        private int newNode() {
+            children.add(new TreeMap<>());
+            outputs.add(NONE);
+            return children.size() - 1;
+        }
+
+        /**
+         * Fuegt ein Muster hinzu.
+         *
+         * @param pattern   Nicht leeres Muster
+         * @param ruleIndex Index der zugehoerigen Regel
+         */
+        void add(String pattern, int ruleIndex) {
+            int node = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                Integer child = children.get(node).get(c);
+                if (child == null) {
+                    child = newNode();
+                    children.get(node).put(c, child);
+                }
+                node = child;
+            }
+            int[] current = outputs.get(node);
+            int[] extended = Arrays.copyOf(current, current.length + 1);
+            extended[current.length] = ruleIndex;
+            outputs.set(node, extended);
+        }
+
+        boolean isEmpty() {
+            return children.size() == 1;
+        }
+    }
+}
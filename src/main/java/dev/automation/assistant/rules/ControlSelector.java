@@ -0,0 +1,73 @@
+package dev.automation.assistant.rules;
+
+import java.util.Objects;
+
+/**
+ * Identitaet eines Steuerelements (z. B. Button) innerhalb eines Dialogs.
+ * <p>
+ * Statt einer Bildschirmposition werden Fensterklasse, Text und Control-ID
+ * gespeichert; damit bleibt ein Klick gueltig, auch wenn der Dialog verschoben
+ * wird. Leere Felder bzw. eine Control-ID von 0 gelten als "beliebig".
+ * </p>
+ */
+public final class ControlSelector {
+
+    private final String className;
+    private final String text;
+    private final int controlId;
+
+    /**
+     * @param className Fensterklasse (z. B. {@code Button}) oder leer
+     * @param text      Beschriftung (z. B. {@code OK}) oder leer
+     * @param controlId Control-ID ({@code GetDlgCtrlID}) oder 0
+     */
+    public ControlSelector(String className, String text, int controlId) {
+        this.className = Objects.requireNonNull(className, "className");
+        this.text = Objects.requireNonNull(text, "text");
+        this.controlId = controlId;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getControlId() {
+        return controlId;
+    }
+
+    /**
+     * Prueft, ob ein Steuerelement zu diesem Selektor passt.
+     *
+     * @param className Fensterklasse des Kandidaten
+     * @param text      Beschriftung des Kandidaten
+     * @param controlId Control-ID des Kandidaten
+     * @return {@code true}, falls alle gesetzten Felder uebereinstimmen
+     */
+    public boolean matches(String className, String text, int controlId) {
+        return (this.className.isEmpty() || this.className.equals(className))
+                && (this.text.isEmpty() || this.text.equals(text))
+                && (this.controlId == 0 || this.controlId == controlId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ControlSelector)) return false;
+        ControlSelector other = (ControlSelector) o;
+        return controlId == other.controlId && className.equals(other.className) && text.equals(other.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(className, text, controlId);
+    }
+
+    @Override
+    public String toString() {
+        return className + " '" + text + "' #" + controlId;
+    }
+}
@@ -0,0 +1,64 @@
+package dev.automation.assistant.rules;
+
+/**
+ * Einfaches Glob-Muster mit {@code *} (beliebig viele Zeichen) und {@code ?} (genau ein Zeichen).
+ * <p>
+ * Der Vergleich arbeitet iterativ mit Backtracking auf den letzten Stern und
+ * benoetigt daher keinen regulaeren Ausdruck.
+ * </p>
+ */
+final class GlobPattern {
+
+    private final String glob;
+
+    GlobPattern(String glob) {
+        this.glob = glob;
+    }
+
+    static boolean hasWildcards(String glob) {
+        return glob.indexOf('*') >= 0 || glob.indexOf('?') >= 0;
+    }
+
+    /**
+     * Liefert den laengsten zusammenhaengenden Literal-Teil ohne Platzhalter.
+     * Dieser wird als Vorfilter im {@link AhoCorasick}-Automaten verwendet.
+     */
+    static String longestLiteral(String glob) {
+        String best = "";
+        int start = 0;
+        for (int i = 0; i <= glob.length(); i++) {
+            if (i == glob.length() || glob.charAt(i) == '*' || glob.charAt(i) == '?') {
+                if (i - start > best.length()) {
+                    best = glob.substring(start, i);
+                }
+                start = i + 1;
+            }
+        }
+        return best;
+    }
+
+    boolean matches(String text) {
+        int p = 0;
+        int t = 0;
+        int starP = -1;
+        int starT = 0;
+        while (t < text.length()) {
+            if (p < glob.length() && (glob.charAt(p) == '?' || glob.charAt(p) == text.charAt(t))) {
+                p++;
+                t++;
+            } else if (p < glob.length() && glob.charAt(p) == '*') {
+                starP = p++;
+                starT = t;
+            } else if (starP >= 0) {
+                p = starP + 1;
+                t = ++starT;
+            } else {
+                return false;
+            }
+        }
+        while (p < glob.length() && glob.charAt(p) == '*') {
+            p++;
+        }
+        return p == glob.length();
+    }
+}
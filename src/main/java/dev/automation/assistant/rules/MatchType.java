@@ -0,0 +1,22 @@
+package dev.automation.assistant.rules;
+
+/**
+ * Art des Vergleichs einer {@link TitleRule} mit einem Fenstertitel.
+ */
+public enum MatchType {
+
+    /** Titel muss exakt uebereinstimmen (Gross-/Kleinschreibung relevant) */
+    EXACT,
+
+    /** Titel beginnt mit dem Muster */
+    PREFIX,
+
+    /** Titel enthaelt das Muster */
+    CONTAINS,
+
+    /** Platzhalter-Muster mit {@code *} (beliebig viele Zeichen) und {@code ?} (genau ein Zeichen) */
+    GLOB,
+
+    /** Regulaerer Ausdruck, der den gesamten Titel abdecken muss */
+    REGEX
+}
@@ -0,0 +1,32 @@
+package dev.automation.assistant.rules;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Trie fuer Praefix-Regeln.
+ * <p>
+ * Ein einziger Durchlauf ueber den Titel liefert alle Regeln, deren Muster ein
+ * Praefix des Titels ist. Der Aufwand ist unabhaengig von der Anzahl der Regeln
+ * und hoechstens linear in der Titellaenge.
+ * </p>
+ */
+final class PrefixTrie extends CharTrie {
+
+    PrefixTrie(Builder builder) {
+        super(builder);
+    }
+
+    /**
+     * Meldet alle Regelindizes, deren Praefix auf den Titel passt.
+     */
+    void collect(String title, IntConsumer sink) {
+        int node = 0;
+        for (int i = 0; i < title.length(); i++) {
+            node = child(node, title.charAt(i));
+            if (node < 0) {
+                return;
+            }
+            emit(outputs[node], sink);
+        }
+    }
+}
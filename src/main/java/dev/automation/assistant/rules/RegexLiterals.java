@@ -0,0 +1,74 @@
+package dev.automation.assistant.rules;
+
+/**
+ * Extrahiert den festen Literal-Anfang eines regulaeren Ausdrucks.
+ * <p>
+ * Jeder Titel, der auf den Ausdruck passt, muss mit diesem Praefix beginnen.
+ * Damit koennen Regex-Regeln ueber den {@link PrefixTrie} vorgefiltert werden,
+ * sodass der eigentliche Ausdruck nur fuer echte Kandidaten ausgewertet wird.
+ * Die Analyse ist bewusst konservativ: Im Zweifel wird ein leerer String geliefert.
+ * </p>
+ */
+final class RegexLiterals {
+
+    private static final String META = ".[]{}()*+?^$\\|";
+
+    private RegexLiterals() {
+        // utility class
+    }
+
+    /**
+     * @param regex Regulaerer Ausdruck (Vergleich ueber den gesamten Titel)
+     * @return Literal-Praefix oder ein leerer String
+     */
+    static String requiredPrefix(String regex) {
+        if (containsUnquoted(regex, '|')) {
+            return "";
+        }
+        StringBuilder prefix = new StringBuilder();
+        int i = regex.startsWith("^") ? 1 : 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (regex.startsWith("\\Q", i)) {
+                int end = regex.indexOf("\\E", i + 2);
+                int stop = end < 0 ? regex.length() : end;
+                prefix.append(regex, i + 2, stop);
+                i = end < 0 ? regex.length() : end + 2;
+            } else if (c == '\\' && i + 1 < regex.length() && META.indexOf(regex.charAt(i + 1)) >= 0) {
+                prefix.append(regex.charAt(i + 1));
+                i += 2;
+            } else if (META.indexOf(c) < 0) {
+                prefix.append(c);
+                i++;
+            } else {
+                break;
+            }
+        }
+        // Quantor auf dem letzten Zeichen macht es optional
+        if (i < regex.length() && prefix.length() > 0) {
+            char after = regex.charAt(i);
+            if (after == '*' || after == '?' || after == '{') {
+                prefix.setLength(prefix.length() - 1);
+            }
+        }
+        return prefix.toString();
+    }
+
+    private static boolean containsUnquoted(String regex, char target) {
+        boolean quoted = false;
+        for (int i = 0; i < regex.length(); i++) {
+            if (!quoted && regex.startsWith("\\Q", i)) {
+                quoted = true;
+                i++;
+            } else if (quoted && regex.startsWith("\\E", i)) {
+                quoted = false;
+                i++;
+            } else if (!quoted && regex.charAt(i) == '\\') {
+                i++;
+            } else if (!quoted && regex.charAt(i) == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,202 @@
+package dev.automation.assistant.rules;
+
+import dev.automation.assistant.macro.Macro;
+import dev.automation.assistant.macro.MacroCompiler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Liest Regeln aus einer von Hand gepflegten Textdatei.
+ *
+ * <h2>Format:</h2>
+ * <pre>
+ * # Kommentar
+ * id | vergleich | aktion | x | y | muster [| klasse | text | controlId] [| prozess]
+ * id | vergleich | MACRO  | x | y | muster | makro [| prozess]
+ * fehler    | EXACT  | CLOSE          |   0 |   0 | Fehler
+ * speichern | PREFIX | CLICK_POSITION | 100 | 200 | Speichern unter
+ * ja        | EXACT  | CLICK_POSITION |  10 |  20 | Speichern? | Button | &amp;Ja | 6
+ * editor    | PREFIX | CLOSE          |   0 |   0 | Unbenannt | notepad.exe
+ * ersetzen  | EXACT  | MACRO          |   0 |   0 | Ersetzen? | click Button "&amp;Ja" 6; wait title 2000
+ * </pre>
+ * <p>
+ * Das optionale letzte Feld {@code prozess} beschraenkt eine Regel auf Fenster eines
+ * Programms (Dateiname ohne Pfad, Gross-/Kleinschreibung egal).
+ * </p>
+ * <p>
+ * Bei der Aktion {@code MACRO} folgt auf das Muster die Makrodefinition im Format des
+ * {@link MacroCompiler}, die Schritte durch {@code ;} getrennt. Sie wird beim Einlesen
+ * kompiliert; Fehler werden mit Zeilen- und Schrittnummer gemeldet.
+ * </p>
+ * <p>
+ * Felder werden getrimmt; ein {@code |} innerhalb eines Feldes (z. B. in einem regulaeren
+ * Ausdruck) wird als {@code \|} geschrieben. Leere Zeilen und Zeilen mit {@code #} werden
+ * ignoriert.
+ * </p>
+ * <p>
+ * Der Parser merkt sich das Ergebnis jeder Zeile. Beim erneuten Einlesen werden nur
+ * geaenderte Zeilen neu zerlegt und geprueft, unveraenderte Zeilen werden uebernommen.
+ * Die Klasse ist nicht threadsicher.
+ * </p>
+ */
+public final class RuleFileParser {
+
+    private static final MatchType[] MATCH_TYPES = MatchType.values();
+    private static final ActionType[] ACTION_TYPES = ActionType.values();
+
+    /** Ergebnis der letzten Ausfuehrung pro Zeileninhalt */
+    private Map<String, AutomationRule> parsedLines = new HashMap<>();
+
+    private long linesParsed;
+    private long linesReused;
+
+    /**
+     * Zerlegt den Dateiinhalt in Regeln.
+     *
+     * @param lines Zeilen der Datei
+     * @return Regeln in Dateireihenfolge
+     * @throws IllegalArgumentException bei einer ungueltigen Zeile oder doppelten IDs (mit Zeilennummer)
+     */
+    public List<AutomationRule> parse(List<String> lines) {
+        Map<String, AutomationRule> next = new HashMap<>(parsedLines.size() * 2 + 16);
+        List<AutomationRule> rules = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            AutomationRule rule = parsedLines.get(line);
+            if (rule != null) {
+                linesReused++;
+            } else {
+                try {
+                    rule = parseLine(line);
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalArgumentException("Zeile " + (i + 1) + ": " + ex.getMessage(), ex);
+                }
+                linesParsed++;
+            }
+            if (!ids.add(rule.getId())) {
+                throw new IllegalArgumentException("Zeile " + (i + 1) + ": doppelte Regel-ID '" + rule.getId() + "'");
+            }
+            next.put(line, rule);
+            rules.add(rule);
+        }
+        parsedLines = next;
+        return rules;
+    }
+
+    /**
+     * @return Bisher neu zerlegte Zeilen
+     */
+    public long getLinesParsed() {
+        return linesParsed;
+    }
+
+    /**
+     * @return Bisher unveraendert uebernommene Zeilen
+     */
+    public long getLinesReused() {
+        return linesReused;
+    }
+
+    static AutomationRule parseLine(String line) {
+        List<String> fields = split(line);
+        int count = fields.size();
+        if (count < 6 || count > 10) {
+            throw new IllegalArgumentException("6, 7, 9 oder 10 Felder erwartet, gefunden: " + count);
+        }
+        String id = fields.get(0);
+        if (id.isEmpty()) {
+            throw new IllegalArgumentException("leere Regel-ID");
+        }
+        MatchType matchType = parseEnum(MATCH_TYPES, fields.get(1), "Vergleichsart");
+        ActionType action = parseEnum(ACTION_TYPES, fields.get(2), "Aktion");
+        boolean macroRule = action == ActionType.MACRO;
+        if (macroRule ? count > 8 : count == 8) {
+            throw new IllegalArgumentException((macroRule ? "7 oder 8" : "6, 7, 9 oder 10")
+                    + " Felder erwartet, gefunden: " + count);
+        }
+        int x = parseInt(fields.get(3), "x");
+        int y = parseInt(fields.get(4), "y");
+        String pattern = fields.get(5);
+        if (matchType == MatchType.REGEX) {
+            try {
+                Pattern.compile(pattern);
+            } catch (PatternSyntaxException ex) {
+                throw new IllegalArgumentException("ungueltiger regulaerer Ausdruck: " + ex.getDescription());
+            }
+        }
+        ControlSelector control = null;
+        Macro macro = null;
+        if (macroRule) {
+            if (count < 7) {
+                throw new IllegalArgumentException("Aktion MACRO ohne Makrodefinition");
+            }
+            try {
+                macro = MacroCompiler.compile(fields.get(6));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("ungueltiges Makro: " + ex.getMessage());
+            }
+        } else if (count >= 9) {
+            control = new ControlSelector(fields.get(6), fields.get(7), parseInt(fields.get(8), "controlId"));
+        }
+        String process = null;
+        if (macroRule ? count == 8 : count == 7 || count == 10) {
+            process = fields.get(count - 1);
+            if (process.isEmpty() || process.indexOf('\\') >= 0 || process.indexOf('/') >= 0) {
+                throw new IllegalArgumentException("ungueltiger Prozessname '" + process + "'");
+            }
+        }
+        return new AutomationRule(id, matchType, pattern, action, x, y, control, process, macro);
+    }
+
+    /**
+     * Trennt an {@code |}, sofern es nicht mit {@code \} maskiert ist.
+     */
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>(10);
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length() && line.charAt(i + 1) == '|') {
+                field.append('|');
+                i++;
+            } else if (c == '|') {
+                fields.add(field.toString().strip());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().strip());
+        return fields;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(E[] values, String value, String name) {
+        String upper = value.toUpperCase(Locale.ROOT);
+        for (E candidate : values) {
+            if (candidate.name().equals(upper)) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("unbekannte " + name + " '" + value + "'");
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("ungueltiger Wert fuer " + name + ": '" + value + "'");
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package dev.automation.assistant.rules;
+
+import dev.automation.assistant.metrics.AutomationMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Laedt eine Regeldatei ({@link RuleFileParser}) bei jeder Aenderung neu, ohne laufende
+ * Ueberwachungen anzuhalten.
+ * <p>
+ * Das Verzeichnis der Datei wird ueber einen {@link WatchService} beobachtet. Mehrere
+ * Ereignisse eines Speichervorgangs werden entprellt und zu einem Neuladen
+ * zusammengefasst; unveraenderter Inhalt wird uebersprungen. Der neue {@link RuleSet}
+ * wird vollstaendig aufgebaut und erst dann ueber eine einzige Referenz ausgetauscht.
+ * Laufende Abgleiche und bereits eingereihte Aktionen arbeiten mit dem Stand weiter,
+ * den sie sich geholt haben. Ist die Datei ungueltig, bleibt der bisherige Stand aktiv.
+ * </p>
+ * <p>
+ * Die Zeit von der Dateiaenderung bis zum aktiven Regelsatz wird in den
+ * {@link AutomationMetrics} erfasst und geloggt.
+ * </p>
+ */
+public class RuleFileWatcher implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleFileWatcher.class);
+
+    /** Ruhezeit, nach der ein Speichervorgang als abgeschlossen gilt */
+    static final long QUIET_MS = 30;
+
+    /** Laengste Entprellzeit bei fortlaufenden Aenderungen */
+    private static final long MAX_DEBOUNCE_MS = 500;
+
+    private final Path file;
+    private final AutomationMetrics metrics;
+    private final Consumer<RuleSet> listener;
+    private final RuleFileParser parser = new RuleFileParser();
+    private final AtomicReference<RuleSet> current = new AtomicReference<>(RuleSet.EMPTY);
+
+    private byte[] lastContent;
+    private volatile long reloads;
+    private volatile long failures;
+    private volatile String lastError;
+
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * @param file     Regeldatei
+     * @param metrics  Ziel fuer Ladezeiten und Fehlschlaege
+     * @param listener Wird nach jedem erfolgreichen Austausch mit dem neuen Stand aufgerufen
+     */
+    public RuleFileWatcher(Path file, AutomationMetrics metrics, Consumer<RuleSet> listener) {
+        this.file = file.toAbsolutePath().normalize();
+        this.metrics = metrics;
+        this.listener = listener;
+    }
+
+    /**
+     * Laedt die Datei und beginnt mit der Beobachtung. Eine fehlende oder ungueltige Datei
+     * wird geloggt; die Beobachtung laeuft trotzdem.
+     *
+     * @throws IOException falls das Verzeichnis nicht beobachtet werden kann
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            log.warn("Regeldatei {} wird bereits beobachtet.", file);
+            return;
+        }
+        watchService = file.getFileSystem().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        running = true;
+        reload(System.nanoTime());
+        thread = new Thread(this::run, "Rule-Watcher");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Beobachte Regeldatei {}", file);
+    }
+
+    /**
+     * @return Aktiver Regelsatz aus der Datei
+     */
+    public RuleSet current() {
+        return current.get();
+    }
+
+    /**
+     * Liest die Datei sofort neu ein.
+     *
+     * @return {@code true}, falls ein neuer Regelsatz aktiviert wurde
+     */
+    public boolean reload() {
+        return reload(System.nanoTime());
+    }
+
+    /**
+     * @return Anzahl erfolgreicher Neuladevorgaenge
+     */
+    public long getReloads() {
+        return reloads;
+    }
+
+    /**
+     * @return Anzahl verworfener Versuche wegen ungueltiger Datei
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return Meldung zum letzten Fehlschlag oder {@code null}
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public void close() {
+        Thread watcherThread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            watcherThread = thread;
+            try {
+                watchService.close();
+            } catch (IOException ex) {
+                log.debug("WatchService konnte nicht geschlossen werden: {}", ex.getMessage());
+            }
+        }
+        try {
+            watcherThread.join(1000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                WatchKey key = watchService.take();
+                long changeNanos = System.nanoTime();
+                boolean relevant = drain(key);
+                // Editoren schreiben oft in mehreren Schritten; auf Ruhe warten
+                long deadline = changeNanos + TimeUnit.MILLISECONDS.toNanos(MAX_DEBOUNCE_MS);
+                WatchKey more;
+                while (System.nanoTime() < deadline
+                        && (more = watchService.poll(QUIET_MS, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= drain(more);
+                }
+                if (relevant) {
+                    reload(changeNanos);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            // regulaeres Beenden
+        }
+    }
+
+    /**
+     * @return {@code true}, falls ein Ereignis die Regeldatei betrifft
+     */
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || file.getFileName().equals(event.context())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    private synchronized boolean reload(long changeNanos) {
+        byte[] content;
+        try {
+            if (!Files.exists(file)) {
+                log.debug("Regeldatei {} fehlt, bisheriger Stand bleibt aktiv", file);
+                return false;
+            }
+            content = Files.readAllBytes(file);
+        } catch (IOException ex) {
+            log.warn("Regeldatei {} konnte nicht gelesen werden: {}", file, ex.getMessage());
+            return false;
+        }
+        if (Arrays.equals(content, lastContent)) {
+            return false;
+        }
+
+        long parseStart = System.nanoTime();
+        long parsedBefore = parser.getLinesParsed();
+        RuleSet next;
+        try {
+            List<String> lines = new String(content, StandardCharsets.UTF_8).lines().toList();
+            next = RuleSet.of(parser.parse(lines));
+        } catch (IllegalArgumentException ex) {
+            failures++;
+            lastError = ex.getMessage();
+            metrics.recordRuleReload(System.nanoTime() - changeNanos, false);
+            log.error("Regeldatei {} ungueltig, bisherige {} Regeln bleiben aktiv: {}",
+                    file, current.get().size(), ex.getMessage());
+            return false;
+        }
+        long parseNanos = System.nanoTime() - parseStart;
+
+        lastContent = content;
+        lastError = null;
+        current.set(next);
+        try {
+            listener.accept(next);
+        } catch (RuntimeException ex) {
+            log.error("Fehler beim Uebernehmen der Regeln aus {}", file, ex);
+        }
+        long latencyNanos = System.nanoTime() - changeNanos;
+        reloads++;
+        metrics.recordRuleReload(latencyNanos, true);
+        log.info("{} Regeln aus {} aktiv nach {} ms (Einlesen {} us, {} Zeilen neu zerlegt)",
+                next.size(), file.getFileName(), TimeUnit.NANOSECONDS.toMillis(latencyNanos),
+                TimeUnit.NANOSECONDS.toMicros(parseNanos), parser.getLinesParsed() - parsedBefore);
+        return true;
+    }
+}
@@ -0,0 +1,291 @@
+package dev.automation.assistant.rules;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Vorkompilierter Index fuer eine grosse Anzahl von {@link TitleRule}s.
+ * <p>
+ * Jede Regel wird beim Kompilieren der guenstigsten Struktur zugeordnet:
+ * </p>
+ * <ul>
+ *     <li>{@link MatchType#EXACT}: Hash-Lookup</li>
+ *     <li>{@link MatchType#PREFIX}: {@link PrefixTrie}</li>
+ *     <li>{@link MatchType#CONTAINS}: {@link AhoCorasick}-Automat</li>
+ *     <li>{@link MatchType#GLOB}: je nach Form Hash, Trie oder Automat; allgemeine Muster
+ *         werden ueber ihren laengsten Literal-Teil vorgefiltert und nur dann geprueft</li>
+ *     <li>{@link MatchType#REGEX}: ueber ein festes Literal-Praefix im Trie vorgefiltert; nur
+ *         Ausdruecke ohne solches Praefix werden als letzter Ausweg linear geprueft</li>
+ * </ul>
+ * <p>
+ * Ergebnisse werden pro unterschiedlichem Titel zwischengespeichert, da Fenstertitel
+ * sich von Tick zu Tick selten aendern. Treffer werden in Registrierungsreihenfolge
+ * geliefert; die erste Regel hat damit die hoechste Prioritaet.
+ * Der Index ist unveraenderlich und threadsicher.
+ * </p>
+ */
+public final class RuleIndex {
+
+    /** Standardgroesse des Ergebnis-Caches (Anzahl unterschiedlicher Titel) */
+    public static final int DEFAULT_CACHE_SIZE = 16_384;
+
+    /** Leerer Index ohne Regeln */
+    public static final RuleIndex EMPTY = compile(Collections.emptyList());
+
+    private final TitleRule[] rules;
+    private final Map<String, int[]> exact;
+    private final PrefixTrie prefixes;
+    private final AhoCorasick substrings;
+
+    /** Pro Regel eine Pruefung, falls ein vorgefilterter Kandidat noch verifiziert werden muss */
+    private final List<Predicate<String>> verifiers;
+
+    /** Regeln, die fuer jeden Titel Kandidat sind (leere Muster, reine Platzhalter) */
+    private final int[] unconditional;
+
+    private final int[] regexRules;
+    private final Pattern[] regexes;
+
+    private final Map<String, List<TitleRule>> cache = new ConcurrentHashMap<>();
+    private final int maxCacheSize;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    private RuleIndex(TitleRule[] rules, Map<String, int[]> exact, PrefixTrie prefixes, AhoCorasick substrings,
+                      List<Predicate<String>> verifiers, int[] unconditional, int[] regexRules, Pattern[] regexes,
+                      int maxCacheSize) {
+        this.rules = rules;
+        this.exact = exact;
+        this.prefixes = prefixes;
+        this.substrings = substrings;
+        this.verifiers = verifiers;
+        this.unconditional = unconditional;
+        this.regexRules = regexRules;
+        this.regexes = regexes;
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    /**
+     * Kompiliert die Regeln mit Standard-Cachegroesse.
+     *
+     * @param rules Regeln in Prioritaetsreihenfolge
+     * @return Neuer Index
+     * @throws IllegalArgumentException bei ungueltigen regulaeren Ausdruecken
+     */
+    public static RuleIndex compile(Collection<TitleRule> rules) {
+        return compile(rules, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Kompiliert die Regeln.
+     *
+     * @param rules        Regeln in Prioritaetsreihenfolge
+     * @param maxCacheSize Maximale Anzahl zwischengespeicherter Titel
+     * @return Neuer Index
+     * @throws IllegalArgumentException bei ungueltigen regulaeren Ausdruecken
+     */
+    public static RuleIndex compile(Collection<TitleRule> rules, int maxCacheSize) {
+        TitleRule[] ruleArray = rules.toArray(new TitleRule[0]);
+        Map<String, List<Integer>> exactBuilder = new HashMap<>();
+        CharTrie.Builder prefixBuilder = new CharTrie.Builder();
+        CharTrie.Builder substringBuilder = new CharTrie.Builder();
+        List<Predicate<String>> verifiers = new ArrayList<>(Collections.nCopies(ruleArray.length, null));
+        List<Integer> unconditional = new ArrayList<>();
+        List<Integer> regexRules = new ArrayList<>();
+        List<Pattern> regexes = new ArrayList<>();
+
+        for (int i = 0; i < ruleArray.length; i++) {
+            TitleRule rule = ruleArray[i];
+            String pattern = rule.getPattern();
+            switch (rule.getType()) {
+                case EXACT:
+                    exactBuilder.computeIfAbsent(pattern, p -> new ArrayList<>()).add(i);
+                    break;
+                case PREFIX:
+                    addLiteral(prefixBuilder, unconditional, pattern, i);
+                    break;
+                case CONTAINS:
+                    addLiteral(substringBuilder, unconditional, pattern, i);
+                    break;
+                case GLOB:
+                    addGlob(exactBuilder, prefixBuilder, substringBuilder, verifiers, unconditional, pattern, i);
+                    break;
+                case REGEX:
+                    Pattern regex = Pattern.compile(pattern);
+                    String literal = RegexLiterals.requiredPrefix(pattern);
+                    if (literal.isEmpty()) {
+                        regexRules.add(i);
+                        regexes.add(regex);
+                    } else {
+                        verifiers.set(i, regex.asMatchPredicate());
+                        prefixBuilder.add(literal, i);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unbekannter Regeltyp: " + rule.getType());
+            }
+        }
+
+        Map<String, int[]> exact = new HashMap<>(exactBuilder.size() * 2);
+        exactBuilder.forEach((title, indices) -> exact.put(title, toArray(indices)));
+
+        return new RuleIndex(
+                ruleArray,
+                exact,
+                prefixBuilder.isEmpty() ? null : new PrefixTrie(prefixBuilder),
+                substringBuilder.isEmpty() ? null : new AhoCorasick(substringBuilder),
+                verifiers,
+                toArray(unconditional),
+                toArray(regexRules),
+                regexes.toArray(new Pattern[0]),
+                maxCacheSize);
+    }
+
+    private static void addLiteral(CharTrie.Builder builder, List<Integer> unconditional, String literal, int index) {
+        if (literal.isEmpty()) {
+            unconditional.add(index);
+        } else {
+            builder.add(literal, index);
+        }
+    }
+
+    private static void addGlob(Map<String, List<Integer>> exact, CharTrie.Builder prefixes,
+                                CharTrie.Builder substrings, List<Predicate<String>> verifiers,
+                                List<Integer> unconditional, String glob, int index) {
+        if (!GlobPattern.hasWildcards(glob)) {
+            exact.computeIfAbsent(glob, p -> new ArrayList<>()).add(index);
+            return;
+        }
+        String body = glob.endsWith("*") ? glob.substring(0, glob.length() - 1) : null;
+        if (body != null && !GlobPattern.hasWildcards(body)) {
+            addLiteral(prefixes, unconditional, body, index);
+            return;
+        }
+        if (body != null && body.startsWith("*") && !GlobPattern.hasWildcards(body.substring(1))) {
+            addLiteral(substrings, unconditional, body.substring(1), index);
+            return;
+        }
+
+        // Allgemeines Muster: Vorfilter ueber laengsten Literal-Teil, danach pruefen
+        verifiers.set(index, new GlobPattern(glob)::matches);
+        addLiteral(substrings, unconditional, GlobPattern.longestLiteral(glob), index);
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Liefert alle Regeln, die auf den Titel passen, in Prioritaetsreihenfolge.
+     *
+     * @param title Fenstertitel
+     * @return Unveraenderliche Liste der Treffer (leer, falls keine Regel passt)
+     */
+    public List<TitleRule> match(String title) {
+        if (title == null) {
+            return Collections.emptyList();
+        }
+        List<TitleRule> cached = cache.get(title);
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            return cached;
+        }
+        cacheMisses.incrementAndGet();
+        List<TitleRule> result = evaluate(title);
+        if (cache.size() >= maxCacheSize) {
+            cache.clear();
+        }
+        cache.put(title, result);
+        return result;
+    }
+
+    /**
+     * Liefert die Regel mit der hoechsten Prioritaet, die auf den Titel passt.
+     *
+     * @param title Fenstertitel
+     * @return Regel oder {@code null}
+     */
+    public TitleRule firstMatch(String title) {
+        List<TitleRule> matches = match(title);
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    /**
+     * @return {@code true}, falls mindestens eine Regel auf den Titel passt
+     */
+    public boolean matchesAny(String title) {
+        return !match(title).isEmpty();
+    }
+
+    private List<TitleRule> evaluate(String title) {
+        BitSet candidates = new BitSet(rules.length);
+
+        int[] exactHits = exact.get(title);
+        if (exactHits != null) {
+            for (int index : exactHits) {
+                candidates.set(index);
+            }
+        }
+        if (prefixes != null) {
+            prefixes.collect(title, candidates::set);
+        }
+        if (substrings != null) {
+            substrings.collect(title, candidates::set);
+        }
+        for (int index : unconditional) {
+            candidates.set(index);
+        }
+        for (int i = 0; i < regexRules.length; i++) {
+            if (regexes[i].matcher(title).matches()) {
+                candidates.set(regexRules[i]);
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<TitleRule> result = new ArrayList<>(candidates.cardinality());
+        for (int index = candidates.nextSetBit(0); index >= 0; index = candidates.nextSetBit(index + 1)) {
+            Predicate<String> verifier = verifiers.get(index);
+            if (verifier == null || verifier.test(title)) {
+                result.add(rules[index]);
+            }
+        }
+        return result.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(result);
+    }
+
+    /**
+     * @return Alle Regeln in Prioritaetsreihenfolge
+     */
+    public List<TitleRule> getRules() {
+        return List.of(rules);
+    }
+
+    /**
+     * @return Anzahl der Regeln
+     */
+    public int size() {
+        return rules.length;
+    }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+}
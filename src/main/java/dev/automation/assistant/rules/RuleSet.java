@@ -0,0 +1,146 @@
+package dev.automation.assistant.rules;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unveraenderlicher, kompilierter Stand aller {@link AutomationRule}s.
+ * <p>
+ * Buendelt den {@link RuleIndex} mit der Zuordnung von Regel-ID zu Regel, damit beides
+ * ueber eine einzige Referenz ausgetauscht werden kann (Copy-on-Write): Ein Leser, der
+ * sich einmal den aktuellen Stand holt, sieht Index und Regeln immer aus derselben
+ * Version, auch wenn parallel neu geladen wird.
+ * </p>
+ */
+public final class RuleSet {
+
+    /** Leerer Regelsatz */
+    public static final RuleSet EMPTY = new RuleSet(List.of(), Map.of(), RuleIndex.EMPTY);
+
+    private final List<AutomationRule> rules;
+    private final Map<String, AutomationRule> byId;
+    private final RuleIndex index;
+
+    /** Programme aller Regeln oder {@code null}, falls eine Regel fuer beliebige Prozesse gilt */
+    private final Set<String> executables;
+
+    private RuleSet(List<AutomationRule> rules, Map<String, AutomationRule> byId, RuleIndex index) {
+        this.rules = rules;
+        this.byId = byId;
+        this.index = index;
+        this.executables = collectExecutables(rules);
+    }
+
+    private static Set<String> collectExecutables(List<AutomationRule> rules) {
+        Set<String> result = new HashSet<>();
+        for (AutomationRule rule : rules) {
+            if (rule.getProcess() == null) {
+                return null;
+            }
+            result.add(rule.getProcess());
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Kompiliert einen Regelsatz. Bei gleicher ID ersetzt eine spaetere Regel eine fruehere
+     * an deren Position.
+     *
+     * @param rules Regeln in Prioritaetsreihenfolge
+     * @return Neuer Regelsatz
+     * @throws IllegalArgumentException bei ungueltigen regulaeren Ausdruecken
+     */
+    public static RuleSet of(Collection<AutomationRule> rules) {
+        Map<String, AutomationRule> merged = new LinkedHashMap<>();
+        for (AutomationRule rule : rules) {
+            merged.put(rule.getId(), rule);
+        }
+        List<TitleRule> titleRules = new ArrayList<>(merged.size());
+        for (AutomationRule rule : merged.values()) {
+            titleRules.add(rule.toTitleRule());
+        }
+        RuleIndex index = RuleIndex.compile(titleRules);
+        return new RuleSet(Collections.unmodifiableList(new ArrayList<>(merged.values())),
+                Collections.unmodifiableMap(new HashMap<>(merged)), index);
+    }
+
+    /**
+     * Liefert die Regel mit der hoechsten Prioritaet fuer einen Fenstertitel.
+     *
+     * @param title Fenstertitel
+     * @return Regel oder {@code null}
+     */
+    public AutomationRule firstMatch(String title) {
+        TitleRule match = index.firstMatch(title);
+        return match != null ? byId.get(match.getId()) : null;
+    }
+
+    /**
+     * Liefert die Regel mit der hoechsten Prioritaet fuer einen Fenstertitel, deren
+     * Prozesskriterium zum Programm des Fensters passt.
+     *
+     * @param title      Fenstertitel
+     * @param executable Normalisierter Programmname; {@code null} erfuellt nur Regeln ohne Prozesskriterium
+     * @return Regel oder {@code null}
+     */
+    public AutomationRule firstMatch(String title, String executable) {
+        for (TitleRule match : index.match(title)) {
+            AutomationRule rule = byId.get(match.getId());
+            if (rule != null && rule.matchesProcess(executable)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Liefert die Programme, auf die alle Regeln eingeschraenkt sind. Nur dann koennen
+     * Fenster anderer Prozesse vor dem Titelabruf verworfen werden.
+     *
+     * @return Programmnamen oder {@code null}, falls mindestens eine Regel fuer beliebige Prozesse gilt
+     */
+    public Set<String> getExecutables() {
+        return executables;
+    }
+
+    /**
+     * @return {@code true}, falls mindestens eine Regel ein Prozesskriterium hat
+     */
+    public boolean hasProcessRules() {
+        for (AutomationRule rule : rules) {
+            if (rule.getProcess() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Regel mit der ID oder {@code null}
+     */
+    public AutomationRule get(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * @return Alle Regeln in Prioritaetsreihenfolge
+     */
+    public List<AutomationRule> getRules() {
+        return rules;
+    }
+
+    public RuleIndex getIndex() {
+        return index;
+    }
+
+    public int size() {
+        return rules.size();
+    }
+}
@@ -0,0 +1,504 @@
+package dev.automation.assistant.rules;
+
+import dev.automation.assistant.macro.Macro;
+import dev.automation.assistant.macro.MacroCompiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Persistente Ablage der {@link AutomationRule}s als Append-only-Journal.
+ * <p>
+ * Jede Aenderung wird als einzelner Datensatz an das Journal angehaengt, das
+ * Hinzufuegen einer Regel kostet damit nur einen kleinen sequentiellen Schreibvorgang.
+ * Beim Start wird die gesamte Datei mit einem einzigen sequentiellen Lesevorgang
+ * geladen und im Speicher abgespielt.
+ * </p>
+ *
+ * <h2>Dateiformat:</h2>
+ * <pre>
+ * Header:    int MAGIC
+ * Datensatz: int laenge | int crc32(nutzdaten) | nutzdaten
+ * Nutzdaten: byte op (1 = PUT, 2 = REMOVE, 3 = PUT mit Prozess, 4 = PUT mit Makro) | ...
+ *   PUT:     id | byte matchType | muster | byte action | int x | int y [| klasse | text | int controlId]
+ *   REMOVE:  id
+ *   PUT (3): id | byte matchType | muster | byte action | int x | int y | prozess [| klasse | text | int controlId]
+ *   PUT (4): id | byte matchType | muster | byte action | int x | int y | prozess | makro
+ *            [| klasse | text | int controlId]      (prozess leer = beliebig, makro = Textdefinition)
+ * Strings:   unsigned short laenge | UTF-8-Bytes
+ * </pre>
+ * <p>
+ * Regeln ohne Prozesskriterium werden weiterhin als Operation 1 geschrieben, sodass
+ * aeltere Versionen solche Journale unveraendert lesen koennen. Makros werden als Text
+ * gespeichert und beim Laden neu kompiliert.
+ * </p>
+ * <p>
+ * Ein abgeschnittener oder beschaedigter letzter Datensatz (z. B. nach Stromausfall)
+ * wird beim Laden erkannt und abgeschnitten; alle vorherigen Regeln bleiben erhalten.
+ * Datensaetze mit gueltiger Pruefsumme, die sich nicht anwenden lassen (etwa aus einer
+ * neueren Version), werden dagegen nur uebersprungen, damit die folgenden erhalten bleiben.
+ * Sobald das Journal deutlich mehr Datensaetze als aktive Regeln enthaelt, wird es
+ * kompaktiert: Die aktiven Regeln werden in eine temporaere Datei geschrieben, die
+ * anschliessend atomar das Journal ersetzt. Bis dahin bleibt das alte Journal geoeffnet;
+ * schlaegt die Kompaktierung fehl, wird unveraendert weiter angehaengt.
+ * </p>
+ */
+public class RuleStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleStore.class);
+
+    /** "ARJ1" */
+    private static final int MAGIC = 0x41524A31;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_PUT_PROCESS = 3;
+    private static final byte OP_PUT_MACRO = 4;
+    private static final int RECORD_HEADER = 8;
+
+    /** Ab dieser Journalgroesse wird eine Kompaktierung in Betracht gezogen */
+    private static final int COMPACT_MIN_RECORDS = 1024;
+
+    /** Kompaktieren, sobald mehr als diese Anzahl Datensaetze pro aktiver Regel vorliegt */
+    private static final int COMPACT_RATIO = 2;
+
+    // Reihenfolge der Enum-Werte ist Teil des Dateiformats
+    private static final MatchType[] MATCH_TYPES = MatchType.values();
+    private static final ActionType[] ACTION_TYPES = ActionType.values();
+
+    private final Path file;
+    private final boolean syncOnWrite;
+    private final Map<String, AutomationRule> rules = new LinkedHashMap<>();
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private boolean closed;
+    private long journalRecords;
+
+    /** Nach einer gescheiterten Kompaktierung: naechster Versuch erst ab dieser Journalgroesse */
+    private long compactRetryRecords;
+
+    private RuleStore(Path file, boolean syncOnWrite) {
+        this.file = file;
+        this.syncOnWrite = syncOnWrite;
+    }
+
+    /**
+     * Oeffnet (oder erstellt) ein Journal ohne {@code fsync} pro Schreibvorgang.
+     *
+     * @param file Pfad der Journaldatei
+     * @return Geoeffneter Store mit allen geladenen Regeln
+     * @throws IOException bei Lese- oder Schreibfehlern
+     */
+    public static RuleStore open(Path file) throws IOException {
+        return open(file, false);
+    }
+
+    /**
+     * Oeffnet (oder erstellt) ein Journal.
+     *
+     * @param file        Pfad der Journaldatei
+     * @param syncOnWrite {@code true}, um jeden Datensatz sofort auf den Datentraeger zu zwingen
+     * @return Geoeffneter Store mit allen geladenen Regeln
+     * @throws IOException bei Lese- oder Schreibfehlern
+     */
+    public static RuleStore open(Path file, boolean syncOnWrite) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        RuleStore store = new RuleStore(file, syncOnWrite);
+        store.load();
+        return store;
+    }
+
+    private void load() throws IOException {
+        long start = System.nanoTime();
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Regeljournal zu gross: " + size + " Bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            // sequentiell bis zum Dateiende lesen
+        }
+        buffer.flip();
+
+        if (buffer.remaining() < Integer.BYTES || buffer.getInt() != MAGIC) {
+            if (size > 0) {
+                log.warn("Regeljournal {} hat keinen gueltigen Header und wird neu angelegt.", file);
+            }
+            channel.truncate(0);
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, MAGIC), 0);
+            channel.position(Integer.BYTES);
+            return;
+        }
+
+        long validEnd = replay(buffer);
+        if (validEnd < size) {
+            log.warn("Regeljournal {}: unvollstaendiger Datensatz am Ende ({} Bytes) wird verworfen.",
+                    file, size - validEnd);
+            channel.truncate(validEnd);
+        }
+        channel.position(validEnd);
+
+        log.info("{} Regeln aus {} Datensaetzen in {} ms geladen ({})",
+                rules.size(), journalRecords, (System.nanoTime() - start) / 1_000_000, file);
+    }
+
+    /**
+     * Spielt alle vollstaendigen Datensaetze ab. Nur Rahmen- oder Pruefsummenfehler beenden
+     * das Abspielen; ein intakter, aber nicht anwendbarer Datensatz wird uebersprungen.
+     *
+     * @return Offset hinter dem letzten intakten Datensatz
+     */
+    private long replay(ByteBuffer buffer) {
+        byte[] data = buffer.array();
+        int validEnd = buffer.position();
+        while (buffer.remaining() >= RECORD_HEADER) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+            int offset = buffer.position();
+            crc.reset();
+            crc.update(data, offset, length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            try {
+                apply(ByteBuffer.wrap(data, offset, length));
+            } catch (RuntimeException ex) {
+                log.warn("Datensatz bei Offset {} wird uebersprungen: {}", validEnd, ex.toString());
+            }
+            buffer.position(offset + length);
+            validEnd = offset + length;
+            journalRecords++;
+        }
+        return validEnd;
+    }
+
+    private void apply(ByteBuffer buffer) {
+        byte op = buffer.get();
+        if (op == OP_PUT || op == OP_PUT_PROCESS || op == OP_PUT_MACRO) {
+            String id = readString(buffer);
+            MatchType matchType = MATCH_TYPES[buffer.get()];
+            String pattern = readString(buffer);
+            ActionType action = ACTION_TYPES[buffer.get()];
+            int x = buffer.getInt();
+            int y = buffer.getInt();
+            String process = op != OP_PUT ? readString(buffer) : null;
+            Macro macro = op == OP_PUT_MACRO ? MacroCompiler.compile(readString(buffer)) : null;
+            // Optionaler Steuerelement-Selektor; aeltere Datensaetze enden nach y
+            ControlSelector control = buffer.hasRemaining()
+                    ? new ControlSelector(readString(buffer), readString(buffer), buffer.getInt())
+                    : null;
+            AutomationRule rule = new AutomationRule(id, matchType, pattern, action, x, y, control, process, macro);
+            rules.remove(rule.getId());
+            rules.put(rule.getId(), rule);
+        } else if (op == OP_REMOVE) {
+            rules.remove(readString(buffer));
+        } else {
+            throw new IllegalStateException("Unbekannte Operation " + op);
+        }
+    }
+
+    /**
+     * Speichert oder ersetzt eine Regel.
+     *
+     * @param rule Regel
+     * @throws IOException bei Schreibfehlern
+     */
+    public synchronized void put(AutomationRule rule) throws IOException {
+        append(encodePut(rule));
+
+        rules.remove(rule.getId());
+        rules.put(rule.getId(), rule);
+        compactIfNeeded();
+    }
+
+    /**
+     * Entfernt eine Regel.
+     *
+     * @param id Kennung der Regel
+     * @return {@code true}, falls die Regel existierte
+     * @throws IOException bei Schreibfehlern
+     */
+    public synchronized boolean remove(String id) throws IOException {
+        if (!rules.containsKey(id)) {
+            return false;
+        }
+        append(encodeRemove(id));
+
+        rules.remove(id);
+        compactIfNeeded();
+        return true;
+    }
+
+    /**
+     * Uebernimmt mehrere Aenderungen in einem Schreibvorgang: Alle Datensaetze werden
+     * hintereinander angehaengt und bei {@code syncOnWrite} nur einmal synchronisiert.
+     *
+     * @param reset   Zuerst alle Regeln entfernen, die nicht in {@code puts} enthalten sind
+     * @param puts    Zu speichernde oder zu ersetzende Regeln
+     * @param removes Anschliessend zu entfernende Regelkennungen
+     * @throws IOException bei Schreibfehlern
+     */
+    public synchronized void apply(boolean reset, Collection<AutomationRule> puts, Collection<String> removes)
+            throws IOException {
+        Set<String> present = new HashSet<>(rules.keySet());
+        List<ByteBuffer> records = new ArrayList<>();
+        if (reset) {
+            Set<String> keep = new HashSet<>();
+            for (AutomationRule rule : puts) {
+                keep.add(rule.getId());
+            }
+            for (String id : rules.keySet()) {
+                if (!keep.contains(id)) {
+                    records.add(encodeRemove(id));
+                    present.remove(id);
+                }
+            }
+        }
+        for (AutomationRule rule : puts) {
+            records.add(encodePut(rule));
+            present.add(rule.getId());
+        }
+        for (String id : removes) {
+            if (present.remove(id)) {
+                records.add(encodeRemove(id));
+            }
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+        append(records.toArray(new ByteBuffer[0]));
+
+        for (AutomationRule rule : puts) {
+            rules.remove(rule.getId());
+            rules.put(rule.getId(), rule);
+        }
+        rules.keySet().retainAll(present);
+        compactIfNeeded();
+    }
+
+    /**
+     * @return Kopie aller Regeln in Einfuegereihenfolge
+     */
+    public synchronized List<AutomationRule> getRules() {
+        return new ArrayList<>(rules.values());
+    }
+
+    /**
+     * @param id Kennung der Regel
+     * @return Regel oder {@code null}
+     */
+    public synchronized AutomationRule get(String id) {
+        return rules.get(id);
+    }
+
+    /**
+     * @return Anzahl aktiver Regeln
+     */
+    public synchronized int size() {
+        return rules.size();
+    }
+
+    /**
+     * @return Anzahl der Datensaetze im Journal
+     */
+    public synchronized long getJournalRecords() {
+        return journalRecords;
+    }
+
+    /**
+     * Schreibt alle aktiven Regeln in ein neues Journal und ersetzt das alte atomar.
+     * Das alte Journal bleibt bis zum erfolgreichen Ersetzen geoeffnet; bei einem Fehler
+     * ist der Store unveraendert weiter benutzbar.
+     *
+     * @throws IOException bei Schreibfehlern
+     */
+    public synchronized void compact() throws IOException {
+        if (closed) {
+            throw new IOException("Regeljournal ist geschlossen: " + file);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long records = 0;
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                out.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, MAGIC));
+                for (AutomationRule rule : rules.values()) {
+                    write(out, encodePut(rule));
+                    records++;
+                }
+                out.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException cleanup) {
+                ex.addSuppressed(cleanup);
+            }
+            throw ex;
+        }
+
+        // Das alte Journal ist ersetzt; der naechste Schreibvorgang oeffnet notfalls neu
+        journalRecords = records;
+        compactRetryRecords = 0;
+        FileChannel replaced = channel;
+        channel = null;
+        try {
+            replaced.close();
+        } catch (IOException ex) {
+            log.warn("Altes Regeljournal konnte nicht geschlossen werden: {}", ex.getMessage());
+        }
+        openForAppend();
+        log.info("Regeljournal kompaktiert: {} Regeln ({})", rules.size(), file);
+    }
+
+    private void openForAppend() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+
+    private static ByteBuffer encodeRemove(String id) {
+        byte[] encoded = encode(id);
+        ByteBuffer payload = ByteBuffer.allocate(1 + 2 + encoded.length);
+        payload.put(OP_REMOVE);
+        putString(payload, encoded);
+        return payload;
+    }
+
+    private static ByteBuffer encodePut(AutomationRule rule) {
+        byte[] id = encode(rule.getId());
+        byte[] pattern = encode(rule.getPattern());
+        ControlSelector control = rule.getControl();
+        byte[] className = control != null ? encode(control.getClassName()) : null;
+        byte[] text = control != null ? encode(control.getText()) : null;
+        int controlBytes = control != null ? 2 + className.length + 2 + text.length + 4 : 0;
+        byte[] macro = rule.getMacro() != null ? encode(rule.getMacro().getSource()) : null;
+        byte[] process = rule.getProcess() != null ? encode(rule.getProcess())
+                : macro != null ? new byte[0] : null;
+        int processBytes = process != null ? 2 + process.length : 0;
+        int macroBytes = macro != null ? 2 + macro.length : 0;
+        ByteBuffer payload = ByteBuffer.allocate(1 + 2 + id.length + 1 + 2 + pattern.length + 1 + 4 + 4
+                + processBytes + macroBytes + controlBytes);
+        payload.put(macro != null ? OP_PUT_MACRO : process != null ? OP_PUT_PROCESS : OP_PUT);
+        putString(payload, id);
+        payload.put((byte) rule.getMatchType().ordinal());
+        putString(payload, pattern);
+        payload.put((byte) rule.getAction().ordinal());
+        payload.putInt(rule.getX());
+        payload.putInt(rule.getY());
+        if (process != null) {
+            putString(payload, process);
+        }
+        if (macro != null) {
+            putString(payload, macro);
+        }
+        if (control != null) {
+            putString(payload, className);
+            putString(payload, text);
+            payload.putInt(control.getControlId());
+        }
+        return payload;
+    }
+
+    /**
+     * Kompaktiert bei Bedarf. Der aufrufende Schreibvorgang ist zu diesem Zeitpunkt bereits
+     * dauerhaft; ein Fehler wird daher nur protokolliert. Erneut versucht wird erst, wenn das
+     * Journal um weitere {@link #COMPACT_RATIO} gewachsen ist, statt bei jedem Schreibvorgang
+     * die ganze Datei neu zu schreiben.
+     */
+    private void compactIfNeeded() {
+        if (journalRecords >= COMPACT_MIN_RECORDS && journalRecords > (long) COMPACT_RATIO * rules.size()
+                && journalRecords >= compactRetryRecords) {
+            try {
+                compact();
+            } catch (IOException ex) {
+                compactRetryRecords = journalRecords * COMPACT_RATIO;
+                log.warn("Kompaktierung des Regeljournals {} fehlgeschlagen, naechster Versuch ab {} Datensaetzen: {}",
+                        file, compactRetryRecords, ex.toString());
+            }
+        }
+    }
+
+    private void append(ByteBuffer... payloads) throws IOException {
+        if (closed) {
+            throw new IOException("Regeljournal ist geschlossen: " + file);
+        }
+        if (channel == null) {
+            openForAppend();
+        }
+        for (ByteBuffer payload : payloads) {
+            write(channel, payload);
+            journalRecords++;
+        }
+        if (syncOnWrite) {
+            channel.force(false);
+        }
+    }
+
+    private void write(FileChannel target, ByteBuffer payload) throws IOException {
+        payload.flip();
+        crc.reset();
+        crc.update(payload.array(), 0, payload.limit());
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + payload.limit());
+        record.putInt(payload.limit());
+        record.putInt((int) crc.getValue());
+        record.put(payload);
+        record.flip();
+        while (record.hasRemaining()) {
+            target.write(record);
+        }
+    }
+
+    private static byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Zeichenkette zu lang fuer das Regeljournal: " + bytes.length + " Bytes");
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
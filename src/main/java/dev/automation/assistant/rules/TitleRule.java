@@ -0,0 +1,78 @@
+package dev.automation.assistant.rules;
+
+import java.util.Objects;
+
+/**
+ * Regel, die einen Fenstertitel anhand eines Musters erkennt.
+ * <p>
+ * Regeln sind unveraenderlich und werden ueber ihre {@code id} identifiziert.
+ * Mehrere Regeln werden zu einem {@link RuleIndex} kompiliert.
+ * </p>
+ */
+public final class TitleRule {
+
+    private final String id;
+    private final MatchType type;
+    private final String pattern;
+
+    /**
+     * @param id      Eindeutige Kennung der Regel
+     * @param type    Vergleichsart
+     * @param pattern Muster (Titel, Praefix, Teilstring, Glob oder Regex)
+     */
+    public TitleRule(String id, MatchType type, String pattern) {
+        this.id = Objects.requireNonNull(id, "id");
+        this.type = Objects.requireNonNull(type, "type");
+        this.pattern = Objects.requireNonNull(pattern, "pattern");
+    }
+
+    public static TitleRule exact(String id, String title) {
+        return new TitleRule(id, MatchType.EXACT, title);
+    }
+
+    public static TitleRule prefix(String id, String prefix) {
+        return new TitleRule(id, MatchType.PREFIX, prefix);
+    }
+
+    public static TitleRule contains(String id, String text) {
+        return new TitleRule(id, MatchType.CONTAINS, text);
+    }
+
+    public static TitleRule glob(String id, String glob) {
+        return new TitleRule(id, MatchType.GLOB, glob);
+    }
+
+    public static TitleRule regex(String id, String regex) {
+        return new TitleRule(id, MatchType.REGEX, regex);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public MatchType getType() {
+        return type;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TitleRule)) return false;
+        TitleRule other = (TitleRule) o;
+        return id.equals(other.id) && type == other.type && pattern.equals(other.pattern);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, type, pattern);
+    }
+
+    @Override
+    public String toString() {
+        return "TitleRule[" + id + ", " + type + " '" + pattern + "']";
+    }
+}
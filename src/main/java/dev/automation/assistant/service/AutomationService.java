@@ -1,6 +1,11 @@
 package dev.automation.assistant.service;
 
 import com.sun.jna.platform.win32.WinDef;
+import dev.automation.assistant.action.ActionGuard;
+import dev.automation.assistant.macro.Macro;
+import dev.automation.assistant.macro.MacroEngine;
+import dev.automation.assistant.macro.MacroRun;
+import dev.automation.assistant.metrics.AutomationMetrics;
 import dev.automation.assistant.util.WindowsUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,9 +14,10 @@ import org.slf4j.LoggerFactory;
  * Der {@code AutomationService} kapselt die Aktionen, die automatisch ausgeführt werden sollen,
  * sobald ein bestimmtes Fenster erkannt wird.
  * <p>
- * Aktuell beschränkt sich die Automatisierung darauf, ein Fenster mit einem bestimmten Titel
- * zu schliessen. Die Funktionalität kann jedoch leicht erweitert werden, z. B. um Klicks auf
- * gespeicherte Positionen oder das Senden von Tastatureingaben.
+ * Einfachste Aktion ist das Schliessen eines Fensters mit einem bestimmten Titel. Mehrstufige
+ * Abläufe (Steuerelement klicken, Tasten senden, auf Fenster oder Titel warten, schliessen)
+ * laufen als kompilierte {@link Macro}s über eine {@link MacroEngine}, ohne dabei Threads
+ * schlafen zu legen.
  * </p>
  *
  * <h2>Verwendung:</h2>
@@ -35,18 +41,115 @@ public class AutomationService {
     /** Logger-Instanz für Status- und Fehlerausgaben */
     private static final Logger log = LoggerFactory.getLogger(AutomationService.class);
 
+    /** Ziel fuer Ausfuehrungsdauer und Fehlerzaehler */
+    private final AutomationMetrics metrics;
+
+    /** Drosselung gegen Schleifen desselben Dialogs */
+    private final ActionGuard guard;
+
+    /** Ausführung der Makros (null, falls keine Makros unterstützt werden) */
+    private final MacroEngine macroEngine;
+
+    public AutomationService() {
+        this(AutomationMetrics.global());
+    }
+
+    public AutomationService(AutomationMetrics metrics) {
+        this(metrics, new ActionGuard(metrics));
+    }
+
+    /**
+     * @param metrics Ziel fuer Ausfuehrungsdauer und Fehlerzaehler
+     * @param guard   Gemeinsame Drosselung mit anderen Aktionspfaden
+     */
+    public AutomationService(AutomationMetrics metrics, ActionGuard guard) {
+        this(metrics, guard, null);
+    }
+
+    /**
+     * @param metrics     Ziel fuer Ausfuehrungsdauer und Fehlerzaehler
+     * @param guard       Gemeinsame Drosselung mit anderen Aktionspfaden
+     * @param macroEngine Ausführung der Makros oder {@code null}
+     */
+    public AutomationService(AutomationMetrics metrics, ActionGuard guard, MacroEngine macroEngine) {
+        this.metrics = metrics;
+        this.guard = guard;
+        this.macroEngine = macroEngine;
+    }
+
     /**
      * Führt die definierte Automationsaktion für ein bestimmtes Fenster aus.
      * <p>
      * Standardverhalten: Schließt das übergebene Fenster über {@link WindowsUtils#closeWindow(String)}.
+     * Der Fenstertitel dient zugleich als Schlüssel der {@link ActionGuard}-Drosselung.
      * </p>
      *
      * @param title Der exakte Fenstertitel, der geschlossen werden soll (Gross-/Kleinschreibung relevant).
+     * @return {@code false}, falls die Aktion gedrosselt wurde
      */
-    public void handleWindow(String title) {
+    public boolean handleWindow(String title) {
+        return handleWindow(title, title);
+    }
+
+    /**
+     * Schließt ein Fenster, sofern die Drosselung für die auslösende Regel es erlaubt.
+     *
+     * @param ruleId Regel-ID als Schlüssel für Drosselung und Schutzschalter
+     * @param title  Der exakte Fenstertitel, der geschlossen werden soll
+     * @return {@code false}, falls die Aktion gedrosselt wurde
+     */
+    public boolean handleWindow(String ruleId, String title) {
+        ActionGuard.Decision decision = guard.tryAcquire(ruleId);
+        if (decision != ActionGuard.Decision.ALLOWED) {
+            log.debug("Fenster '{}' wird nicht geschlossen: {}", title, decision);
+            return false;
+        }
         log.info("Automatische Aktion: Fenster '{}' wird geschlossen.", title);
-        WindowsUtils.closeWindow(title);
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            WindowsUtils.closeWindow(title);
+            success = true;
+        } finally {
+            metrics.recordAction(System.nanoTime() - start, success);
+            guard.recordResult(ruleId, success);
+        }
+        return true;
+    }
+
+    /**
+     * Startet ein Makro auf einem erkannten Fenster, sofern die Drosselung es erlaubt.
+     * <p>
+     * Kehrt sofort zurück; Dauer und Erfolg werden nach dem Ende des Makros an die Kennzahlen
+     * und den Schutzschalter der Regel gemeldet.
+     * </p>
+     *
+     * @param ruleId Regel-ID als Schlüssel für Drosselung und Schutzschalter
+     * @param handle Handle des erkannten Fensters
+     * @param macro  Kompiliertes Makro
+     * @return Lauf oder {@code null}, falls die Aktion gedrosselt wurde
+     * @throws IllegalStateException falls keine {@link MacroEngine} konfiguriert ist
+     */
+    public MacroRun runMacro(String ruleId, long handle, Macro macro) {
+        if (macroEngine == null) {
+            throw new IllegalStateException("Keine MacroEngine konfiguriert");
+        }
+        ActionGuard.Decision decision = guard.tryAcquire(ruleId);
+        if (decision != ActionGuard.Decision.ALLOWED) {
+            log.debug("Makro für Regel '{}' unterdrückt: {}", ruleId, decision);
+            return null;
+        }
+        log.info("Automatische Aktion: Makro für Regel '{}' ({} Schritte) gestartet.", ruleId, macro.size());
+        return macroEngine.start(macro, handle, run -> {
+            boolean success = run.getStatus() == MacroRun.Status.DONE;
+            if (!success) {
+                log.warn("Makro für Regel '{}' beendet: {}", ruleId, run);
+            }
+            metrics.recordAction(run.getElapsedNanos(), success);
+            guard.recordResult(ruleId, success);
+        });
     }
+
 //    public void handleWindowByHandle(WinDef.HWND hwnd, String title) {
 //        log.info("Automatische Aktion: Fenster '{}' wird gezielt geschlossen.", title);
 //        WindowsUtils.closeWindow(hwnd, title);
@@ -0,0 +1,337 @@
+package dev.automation.assistant.service;
+
+import dev.automation.assistant.platform.WindowBackend;
+import dev.automation.assistant.rules.ControlSelector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loest ein {@link ControlSelector} in einem Dialog zum Handle des Steuerelements auf.
+ * <p>
+ * Beim ersten Zugriff werden alle Kindfenster des Dialogs ueber {@code EnumChildWindows}
+ * gelesen und nach Control-ID sowie nach Klasse und Text indiziert. Das Ergebnis wird auf
+ * zwei Ebenen zwischengespeichert:
+ * </p>
+ * <ul>
+ *     <li>Pro Dialoghandle und Selektor das gefundene Handle: Fuer denselben Dialog wird danach nur
+ *     geprueft, ob es noch unterhalb des Dialogs liegt und Klasse sowie Control-ID des Selektors
+ *     traegt, ohne Klasse oder Titel des Dialogs zu lesen. Ein blosses {@code IsWindow} genuegt
+ *     nicht, weil Windows Handles zerstoerter Fenster wiederverwendet.</li>
+ *     <li>Pro Dialogsignatur (Fensterklasse, Titel und Selektor) der Pfad aus Control-IDs.
+ *     Fuer eine neue Instanz desselben Dialogs wird er ueber {@code GetDlgItem} abgelaufen und
+ *     nur die Fensterklasse gegengeprueft.</li>
+ *     <li>Erst wenn beides fehlschlaegt, wird erneut enumeriert.</li>
+ * </ul>
+ * <p>
+ * Die Klasse ist threadsicher.
+ * </p>
+ */
+public class ControlResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(ControlResolver.class);
+
+    /** Obergrenze je Cache-Ebene */
+    private static final int MAX_ENTRIES = 256;
+
+    /** Hoechste Verschachtelungstiefe eines Steuerelements unterhalb des Dialogs */
+    private static final int MAX_DEPTH = 32;
+
+    private final WindowBackend backend;
+
+    /** Erste Ebene: Handle des Steuerelements je Dialoghandle und Selektor */
+    private final Map<DialogKey, Long> handles = new HashMap<>();
+
+    /** Zweite Ebene: Control-ID-Pfad je Dialogsignatur */
+    private final Map<String, CachedPath> paths = new HashMap<>();
+
+    private long handleHits;
+    private long pathHits;
+    private long scans;
+
+    /**
+     * @param backend Zugriff auf die Fenster-API
+     */
+    public ControlResolver(WindowBackend backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * Sucht das Steuerelement im Dialog.
+     *
+     * @param dialog   Handle des Dialogs
+     * @param selector Gesuchtes Steuerelement
+     * @return Handle des Steuerelements oder 0, falls keines passt
+     */
+    public synchronized long resolve(long dialog, ControlSelector selector) {
+        if (dialog == 0) {
+            return 0L;
+        }
+        DialogKey dialogKey = new DialogKey(dialog, selector);
+        Long known = handles.get(dialogKey);
+        if (known != null) {
+            if (isControlOf(known, dialog, selector)) {
+                handleHits++;
+                return known;
+            }
+            handles.remove(dialogKey);
+        }
+
+        // Signatur erst bei einem Fehlschlag lesen: kostet Klasse und Titel des Dialogs
+        String key = signature(dialog, selector);
+        CachedPath cached = paths.get(key);
+        if (cached != null) {
+            long control = follow(dialog, cached.controlIds, selector);
+            if (control != 0) {
+                pathHits++;
+                remember(handles, dialogKey, control);
+                return control;
+            }
+        }
+
+        scans++;
+        long control = ControlIndex.scan(backend, dialog).find(selector);
+        if (control == 0) {
+            log.debug("Kein Steuerelement {} in Dialog {}", selector, Long.toHexString(dialog));
+            paths.remove(key);
+            return 0L;
+        }
+        remember(paths, key, new CachedPath(pathOf(dialog, control)));
+        remember(handles, dialogKey, control);
+        return control;
+    }
+
+    /**
+     * Prueft ein gespeichertes Handle gegen Dialog und Selektor, ohne Text zu lesen.
+     */
+    private boolean isControlOf(long control, long dialog, ControlSelector selector) {
+        long parent = backend.getParent(control);
+        for (int depth = 1; parent != dialog; depth++) {
+            if (parent == 0 || depth >= MAX_DEPTH) {
+                return false;
+            }
+            parent = backend.getParent(parent);
+        }
+        String className = selector.getClassName();
+        if (!className.isEmpty() && !className.equals(backend.getClassName(control))) {
+            return false;
+        }
+        return selector.getControlId() == 0 || selector.getControlId() == backend.getControlId(control);
+    }
+
+    private static <K, V> void remember(Map<K, V> cache, K key, V value) {
+        if (cache.size() >= MAX_ENTRIES && !cache.containsKey(key)) {
+            cache.clear();
+        }
+        cache.put(key, value);
+    }
+
+    /**
+     * Beschreibt ein Steuerelement ueber Klasse, Text und Control-ID, z. B. fuer das
+     * Registrieren des Buttons unter dem Mauszeiger.
+     *
+     * @param control Handle des Steuerelements
+     * @return Selektor oder {@code null}, falls das Handle kein Kindfenster ist
+     */
+    public ControlSelector describe(long control) {
+        if (control == 0 || backend.getParent(control) == 0) {
+            return null;
+        }
+        return new ControlSelector(backend.getClassName(control), backend.getWindowTitle(control),
+                backend.getControlId(control));
+    }
+
+    /**
+     * Liefert den Dialog (oberstes Elternfenster) eines Steuerelements.
+     *
+     * @param control Handle des Steuerelements
+     * @return Handle des Top-Level-Fensters
+     */
+    public long dialogOf(long control) {
+        long dialog = control;
+        long parent;
+        while ((parent = backend.getParent(dialog)) != 0) {
+            dialog = parent;
+        }
+        return dialog;
+    }
+
+    /**
+     * Verwirft alle zwischengespeicherten Pfade.
+     */
+    public synchronized void clear() {
+        handles.clear();
+        paths.clear();
+    }
+
+    /**
+     * @return Treffer ueber das gespeicherte Handle (Elternkette, Klasse und Control-ID)
+     */
+    public synchronized long getHandleHits() {
+        return handleHits;
+    }
+
+    /**
+     * @return Treffer ueber den gespeicherten Control-ID-Pfad
+     */
+    public synchronized long getPathHits() {
+        return pathHits;
+    }
+
+    /**
+     * @return Vollstaendige Enumerationen der Kindfenster
+     */
+    public synchronized long getScans() {
+        return scans;
+    }
+
+    private String signature(long dialog, ControlSelector selector) {
+        return backend.getClassName(dialog) + '\u0000' + backend.getWindowTitle(dialog) + '\u0000'
+                + selector.getClassName() + '\u0000' + selector.getText() + '\u0000' + selector.getControlId();
+    }
+
+    /**
+     * Laeuft einen Control-ID-Pfad ueber {@code GetDlgItem} ab.
+     */
+    private long follow(long dialog, int[] controlIds, ControlSelector selector) {
+        if (controlIds == null) {
+            return 0L;
+        }
+        long current = dialog;
+        for (int controlId : controlIds) {
+            current = backend.getDialogItem(current, controlId);
+            if (current == 0) {
+                return 0L;
+            }
+        }
+        String className = selector.getClassName();
+        return className.isEmpty() || className.equals(backend.getClassName(current)) ? current : 0L;
+    }
+
+    /**
+     * Ermittelt die Control-IDs vom Dialog bis zum Steuerelement.
+     *
+     * @return Pfad oder {@code null}, falls ein Glied keine eindeutige ID hat
+     */
+    private int[] pathOf(long dialog, long control) {
+        List<Integer> ids = new ArrayList<>();
+        long current = control;
+        while (current != dialog) {
+            int controlId = backend.getControlId(current);
+            long parent = backend.getParent(current);
+            if (controlId == 0 || parent == 0 || backend.getDialogItem(parent, controlId) != current) {
+                return null;
+            }
+            ids.add(controlId);
+            current = parent;
+        }
+        int[] path = new int[ids.size()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = ids.get(path.length - 1 - i);
+        }
+        return path;
+    }
+
+    /** Schluessel der ersten Ebene: konkreter Dialog und Selektor */
+    private static final class DialogKey {
+        private final long dialog;
+        private final ControlSelector selector;
+
+        private DialogKey(long dialog, ControlSelector selector) {
+            this.dialog = dialog;
+            this.selector = selector;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DialogKey)) return false;
+            DialogKey other = (DialogKey) o;
+            return dialog == other.dialog && selector.equals(other.selector);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(dialog) * 31 + selector.hashCode();
+        }
+    }
+
+    /** Zwischengespeicherter Pfad einer Dialogsignatur */
+    private static final class CachedPath {
+        /** Control-IDs vom Dialog zum Steuerelement oder {@code null}, falls nicht eindeutig */
+        private final int[] controlIds;
+
+        private CachedPath(int[] controlIds) {
+            this.controlIds = controlIds;
+        }
+    }
+
+    /**
+     * Index aller Kindfenster eines Dialogs nach Control-ID sowie nach Klasse und Text.
+     */
+    static final class ControlIndex {
+
+        private final List<Control> controls = new ArrayList<>();
+        private final Map<Integer, List<Control>> byId = new HashMap<>();
+        private final Map<String, List<Control>> byClassAndText = new HashMap<>();
+
+        static ControlIndex scan(WindowBackend backend, long dialog) {
+            ControlIndex index = new ControlIndex();
+            backend.enumerateChildWindows(dialog, child -> {
+                Control control = new Control(child, backend.getClassName(child),
+                        backend.getWindowTitle(child), backend.getControlId(child));
+                index.controls.add(control);
+                index.byId.computeIfAbsent(control.controlId, id -> new ArrayList<>()).add(control);
+                index.byClassAndText.computeIfAbsent(key(control.className, control.text), k -> new ArrayList<>())
+                        .add(control);
+                return true;
+            });
+            return index;
+        }
+
+        /**
+         * @return Erstes passendes Steuerelement in Enumerationsreihenfolge oder 0
+         */
+        long find(ControlSelector selector) {
+            List<Control> candidates;
+            if (selector.getControlId() != 0) {
+                candidates = byId.get(selector.getControlId());
+            } else if (!selector.getClassName().isEmpty() && !selector.getText().isEmpty()) {
+                candidates = byClassAndText.get(key(selector.getClassName(), selector.getText()));
+            } else {
+                candidates = controls;
+            }
+            if (candidates != null) {
+                for (Control control : candidates) {
+                    if (selector.matches(control.className, control.text, control.controlId)) {
+                        return control.handle;
+                    }
+                }
+            }
+            return 0L;
+        }
+
+        private static String key(String className, String text) {
+            return className + '\u0000' + text;
+        }
+    }
+
+    /** Ein Kindfenster mit den fuer die Suche relevanten Eigenschaften */
+    private static final class Control {
+        private final long handle;
+        private final String className;
+        private final String text;
+        private final int controlId;
+
+        private Control(long handle, String className, String text, int controlId) {
+            this.handle = handle;
+            this.className = className;
+            this.text = text;
+            this.controlId = controlId;
+        }
+    }
+}
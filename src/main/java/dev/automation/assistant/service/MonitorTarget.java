@@ -0,0 +1,58 @@
+package dev.automation.assistant.service;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Ueberwachungsziel fuer den {@link MultiTargetMonitor}.
+ * <p>
+ * Ein Ziel besteht aus einem Namen, einer Titelregel und dem Callback, der fuer
+ * jedes neu erscheinende passende Fenster ausgeloest wird.
+ * </p>
+ */
+public final class MonitorTarget {
+
+    private final String name;
+    private final Predicate<String> titleMatcher;
+    private final WindowCallback callback;
+
+    /**
+     * @param name         Anzeigename des Ziels (fuer Logging)
+     * @param titleMatcher Regel, die auf den Fenstertitel angewendet wird; muss thread-sicher
+     *                     sein, da grosse Fenstermengen parallel abgeglichen werden
+     * @param callback     Wird fuer jedes neue passende Fenster aufgerufen
+     */
+    public MonitorTarget(String name, Predicate<String> titleMatcher, WindowCallback callback) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.titleMatcher = Objects.requireNonNull(titleMatcher, "titleMatcher");
+        this.callback = Objects.requireNonNull(callback, "callback");
+    }
+
+    /**
+     * Erstellt ein Ziel, das auf einen exakten Fenstertitel reagiert.
+     *
+     * @param title    Exakter Fenstertitel
+     * @param callback Callback fuer neue Fenster
+     * @return Neues Ziel
+     */
+    public static MonitorTarget exactTitle(String title, WindowCallback callback) {
+        return new MonitorTarget(title, title::equals, callback);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    boolean matches(String title) {
+        return titleMatcher.test(title);
+    }
+
+    WindowCallback getCallback() {
+        return callback;
+    }
+
+    @Override
+    public String toString() {
+        return "MonitorTarget[" + name + "]";
+    }
+}
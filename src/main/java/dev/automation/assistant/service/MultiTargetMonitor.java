@@ -0,0 +1,248 @@
+package dev.automation.assistant.service;
+
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.platform.WindowBackend;
+import dev.automation.assistant.util.PeriodicTask;
+import dev.automation.assistant.util.TaskExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Ueberwacht beliebig viele Zielfenster mit einem einzigen Enumerationsdurchlauf pro Tick.
+ * <p>
+ * Statt pro Titel einen eigenen {@link WindowMonitorService} mit {@code FindWindow}
+ * zu betreiben, erstellt dieser Monitor pro Tick genau einen Schnappschuss aller
+ * Top-Level-Fenster ({@code EnumWindows} plus ein Titel pro Fenster) und wendet
+ * anschliessend alle Ziele auf diesen Schnappschuss an. Die Anzahl der nativen
+ * Aufrufe haengt damit nur von der Zahl der Fenster ab, nicht von der Zahl der Ziele.
+ * </p>
+ * <p>
+ * Der Abgleich laeuft ueber einen {@link SnapshotDiffEngine}: Ziele werden nur fuer
+ * hinzugekommene Fenster und fuer Titelwechsel ausgewertet. Jedes Fenster wird pro Ziel
+ * genau einmal gemeldet, solange es geoeffnet bleibt und zum Ziel passt.
+ * </p>
+ * <p>
+ * Der Abgleich selbst laeuft ueber eine {@link ParallelMatchStage}: Grosse Fenstermengen
+ * (erster Tick, neue Ziele, viele Aenderungen) werden parallel ausgewertet, die Treffer
+ * danach in fester Reihenfolge auf dem Monitor-Thread gemeldet.
+ * </p>
+ */
+public class MultiTargetMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(MultiTargetMonitor.class);
+
+    private final WindowBackend backend;
+    private final long pollIntervalMs;
+    private final AutomationMetrics metrics;
+    private final SnapshotDiffEngine engine;
+    private final ParallelMatchStage matchStage;
+
+    /** Zu pruefende Fenster und Treffer des laufenden Ticks; nur unter der Monitor-Sperre benutzt */
+    private final ParallelMatchStage.Batch batch = new ParallelMatchStage.Batch();
+    private final ParallelMatchStage.Hits matches = new ParallelMatchStage.Hits();
+
+    /** Aktive Ziele, die nur noch Aenderungen sehen */
+    private final List<MonitorTarget> targets = new CopyOnWriteArrayList<>();
+
+    /** Neue Ziele, die beim naechsten Tick einmal gegen alle offenen Fenster laufen */
+    private final List<MonitorTarget> pendingTargets = new ArrayList<>();
+
+    /** Sammelt hinzugekommene und umbenannte Fenster fuer den Abgleich */
+    private final WindowChangeListener changeCollector = new WindowChangeListener() {
+        @Override
+        public void onWindowAdded(long handle, String title) {
+            batch.add(handle, title);
+        }
+
+        @Override
+        public void onWindowRemoved(long handle, String lastTitle) {
+            LongConsumer listener = removalListener;
+            if (listener != null) {
+                listener.accept(handle);
+            }
+        }
+
+        @Override
+        public void onTitleChanged(long handle, String oldTitle, String newTitle) {
+            batch.addRenamed(handle, newTitle, oldTitle);
+        }
+    };
+
+    /** Wird fuer jedes verschwundene Fenster aufgerufen, z. B. um Fensterzustand zu vergessen */
+    private volatile LongConsumer removalListener;
+
+    /** Treffer im laufenden Tick */
+    private int hits;
+
+    private PeriodicTask monitorTask;
+
+    /**
+     * @param backend        Zugriff auf die Fensterliste
+     * @param pollIntervalMs Abstand zwischen zwei Ticks in Millisekunden
+     */
+    public MultiTargetMonitor(WindowBackend backend, long pollIntervalMs) {
+        this(backend, pollIntervalMs, AutomationMetrics.global());
+    }
+
+    /**
+     * @param backend        Zugriff auf die Fensterliste
+     * @param pollIntervalMs Abstand zwischen zwei Ticks in Millisekunden
+     * @param metrics        Ziel fuer Erkennungszaehler und Abgleichdauer
+     */
+    public MultiTargetMonitor(WindowBackend backend, long pollIntervalMs, AutomationMetrics metrics) {
+        this(backend, pollIntervalMs, metrics, Runtime.getRuntime().availableProcessors(),
+                ParallelMatchStage.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param backend           Zugriff auf die Fensterliste
+     * @param pollIntervalMs    Abstand zwischen zwei Ticks in Millisekunden
+     * @param metrics           Ziel fuer Erkennungszaehler und Abgleichdauer
+     * @param matchParallelism  Threads fuer den Abgleich; 1 fuer rein seriell
+     * @param parallelThreshold Ab dieser Anzahl zu pruefender Fenster wird parallel abgeglichen
+     */
+    public MultiTargetMonitor(WindowBackend backend, long pollIntervalMs, AutomationMetrics metrics,
+                              int matchParallelism, int parallelThreshold) {
+        this.backend = backend;
+        this.pollIntervalMs = pollIntervalMs;
+        this.metrics = metrics;
+        this.engine = new SnapshotDiffEngine(backend);
+        this.matchStage = new ParallelMatchStage(matchParallelism, parallelThreshold);
+    }
+
+    /**
+     * Registriert ein weiteres Ziel. Kann auch waehrend der Ueberwachung aufgerufen werden.
+     */
+    public synchronized void addTarget(MonitorTarget target) {
+        pendingTargets.add(target);
+        log.info("Ziel registriert: {}", target.getName());
+    }
+
+    /**
+     * Entfernt ein Ziel.
+     */
+    public synchronized void removeTarget(MonitorTarget target) {
+        targets.remove(target);
+        pendingTargets.remove(target);
+    }
+
+    /**
+     * @return Anzahl registrierter Ziele
+     */
+    public synchronized int getTargetCount() {
+        return targets.size() + pendingTargets.size();
+    }
+
+    /**
+     * Startet die periodische Ueberwachung ueber {@link TaskExecutors}.
+     */
+    public synchronized void start() {
+        if (monitorTask != null) {
+            log.warn("Ueberwachung laeuft bereits.");
+            return;
+        }
+        log.info("Starte Ueberwachung fuer {} Ziele", getTargetCount());
+        monitorTask = TaskExecutors.schedulePeriodic("Window-Monitor", this::tick, pollIntervalMs);
+    }
+
+    /**
+     * Stoppt die Ueberwachung und beendet die Threads des parallelen Abgleichs.
+     */
+    public synchronized void stop() {
+        if (monitorTask != null) {
+            monitorTask.cancel();
+            monitorTask = null;
+            log.info("Ueberwachung gestoppt.");
+        }
+        matchStage.close();
+    }
+
+    /**
+     * Setzt einen Vorfilter, der Fenster vor dem Titelabruf verwirft.
+     *
+     * @param filter z. B. ein {@link ProcessPrefilter}; {@code null} fuer alle Fenster
+     * @see SnapshotDiffEngine#setFilter(LongPredicate)
+     */
+    public void setWindowFilter(LongPredicate filter) {
+        engine.setFilter(filter);
+    }
+
+    /**
+     * Setzt einen Empfaenger fuer geschlossene Fenster. Er wird auf dem Monitor-Thread
+     * aufgerufen, bevor Fenster desselben Ticks gemeldet werden; ein im selben Tick
+     * wiederverwendetes Handle ist damit bereits vergessen.
+     *
+     * @param listener Empfaenger des Handles oder {@code null}
+     */
+    public void setRemovalListener(LongConsumer listener) {
+        this.removalListener = listener;
+    }
+
+    /**
+     * @return Stufe des Regelabgleichs
+     */
+    public ParallelMatchStage getMatchStage() {
+        return matchStage;
+    }
+
+    /**
+     * Fuehrt einen einzelnen Ueberwachungsdurchlauf aus: Schnappschuss erstellen,
+     * Aenderungen gegen alle Ziele abgleichen und Treffer melden.
+     *
+     * @return Anzahl gemeldeter Treffer
+     */
+    public synchronized int tick() {
+        engine.capture();
+
+        long matchStart = System.nanoTime();
+        hits = 0;
+        batch.clear();
+        engine.emitChanges(changeCollector);
+        dispatchMatches(targets.toArray(new MonitorTarget[0]));
+
+        if (!pendingTargets.isEmpty()) {
+            WindowSnapshot snapshot = engine.getSnapshot();
+            batch.clear();
+            for (int i = 0; i < snapshot.size(); i++) {
+                batch.add(snapshot.handleAt(i), snapshot.titleAt(i));
+            }
+            // Ziel fuer Ziel, damit die Meldungen nach Ziel gruppiert bleiben
+            for (MonitorTarget target : pendingTargets) {
+                dispatchMatches(new MonitorTarget[]{target});
+            }
+            targets.addAll(pendingTargets);
+            pendingTargets.clear();
+        }
+        batch.clear();
+        metrics.recordRuleMatch(System.nanoTime() - matchStart);
+        return hits;
+    }
+
+    /**
+     * Gleicht den aktuellen Stapel ab und meldet die Treffer in Fenster- und Zielreihenfolge.
+     */
+    private void dispatchMatches(MonitorTarget[] candidates) {
+        matchStage.evaluate(batch, candidates, matches);
+        for (int i = 0; i < matches.size(); i++) {
+            int window = matches.candidateAt(i);
+            dispatch(candidates[matches.targetAt(i)], batch.handleAt(window), batch.titleAt(window));
+        }
+    }
+
+    private void dispatch(MonitorTarget target, long handle, String title) {
+        hits++;
+        log.info("Fenster '{}' fuer Ziel {} erkannt ({})", title, target.getName(), Long.toHexString(handle));
+        metrics.recordDetection(-1);
+        try {
+            target.getCallback().onWindow(handle, title);
+        } catch (Exception ex) {
+            log.error("Fehler im Callback fuer Ziel {}", target.getName(), ex);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package dev.automation.assistant.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Abgleich vieler Fenster gegen die Ziele eines {@link MultiTargetMonitor}, bei grossen
+ * Mengen parallel auf einem Fork/Join-Pool.
+ * <p>
+ * Auf Terminalservern liefert eine Enumeration tausende Fenster aus allen Sitzungen. Der
+ * Abgleich gegen die Titelregeln ist reine CPU-Arbeit und unabhaengig pro Fenster; ab
+ * {@code threshold} Fenstern wird die Menge deshalb in Teilstuecke zerlegt, die auf bis zu
+ * {@code parallelism} Threads ausgewertet werden. Die Treffer der Teilstuecke werden in
+ * Reihenfolge der Fenster zusammengefuehrt, sodass das Ergebnis exakt dem seriellen
+ * Durchlauf entspricht. Gemeldet wird weiterhin nur auf dem Thread des Monitors.
+ * </p>
+ * <p>
+ * Der Pool wird erst beim ersten parallelen Abgleich erzeugt; Rechner mit wenigen Fenstern
+ * starten keine zusaetzlichen Threads. Titelregeln muessen thread-sicher sein, sobald
+ * parallel abgeglichen wird.
+ * </p>
+ */
+public final class ParallelMatchStage implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelMatchStage.class);
+
+    /** Standard: unterhalb dieser Anzahl Fenster wird seriell abgeglichen */
+    public static final int DEFAULT_THRESHOLD = 512;
+
+    /** Mindestgroesse eines Teilstuecks, damit sich das Verteilen lohnt */
+    static final int MIN_CHUNK = 64;
+
+    private final int parallelism;
+    private final int threshold;
+    private ForkJoinPool pool;
+    private long parallelRuns;
+
+    /**
+     * @param parallelism Maximale Anzahl Threads; 1 fuer rein seriellen Abgleich
+     * @param threshold   Ab dieser Anzahl Fenster wird parallel abgeglichen
+     */
+    public ParallelMatchStage(int parallelism, int threshold) {
+        if (parallelism < 1 || threshold < 1) {
+            throw new IllegalArgumentException("Parallelitaet und Schwelle muessen positiv sein");
+        }
+        this.parallelism = parallelism;
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return Stufe mit einem Thread pro CPU-Kern und {@link #DEFAULT_THRESHOLD}
+     */
+    public static ParallelMatchStage defaults() {
+        return new ParallelMatchStage(Runtime.getRuntime().availableProcessors(), DEFAULT_THRESHOLD);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return Anzahl parallel ausgefuehrter Abgleiche
+     */
+    public synchronized long getParallelRuns() {
+        return parallelRuns;
+    }
+
+    /**
+     * Gleicht alle Fenster des Stapels gegen die Ziele ab.
+     *
+     * @param batch   Zu pruefende Fenster
+     * @param targets Ziele; die Reihenfolge bestimmt die Reihenfolge der Treffer je Fenster
+     * @param hits    Ziel fuer die Treffer, sortiert nach Fenster und Ziel
+     * @return Anzahl Treffer
+     */
+    int evaluate(Batch batch, MonitorTarget[] targets, Hits hits) {
+        hits.clear();
+        int size = batch.size();
+        if (size == 0 || targets.length == 0) {
+            return 0;
+        }
+        if (parallelism == 1 || size < threshold) {
+            matchRange(batch, targets, 0, size, hits);
+            return hits.size();
+        }
+        int chunk = Math.max(MIN_CHUNK, (size + parallelism * 4 - 1) / (parallelism * 4));
+        hits.addAll(pool().invoke(new MatchTask(batch, targets, 0, size, chunk)));
+        return hits.size();
+    }
+
+    private synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism, p -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName("Rule-Match-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+            log.info("Paralleler Regelabgleich mit {} Threads ab {} Fenstern", parallelism, threshold);
+        }
+        parallelRuns++;
+        return pool;
+    }
+
+    /**
+     * Beendet den Pool; ein spaeterer paralleler Abgleich erzeugt ihn neu.
+     */
+    @Override
+    public synchronized void close() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Serieller Abgleich eines Bereichs; Basis beider Wege.
+     */
+    private static void matchRange(Batch batch, MonitorTarget[] targets, int from, int to, Hits hits) {
+        for (int i = from; i < to; i++) {
+            String title = batch.titles[i];
+            String oldTitle = batch.oldTitles[i];
+            boolean renamed = batch.renamed[i];
+            for (int t = 0; t < targets.length; t++) {
+                if (targets[t].matches(title) && (!renamed || !targets[t].matches(oldTitle))) {
+                    hits.add(i, t);
+                }
+            }
+        }
+    }
+
+    /** Teilt den Bereich bis zur Stueckgroesse und fuegt die Treffer geordnet zusammen */
+    private static final class MatchTask extends RecursiveTask<Hits> {
+        private static final long serialVersionUID = 1L;
+
+        private final Batch batch;
+        private final MonitorTarget[] targets;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        private MatchTask(Batch batch, MonitorTarget[] targets, int from, int to, int chunk) {
+            this.batch = batch;
+            this.targets = targets;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected Hits compute() {
+            if (to - from <= chunk) {
+                Hits hits = new Hits();
+                matchRange(batch, targets, from, to, hits);
+                return hits;
+            }
+            int middle = (from + to) >>> 1;
+            MatchTask left = new MatchTask(batch, targets, from, middle, chunk);
+            left.fork();
+            Hits right = new MatchTask(batch, targets, middle, to, chunk).compute();
+            Hits merged = left.join();
+            merged.addAll(right);
+            return merged;
+        }
+    }
+
+    /**
+     * Zu pruefende Fenster eines Durchlaufs. Die Arrays wachsen bei Bedarf und werden
+     * ueber die Durchlaeufe wiederverwendet.
+     */
+    static final class Batch {
+        private long[] handles = new long[64];
+        private String[] titles = new String[64];
+        private String[] oldTitles = new String[64];
+        private boolean[] renamed = new boolean[64];
+        private int size;
+
+        /** Fuegt ein neues Fenster hinzu */
+        void add(long handle, String title) {
+            append(handle, title, null, false);
+        }
+
+        /** Fuegt ein umbenanntes Fenster hinzu; es trifft nur Ziele, auf die der alte Titel nicht passte */
+        void addRenamed(long handle, String title, String oldTitle) {
+            append(handle, title, oldTitle, true);
+        }
+
+        private void append(long handle, String title, String oldTitle, boolean wasRenamed) {
+            if (size == handles.length) {
+                int capacity = size * 2;
+                handles = Arrays.copyOf(handles, capacity);
+                titles = Arrays.copyOf(titles, capacity);
+                oldTitles = Arrays.copyOf(oldTitles, capacity);
+                renamed = Arrays.copyOf(renamed, capacity);
+            }
+            handles[size] = handle;
+            titles[size] = title;
+            oldTitles[size] = oldTitle;
+            renamed[size] = wasRenamed;
+            size++;
+        }
+
+        void clear() {
+            Arrays.fill(titles, 0, size, null);
+            Arrays.fill(oldTitles, 0, size, null);
+            size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long handleAt(int index) {
+            return handles[index];
+        }
+
+        String titleAt(int index) {
+            return titles[index];
+        }
+    }
+
+    /** Treffer als Paare aus Fensterindex und Zielindex */
+    static final class Hits {
+        private long[] pairs = new long[16];
+        private int size;
+
+        void add(int candidate, int target) {
+            if (size == pairs.length) {
+                pairs = Arrays.copyOf(pairs, size * 2);
+            }
+            pairs[size++] = (long) candidate << 32 | target;
+        }
+
+        void addAll(Hits other) {
+            if (size + other.size > pairs.length) {
+                pairs = Arrays.copyOf(pairs, Math.max(size + other.size, size * 2));
+            }
+            System.arraycopy(other.pairs, 0, pairs, size, other.size);
+            size += other.size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int candidateAt(int index) {
+            return (int) (pairs[index] >>> 32);
+        }
+
+        int targetAt(int index) {
+            return (int) pairs[index];
+        }
+    }
+}
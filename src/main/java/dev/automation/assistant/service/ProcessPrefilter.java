@@ -0,0 +1,108 @@
+package dev.automation.assistant.service;
+
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.platform.ProcessIndex;
+import dev.automation.assistant.platform.WindowBackend;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * Vorfilter, der Fenster anhand ihres Prozesses verwirft, bevor ihr Titel gelesen wird.
+ * <p>
+ * Pro Fenster kostet die Pruefung einen {@code GetWindowThreadProcessId}-Aufruf und einen
+ * Zugriff auf den {@link ProcessIndex}; der Titelabruf ({@code GetWindowText}) schickt
+ * dagegen eine Nachricht an den Thread des Fensters und kann bei haengenden Anwendungen
+ * blockieren. Sind nur Regeln mit Prozesskriterium aktiv, werden Fenster aller anderen
+ * Prozesse so ohne Titelabruf uebersprungen.
+ * </p>
+ * <p>
+ * Die erlaubten Programme werden als Ganzes ausgetauscht ({@link #setExecutables}); ohne
+ * Einschraenkung ({@code null}) laesst der Filter alle Fenster passieren, ohne native
+ * Aufrufe. Threadsicher.
+ * </p>
+ */
+public final class ProcessPrefilter implements LongPredicate {
+
+    private final WindowBackend backend;
+    private final ProcessIndex index;
+    private final AutomationMetrics metrics;
+
+    /** Erlaubte Programme (normalisiert) oder {@code null} fuer alle */
+    private volatile Set<String> executables;
+
+    /**
+     * @param backend Zugriff auf die Prozess-ID der Fenster
+     * @param index   Cache der Programmnamen
+     * @param metrics Zaehler fuer verworfene Fenster
+     */
+    public ProcessPrefilter(WindowBackend backend, ProcessIndex index, AutomationMetrics metrics) {
+        this.backend = backend;
+        this.index = index;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Legt die erlaubten Programme fest.
+     *
+     * @param names Programmnamen oder Pfade; {@code null} hebt die Einschraenkung auf
+     */
+    public void setExecutables(Collection<String> names) {
+        if (names == null) {
+            executables = null;
+            return;
+        }
+        Set<String> normalized = new HashSet<>();
+        for (String name : names) {
+            String executable = ProcessIndex.normalize(name);
+            if (executable != null) {
+                normalized.add(executable);
+            }
+        }
+        executables = Set.copyOf(normalized);
+    }
+
+    /**
+     * @return Erlaubte Programme oder {@code null}, falls nicht eingeschraenkt
+     */
+    public Set<String> getExecutables() {
+        return executables;
+    }
+
+    /**
+     * @return {@code true}, falls derzeit nach Prozess gefiltert wird
+     */
+    public boolean isActive() {
+        return executables != null;
+    }
+
+    /**
+     * Liefert den Programmnamen eines Fensters.
+     *
+     * @param handle Fensterhandle
+     * @return Normalisierter Programmname oder {@code null}, falls unbekannt
+     */
+    public String executableOf(long handle) {
+        return index.executableOf(backend.getProcessId(handle));
+    }
+
+    /**
+     * @param handle Fensterhandle
+     * @return {@code true}, falls der Titel des Fensters gelesen werden soll
+     */
+    @Override
+    public boolean test(long handle) {
+        Set<String> allowed = executables;
+        if (allowed == null) {
+            return true;
+        }
+        String executable = executableOf(handle);
+        if (executable != null && allowed.contains(executable)) {
+            return true;
+        }
+        metrics.recordPrefiltered();
+        return false;
+    }
+}
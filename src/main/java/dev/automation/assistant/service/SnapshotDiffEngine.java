@@ -0,0 +1,136 @@
+package dev.automation.assistant.service;
+
+import dev.automation.assistant.platform.WindowBackend;
+
+import java.util.Objects;
+import java.util.function.LongPredicate;
+
+/**
+ * Vergleicht pro Tick den aktuellen Fensterzustand mit dem vorherigen und meldet
+ * nur die Unterschiede: hinzugekommene, verschwundene und umbenannte Fenster.
+ * <p>
+ * Beide Schnappschuesse sind nach Handle sortiert; der Vergleich ist ein einziger
+ * Merge-Durchlauf in O(n) ohne Boxing. Zwei Puffer werden abwechselnd verwendet,
+ * sodass im eingeschwungenen Zustand pro Tick keine Arrays angelegt werden.
+ * Der erste Tick meldet alle offenen Fenster als hinzugekommen, sofern nicht
+ * vorher {@link #prime()} aufgerufen wurde.
+ * </p>
+ */
+public class SnapshotDiffEngine {
+
+    private final WindowBackend backend;
+
+    private WindowSnapshot previous = new WindowSnapshot(64);
+    private WindowSnapshot current = new WindowSnapshot(64);
+
+    /** Vorfilter vor dem Titelabruf oder {@code null} */
+    private volatile LongPredicate filter;
+
+    /**
+     * @param backend Zugriff auf die Fensterliste
+     */
+    public SnapshotDiffEngine(WindowBackend backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * Setzt einen Vorfilter, der Fenster vor dem Titelabruf verwirft (z. B. {@link ProcessPrefilter}).
+     * Abgelehnte Fenster fehlen in den Schnappschuessen; wird der Filter gelockert, melden
+     * die folgenden Ticks sie als hinzugekommen.
+     *
+     * @param filter Filter auf dem Fensterhandle oder {@code null} fuer alle Fenster
+     */
+    public void setFilter(LongPredicate filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Nimmt den aktuellen Zustand als Ausgangspunkt auf, ohne Ereignisse zu melden.
+     */
+    public synchronized void prime() {
+        current.capture(backend, filter);
+    }
+
+    /**
+     * Vergisst den bisherigen Zustand; der naechste Tick meldet alle Fenster erneut.
+     */
+    public synchronized void reset() {
+        current.clear();
+    }
+
+    /**
+     * Erstellt einen neuen Schnappschuss und meldet die Unterschiede zum vorherigen.
+     *
+     * @param listener Empfaenger der Aenderungen
+     * @return Anzahl gemeldeter Aenderungen
+     */
+    public synchronized int tick(WindowChangeListener listener) {
+        capture();
+        return emitChanges(listener);
+    }
+
+    /**
+     * Erster Teil eines Ticks: neuen Schnappschuss aufnehmen (native Aufrufe).
+     */
+    synchronized void capture() {
+        WindowSnapshot swap = previous;
+        previous = current;
+        current = swap;
+        current.capture(backend, filter);
+    }
+
+    /**
+     * Zweiter Teil eines Ticks: Unterschiede der letzten Aufnahme melden.
+     */
+    synchronized int emitChanges(WindowChangeListener listener) {
+        return diff(previous, current, listener);
+    }
+
+    /**
+     * @return Aktueller Schnappschuss (gueltig bis zum naechsten Tick)
+     */
+    public synchronized WindowSnapshot getSnapshot() {
+        return current;
+    }
+
+    /**
+     * Merge-Vergleich zweier sortierter Schnappschuesse.
+     */
+    static int diff(WindowSnapshot before, WindowSnapshot after, WindowChangeListener listener) {
+        int changes = 0;
+        int i = 0;
+        int j = 0;
+        int oldSize = before.size();
+        int newSize = after.size();
+
+        while (i < oldSize && j < newSize) {
+            long oldHandle = before.handleAt(i);
+            long newHandle = after.handleAt(j);
+            if (oldHandle == newHandle) {
+                String oldTitle = before.titleAt(i);
+                String newTitle = after.titleAt(j);
+                if (!Objects.equals(oldTitle, newTitle)) {
+                    listener.onTitleChanged(newHandle, oldTitle, newTitle);
+                    changes++;
+                }
+                i++;
+                j++;
+            } else if (oldHandle < newHandle) {
+                listener.onWindowRemoved(oldHandle, before.titleAt(i++));
+                changes++;
+            } else {
+                listener.onWindowAdded(newHandle, after.titleAt(j++));
+                changes++;
+            }
+        }
+        for (; i < oldSize; i++) {
+            listener.onWindowRemoved(before.handleAt(i), before.titleAt(i));
+            changes++;
+        }
+        for (; j < newSize; j++) {
+            listener.onWindowAdded(after.handleAt(j), after.titleAt(j));
+            changes++;
+        }
+        return changes;
+    }
+}
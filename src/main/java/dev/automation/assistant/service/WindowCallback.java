@@ -0,0 +1,14 @@
+package dev.automation.assistant.service;
+
+/**
+ * Callback fuer ein erkanntes Zielfenster.
+ */
+@FunctionalInterface
+public interface WindowCallback {
+
+    /**
+     * @param handle Fensterhandle
+     * @param title  Fenstertitel zum Zeitpunkt der Erkennung
+     */
+    void onWindow(long handle, String title);
+}
@@ -0,0 +1,40 @@
+package dev.automation.assistant.service;
+
+/**
+ * Empfaenger der Aenderungen, die der {@link SnapshotDiffEngine} zwischen zwei
+ * Schnappschuessen ermittelt.
+ * <p>
+ * Alle Methoden haben eine leere Standardimplementierung, damit Aufrufer nur die
+ * benoetigten Ereignisse ueberschreiben muessen.
+ * </p>
+ */
+public interface WindowChangeListener {
+
+    /**
+     * Ein Fenster ist seit dem letzten Schnappschuss neu hinzugekommen.
+     *
+     * @param handle Fensterhandle
+     * @param title  Aktueller Titel
+     */
+    default void onWindowAdded(long handle, String title) {
+    }
+
+    /**
+     * Ein Fenster ist seit dem letzten Schnappschuss verschwunden.
+     *
+     * @param handle    Fensterhandle
+     * @param lastTitle Zuletzt bekannter Titel
+     */
+    default void onWindowRemoved(long handle, String lastTitle) {
+    }
+
+    /**
+     * Der Titel eines weiterhin geoeffneten Fensters hat sich geaendert.
+     *
+     * @param handle   Fensterhandle
+     * @param oldTitle Titel im vorherigen Schnappschuss
+     * @param newTitle Aktueller Titel
+     */
+    default void onTitleChanged(long handle, String oldTitle, String newTitle) {
+    }
+}
@@ -1,20 +1,142 @@
 package dev.automation.assistant.service;
 
 import com.sun.jna.platform.win32.WinDef.HWND;
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.platform.WindowBackend;
+import dev.automation.assistant.service.event.WindowEventSource;
+import dev.automation.assistant.service.event.WindowEventType;
+import dev.automation.assistant.util.TaskExecutors;
 import dev.automation.assistant.util.WindowsUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
 /**
  * Ueberwacht Fenster und meldet neu erscheinende Fenster mit gleichem Titel.
+ * <p>
+ * Ist eine {@link WindowEventSource} gesetzt, arbeitet der Dienst ereignisgesteuert:
+ * Der Callback wird direkt beim Erzeugen, Anzeigen oder Umbenennen eines passenden
+ * Fensters ausgeloest. Kann die Ereignisquelle nicht gestartet werden (z. B. ausserhalb
+ * von Windows), wird auf Polling zurueckgefallen.
+ * </p>
+ * <p>
+ * Das Polling vergleicht pro Intervall einen Schnappschuss aller Fenster mit dem
+ * vorherigen ({@link SnapshotDiffEngine}). Gemeldet wird jedes passende Fenster genau
+ * einmal, solange es geoeffnet ist; wechselnde Dialoge und mehrere gleichzeitig
+ * offene Instanzen werden daher korrekt erkannt.
+ * </p>
+ * <p>
+ * Gemeldete Fenster werden in einem {@link WindowStateTracker} gefuehrt. Ein recyceltes
+ * Handle (andere Prozess-ID oder Fensterklasse) gilt als neues Fenster, auch wenn das
+ * Schliessen des Vorgaengers nicht beobachtet wurde.
+ * </p>
+ * <p>
+ * Lebenszyklus: {@link #startMonitoring} → {@link #pause()} / {@link #resume()} /
+ * {@link #reconfigure} → {@link #stopMonitoring()}; danach kann erneut gestartet werden.
+ * Der Polling-Thread wartet geparkt ({@link LockSupport#parkNanos}) und wird bei jedem
+ * Zustandswechsel sofort geweckt, sodass ein Stopp nicht auf das Intervall warten muss.
+ * {@link #stopMonitoring(long, TimeUnit)} wartet begrenzt auf das Ende des Threads.
+ * Die Ereignisquelle wird nur einmal registriert und erst mit {@link #close()} freigegeben.
+ * </p>
  */
-public class WindowMonitorService {
+public class WindowMonitorService implements AutoCloseable {
 
     private static final Logger log = LoggerFactory.getLogger(WindowMonitorService.class);
-    private volatile boolean active = false;
-    private HWND mainWindowHandle;
+
+    /** Standard-Intervall des Pollings */
+    public static final long DEFAULT_POLL_INTERVAL_MS = 5000;
+
+    /** Standard-Wartezeit von {@link #stopMonitoring()} auf das Ende des Polling-Threads */
+    public static final long DEFAULT_STOP_TIMEOUT_MS = 1000;
+
+    /** Zustand der Ueberwachung */
+    public enum State {
+        STOPPED,
+        RUNNING,
+        PAUSED
+    }
+
+    private final WindowEventSource eventSource;
+    private final WindowBackend backend;
+    private final AutomationMetrics metrics;
+    private final long pollIntervalNanos;
+
+    /** Schuetzt Zustandswechsel; Meldungen synchronisieren weiterhin auf {@code this} */
+    private final Object lifecycle = new Object();
+    private volatile State state = State.STOPPED;
+    private volatile Target target;
+    private boolean eventSourceStarted;
+    private PollingWorker worker;
+
+    /** Gemeldete und noch geoeffnete Fenster (Schutz vor doppelten Meldungen) */
+    private final WindowStateTracker reported = new WindowStateTracker();
+
+    /** Fuer das schrittweise Aufraeumen geschlossener Fenster */
+    private final LongPredicate isOpen;
+
+    /** Pro Meldung gepruefte Tabellenplaetze beim Aufraeumen */
+    private static final int SWEEP_BUDGET = 8;
+
+    /**
+     * Erstellt einen Dienst im Polling-Modus.
+     */
+    public WindowMonitorService() {
+        this(null);
+    }
+
+    /**
+     * Erstellt einen ereignisgesteuerten Dienst.
+     *
+     * @param eventSource Quelle fuer Fensterereignisse oder {@code null} fuer reines Polling
+     */
+    public WindowMonitorService(WindowEventSource eventSource) {
+        this(eventSource, AutomationMetrics.global());
+    }
+
+    /**
+     * Erstellt einen ereignisgesteuerten Dienst mit eigenen Metriken.
+     *
+     * @param eventSource Quelle fuer Fensterereignisse oder {@code null} fuer reines Polling
+     * @param metrics     Ziel fuer Erkennungs- und Duplikatzaehler
+     */
+    public WindowMonitorService(WindowEventSource eventSource, AutomationMetrics metrics) {
+        this(eventSource, WindowBackend.platformDefault(), metrics);
+    }
+
+    /**
+     * Erstellt einen Dienst mit eigenem Fenster-Backend fuer das Polling.
+     *
+     * @param eventSource Quelle fuer Fensterereignisse oder {@code null} fuer reines Polling
+     * @param backend     Fensterliste fuer das Polling
+     * @param metrics     Ziel fuer Erkennungs- und Duplikatzaehler
+     */
+    public WindowMonitorService(WindowEventSource eventSource, WindowBackend backend, AutomationMetrics metrics) {
+        this(eventSource, backend, metrics, DEFAULT_POLL_INTERVAL_MS);
+    }
+
+    /**
+     * Erstellt einen Dienst mit eigenem Polling-Intervall.
+     *
+     * @param eventSource    Quelle fuer Fensterereignisse oder {@code null} fuer reines Polling
+     * @param backend        Fensterliste fuer das Polling
+     * @param metrics        Ziel fuer Erkennungs- und Duplikatzaehler
+     * @param pollIntervalMs Abstand zwischen zwei Schnappschuessen
+     */
+    public WindowMonitorService(WindowEventSource eventSource, WindowBackend backend, AutomationMetrics metrics,
+                                long pollIntervalMs) {
+        if (pollIntervalMs < 1) {
+            throw new IllegalArgumentException("Polling-Intervall muss positiv sein");
+        }
+        this.eventSource = eventSource;
+        this.backend = backend;
+        this.metrics = metrics;
+        this.pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pollIntervalMs);
+        this.isOpen = backend::isWindow;
+    }
 
     /**
      * Startet die Fensterueberwachung.
@@ -24,41 +146,370 @@ public class WindowMonitorService {
      * @param onNewWindow Callback, wenn ein neues Fenster erkannt wird
      */
     public void startMonitoring(HWND targetHandle, String windowTitle, Consumer<HWND> onNewWindow) {
-        if (active) {
-            log.warn("Ueberwachung laeuft bereits.");
+        Target scan;
+        synchronized (lifecycle) {
+            if (state != State.STOPPED) {
+                log.warn("Ueberwachung laeuft bereits.");
+                return;
+            }
+            target = new Target(targetHandle, windowTitle, onNewWindow);
+            clearReported();
+            state = State.RUNNING;
+
+            if (eventSource == null || !(eventSourceStarted || startEventMonitoring())) {
+                log.info("Starte Ueberwachung fuer Fenster '{}' ({})", windowTitle, targetHandle);
+                worker = new PollingWorker();
+                return;
+            }
+            log.info("Starte ereignisgesteuerte Ueberwachung fuer Fenster '{}' ({})", windowTitle, targetHandle);
+            scan = target;
+        }
+        // Ereignisse melden nur neue Fenster; bereits offene einmalig ausserhalb der Sperre suchen
+        scanOpenWindows(scan);
+    }
+
+    /**
+     * Stoppt die Ueberwachung und wartet hoechstens {@link #DEFAULT_STOP_TIMEOUT_MS} auf
+     * das Ende des Polling-Threads. Mehrfache Aufrufe sind unschaedlich.
+     *
+     * @return {@code false}, falls der Polling-Thread nicht rechtzeitig beendet wurde
+     */
+    public boolean stopMonitoring() {
+        return stopMonitoring(DEFAULT_STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stoppt die Ueberwachung. Ab der Rueckkehr werden keine neuen Fenster mehr gemeldet;
+     * ein gerade laufender Durchlauf wird noch abgeschlossen.
+     *
+     * @param timeout Maximale Wartezeit auf das Ende des Polling-Threads
+     * @param unit    Einheit der Wartezeit
+     * @return {@code false}, falls der Polling-Thread nicht rechtzeitig beendet wurde;
+     *         er wird dann unterbrochen
+     */
+    public boolean stopMonitoring(long timeout, TimeUnit unit) {
+        synchronized (lifecycle) {
+            if (state == State.STOPPED) {
+                return true;
+            }
+            state = State.STOPPED;
+            PollingWorker stopped = worker;
+            worker = null;
+            boolean terminated = stopped == null || stopped.stop(unit.toNanos(timeout));
+            if (terminated) {
+                log.info("Ueberwachung gestoppt.");
+            } else {
+                log.warn("Polling-Thread wurde nicht innerhalb von {} ms beendet", unit.toMillis(timeout));
+            }
+            return terminated;
+        }
+    }
+
+    /**
+     * Haelt die Ueberwachung an. Ereignisse werden verworfen, das Polling wartet ohne
+     * Schnappschuesse; bereits gemeldete Fenster bleiben bekannt.
+     *
+     * @return {@code false}, falls die Ueberwachung nicht laeuft
+     */
+    public boolean pause() {
+        synchronized (lifecycle) {
+            if (state != State.RUNNING) {
+                return false;
+            }
+            state = State.PAUSED;
+            log.info("Ueberwachung pausiert.");
+            return true;
+        }
+    }
+
+    /**
+     * Setzt eine pausierte Ueberwachung fort; das Polling nimmt sofort einen Schnappschuss auf.
+     *
+     * @return {@code false}, falls die Ueberwachung nicht pausiert war
+     */
+    public boolean resume() {
+        synchronized (lifecycle) {
+            if (state != State.PAUSED) {
+                return false;
+            }
+            state = State.RUNNING;
+            if (worker != null) {
+                worker.wake(false);
+            }
+            log.info("Ueberwachung fortgesetzt.");
+            return true;
+        }
+    }
+
+    /**
+     * Wechselt Hauptfenster, Fenstertitel und Callback ohne Neustart des Threads. Bereits
+     * offene Fenster mit dem neuen Titel werden beim naechsten Durchlauf gemeldet.
+     *
+     * @param targetHandle Das Hauptfenster
+     * @param windowTitle  Der neue Fenstertitel
+     * @param onNewWindow  Callback, wenn ein neues Fenster erkannt wird
+     * @return {@code false}, falls die Ueberwachung gestoppt ist
+     */
+    public boolean reconfigure(HWND targetHandle, String windowTitle, Consumer<HWND> onNewWindow) {
+        Target scan = null;
+        synchronized (lifecycle) {
+            if (state == State.STOPPED) {
+                return false;
+            }
+            // Erst leeren, dann umstellen: ein laufender Durchlauf meldet mit dem neuen Ziel hoechstens einmal
+            clearReported();
+            target = new Target(targetHandle, windowTitle, onNewWindow);
+            if (worker != null) {
+                worker.wake(true);
+            } else {
+                scan = target;
+            }
+            log.info("Ueberwachung umgestellt auf Fenster '{}' ({})", windowTitle, targetHandle);
+        }
+        if (scan != null) {
+            scanOpenWindows(scan);
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true}, solange die Ueberwachung gestartet ist (auch pausiert)
+     */
+    public boolean isActive() {
+        return state != State.STOPPED;
+    }
+
+    /**
+     * @return Aktueller Zustand
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Stoppt die Ueberwachung und gibt die Ereignisquelle frei.
+     */
+    @Override
+    public void close() {
+        stopMonitoring();
+        synchronized (lifecycle) {
+            if (eventSourceStarted) {
+                eventSource.close();
+                eventSourceStarted = false;
+            }
+        }
+    }
+
+    /**
+     * Registriert den Listener an der Ereignisquelle. Der Listener bleibt bis
+     * {@link #close()} registriert und verwirft Ereignisse, solange nicht ueberwacht wird.
+     *
+     * @return {@code false}, falls die Quelle nicht verfuegbar ist und gepollt werden muss
+     */
+    private boolean startEventMonitoring() {
+        try {
+            eventSource.start((type, hwnd, title, timestamp) -> {
+                Target current = target;
+                if (state != State.RUNNING || current == null) {
+                    return;
+                }
+                if (type == WindowEventType.DESTROYED) {
+                    forget(WindowsUtils.handleOf(hwnd));
+                } else if (current.title.equals(title)) {
+                    report(WindowsUtils.handleOf(hwnd), title, current, timestamp);
+                }
+            });
+            eventSourceStarted = true;
+            return true;
+        } catch (Exception ex) {
+            log.warn("Ereignisquelle nicht verfuegbar, verwende Polling: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Meldet im Ereignismodus alle bereits offenen Fenster mit dem gesuchten Titel.
+     * Fenster, die parallel per Ereignis gemeldet werden, erkennt {@link #report} als Duplikat.
+     */
+    private void scanOpenWindows(Target scan) {
+        try {
+            backend.enumerateWindows(handle -> {
+                if (state != State.RUNNING || target != scan) {
+                    return false;
+                }
+                String title = backend.getWindowTitle(handle);
+                if (scan.title.equals(title)) {
+                    report(handle, title, scan, -1);
+                }
+                return true;
+            });
+        } catch (Exception ex) {
+            log.error("Fehler bei der Suche nach bereits offenen Fenstern", ex);
+        }
+    }
+
+    /**
+     * Meldet ein gefundenes Fenster, sofern es weder das Hauptfenster ist
+     * noch in seiner aktuellen Lebensdauer bereits gemeldet wurde.
+     *
+     * @param eventNanos Zeitpunkt des Fensterereignisses oder -1, falls unbekannt (Polling)
+     */
+    private synchronized void report(long handle, String title, Target current, long eventNanos) {
+        if (handle == 0 || handle == current.mainHandle) {
+            return;
+        }
+        long signature = WindowStateTracker.signature(backend.getProcessId(handle), backend.getClassName(handle));
+        WindowStateTracker.Observation observation =
+                reported.observe(handle, signature, title, System.nanoTime());
+        reported.sweep(SWEEP_BUDGET, isOpen);
+        if (observation != WindowStateTracker.Observation.NEW
+                && observation != WindowStateTracker.Observation.REUSED) {
+            metrics.recordDuplicate();
             return;
         }
+        HWND found = WindowsUtils.hwndOf(handle);
+        if (observation == WindowStateTracker.Observation.REUSED) {
+            log.info("Wiederverwendetes Handle erkannt, neues Unterfenster: {}", found);
+        } else {
+            log.info("Neues Unterfenster erkannt: {}", found);
+        }
+        metrics.recordDetection(eventNanos < 0 ? -1 : System.nanoTime() - eventNanos);
+        current.onNewWindow.accept(found);
+    }
 
-        active = true;
-        mainWindowHandle = targetHandle;
+    /**
+     * Vergisst ein geschlossenes Fenster, damit ein spaeteres Fenster mit demselben
+     * Handle wieder gemeldet wird.
+     */
+    private synchronized void forget(long handle) {
+        reported.remove(handle);
+    }
 
-        Thread monitorThread = new Thread(() -> {
-            log.info("Starte Ueberwachung fuer Fenster '{}' ({})", windowTitle, targetHandle);
-            HWND lastDetected = null;
+    private synchronized void clearReported() {
+        reported.clear();
+    }
 
-            while (active) {
-                try {
-                    HWND found = WindowsUtils.findWindowByTitle(windowTitle);
+    /** Ueberwachtes Ziel; wird bei {@link #reconfigure} als Ganzes ersetzt */
+    private static final class Target {
+        private final long mainHandle;
+        private final String title;
+        private final Consumer<HWND> onNewWindow;
 
-                    if (found != null && !found.equals(mainWindowHandle) && !found.equals(lastDetected)) {
-                        log.info("Neues Unterfenster erkannt: {}", found);
-                        onNewWindow.accept(found);
-                        lastDetected = found;
-                    }
+        private Target(HWND mainWindow, String title, Consumer<HWND> onNewWindow) {
+            this.mainHandle = WindowsUtils.handleOf(mainWindow);
+            this.title = title;
+            this.onNewWindow = onNewWindow;
+        }
+    }
 
-                    Thread.sleep(5000);
-                } catch (Exception ex) {
-                    log.error("Fehler beim Ueberwachen der Fenster", ex);
+    /**
+     * Polling-Schleife auf einem eigenen Thread ({@link TaskExecutors#threadFactory(String)}).
+     * Wartet geparkt bis zum naechsten Durchlauf oder bis sie geweckt wird.
+     */
+    private final class PollingWorker implements Runnable, WindowChangeListener {
+        private final SnapshotDiffEngine engine = new SnapshotDiffEngine(backend);
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile boolean tickRequested;
+        private volatile boolean resetRequested;
+
+        private PollingWorker() {
+            thread = TaskExecutors.threadFactory("Window-Monitor").newThread(this);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            long nextTick = System.nanoTime();
+            while (running) {
+                if (state == State.PAUSED) {
+                    LockSupport.park(this);
+                } else {
+                    long wait = nextTick - System.nanoTime();
+                    if (wait > 0 && !tickRequested) {
+                        LockSupport.parkNanos(this, wait);
+                    } else {
+                        tickRequested = false;
+                        tick();
+                        nextTick = System.nanoTime() + pollIntervalNanos;
+                    }
+                }
+                if (Thread.interrupted()) {
+                    return;
                 }
             }
-        }, "Window-Monitor");
+        }
 
-        monitorThread.setDaemon(true);
-        monitorThread.start();
-    }
+        private void tick() {
+            if (resetRequested) {
+                resetRequested = false;
+                engine.reset();
+            }
+            try {
+                engine.tick(this);
+            } catch (Exception ex) {
+                log.error("Fehler im Polling-Durchlauf", ex);
+            }
+        }
+
+        /**
+         * Weckt die Schleife fuer einen sofortigen Durchlauf.
+         *
+         * @param reset {@code true}, um alle offenen Fenster erneut zu pruefen
+         */
+        private void wake(boolean reset) {
+            if (reset) {
+                resetRequested = true;
+            }
+            tickRequested = true;
+            LockSupport.unpark(thread);
+        }
+
+        /**
+         * @return {@code true}, falls der Thread innerhalb der Wartezeit beendet wurde
+         */
+        private boolean stop(long timeoutNanos) {
+            running = false;
+            LockSupport.unpark(thread);
+            if (Thread.currentThread() == thread) {
+                return true;
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedJoin(thread, timeoutNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                thread.interrupt();
+                return false;
+            }
+            return true;
+        }
 
-//    public void stopMonitoring() {
-//        active = false;
-//        log.info("Ueberwachung gestoppt.");
-//    }
-}
\ No newline at end of file
+        @Override
+        public void onWindowAdded(long handle, String title) {
+            Target current = target;
+            if (running && state == State.RUNNING && current.title.equals(title)) {
+                report(handle, title, current, -1);
+            }
+        }
+
+        @Override
+        public void onWindowRemoved(long handle, String lastTitle) {
+            forget(handle);
+        }
+
+        @Override
+        public void onTitleChanged(long handle, String oldTitle, String newTitle) {
+            Target current = target;
+            if (!running || state != State.RUNNING) {
+                return;
+            }
+            if (current.title.equals(newTitle)) {
+                report(handle, newTitle, current, -1);
+            } else if (current.title.equals(oldTitle)) {
+                forget(handle);
+            }
+        }
+    }
+}
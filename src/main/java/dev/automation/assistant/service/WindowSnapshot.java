@@ -0,0 +1,121 @@
+package dev.automation.assistant.service;
+
+import dev.automation.assistant.platform.WindowBackend;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Schnappschuss aller Top-Level-Fenster als aufsteigend sortiertes {@code long[]}
+ * der Handles plus parallel gespeicherter Titel.
+ * <p>
+ * Die Puffer werden zwischen zwei Aufnahmen wiederverwendet und nur bei Bedarf
+ * vergroessert. Ein Schnappschuss gehoert dem {@link SnapshotDiffEngine} und ist
+ * nur bis zu dessen naechstem Tick gueltig. Nicht threadsicher.
+ * </p>
+ */
+public final class WindowSnapshot {
+
+    private long[] handles;
+    private String[] titles;
+    private int size;
+
+    /** Einmalig erzeugter Visitor, damit pro Aufnahme kein Lambda entsteht */
+    private final WindowBackend.WindowVisitor collector = this::add;
+
+    WindowSnapshot(int initialCapacity) {
+        handles = new long[Math.max(initialCapacity, 16)];
+        titles = new String[handles.length];
+    }
+
+    /**
+     * Nimmt den aktuellen Zustand auf: ein Enumerationsdurchlauf, Sortierung der
+     * Handles (primitiv, ohne Boxing) und ein Titelabruf pro Fenster.
+     *
+     * @param backend Zugriff auf die Fensterliste
+     */
+    void capture(WindowBackend backend) {
+        capture(backend, null);
+    }
+
+    /**
+     * Wie {@link #capture(WindowBackend)}, verwirft aber vor dem Titelabruf alle Fenster,
+     * die der Filter ablehnt. Sie fehlen im Schnappschuss, als waeren sie nicht offen.
+     *
+     * @param backend Zugriff auf die Fensterliste
+     * @param filter  Vorfilter auf dem Handle oder {@code null}
+     */
+    void capture(WindowBackend backend, LongPredicate filter) {
+        size = 0;
+        backend.enumerateWindows(collector);
+        Arrays.sort(handles, 0, size);
+
+        // Doppelte Handles (z. B. waehrend eines Fensterwechsels) entfernen
+        // und abgelehnte Fenster ausblenden
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            long handle = handles[i];
+            if (i > 0 && handle == handles[i - 1]) {
+                continue;
+            }
+            if (filter == null || filter.test(handle)) {
+                handles[unique++] = handle;
+            }
+        }
+        size = unique;
+
+        for (int i = 0; i < size; i++) {
+            titles[i] = backend.getWindowTitle(handles[i]);
+        }
+        // Alte Titelreferenzen freigeben
+        Arrays.fill(titles, size, titles.length, null);
+    }
+
+    /** Leert den Schnappschuss, ohne die Puffer freizugeben. */
+    void clear() {
+        Arrays.fill(titles, 0, size, null);
+        size = 0;
+    }
+
+    private boolean add(long handle) {
+        if (size == handles.length) {
+            handles = Arrays.copyOf(handles, size * 2);
+            titles = Arrays.copyOf(titles, size * 2);
+        }
+        handles[size++] = handle;
+        return true;
+    }
+
+    /**
+     * @return Anzahl der Fenster
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index Position im sortierten Schnappschuss
+     * @return Handle an dieser Position
+     */
+    public long handleAt(int index) {
+        return handles[index];
+    }
+
+    /**
+     * @param index Position im sortierten Schnappschuss
+     * @return Titel an dieser Position
+     */
+    public String titleAt(int index) {
+        return titles[index];
+    }
+
+    /**
+     * Sucht ein Handle per Binaersuche.
+     *
+     * @param handle Fensterhandle
+     * @return Position oder ein negativer Wert, falls nicht enthalten
+     */
+    public int indexOf(long handle) {
+        return Arrays.binarySearch(handles, 0, size, handle);
+    }
+}
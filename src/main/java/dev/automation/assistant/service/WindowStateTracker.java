@@ -0,0 +1,369 @@
+package dev.automation.assistant.service;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Lebenszyklus-Zustand pro Fensterhandle in einer offen adressierten {@code long}-Tabelle.
+ * <p>
+ * Windows vergibt Handle-Werte nach dem Schliessen eines Fensters erneut. Der Tracker
+ * speichert deshalb pro Handle eine Erzeugungssignatur (z. B. Prozess-ID und
+ * Klassenname) und erkennt an einer abweichenden Signatur, dass hinter demselben
+ * Handle ein neues Fenster steckt. Jede Fensterlebensdauer bekommt eine eigene,
+ * fortlaufende Generation; bereits ausgefuehrte Aktionen werden als Bitmaske pro
+ * Generation gefuehrt und bei Wiederverwendung zurueckgesetzt.
+ * </p>
+ * <p>
+ * Alle Zustaende liegen in parallelen primitiven Arrays (keine {@code HWND}-Objekte,
+ * kein Boxing). Geloescht wird per Backward-Shift ohne Grabsteine, und geschlossene
+ * Fenster werden mit {@link #sweep(int, LongPredicate)} schrittweise entfernt. Die
+ * Tabelle waechst nur mit der Zahl gleichzeitig bekannter Fenster und schrumpft wieder,
+ * sodass der Speicher auch ueber Millionen Fensterlebenszyklen flach bleibt.
+ * Nicht threadsicher.
+ * </p>
+ */
+public final class WindowStateTracker {
+
+    /** Ergebnis von {@link #observe} */
+    public enum Observation {
+        /** Handle war unbekannt: neues Fenster */
+        NEW,
+        /** Handle bekannt, aber andere Erzeugungssignatur: wiederverwendetes Handle, neues Fenster */
+        REUSED,
+        /** Dasselbe Fenster mit geaendertem Titel */
+        TITLE_CHANGED,
+        /** Dasselbe Fenster, unveraendert */
+        UNCHANGED
+    }
+
+    private static final long EMPTY = 0L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] signatures;
+    private long[] generations;
+    private long[] firstSeen;
+    private int[] titleHashes;
+    private int[] actions;
+
+    private int size;
+    private int mask;
+    private long nextGeneration;
+    private int sweepCursor;
+    private long evicted;
+
+    public WindowStateTracker() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedWindows Erwartete Zahl gleichzeitig bekannter Fenster
+     */
+    public WindowStateTracker(int expectedWindows) {
+        allocate(capacityFor(expectedWindows));
+    }
+
+    /**
+     * Meldet die Beobachtung eines Fensters.
+     *
+     * @param handle       Fensterhandle (0 wird ignoriert)
+     * @param signature    Erzeugungssignatur, siehe {@link #signature(int, String)}
+     * @param title        Aktueller Titel
+     * @param nowNanos     Zeitpunkt der Beobachtung
+     * @return Art der Beobachtung
+     */
+    public Observation observe(long handle, long signature, String title, long nowNanos) {
+        if (handle == EMPTY) {
+            return Observation.UNCHANGED;
+        }
+        int titleHash = title != null ? title.hashCode() : 0;
+        int slot = find(handle);
+        if (slot < 0) {
+            insert(handle, signature, titleHash, nowNanos);
+            return Observation.NEW;
+        }
+        if (signatures[slot] != signature) {
+            // Handle wurde recycelt: neuer Lebenszyklus an derselben Stelle
+            signatures[slot] = signature;
+            generations[slot] = ++nextGeneration;
+            firstSeen[slot] = nowNanos;
+            titleHashes[slot] = titleHash;
+            actions[slot] = 0;
+            return Observation.REUSED;
+        }
+        if (titleHashes[slot] != titleHash) {
+            titleHashes[slot] = titleHash;
+            return Observation.TITLE_CHANGED;
+        }
+        return Observation.UNCHANGED;
+    }
+
+    /**
+     * Entfernt ein Fenster (z. B. nach einem DESTROYED-Ereignis).
+     *
+     * @return {@code true}, falls das Handle bekannt war
+     */
+    public boolean remove(long handle) {
+        int slot = find(handle);
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(slot);
+        maybeShrink();
+        return true;
+    }
+
+    /**
+     * Prueft schrittweise bis zu {@code budget} Tabellenplaetze und entfernt Fenster,
+     * die laut {@code isOpen} nicht mehr existieren. Mehrere Aufrufe setzen die Pruefung
+     * reihum fort, sodass pro Aufruf nur begrenzte Arbeit anfaellt.
+     *
+     * @param budget Maximale Zahl gepruefter Plaetze
+     * @param isOpen Prueft, ob ein Handle noch existiert (z. B. {@code IsWindow})
+     * @return Anzahl entfernter Fenster
+     */
+    public int sweep(int budget, LongPredicate isOpen) {
+        int removed = 0;
+        int capacity = keys.length;
+        for (int scanned = 0; scanned < budget && size > 0 && scanned < capacity; scanned++) {
+            int slot = sweepCursor;
+            long key = keys[slot];
+            if (key != EMPTY && !isOpen.test(key)) {
+                removeAt(slot);
+                removed++;
+                evicted++;
+                // Nachgerueckten Eintrag an derselben Stelle im naechsten Schritt pruefen
+                continue;
+            }
+            sweepCursor = (slot + 1) & mask;
+        }
+        if (removed > 0) {
+            maybeShrink();
+        }
+        return removed;
+    }
+
+    /**
+     * Vermerkt eine ausgefuehrte Aktion fuer die aktuelle Generation.
+     *
+     * @param handle    Fensterhandle
+     * @param actionBit Bitnummer der Aktion (0..31)
+     * @return {@code false}, falls die Aktion fuer diese Generation bereits vermerkt war
+     *         oder das Handle unbekannt ist
+     */
+    public boolean markAction(long handle, int actionBit) {
+        int slot = find(handle);
+        if (slot < 0) {
+            return false;
+        }
+        int bit = 1 << actionBit;
+        if ((actions[slot] & bit) != 0) {
+            return false;
+        }
+        actions[slot] |= bit;
+        return true;
+    }
+
+    /**
+     * @return {@code true}, falls die Aktion fuer die aktuelle Generation bereits ausgefuehrt wurde
+     */
+    public boolean isActionApplied(long handle, int actionBit) {
+        int slot = find(handle);
+        return slot >= 0 && (actions[slot] & (1 << actionBit)) != 0;
+    }
+
+    /**
+     * @return Generation des Fensters oder -1, falls unbekannt
+     */
+    public long generationOf(long handle) {
+        int slot = find(handle);
+        return slot >= 0 ? generations[slot] : -1;
+    }
+
+    /**
+     * @return Zeitpunkt der ersten Beobachtung dieser Generation oder -1, falls unbekannt
+     */
+    public long firstSeenNanos(long handle) {
+        int slot = find(handle);
+        return slot >= 0 ? firstSeen[slot] : -1;
+    }
+
+    /**
+     * @return {@code true}, falls das Handle bekannt ist
+     */
+    public boolean contains(long handle) {
+        return find(handle) >= 0;
+    }
+
+    /**
+     * @return Anzahl bekannter Fenster
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Aktuelle Tabellengroesse (Anzahl Plaetze)
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * @return Bisher per {@link #sweep} entfernte Fenster
+     */
+    public long getEvicted() {
+        return evicted;
+    }
+
+    /**
+     * Vergisst alle Fenster; Generationen laufen weiter.
+     */
+    public void clear() {
+        allocate(MIN_CAPACITY);
+        size = 0;
+        sweepCursor = 0;
+    }
+
+    /**
+     * Bildet eine Erzeugungssignatur aus Prozess-ID und Fensterklasse.
+     *
+     * @param processId Prozess-ID des Fensters
+     * @param className Fensterklasse
+     * @return Signatur fuer {@link #observe}
+     */
+    public static long signature(int processId, String className) {
+        return ((long) processId << 32) | ((className != null ? className.hashCode() : 0) & 0xFFFFFFFFL);
+    }
+
+    // ---- Tabelle -----------------------------------------------------------
+
+    private int find(long handle) {
+        if (handle == EMPTY) {
+            return -1;
+        }
+        int slot = indexFor(handle);
+        while (true) {
+            long key = keys[slot];
+            if (key == handle) {
+                return slot;
+            }
+            if (key == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void insert(long handle, long signature, int titleHash, long nowNanos) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int slot = indexFor(handle);
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = handle;
+        signatures[slot] = signature;
+        generations[slot] = ++nextGeneration;
+        firstSeen[slot] = nowNanos;
+        titleHashes[slot] = titleHash;
+        actions[slot] = 0;
+        size++;
+    }
+
+    /**
+     * Loescht einen Platz und rueckt nachfolgende Eintraege der Probe-Kette nach
+     * (Backward-Shift), damit keine Grabsteine entstehen.
+     */
+    private void removeAt(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = indexFor(keys[next]);
+            // Eintrag darf nur nachruecken, wenn sein Zielplatz nicht zwischen Loch und aktueller Position liegt
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                move(next, hole);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        size--;
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        signatures[to] = signatures[from];
+        generations[to] = generations[from];
+        firstSeen[to] = firstSeen[from];
+        titleHashes[to] = titleHashes[from];
+        actions[to] = actions[from];
+    }
+
+    private boolean maybeShrink() {
+        if (keys.length > MIN_CAPACITY && size * 8 < keys.length) {
+            rehash(Math.max(MIN_CAPACITY, keys.length / 2));
+            return true;
+        }
+        return false;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        long[] oldSignatures = signatures;
+        long[] oldGenerations = generations;
+        long[] oldFirstSeen = firstSeen;
+        int[] oldTitleHashes = titleHashes;
+        int[] oldActions = actions;
+
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == EMPTY) {
+                continue;
+            }
+            int slot = indexFor(key);
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            signatures[slot] = oldSignatures[i];
+            generations[slot] = oldGenerations[i];
+            firstSeen[slot] = oldFirstSeen[i];
+            titleHashes[slot] = oldTitleHashes[i];
+            actions[slot] = oldActions[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        signatures = new long[capacity];
+        generations = new long[capacity];
+        firstSeen = new long[capacity];
+        titleHashes = new int[capacity];
+        actions = new int[capacity];
+        mask = capacity - 1;
+        // Auch nach Verkleinerung durch remove() muss der Cursor in der neuen Tabelle liegen
+        sweepCursor = 0;
+    }
+
+    private int indexFor(long handle) {
+        // Handles sind meist Vielfache von 4 und dicht belegt: Bits vor dem Maskieren mischen
+        long h = handle * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expected * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        return "WindowStateTracker[size=" + size + ", capacity=" + keys.length
+                + ", generation=" + nextGeneration + ", evicted=" + evicted + "]";
+    }
+}
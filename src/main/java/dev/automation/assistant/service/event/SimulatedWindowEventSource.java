@@ -0,0 +1,60 @@
+package dev.automation.assistant.service.event;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.WinDef.HWND;
+
+/**
+ * Simulierte Ereignisquelle, die synthetische Fensterereignisse aussendet.
+ * <p>
+ * Wird fuer Tests und Lastsimulationen verwendet, in denen kein echtes
+ * Windows-Desktop zur Verfuegung steht. Die Ereignisse werden synchron auf dem
+ * aufrufenden Thread zugestellt.
+ * </p>
+ */
+public class SimulatedWindowEventSource implements WindowEventSource {
+
+    private volatile WindowEventListener listener;
+
+    @Override
+    public void start(WindowEventListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sendet ein synthetisches Ereignis mit aktuellem Zeitstempel an den registrierten Listener.
+     *
+     * @param type   Art des Ereignisses
+     * @param handle Numerischer Fensterhandle
+     * @param title  Fenstertitel
+     */
+    public void emit(WindowEventType type, long handle, String title) {
+        emit(type, new HWND(new Pointer(handle)), title, System.nanoTime());
+    }
+
+    /**
+     * Sendet ein synthetisches Ereignis an den registrierten Listener.
+     *
+     * @param type           Art des Ereignisses
+     * @param hwnd           Fensterhandle
+     * @param title          Fenstertitel
+     * @param timestampNanos Zeitpunkt, zu dem das Fenster "erschienen" ist
+     */
+    public void emit(WindowEventType type, HWND hwnd, String title, long timestampNanos) {
+        WindowEventListener current = listener;
+        if (current != null) {
+            current.onWindowEvent(type, hwnd, title, timestampNanos);
+        }
+    }
+
+    /**
+     * @return {@code true}, solange ein Listener registriert ist
+     */
+    public boolean isStarted() {
+        return listener != null;
+    }
+
+    @Override
+    public void close() {
+        listener = null;
+    }
+}
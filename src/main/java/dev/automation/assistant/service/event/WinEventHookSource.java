@@ -0,0 +1,158 @@
+package dev.automation.assistant.service.event;
+
+import com.sun.jna.Platform;
+import com.sun.jna.platform.win32.Kernel32;
+import com.sun.jna.platform.win32.User32;
+import com.sun.jna.platform.win32.WinNT.HANDLE;
+import com.sun.jna.platform.win32.WinUser;
+import dev.automation.assistant.util.WindowsUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ereignisquelle auf Basis eines Windows WinEvent-Hooks.
+ * <p>
+ * Registriert {@code SetWinEventHook} fuer die Ereignisse Erzeugen, Anzeigen,
+ * Zerstoeren und Titelaenderung von Top-Level-Fenstern. Der Hook laeuft
+ * "out of context" und benoetigt daher eine eigene Message-Loop, die auf dem
+ * Thread {@code WinEvent-Hook} betrieben wird.
+ * </p>
+ * <p>
+ * Pro zusammenhaengendem Bereich behandelter Ereignis-IDs wird ein eigener Hook
+ * registriert. Ein einzelner Hook von {@code EVENT_OBJECT_CREATE} bis
+ * {@code EVENT_OBJECT_NAMECHANGE} wuerde auch Fokus-, Auswahl- und Positionsereignisse
+ * abonnieren und bei jeder Mausbewegung einen Callback ausloesen.
+ * </p>
+ */
+public class WinEventHookSource implements WindowEventSource {
+
+    private static final Logger log = LoggerFactory.getLogger(WinEventHookSource.class);
+
+    private static final int WINEVENT_OUTOFCONTEXT = 0x0000;
+    private static final int WINEVENT_SKIPOWNPROCESS = 0x0002;
+    private static final int OBJID_WINDOW = 0;
+    private static final int CHILDID_SELF = 0;
+    private static final int WM_QUIT = 0x0012;
+
+    private Thread hookThread;
+    private volatile int hookThreadId;
+
+    /** Referenz auf den Callback, damit JNA ihn nicht vom GC einsammeln laesst */
+    private WinUser.WinEventProc callback;
+
+    @Override
+    public synchronized void start(WindowEventListener listener) {
+        if (!Platform.isWindows()) {
+            throw new IllegalStateException("WinEvent-Hooks sind nur unter Windows verfuegbar");
+        }
+        if (hookThread != null) {
+            log.warn("WinEvent-Hook laeuft bereits.");
+            return;
+        }
+
+        callback = (hook, event, hwnd, idObject, idChild, eventThread, eventTime) -> {
+            long timestamp = System.nanoTime();
+            if (hwnd == null || idObject.intValue() != OBJID_WINDOW || idChild.intValue() != CHILDID_SELF) {
+                return;
+            }
+            WindowEventType type = WindowEventType.fromWinEventId(event.intValue());
+            if (type == null) {
+                return;
+            }
+            try {
+                String title = type == WindowEventType.DESTROYED ? "" : WindowsUtils.getWindowTitle(hwnd);
+                listener.onWindowEvent(type, hwnd, title, timestamp);
+            } catch (Exception ex) {
+                log.error("Fehler bei der Verarbeitung eines WinEvents", ex);
+            }
+        };
+
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        hookThread = new Thread(() -> {
+            hookThreadId = Kernel32.INSTANCE.GetCurrentThreadId();
+            List<HANDLE> hooks = new ArrayList<>();
+            for (int[] range : hookRanges()) {
+                HANDLE hook = User32.INSTANCE.SetWinEventHook(range[0], range[1], null, callback, 0, 0,
+                        WINEVENT_OUTOFCONTEXT | WINEVENT_SKIPOWNPROCESS);
+                if (hook == null) {
+                    hooks.forEach(User32.INSTANCE::UnhookWinEvent);
+                    failure.set(new IllegalStateException("SetWinEventHook fehlgeschlagen"));
+                    started.countDown();
+                    return;
+                }
+                hooks.add(hook);
+            }
+            log.info("WinEvent-Hooks registriert ({}).", hooks.size());
+            started.countDown();
+
+            // Message-Loop: out-of-context Hooks werden ueber diese Queue zugestellt
+            WinUser.MSG msg = new WinUser.MSG();
+            while (User32.INSTANCE.GetMessage(msg, null, 0, 0) > 0) {
+                User32.INSTANCE.TranslateMessage(msg);
+                User32.INSTANCE.DispatchMessage(msg);
+            }
+
+            hooks.forEach(User32.INSTANCE::UnhookWinEvent);
+            log.info("WinEvent-Hooks entfernt.");
+        }, "WinEvent-Hook");
+
+        hookThread.setDaemon(true);
+        hookThread.start();
+
+        try {
+            if (!started.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("WinEvent-Hook wurde nicht rechtzeitig gestartet");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Start des WinEvent-Hooks unterbrochen", e);
+        }
+
+        if (failure.get() != null) {
+            hookThread = null;
+            throw failure.get();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (hookThread == null) {
+            return;
+        }
+        User32.INSTANCE.PostThreadMessage(hookThreadId, WM_QUIT, null, null);
+        hookThread = null;
+    }
+
+    /**
+     * Fasst die IDs aller {@link WindowEventType}s zu zusammenhaengenden Bereichen zusammen.
+     *
+     * @return Bereiche als {@code [von, bis]}, aufsteigend sortiert
+     */
+    static int[][] hookRanges() {
+        WindowEventType[] types = WindowEventType.values();
+        int[] ids = new int[types.length];
+        for (int i = 0; i < types.length; i++) {
+            ids[i] = types[i].getWinEventId();
+        }
+        Arrays.sort(ids);
+        List<int[]> ranges = new ArrayList<>();
+        for (int id : ids) {
+            int[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last != null && id <= last[1] + 1) {
+                last[1] = Math.max(last[1], id);
+            } else {
+                ranges.add(new int[]{id, id});
+            }
+        }
+        return ranges.toArray(new int[0][]);
+    }
+}
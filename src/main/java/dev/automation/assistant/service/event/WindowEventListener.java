@@ -0,0 +1,24 @@
+package dev.automation.assistant.service.event;
+
+import com.sun.jna.platform.win32.WinDef.HWND;
+
+/**
+ * Callback fuer Fensterereignisse einer {@link WindowEventSource}.
+ * <p>
+ * Wird direkt auf dem Thread der Ereignisquelle aufgerufen und sollte daher
+ * schnell zurueckkehren.
+ * </p>
+ */
+@FunctionalInterface
+public interface WindowEventListener {
+
+    /**
+     * Wird fuer jedes gemeldete Fensterereignis aufgerufen.
+     *
+     * @param type           Art des Ereignisses
+     * @param hwnd           Handle des betroffenen Fensters
+     * @param title          Aktueller Fenstertitel (kann leer sein)
+     * @param timestampNanos Zeitpunkt des Ereignisses laut {@link System#nanoTime()}
+     */
+    void onWindowEvent(WindowEventType type, HWND hwnd, String title, long timestampNanos);
+}
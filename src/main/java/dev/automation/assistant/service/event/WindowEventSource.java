@@ -0,0 +1,27 @@
+package dev.automation.assistant.service.event;
+
+/**
+ * Austauschbare Quelle fuer Fensterereignisse.
+ * <p>
+ * Ermoeglicht eine ereignisgesteuerte Fenstererkennung anstelle des Pollings.
+ * Unter Windows wird die Quelle durch einen WinEvent-Hook gespeist
+ * ({@link WinEventHookSource}), in Tests durch synthetische Ereignisse
+ * ({@link SimulatedWindowEventSource}).
+ * </p>
+ */
+public interface WindowEventSource extends AutoCloseable {
+
+    /**
+     * Startet die Ereignisquelle.
+     *
+     * @param listener Empfaenger aller Ereignisse
+     * @throws IllegalStateException falls die Quelle auf diesem System nicht verfuegbar ist
+     */
+    void start(WindowEventListener listener);
+
+    /**
+     * Beendet die Ereignisquelle und gibt alle Ressourcen frei.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,52 @@
+package dev.automation.assistant.service.event;
+
+/**
+ * Art eines Fensterereignisses, das von einer {@link WindowEventSource} gemeldet wird.
+ * <p>
+ * Die Werte entsprechen den relevanten WinEvent-Konstanten von Windows
+ * ({@code EVENT_OBJECT_CREATE}, {@code EVENT_OBJECT_SHOW}, {@code EVENT_OBJECT_NAMECHANGE},
+ * {@code EVENT_OBJECT_DESTROY}).
+ * </p>
+ */
+public enum WindowEventType {
+
+    /** Fenster wurde erzeugt */
+    CREATED(0x8000),
+
+    /** Fenster wurde zerstoert */
+    DESTROYED(0x8001),
+
+    /** Fenster wurde sichtbar */
+    SHOWN(0x8002),
+
+    /** Fenstertitel hat sich geaendert */
+    NAME_CHANGED(0x800C);
+
+    private final int winEventId;
+
+    WindowEventType(int winEventId) {
+        this.winEventId = winEventId;
+    }
+
+    /**
+     * @return Die zugehoerige WinEvent-Konstante
+     */
+    public int getWinEventId() {
+        return winEventId;
+    }
+
+    /**
+     * Liefert den Ereignistyp zu einer WinEvent-Konstante.
+     *
+     * @param winEventId WinEvent-Konstante
+     * @return Ereignistyp oder {@code null}, falls nicht unterstuetzt
+     */
+    public static WindowEventType fromWinEventId(int winEventId) {
+        for (WindowEventType type : values()) {
+            if (type.winEventId == winEventId) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,96 @@
+package dev.automation.assistant.trace;
+
+import dev.automation.assistant.service.event.WindowEventListener;
+import dev.automation.assistant.service.event.WindowEventSource;
+import dev.automation.assistant.util.WindowsUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * {@link WindowEventSource}, die alle Ereignisse einer anderen Quelle unveraendert
+ * weiterreicht und dabei in einen {@link WindowTraceWriter} mitschreibt.
+ * <p>
+ * Damit laesst sich aufzeichnen, was der {@code WindowMonitorService} im Betrieb sieht,
+ * und spaeter mit dem {@link TraceReplayer} lokal nachstellen. Aktiviert wird die
+ * Aufnahme ueber die System-Property {@value #PROPERTY} (siehe {@link #wrapIfConfigured}).
+ * </p>
+ */
+public class RecordingWindowEventSource implements WindowEventSource {
+
+    private static final Logger log = LoggerFactory.getLogger(RecordingWindowEventSource.class);
+
+    /** System-Property mit dem Pfad der Trace-Datei */
+    public static final String PROPERTY = "trace.file";
+
+    private final WindowEventSource delegate;
+    private final WindowTraceWriter writer;
+    private volatile boolean failed;
+
+    /**
+     * @param delegate Eigentliche Ereignisquelle
+     * @param writer   Ziel der Aufnahme (wird mit dieser Quelle geschlossen)
+     */
+    public RecordingWindowEventSource(WindowEventSource delegate, WindowTraceWriter writer) {
+        this.delegate = delegate;
+        this.writer = writer;
+    }
+
+    /**
+     * Umhuellt die Quelle mit einer Aufnahme, falls {@value #PROPERTY} gesetzt ist.
+     *
+     * @param source Eigentliche Ereignisquelle
+     * @return Aufnehmende Quelle oder {@code source}, falls keine Aufnahme konfiguriert
+     *         ist oder die Datei nicht angelegt werden kann
+     */
+    public static WindowEventSource wrapIfConfigured(WindowEventSource source) {
+        String file = System.getProperty(PROPERTY);
+        if (file == null || file.isBlank()) {
+            return source;
+        }
+        try {
+            log.info("Zeichne Fensterereignisse auf nach {}", file);
+            return new RecordingWindowEventSource(source, new WindowTraceWriter(Path.of(file)));
+        } catch (IOException ex) {
+            log.warn("Trace-Datei {} kann nicht angelegt werden, Aufnahme deaktiviert: {}", file, ex.getMessage());
+            return source;
+        }
+    }
+
+    @Override
+    public void start(WindowEventListener listener) {
+        delegate.start((type, hwnd, title, timestamp) -> {
+            if (!failed) {
+                try {
+                    writer.write(type, timestamp, WindowsUtils.handleOf(hwnd), title);
+                } catch (IOException ex) {
+                    failed = true;
+                    log.error("Aufnahme abgebrochen", ex);
+                }
+            }
+            listener.onWindowEvent(type, hwnd, title, timestamp);
+        });
+    }
+
+    /**
+     * @return Anzahl aufgezeichneter Ereignisse
+     */
+    public long getRecordedEvents() {
+        return writer.getEvents();
+    }
+
+    @Override
+    public void close() {
+        try {
+            delegate.close();
+        } finally {
+            try {
+                writer.close();
+            } catch (IOException ex) {
+                log.warn("Trace-Datei konnte nicht geschlossen werden: {}", ex.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package dev.automation.assistant.trace;
+
+import dev.automation.assistant.metrics.LatencyHistogram;
+
+/**
+ * Ergebnis eines {@link TraceReplayer}-Laufs.
+ */
+public final class ReplayReport {
+
+    private final long events;
+    private final long expectedWindows;
+    private final long detectedWindows;
+    private final long missedWindows;
+    private final long duplicateDetections;
+    private final long unexpectedDetections;
+    private final LatencyHistogram detectionLatency;
+    private final long traceNanos;
+    private final long replayNanos;
+
+    ReplayReport(long events, long expectedWindows, long detectedWindows, long missedWindows,
+                 long duplicateDetections, long unexpectedDetections, LatencyHistogram detectionLatency,
+                 long traceNanos, long replayNanos) {
+        this.events = events;
+        this.expectedWindows = expectedWindows;
+        this.detectedWindows = detectedWindows;
+        this.missedWindows = missedWindows;
+        this.duplicateDetections = duplicateDetections;
+        this.unexpectedDetections = unexpectedDetections;
+        this.detectionLatency = detectionLatency;
+        this.traceNanos = traceNanos;
+        this.replayNanos = replayNanos;
+    }
+
+    /**
+     * @return Abgespielte Ereignisse
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * @return Fensterlebensdauern mit passendem Titel, die gemeldet werden muessten
+     */
+    public long getExpectedWindows() {
+        return expectedWindows;
+    }
+
+    /**
+     * @return Davon mindestens einmal gemeldet
+     */
+    public long getDetectedWindows() {
+        return detectedWindows;
+    }
+
+    /**
+     * @return Nie gemeldete Fenster
+     */
+    public long getMissedWindows() {
+        return missedWindows;
+    }
+
+    /**
+     * @return Meldungen ueber die erste hinaus fuer dieselbe Fensterlebensdauer (doppelte Aktionen)
+     */
+    public long getDuplicateDetections() {
+        return duplicateDetections;
+    }
+
+    /**
+     * @return Meldungen fuer Fenster ohne passenden Titel
+     */
+    public long getUnexpectedDetections() {
+        return unexpectedDetections;
+    }
+
+    /**
+     * @return Zeit vom (skalierten) Erscheinen bis zur Meldung
+     */
+    public LatencyHistogram getDetectionLatency() {
+        return detectionLatency;
+    }
+
+    /**
+     * @return Dauer der Aufnahme in Echtzeit
+     */
+    public long getTraceNanos() {
+        return traceNanos;
+    }
+
+    /**
+     * @return Tatsaechliche Dauer der Wiedergabe
+     */
+    public long getReplayNanos() {
+        return replayNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Replay: %d Ereignisse in %d ms (Aufnahme %d ms), Fenster erwartet=%d erkannt=%d "
+                        + "verpasst=%d, doppelt=%d, unerwartet=%d, Erkennung p50=%dus p99=%dus max=%dus",
+                events, replayNanos / 1_000_000, traceNanos / 1_000_000, expectedWindows, detectedWindows,
+                missedWindows, duplicateDetections, unexpectedDetections,
+                detectionLatency.percentile(50) / 1_000, detectionLatency.percentile(99) / 1_000,
+                detectionLatency.getMaxNanos() / 1_000);
+    }
+}
@@ -0,0 +1,189 @@
+package dev.automation.assistant.trace;
+
+import com.sun.jna.platform.win32.WinDef.HWND;
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.metrics.LatencyHistogram;
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import dev.automation.assistant.service.WindowMonitorService;
+import dev.automation.assistant.service.event.SimulatedWindowEventSource;
+import dev.automation.assistant.service.event.WindowEventType;
+import dev.automation.assistant.util.WindowsUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spielt eine Trace-Datei gegen einen {@link WindowMonitorService} ab.
+ * <p>
+ * Jedes Ereignis wird zum (skalierten) Aufnahmezeitpunkt auf ein
+ * {@link InMemoryWindowBackend} angewendet und ueber eine {@link SimulatedWindowEventSource}
+ * gemeldet. Als Zeitstempel des Ereignisses gilt der geplante Zeitpunkt, sodass eine
+ * zu langsame Verarbeitung als Erkennungsverzoegerung sichtbar wird. Der
+ * {@link ReplayReport} fasst Verzoegerung, verpasste Fenster und doppelte Meldungen
+ * zusammen; so lassen sich Produktions-Stuerme lokal nachstellen.
+ * </p>
+ */
+public class TraceReplayer {
+
+    /** Maximaler Beschleunigungsfaktor */
+    public static final double MAX_SPEED = 1000;
+
+    /** Unterhalb dieser Restwartezeit wird aktiv gewartet statt geparkt */
+    private static final long SPIN_NANOS = 100_000;
+
+    private final double speed;
+
+    /**
+     * @param speed Beschleunigung (1 = Echtzeit, hoechstens {@value #MAX_SPEED})
+     */
+    public TraceReplayer(double speed) {
+        if (!(speed >= 1 && speed <= MAX_SPEED)) {
+            throw new IllegalArgumentException("Geschwindigkeit muss zwischen 1 und " + MAX_SPEED + " liegen: " + speed);
+        }
+        this.speed = speed;
+    }
+
+    /**
+     * Spielt einen Trace ab und ueberwacht dabei Fenster mit dem gegebenen Titel.
+     *
+     * @param trace Trace-Datei
+     * @param title Ueberwachter Fenstertitel
+     * @return Auswertung des Laufs
+     * @throws IOException falls der Trace nicht gelesen werden kann
+     */
+    public ReplayReport replay(Path trace, String title) throws IOException {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        SimulatedWindowEventSource source = new SimulatedWindowEventSource();
+        WindowMonitorService service = new WindowMonitorService(source, backend, new AutomationMetrics());
+        Run run = new Run(backend, source, title);
+        service.startMonitoring(null, title, run::onDetected);
+        try {
+            run.start = System.nanoTime();
+            WindowTraceReader.read(trace, run::onEvent);
+            run.end = System.nanoTime();
+        } finally {
+            service.close();
+        }
+        return run.report();
+    }
+
+    /** Zustand eines Wiedergabelaufs */
+    private final class Run {
+        private final InMemoryWindowBackend backend;
+        private final SimulatedWindowEventSource source;
+        private final String title;
+        private final Map<Long, Lifetime> open = new HashMap<>();
+        private final List<Lifetime> expected = new ArrayList<>();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private long start;
+        private long end;
+        private long events;
+        private long lastOffset;
+        private long unexpected;
+
+        private Run(InMemoryWindowBackend backend, SimulatedWindowEventSource source, String title) {
+            this.backend = backend;
+            this.source = source;
+            this.title = title;
+        }
+
+        void onEvent(WindowEventType type, long offsetNanos, long handle, String eventTitle) {
+            long due = start + (long) (offsetNanos / speed);
+            waitUntil(due);
+            events++;
+            lastOffset = offsetNanos;
+
+            synchronized (this) {
+                switch (type) {
+                    case CREATED:
+                        open.remove(handle);
+                        backend.openWindow(handle, eventTitle);
+                        break;
+                    case SHOWN:
+                    case NAME_CHANGED:
+                        if (!backend.isWindow(handle)) {
+                            backend.openWindow(handle, eventTitle);
+                        } else {
+                            backend.setTitle(handle, eventTitle);
+                        }
+                        break;
+                    case DESTROYED:
+                        open.remove(handle);
+                        backend.closeWindow(handle);
+                        break;
+                    default:
+                        break;
+                }
+                if (type != WindowEventType.DESTROYED && title.equals(eventTitle) && !open.containsKey(handle)) {
+                    Lifetime lifetime = new Lifetime(due);
+                    open.put(handle, lifetime);
+                    expected.add(lifetime);
+                }
+            }
+            source.emit(type, WindowsUtils.hwndOf(handle), eventTitle, due);
+        }
+
+        synchronized void onDetected(HWND hwnd) {
+            long now = System.nanoTime();
+            Lifetime lifetime = open.get(WindowsUtils.handleOf(hwnd));
+            if (lifetime == null) {
+                unexpected++;
+                return;
+            }
+            if (lifetime.detections++ == 0) {
+                latency.record(now - lifetime.appearedNanos);
+            }
+        }
+
+        synchronized ReplayReport report() {
+            long detected = 0;
+            long duplicates = 0;
+            for (Lifetime lifetime : expected) {
+                if (lifetime.detections > 0) {
+                    detected++;
+                    duplicates += lifetime.detections - 1;
+                }
+            }
+            return new ReplayReport(events, expected.size(), detected, expected.size() - detected, duplicates,
+                    unexpected, latency, lastOffset, end - start);
+        }
+    }
+
+    /** Eine Lebensdauer eines passenden Fensters */
+    private static final class Lifetime {
+        private final long appearedNanos;
+        private int detections;
+
+        private Lifetime(long appearedNanos) {
+            this.appearedNanos = appearedNanos;
+        }
+    }
+
+    private static void waitUntil(long due) {
+        long remaining;
+        while ((remaining = due - System.nanoTime()) > 0) {
+            if (remaining > 2 * SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Kommandozeile: {@code TraceReplayer <trace> <fenstertitel> [geschwindigkeit]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Aufruf: TraceReplayer <trace-datei> <fenstertitel> [geschwindigkeit 1-1000]");
+            System.exit(2);
+        }
+        double speed = args.length > 2 ? Double.parseDouble(args[2]) : 1;
+        System.out.println(new TraceReplayer(speed).replay(Path.of(args[0]), args[1]));
+    }
+}
@@ -0,0 +1,115 @@
+package dev.automation.assistant.trace;
+
+import dev.automation.assistant.service.event.WindowEventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Liest Trace-Dateien von {@link WindowTraceWriter} sequentiell.
+ * <p>
+ * Ein abgeschnittenes letztes Ereignis (z. B. nach Absturz waehrend der Aufnahme)
+ * wird ignoriert; alle vollstaendigen Ereignisse davor werden geliefert.
+ * </p>
+ */
+public final class WindowTraceReader {
+
+    private static final Logger log = LoggerFactory.getLogger(WindowTraceReader.class);
+
+    private WindowTraceReader() {}
+
+    /**
+     * Callback pro Ereignis.
+     */
+    @FunctionalInterface
+    public interface TraceVisitor {
+
+        /**
+         * @param type        Art des Ereignisses
+         * @param offsetNanos Abstand zum ersten Ereignis der Aufnahme
+         * @param handle      Fensterhandle
+         * @param title       Fenstertitel
+         */
+        void onEvent(WindowEventType type, long offsetNanos, long handle, String title);
+    }
+
+    /**
+     * Liest eine Trace-Datei.
+     *
+     * @param file    Trace-Datei
+     * @param visitor Empfaenger aller Ereignisse in Aufnahmereihenfolge
+     * @return Anzahl gelesener Ereignisse
+     * @throws IOException falls die Datei nicht lesbar oder kein Trace ist
+     */
+    public static long read(Path file, TraceVisitor visitor) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in, visitor);
+        }
+    }
+
+    /**
+     * Liest einen Trace aus einem Strom.
+     */
+    public static long read(InputStream source, TraceVisitor visitor) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(source, 64 * 1024));
+        if (in.readInt() != WindowTraceWriter.MAGIC) {
+            throw new IOException("Keine Fenster-Trace-Datei");
+        }
+        in.readLong(); // Startzeitpunkt der Aufnahme
+
+        List<String> titles = new ArrayList<>();
+        long micros = 0;
+        long events = 0;
+        while (true) {
+            int typeByte = in.read();
+            if (typeByte < 0) {
+                break;
+            }
+            try {
+                WindowEventType type = WindowTraceWriter.typeOf(typeByte);
+                micros += readVarLong(in);
+                long handle = readVarLong(in);
+                int id = (int) readVarLong(in);
+                String title;
+                if (id < titles.size()) {
+                    title = titles.get(id);
+                } else if (id == titles.size()) {
+                    byte[] bytes = new byte[(int) readVarLong(in)];
+                    in.readFully(bytes);
+                    title = new String(bytes, StandardCharsets.UTF_8);
+                    titles.add(title);
+                } else {
+                    throw new IOException("Ungueltige Titel-ID " + id);
+                }
+                visitor.onEvent(type, micros * 1_000, handle, title);
+                events++;
+            } catch (EOFException ex) {
+                log.warn("Trace endet mit unvollstaendigem Ereignis nach {} Ereignissen", events);
+                break;
+            }
+        }
+        return events;
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Ungueltige Laengenkodierung");
+    }
+}
@@ -0,0 +1,138 @@
+package dev.automation.assistant.trace;
+
+import dev.automation.assistant.service.event.WindowEventType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Schreibt Fensterereignisse in eine kompakte binaere Trace-Datei.
+ *
+ * <h2>Dateiformat:</h2>
+ * <pre>
+ * Header:    int MAGIC | long startEpochMillis
+ * Ereignis:  byte typ | varlong deltaMikros | varlong handle | varint titelId [| varint laenge | UTF-8-Bytes]
+ * </pre>
+ * <p>
+ * Zeitstempel werden als Abstand zum vorherigen Ereignis in Mikrosekunden gespeichert,
+ * Titel ueber eine implizite Tabelle: Ein bisher unbekannter Titel erhaelt die naechste
+ * freie ID und wird einmalig inline geschrieben, danach nur noch ueber seine ID
+ * referenziert. Ein wiederkehrender Dialog kostet so typischerweise 5 bis 8 Bytes.
+ * </p>
+ * <p>
+ * Die Klasse ist threadsicher.
+ * </p>
+ */
+public class WindowTraceWriter implements AutoCloseable {
+
+    /** "WTR1" */
+    static final int MAGIC = 0x57545231;
+
+    private static final WindowEventType[] TYPES = WindowEventType.values();
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> titles = new HashMap<>();
+    private long startNanos = Long.MIN_VALUE;
+    private long lastMicros;
+    private long events;
+
+    /**
+     * Erstellt (bzw. ueberschreibt) eine Trace-Datei.
+     *
+     * @param file Zieldatei
+     * @throws IOException falls die Datei nicht geschrieben werden kann
+     */
+    public WindowTraceWriter(Path file) throws IOException {
+        this(Files.newOutputStream(file));
+    }
+
+    /**
+     * @param target Zielstrom (wird beim Schliessen mitgeschlossen)
+     * @throws IOException falls der Header nicht geschrieben werden kann
+     */
+    public WindowTraceWriter(OutputStream target) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(target, 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Haengt ein Ereignis an.
+     *
+     * @param type           Art des Ereignisses
+     * @param timestampNanos Zeitpunkt laut {@link System#nanoTime()}
+     * @param handle         Fensterhandle
+     * @param title          Fenstertitel ({@code null} wird als leer gespeichert)
+     * @throws IOException bei Schreibfehlern
+     */
+    public synchronized void write(WindowEventType type, long timestampNanos, long handle, String title)
+            throws IOException {
+        if (startNanos == Long.MIN_VALUE) {
+            startNanos = timestampNanos;
+        }
+        // Mikrosekunden relativ zum ersten Ereignis, damit sich Rundungsfehler nicht aufsummieren
+        long micros = Math.max(lastMicros, (timestampNanos - startNanos) / 1_000);
+        out.writeByte(type.ordinal());
+        writeVarLong(out, micros - lastMicros);
+        writeVarLong(out, handle);
+        lastMicros = micros;
+
+        String text = title != null ? title : "";
+        Integer id = titles.get(text);
+        if (id != null) {
+            writeVarLong(out, id);
+        } else {
+            int next = titles.size();
+            titles.put(text, next);
+            writeVarLong(out, next);
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, bytes.length);
+            out.write(bytes);
+        }
+        events++;
+    }
+
+    /**
+     * @return Anzahl geschriebener Ereignisse
+     */
+    public synchronized long getEvents() {
+        return events;
+    }
+
+    /**
+     * Schreibt gepufferte Ereignisse auf den Datentraeger.
+     */
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    static WindowEventType typeOf(int ordinal) {
+        if (ordinal < 0 || ordinal >= TYPES.length) {
+            throw new IllegalStateException("Unbekannter Ereignistyp " + ordinal);
+        }
+        return TYPES[ordinal];
+    }
+
+    /**
+     * Schreibt einen nicht-negativen Wert mit 7 Bit pro Byte (LEB128).
+     */
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
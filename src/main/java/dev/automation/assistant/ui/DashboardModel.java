@@ -0,0 +1,162 @@
+package dev.automation.assistant.ui;
+
+import dev.automation.assistant.metrics.AutomationMetrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Datenmodell des Dashboards, getrennt von Swing.
+ * <p>
+ * Erzeuger-Threads melden Statustexte ueber {@link #post(String)}; das schreibt nur in
+ * einen {@link EventRing} und ein {@code volatile}-Feld. Zaehler und Latenzen stammen aus
+ * den ohnehin sperrfrei gefuehrten {@link AutomationMetrics}. Der Zeichen-Thread ruft pro
+ * Frame {@link #sample(long)} auf und berechnet daraus Raten und Verlaeufe; der Aufwand
+ * je Frame ist konstant und haengt nicht von der Ereignisrate ab.
+ * </p>
+ * <p>
+ * Bis auf {@link #post(String)} darf die Klasse nur vom Zeichen-Thread benutzt werden.
+ * </p>
+ */
+public final class DashboardModel {
+
+    /** Anzahl der Punkte in den Verlaufsdiagrammen */
+    public static final int HISTORY = 120;
+
+    private final AutomationMetrics metrics;
+    private final IntSupplier queueDepth;
+    private final EventRing events;
+
+    private volatile String status = "Bereit";
+
+    private boolean sampled;
+    private long lastSampleNanos;
+    private long lastDetections;
+    private long lastActions;
+
+    private double detectionsPerSecond;
+    private double actionsPerSecond;
+    private long detectionP50Micros;
+    private long detectionP99Micros;
+    private long actionP99Micros;
+    private int currentQueueDepth;
+
+    private final double[] detectionHistory = new double[HISTORY];
+    private final double[] actionHistory = new double[HISTORY];
+    private final double[] latencyHistory = new double[HISTORY];
+    private int historyStart;
+    private int historySize;
+
+    /**
+     * @param metrics       Quelle fuer Zaehler und Latenzen
+     * @param queueDepth    Liefert die Anzahl wartender Aktionen
+     * @param eventCapacity Groesse der Tabelle der letzten Ereignisse
+     */
+    public DashboardModel(AutomationMetrics metrics, IntSupplier queueDepth, int eventCapacity) {
+        this.metrics = metrics;
+        this.queueDepth = queueDepth;
+        this.events = new EventRing(eventCapacity);
+    }
+
+    /**
+     * Meldet einen Statustext; von jedem Thread aus, blockiert nie.
+     */
+    public void post(String text) {
+        status = text;
+        events.add(text);
+    }
+
+    /**
+     * Liest alle Quellen einmal und schreibt die Verlaeufe fort.
+     *
+     * @param nowNanos Zeitpunkt des Frames ({@link System#nanoTime()})
+     */
+    public void sample(long nowNanos) {
+        long detections = metrics.getDetections();
+        long actions = metrics.getActions();
+        if (sampled && nowNanos > lastSampleNanos) {
+            double seconds = (nowNanos - lastSampleNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+            detectionsPerSecond = Math.max(0, detections - lastDetections) / seconds;
+            actionsPerSecond = Math.max(0, actions - lastActions) / seconds;
+        }
+        sampled = true;
+        lastSampleNanos = nowNanos;
+        lastDetections = detections;
+        lastActions = actions;
+
+        detectionP50Micros = metrics.getDetectionDelayP50Micros();
+        detectionP99Micros = metrics.getDetectionDelayP99Micros();
+        actionP99Micros = metrics.getActionExecutionP99Micros();
+        currentQueueDepth = queueDepth.getAsInt();
+
+        int slot = (historyStart + historySize) % HISTORY;
+        if (historySize == HISTORY) {
+            historyStart = (historyStart + 1) % HISTORY;
+        } else {
+            historySize++;
+        }
+        detectionHistory[slot] = detectionsPerSecond;
+        actionHistory[slot] = actionsPerSecond;
+        latencyHistory[slot] = detectionP99Micros;
+    }
+
+    /**
+     * Kopiert einen Verlauf in zeitlicher Reihenfolge.
+     *
+     * @param series 0 = Erkennungen/s, 1 = Aktionen/s, 2 = Erkennung p99 in us
+     * @param target Ziel mit mindestens {@link #HISTORY} Plaetzen
+     * @return Anzahl gueltiger Punkte
+     */
+    public int copyHistory(int series, double[] target) {
+        double[] source;
+        switch (series) {
+            case 0:
+                source = detectionHistory;
+                break;
+            case 1:
+                source = actionHistory;
+                break;
+            case 2:
+                source = latencyHistory;
+                break;
+            default:
+                throw new IllegalArgumentException("Unbekannter Verlauf: " + series);
+        }
+        for (int i = 0; i < historySize; i++) {
+            target[i] = source[(historyStart + i) % HISTORY];
+        }
+        return historySize;
+    }
+
+    public EventRing getEvents() {
+        return events;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public double getDetectionsPerSecond() {
+        return detectionsPerSecond;
+    }
+
+    public double getActionsPerSecond() {
+        return actionsPerSecond;
+    }
+
+    public long getDetectionP50Micros() {
+        return detectionP50Micros;
+    }
+
+    public long getDetectionP99Micros() {
+        return detectionP99Micros;
+    }
+
+    public long getActionP99Micros() {
+        return actionP99Micros;
+    }
+
+    public int getQueueDepth() {
+        return currentQueueDepth;
+    }
+}
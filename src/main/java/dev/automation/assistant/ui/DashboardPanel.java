@@ -0,0 +1,245 @@
+package dev.automation.assistant.ui;
+
+import javax.swing.BorderFactory;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GridLayout;
+import java.awt.RenderingHints;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Live-Dashboard des Hauptfensters.
+ * <p>
+ * Ersetzt die bisherigen {@code invokeLater}-Aufrufe pro Ereignis: Ein Swing-{@link Timer}
+ * liest das {@link DashboardModel} in festen Abstaenden ({@value #FRAME_MS} ms) und
+ * aktualisiert Status, Raten, Latenzen, Warteschlangentiefe, zwei Verlaufsdiagramme und
+ * die Tabelle der letzten Ereignisse. Die Arbeit auf dem EDT ist pro Frame begrenzt,
+ * auch wenn tausende Ereignisse pro Sekunde gemeldet werden.
+ * </p>
+ */
+public class DashboardPanel extends JPanel {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Abstand zwischen zwei Frames */
+    public static final int FRAME_MS = 200;
+
+    /** Zeilen der Ereignistabelle */
+    static final int TABLE_ROWS = 50;
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+
+    private final DashboardModel model;
+    private final Timer timer;
+
+    private final JLabel statusLabel = new JLabel("Bereit");
+    private final JLabel throughputLabel = new JLabel();
+    private final JLabel latencyLabel = new JLabel();
+    private final JLabel queueLabel = new JLabel();
+    private final Chart throughputChart = new Chart("Erkennungen/s und Aktionen/s", 2);
+    private final Chart latencyChart = new Chart("Erkennung p99 (us)", 1);
+    private final EventTableModel events = new EventTableModel();
+
+    private long shownSequence = -1;
+    private long frames;
+
+    /**
+     * @param model Datenquelle; wird nur auf dem EDT gelesen
+     */
+    public DashboardPanel(DashboardModel model) {
+        super(new BorderLayout(0, 6));
+        this.model = model;
+
+        statusLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        statusLabel.setForeground(Color.DARK_GRAY);
+        statusLabel.setHorizontalAlignment(JLabel.CENTER);
+        add(statusLabel, BorderLayout.NORTH);
+
+        JPanel figures = new JPanel(new GridLayout(1, 3, 8, 0));
+        figures.add(throughputLabel);
+        figures.add(latencyLabel);
+        figures.add(queueLabel);
+
+        JPanel charts = new JPanel(new GridLayout(1, 2, 8, 0));
+        charts.add(throughputChart);
+        charts.add(latencyChart);
+
+        JPanel center = new JPanel(new BorderLayout(0, 4));
+        center.add(figures, BorderLayout.NORTH);
+        center.add(charts, BorderLayout.CENTER);
+        add(center, BorderLayout.CENTER);
+
+        JTable table = new JTable(events);
+        table.getColumnModel().getColumn(0).setMaxWidth(100);
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.setPreferredSize(new Dimension(420, 140));
+        add(scroll, BorderLayout.SOUTH);
+
+        setBorder(BorderFactory.createTitledBorder("Live"));
+        timer = new Timer(FRAME_MS, e -> refresh());
+        timer.setCoalesce(true);
+        refresh();
+    }
+
+    /**
+     * Startet die periodische Aktualisierung.
+     */
+    public void start() {
+        timer.start();
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+
+    /**
+     * Zeichnet einen Frame; wird vom Timer auf dem EDT aufgerufen.
+     */
+    void refresh() {
+        frames++;
+        model.sample(System.nanoTime());
+
+        statusLabel.setText(model.getStatus());
+        throughputLabel.setText(String.format("Erkennungen %.1f/s  Aktionen %.1f/s",
+                model.getDetectionsPerSecond(), model.getActionsPerSecond()));
+        latencyLabel.setText(String.format("Erkennung p50 %d us  p99 %d us  Aktion p99 %d us",
+                model.getDetectionP50Micros(), model.getDetectionP99Micros(), model.getActionP99Micros()));
+        queueLabel.setText("Warteschlange: " + model.getQueueDepth());
+
+        throughputChart.update(model, 0, 1);
+        latencyChart.update(model, 2);
+
+        long sequence = model.getEvents().getSequence();
+        if (sequence != shownSequence) {
+            shownSequence = sequence;
+            events.reload(model.getEvents());
+        }
+    }
+
+    /**
+     * @return Bisher gezeichnete Frames
+     */
+    long getFrames() {
+        return frames;
+    }
+
+    String getStatusText() {
+        return statusLabel.getText();
+    }
+
+    EventTableModel getEventTable() {
+        return events;
+    }
+
+    /** Tabelle der letzten Ereignisse; neuestes zuerst */
+    static final class EventTableModel extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+
+        private final EventRing.Entry[] rows = new EventRing.Entry[TABLE_ROWS];
+        private int count;
+        private long reloads;
+
+        void reload(EventRing ring) {
+            count = ring.snapshot(rows);
+            reloads++;
+            fireTableDataChanged();
+        }
+
+        long getReloads() {
+            return reloads;
+        }
+
+        @Override
+        public int getRowCount() {
+            return count;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 2;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return column == 0 ? "Zeit" : "Ereignis";
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            EventRing.Entry entry = rows[row];
+            return column == 0 ? TIME.format(Instant.ofEpochMilli(entry.getTimeMillis())) : entry.getText();
+        }
+    }
+
+    /** Einfaches Liniendiagramm ueber die Verlaeufe des Modells */
+    private static final class Chart extends JComponent {
+        private static final long serialVersionUID = 1L;
+        private static final Color[] COLORS = {new Color(0x1f77b4), new Color(0xd62728)};
+
+        private final String title;
+        private final double[][] series;
+        private final int[] xs = new int[DashboardModel.HISTORY];
+        private final int[] ys = new int[DashboardModel.HISTORY];
+        private int points;
+
+        private Chart(String title, int seriesCount) {
+            this.title = title;
+            this.series = new double[seriesCount][DashboardModel.HISTORY];
+            setPreferredSize(new Dimension(200, 90));
+        }
+
+        private void update(DashboardModel model, int... sources) {
+            for (int i = 0; i < sources.length; i++) {
+                points = model.copyHistory(sources[i], series[i]);
+            }
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int width = getWidth();
+            int height = getHeight();
+            g2.setColor(Color.WHITE);
+            g2.fillRect(0, 0, width, height);
+            g2.setColor(Color.LIGHT_GRAY);
+            g2.drawRect(0, 0, width - 1, height - 1);
+
+            double max = 1;
+            for (double[] values : series) {
+                for (int i = 0; i < points; i++) {
+                    max = Math.max(max, values[i]);
+                }
+            }
+            g2.setColor(Color.GRAY);
+            g2.drawString(title + "  max " + Math.round(max), 4, 12);
+            if (points < 2) {
+                return;
+            }
+            int top = 16;
+            for (int s = 0; s < series.length; s++) {
+                for (int i = 0; i < points; i++) {
+                    xs[i] = (int) ((long) i * (width - 1) / (DashboardModel.HISTORY - 1));
+                    ys[i] = height - 1 - (int) (series[s][i] / max * (height - 1 - top));
+                }
+                g2.setColor(COLORS[s % COLORS.length]);
+                g2.drawPolyline(xs, ys, points);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package dev.automation.assistant.ui;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Begrenzter, sperrfreier Ringpuffer der letzten Ereignisse fuer das Dashboard.
+ * <p>
+ * Beliebig viele Erzeuger-Threads schreiben ohne Lock und ohne Warten; bei vollem Puffer
+ * wird das aelteste Ereignis ueberschrieben. Der Leser (EDT) kopiert pro Frame hoechstens
+ * so viele Eintraege, wie sein Zielarray fasst. Eintraege, die waehrend des Kopierens
+ * ueberschrieben werden, erkennt er an ihrer Sequenznummer und ueberspringt sie.
+ * </p>
+ */
+public final class EventRing {
+
+    /** Ein Ereignis; unveraenderlich */
+    public static final class Entry {
+        private final long sequence;
+        private final long timeMillis;
+        private final String text;
+
+        Entry(long sequence, long timeMillis, String text) {
+            this.sequence = sequence;
+            this.timeMillis = timeMillis;
+            this.text = text;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+
+    /**
+     * @param capacity Anzahl aufbewahrter Ereignisse (wird auf eine Zweierpotenz aufgerundet)
+     */
+    public EventRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Kapazitaet muss positiv sein");
+        }
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity == 1 ? 1 : size);
+        this.mask = slots.length() - 1;
+    }
+
+    /**
+     * Fuegt ein Ereignis hinzu; blockiert nie.
+     */
+    public void add(String text) {
+        long sequence = next.getAndIncrement();
+        slots.set((int) (sequence & mask), new Entry(sequence, System.currentTimeMillis(), text));
+    }
+
+    /**
+     * @return Anzahl bisher hinzugefuegter Ereignisse
+     */
+    public long getSequence() {
+        return next.get();
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Kopiert die neuesten Ereignisse, das neueste zuerst.
+     *
+     * @param target Ziel; bestimmt die maximale Anzahl
+     * @return Anzahl kopierter Eintraege
+     */
+    public int snapshot(Entry[] target) {
+        long end = next.get();
+        long start = Math.max(0, end - Math.min(target.length, slots.length()));
+        int count = 0;
+        for (long sequence = end - 1; sequence >= start; sequence--) {
+            Entry entry = slots.get((int) (sequence & mask));
+            // Noch nicht geschrieben oder bereits ueberschrieben
+            if (entry != null && entry.sequence == sequence) {
+                target[count++] = entry;
+            }
+        }
+        for (int i = count; i < target.length; i++) {
+            target[i] = null;
+        }
+        return count;
+    }
+}
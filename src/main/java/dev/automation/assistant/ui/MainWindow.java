@@ -3,8 +3,29 @@ package dev.automation.assistant.ui;
 import com.sun.jna.platform.win32.WinDef.HWND;
 import com.sun.jna.platform.win32.User32;
 import com.sun.jna.platform.win32.WinDef.POINT;
+import com.sun.jna.ptr.IntByReference;
+import dev.automation.assistant.action.ActionDispatcher;
+import dev.automation.assistant.action.ActionGuard;
+import dev.automation.assistant.action.AutomationAction;
+import dev.automation.assistant.macro.MacroCompiler;
+import dev.automation.assistant.macro.MacroEngine;
+import dev.automation.assistant.macro.MacroRun;
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.platform.ProcessBackend;
+import dev.automation.assistant.platform.ProcessIndex;
+import dev.automation.assistant.platform.WindowActions;
+import dev.automation.assistant.platform.WindowBackend;
+import dev.automation.assistant.rules.ActionType;
+import dev.automation.assistant.rules.AutomationRule;
+import dev.automation.assistant.rules.ControlSelector;
+import dev.automation.assistant.rules.RuleFileWatcher;
+import dev.automation.assistant.rules.RuleSet;
+import dev.automation.assistant.rules.RuleStore;
 import dev.automation.assistant.service.AutomationService;
+import dev.automation.assistant.service.ControlResolver;
 import dev.automation.assistant.service.WindowMonitorService;
+import dev.automation.assistant.service.event.WinEventHookSource;
+import dev.automation.assistant.trace.RecordingWindowEventSource;
 import dev.automation.assistant.util.WindowsUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +33,10 @@ import org.slf4j.LoggerFactory;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.InputEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Hauptfenster des Automation Assistant.
@@ -24,22 +49,30 @@ import java.awt.event.InputEvent;
  */
 public class MainWindow extends JFrame {
 
+    private static final long serialVersionUID = 1L;
 
     private static final Logger log = LoggerFactory.getLogger(MainWindow.class);
 
-    /** Fenster, für das eine automatische Buttonaktion definiert wurde */
-    private String autoActionWindowTitle = null;
+    /** Pause vor dem Drücken und vor dem Loslassen beim Mausklick-Fallback */
+    private static final int MOUSE_PAUSE_MS = 200;
 
-    /** Gespeicherte Position des Buttons für automatische Aktionen */
-    private Point autoActionButtonPosition = null;
+    /** Persistente Ablage der registrierten automatischen Aktionen (null, falls nicht verfügbar) */
+    private final RuleStore ruleStore;
 
-    private HWND autoActionWindowHandle = null;
+    /** Beobachtete Regeldatei (null, falls {@code rules.watch.file} nicht gesetzt ist) */
+    private final RuleFileWatcher ruleWatcher;
+
+    /** Kompilierter Stand aller registrierten Regeln, wird als Ganzes ersetzt */
+    private volatile RuleSet ruleSet = RuleSet.EMPTY;
 
     private HWND targetHwnd;
     /** Handle des zuletzt bestätigten Dialogfensters */
     private HWND confirmedDialogHandle = null;
     private final JTextField windowTitleField;
-    private final JLabel statusLabel;
+
+    /** Statusmeldungen, Raten und Latenzen; wird vom EDT in festen Frames gezeichnet */
+    private final DashboardModel dashboardModel;
+    private final DashboardPanel dashboardPanel;
 
     private String targetWindow;
     private Point savedButtonPosition;
@@ -47,14 +80,39 @@ public class MainWindow extends JFrame {
     private final WindowMonitorService monitorService;
     private final AutomationService automationService;
 
+    /** Begrenzte Ausführung aller Klicks und verzögerten Auswahlaktionen */
+    private final ActionDispatcher actionDispatcher;
+
+    /** Drosselung und Schutzschalter vor allen automatischen Aktionen */
+    private final ActionGuard actionGuard;
+
+    /** Führt Regelmakros und den Mausklick-Fallback aus, ohne dabei Threads schlafen zu lassen */
+    private final MacroEngine macroEngine;
+
+    /** Findet registrierte Buttons über ihre Identität statt über Bildschirmkoordinaten */
+    private final ControlResolver controlResolver;
+
+    /** Programmnamen der Fensterprozesse für Regeln mit Prozesskriterium */
+    private final ProcessIndex processIndex = new ProcessIndex(ProcessBackend.platformDefault());
+
     public MainWindow() {
         super("Automation Assistant");
 
-        this.monitorService = new WindowMonitorService();
-        this.automationService = new AutomationService();
+        this.monitorService = new WindowMonitorService(
+                RecordingWindowEventSource.wrapIfConfigured(new WinEventHookSource()));
+        this.actionGuard = new ActionGuard(AutomationMetrics.global());
+        this.macroEngine = new MacroEngine(WindowBackend.platformDefault(), WindowActions.platformDefault(),
+                1, MacroEngine.DEFAULT_POLL_INTERVAL_MS);
+        this.automationService = new AutomationService(AutomationMetrics.global(), actionGuard, macroEngine);
+        this.actionDispatcher = new ActionDispatcher();
+        this.dashboardModel = new DashboardModel(AutomationMetrics.global(), actionDispatcher::getQueueDepth, 256);
+        this.controlResolver = new ControlResolver(WindowBackend.platformDefault());
+        this.ruleStore = openRuleStore();
+        this.ruleWatcher = startRuleWatcher();
+        rebuildRuleIndex();
 
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setSize(480, 360);
+        setSize(640, 680);
         setLocationRelativeTo(null);
         setResizable(false);
 
@@ -113,87 +171,135 @@ public class MainWindow extends JFrame {
         gbc.gridy++;
         mainPanel.add(startButton, gbc);
 
-        // Statuslabel
-        statusLabel = new JLabel("Bereit");
-        statusLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-        statusLabel.setForeground(Color.DARK_GRAY);
+        JButton stopButton = new JButton("Bot stoppen");
+        stopButton.addActionListener(e -> onStopBot());
         gbc.gridy++;
-        gbc.gridx = 0;
-        gbc.gridwidth = 2;
-        gbc.anchor = GridBagConstraints.CENTER;
-        mainPanel.add(statusLabel, gbc);
+        mainPanel.add(stopButton, gbc);
 
-        add(mainPanel);
+        // Live-Dashboard statt Statuslabel
+        dashboardPanel = new DashboardPanel(dashboardModel);
+        dashboardPanel.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createEmptyBorder(0, 20, 15, 20), dashboardPanel.getBorder()));
+
+        setLayout(new BorderLayout());
+        add(mainPanel, BorderLayout.NORTH);
+        add(dashboardPanel, BorderLayout.CENTER);
+        dashboardPanel.start();
         setVisible(true);
         log.info("UI erfolgreich initialisiert");
     }
 
 
 
+    /**
+     * Öffnet das Regeljournal. Der Pfad kann über die System-Property {@code rules.file}
+     * gesetzt werden (Standard: {@code data/automation-rules.journal}).
+     */
+    private static RuleStore openRuleStore() {
+        Path file = Path.of(System.getProperty("rules.file", "data/automation-rules.journal"));
+        try {
+            return RuleStore.open(file);
+        } catch (IOException e) {
+            log.error("Regeljournal '{}' konnte nicht geöffnet werden – Regeln werden nicht gespeichert", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Beobachtet die über {@code rules.watch.file} gesetzte Regeldatei. Änderungen werden
+     * ohne Neustart der Überwachung übernommen.
+     */
+    private RuleFileWatcher startRuleWatcher() {
+        String file = System.getProperty("rules.watch.file");
+        if (file == null || file.isBlank()) {
+            return null;
+        }
+        RuleFileWatcher watcher = new RuleFileWatcher(Path.of(file), AutomationMetrics.global(),
+                fileRules -> rebuildRuleIndex());
+        try {
+            watcher.start();
+            return watcher;
+        } catch (IOException e) {
+            log.error("Regeldatei '{}' kann nicht beobachtet werden", file, e);
+            return null;
+        }
+    }
+
+    /** Baut den Regelsatz aus Regeljournal und beobachteter Regeldatei neu auf */
+    private synchronized void rebuildRuleIndex() {
+        List<AutomationRule> rules = new ArrayList<>();
+        if (ruleStore != null) {
+            rules.addAll(ruleStore.getRules());
+        }
+        if (ruleWatcher != null) {
+            rules.addAll(ruleWatcher.current().getRules());
+        }
+        ruleSet = RuleSet.of(rules);
+        log.info("{} automatische Aktionen geladen", ruleSet.size());
+    }
+
+    /** Speichert eine neue automatische Aktion und aktualisiert den Index */
+    private void registerRule(AutomationRule rule) {
+        if (ruleStore == null) {
+            log.warn("Regel '{}' kann nicht gespeichert werden – kein Regeljournal verfügbar", rule.getId());
+            return;
+        }
+        try {
+            ruleStore.put(rule);
+            rebuildRuleIndex();
+        } catch (IOException e) {
+            log.error("Regel '{}' konnte nicht gespeichert werden", rule.getId(), e);
+        }
+    }
+
     /** Fenster interaktiv per Maus auswählen */
     private void onSelectWindow() {
-        statusLabel.setText("Bewege Maus auf gewünschtes Fenster (5s) …");
+        showStatus("Bewege Maus auf gewünschtes Fenster (5s) …");
         log.info("Starte interaktive Fensterauswahl …");
 
-        new Thread(() -> {
-            try {
-                Thread.sleep(5000);
-                HWND hwnd = WindowsUtils.getWindowUnderCursor();
-                if (hwnd != null) {
-                    String title = WindowsUtils.getWindowTitle(hwnd);
-                    SwingUtilities.invokeLater(() -> {
-                        targetHwnd = hwnd;                  // << handle speichern
-                        targetWindow = title;
-                        windowTitleField.setText(title);
-                        statusLabel.setText("Fenster erkannt: " + title);
-                        log.info("Fenster ausgewählt: '{}' ({})", title, hwnd);
-                    });
-                } else {
-                    SwingUtilities.invokeLater(() -> {
-                        statusLabel.setText("Kein Fenster erkannt.");
-                        log.warn("Fenster-Auswahl fehlgeschlagen");
-                    });
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.error("Fenster-Auswahl-Thread unterbrochen", e);
+        actionDispatcher.submitDelayed(AutomationAction.interactive("Window-Select", () -> {
+            HWND hwnd = WindowsUtils.getWindowUnderCursor();
+            if (hwnd != null) {
+                String title = WindowsUtils.getWindowTitle(hwnd);
+                SwingUtilities.invokeLater(() -> {
+                    targetHwnd = hwnd;                  // << handle speichern
+                    targetWindow = title;
+                    windowTitleField.setText(title);
+                    showStatus("Fenster erkannt: " + title);
+                    log.info("Fenster ausgewählt: '{}' ({})", title, hwnd);
+                });
+            } else {
+                showStatus("Kein Fenster erkannt.");
+                log.warn("Fenster-Auswahl fehlgeschlagen");
             }
-        }, "Window-Select").start();
+        }), 5000);
     }
 
 
     /** Button-Position (x,y) speichern */
     private void onSelectButtonPosition() {
         if (targetWindow == null || targetWindow.isBlank()) {
-            statusLabel.setText("Bitte zuerst ein Fenster registrieren.");
+            showStatus("Bitte zuerst ein Fenster registrieren.");
             log.warn("Button-Auswahl abgebrochen – kein Fenster registriert");
             return;
         }
 
-        statusLabel.setText("Bewege Maus auf gewünschten Button (8s) …");
+        showStatus("Bewege Maus auf gewünschten Button (8s) …");
         log.info("Starte Button-Positionsauswahl …");
 
-        new Thread(() -> {
-            try {
-                Thread.sleep(8000);
-                POINT p = new POINT();
-                User32.INSTANCE.GetCursorPos(p);
-                savedButtonPosition = new Point(p.x, p.y);
-                SwingUtilities.invokeLater(() -> {
-                    statusLabel.setText("Position gespeichert: " + p.x + ", " + p.y);
-                    log.info("Button-Position gespeichert bei {},{}", p.x, p.y);
-                });
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.error("Button-Auswahl-Thread unterbrochen", e);
-            }
-        }, "Button-Select").start();
+        actionDispatcher.submitDelayed(AutomationAction.interactive("Button-Select", () -> {
+            POINT p = new POINT();
+            User32.INSTANCE.GetCursorPos(p);
+            savedButtonPosition = new Point(p.x, p.y);
+            showStatus("Position gespeichert: " + p.x + ", " + p.y);
+            log.info("Button-Position gespeichert bei {},{}", p.x, p.y);
+        }), 8000);
     }
 
     /** Klick auf gespeicherte Position simulieren */
     private void onClickSavedButton() {
         if (savedButtonPosition == null) {
-            statusLabel.setText("Keine Position gespeichert.");
+            showStatus("Keine Position gespeichert.");
             log.warn("Klick abgebrochen – keine gespeicherte Position vorhanden");
             return;
         }
@@ -204,37 +310,82 @@ public class MainWindow extends JFrame {
             robot.mousePress(InputEvent.BUTTON1_DOWN_MASK);
             robot.mouseRelease(InputEvent.BUTTON1_DOWN_MASK);
 
-            statusLabel.setText("Klick ausgeführt bei: " + savedButtonPosition.x + ", " + savedButtonPosition.y);
+            showStatus("Klick ausgeführt bei: " + savedButtonPosition.x + ", " + savedButtonPosition.y);
             log.info("Simulierter Klick ausgeführt bei {},{}", savedButtonPosition.x, savedButtonPosition.y);
         } catch (Exception e) {
             log.error("Fehler beim Simulieren des Mausklicks", e);
-            statusLabel.setText("Klick fehlgeschlagen");
+            showStatus("Klick fehlgeschlagen");
         }
     }
 
     /** Startet die Fensterüberwachung */
     private void onStartBot() {
         if (targetWindow == null || targetWindow.isBlank()) {
-            statusLabel.setText("Kein Fenster registriert.");
+            showStatus("Kein Fenster registriert.");
             log.warn("Botstart abgebrochen – kein Fenster registriert");
             return;
         }
 
-        statusLabel.setText("Überwachung aktiv für: " + targetWindow);
+        showStatus("Überwachung aktiv für: " + targetWindow);
+        if (monitorService.reconfigure(targetHwnd, targetWindow, this::onNewWindowDetected)) {
+            log.info("Bot-Überwachung umgestellt auf '{}'", targetWindow);
+            return;
+        }
         log.info("Starte Bot-Überwachung für '{}'", targetWindow);
         monitorService.startMonitoring(targetHwnd, targetWindow, this::onNewWindowDetected);
     }
+
+    /** Beendet die Fensterüberwachung; sie kann danach erneut gestartet werden */
+    private void onStopBot() {
+        if (!monitorService.isActive()) {
+            showStatus("Überwachung ist nicht aktiv.");
+            return;
+        }
+        monitorService.stopMonitoring();
+        showStatus("Überwachung gestoppt.");
+        log.info("Bot-Überwachung gestoppt");
+    }
+
+    /**
+     * @return Programmname des Fensterprozesses oder {@code null}, falls unbekannt
+     */
+    private String executableOf(HWND hwnd) {
+        IntByReference processId = new IntByReference();
+        User32.INSTANCE.GetWindowThreadProcessId(hwnd, processId);
+        return processIndex.executableOf(processId.getValue());
+    }
+
     /**
      * Wird aufgerufen, wenn ein neues Fenster erkannt wurde.
      */
     private void onNewWindowDetected(HWND hwnd) {
         String title = WindowsUtils.getWindowTitle(hwnd);
         log.info("Fenster erkannt: '{}'", title);
+        showStatus("Fenster erkannt: " + title);
 
         // Prüfen, ob für dieses Fenster bereits eine automatische Aktion existiert
-        if (autoActionWindowTitle != null && autoActionWindowTitle.equals(title) && autoActionButtonPosition != null) {
+        long matchStart = System.nanoTime();
+        RuleSet rules = ruleSet;
+        AutomationRule rule = rules.firstMatch(title, rules.hasProcessRules() ? executableOf(hwnd) : null);
+        AutomationMetrics.global().recordRuleMatch(System.nanoTime() - matchStart);
+        if (rule != null && rule.getAction() == ActionType.CLICK_POSITION) {
+            ActionGuard.Decision decision = actionGuard.tryAcquire(rule.getId());
+            if (decision != ActionGuard.Decision.ALLOWED) {
+                log.debug("Automatischer Klick für '{}' unterdrückt: {}", title, decision);
+                return;
+            }
             log.info("Automatische Aktion aktiv: Drücke gespeicherten Button für '{}'", title);
-            performAutoClick(autoActionButtonPosition);
+            performAutoClick(hwnd, rule);
+            return;
+        }
+        if (rule != null && rule.getAction() == ActionType.CLOSE) {
+            automationService.handleWindow(rule.getId(), title);
+            return;
+        }
+        if (rule != null && rule.getAction() == ActionType.MACRO) {
+            if (automationService.runMacro(rule.getId(), WindowsUtils.handleOf(hwnd), rule.getMacro()) != null) {
+                showStatus("Makro gestartet für '" + title + "'");
+            }
             return;
         }
 
@@ -248,65 +399,89 @@ public class MainWindow extends JFrame {
             );
 
             if (result == JOptionPane.YES_OPTION) {
-                statusLabel.setText("Bitte Maus über gewünschten Button bewegen (5s)...");
+                showStatus("Bitte Maus über gewünschten Button bewegen (5s)...");
                 log.info("Starte Button-Registrierung für '{}'", title);
 
-                new Thread(() -> {
-                    try {
-                        Thread.sleep(5000);
-                        com.sun.jna.platform.win32.WinDef.POINT p = new com.sun.jna.platform.win32.WinDef.POINT();
-                        User32.INSTANCE.GetCursorPos(p);
-                        autoActionWindowTitle = title;
-                        autoActionButtonPosition = new Point(p.x, p.y);
-
-                        SwingUtilities.invokeLater(() -> {
-                            statusLabel.setText("Button registriert für '" + title + "' bei (" + p.x + ", " + p.y + ")");
-                            log.info("Button registriert: {} ({},{})", title, p.x, p.y);
-                        });
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                }).start();
+                actionDispatcher.submitDelayed(AutomationAction.interactive("Button-Register", () -> {
+                    POINT p = new POINT();
+                    User32.INSTANCE.GetCursorPos(p);
+                    ControlSelector control = controlResolver.describe(
+                            WindowsUtils.handleOf(WindowsUtils.windowAt(p.x, p.y)));
+                    registerRule(control != null
+                            ? AutomationRule.clickControl(title, control, p.x, p.y)
+                            : AutomationRule.clickAt(title, p.x, p.y));
+
+                    showStatus("Button registriert für '" + title + "' bei (" + p.x + ", " + p.y + ")");
+                    log.info("Button registriert: {} ({},{}) Steuerelement: {}", title, p.x, p.y, control);
+                }), 5000);
             } else {
                 log.info("Fenster '{}' ignoriert.", title);
             }
         });
     }
-    //TODO Mouse Perform click set in a Thread, because the robot use the User Mouse
     /**
      * Führt einen automatischen Klick aus, ohne die Benutzermaus zu bewegen.
-     * Wenn möglich, wird BM_CLICK direkt an das Fensterhandle gesendet.
-     * Falls kein gültiges Handle existiert, wird als Fallback die Robot-Maus verwendet.
+     * Der registrierte Button wird über den {@link ControlResolver} im Dialog gesucht und
+     * BM_CLICK direkt an sein Handle gesendet (parallel ausführbar, unabhängig von der
+     * Dialogposition). Nur wenn kein Steuerelement gefunden wird, klickt als Fallback ein
+     * Makro mit der Maus auf die gespeicherte Position. Das Ergebnis geht an den
+     * Schutzschalter der Regel im {@link ActionGuard}.
      */
-    private void performAutoClick(Point position) {
-        new Thread(() -> {
-            try {
-                if (autoActionWindowHandle != null) {
-                    log.info("Sende virtuellen Klick an Fensterhandle {}", autoActionWindowHandle);
-                    WindowsUtils.sendVirtualClick(autoActionWindowHandle);
-                    SwingUtilities.invokeLater(() ->
-                            statusLabel.setText("Virtueller Klick an Fenster gesendet")
-                    );
-                } else {
-                    log.warn("Kein gültiges Fensterhandle – verwende Robot als Fallback.");
-                    Robot robot = new Robot();
-                    robot.mouseMove(position.x, position.y);
-                    Thread.sleep(200);
-                    robot.mousePress(InputEvent.BUTTON1_DOWN_MASK);
-                    Thread.sleep(200);
-                    robot.mouseRelease(InputEvent.BUTTON1_DOWN_MASK);
-                    SwingUtilities.invokeLater(() ->
-                            statusLabel.setText("Fallback: Klick mit Robot bei " + position.x + ", " + position.y)
-                    );
+    private void performAutoClick(HWND dialog, AutomationRule rule) {
+        Point position = new Point(rule.getX(), rule.getY());
+        ControlSelector selector = rule.getControl();
+        if (selector != null) {
+            actionDispatcher.submit(AutomationAction.handle("AutoClick", () -> {
+                long control = 0;
+                boolean success = false;
+                try {
+                    control = controlResolver.resolve(WindowsUtils.handleOf(dialog), selector);
+                    if (control != 0) {
+                        WindowsUtils.sendVirtualClick(WindowsUtils.hwndOf(control));
+                        showStatus("Virtueller Klick an " + selector.getText() + " gesendet");
+                    }
+                    success = true;
+                } finally {
+                    // Das Ergebnis des Fallbacks meldet der Mausklick selbst
+                    if (control != 0 || !success) {
+                        actionGuard.recordResult(rule.getId(), success);
+                    }
+                }
+                if (control == 0) {
+                    log.warn("Steuerelement {} nicht gefunden – klicke mit der Maus als Fallback.", selector);
+                    clickWithMouse(rule.getId(), position);
                 }
+            }));
+            return;
+        }
+        clickWithMouse(rule.getId(), position);
+    }
+
+    /**
+     * Meldet einen Statustext an das Dashboard. Darf von jedem Thread aus aufgerufen werden
+     * und blockiert nie; angezeigt wird er mit dem nächsten Frame.
+     */
+    private void showStatus(String text) {
+        dashboardModel.post(text);
+    }
 
-            } catch (Exception e) {
-                log.error("Fehler beim automatischen Klick", e);
-                SwingUtilities.invokeLater(() ->
-                        statusLabel.setText("Klick fehlgeschlagen")
-                );
+    /**
+     * Klickt mit der Maus auf eine Bildschirmposition. Der Klick läuft als Makro; die Pausen
+     * zwischen Bewegen, Drücken und Loslassen belegen keinen Thread.
+     */
+    private void clickWithMouse(String ruleId, Point position) {
+        log.info("Klicke mit der Maus bei {},{}", position.x, position.y);
+        macroEngine.start(MacroCompiler.mouseClick(position.x, position.y, MOUSE_PAUSE_MS), 0, run -> {
+            boolean success = run.getStatus() == MacroRun.Status.DONE;
+            AutomationMetrics.global().recordAction(run.getElapsedNanos(), success);
+            actionGuard.recordResult(ruleId, success);
+            if (success) {
+                showStatus("Fallback: Mausklick bei " + position.x + ", " + position.y);
+            } else {
+                log.warn("Mausklick bei {},{} fehlgeschlagen: {}", position.x, position.y, run);
+                showStatus("Klick fehlgeschlagen");
             }
-        }, "AutoClick-Thread").start();
+        });
     }
 
 
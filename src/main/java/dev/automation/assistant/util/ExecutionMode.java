@@ -0,0 +1,43 @@
+package dev.automation.assistant.util;
+
+import java.util.Locale;
+
+/**
+ * Ausfuehrungsmodus fuer Monitore und Aktions-Handler.
+ * <p>
+ * Wird beim Start ueber die System-Property {@code execution.mode}
+ * ({@code auto}, {@code virtual}, {@code platform}) gewaehlt und an
+ * {@link TaskExecutors#configure(ExecutionMode)} uebergeben.
+ * </p>
+ */
+public enum ExecutionMode {
+
+    /** Virtuelle Threads, falls die JVM sie unterstuetzt, sonst Plattform-Pool */
+    AUTO,
+
+    /** Virtuelle Threads erzwingen (faellt mit Warnung auf den Plattform-Pool zurueck) */
+    VIRTUAL,
+
+    /** Immer den gemeinsamen Plattform-Pool verwenden */
+    PLATFORM;
+
+    /** Name der System-Property fuer den Modus */
+    public static final String PROPERTY = "execution.mode";
+
+    /**
+     * Liest den Modus aus der System-Property {@value #PROPERTY}.
+     *
+     * @return Konfigurierter Modus oder {@link #AUTO}
+     */
+    public static ExecutionMode fromSystemProperty() {
+        String value = System.getProperty(PROPERTY);
+        if (value == null || value.isBlank()) {
+            return AUTO;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return AUTO;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package dev.automation.assistant.util;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.core.joran.spi.JoranException;
+import ch.qos.logback.core.util.StatusPrinter2;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Logging-Profil der Anwendung.
+ * <p>
+ * Wird beim Start ueber die System-Property {@code log.profile}
+ * ({@code default}, {@code production}) gewaehlt. Ist die Property gesetzt,
+ * entfaellt der Dialog zur Auswahl der Logdatei; der Pfad kommt dann aus
+ * {@code log.file} oder dem Standardverzeichnis {@code logs/}.
+ * </p>
+ */
+public enum LoggingProfile {
+
+    /** Synchrone Ausgabe auf Konsole und in eine einzelne Datei (Entwicklung) */
+    DEFAULT("logback.xml"),
+
+    /** Asynchrone, rollierende und komprimierte Logdateien mit Groessenlimit (Dauerbetrieb) */
+    PRODUCTION("logback-production.xml");
+
+    /** Name der System-Property fuer das Profil */
+    public static final String PROPERTY = "log.profile";
+
+    private final String resource;
+
+    LoggingProfile(String resource) {
+        this.resource = resource;
+    }
+
+    /**
+     * @return Name der Logback-Konfiguration im Klassenpfad
+     */
+    public String getResource() {
+        return resource;
+    }
+
+    /**
+     * @return {@code true}, falls das Profil per System-Property vorgegeben wurde
+     */
+    public static boolean isSelectedBySystemProperty() {
+        String value = System.getProperty(PROPERTY);
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * Liest das Profil aus der System-Property {@value #PROPERTY}. Ein unbekannter Wert
+     * (etwa ein Tippfehler wie {@code prod}) faellt auf {@link #DEFAULT} zurueck und wird
+     * mit den erlaubten Werten auf {@code System.err} gemeldet, da das Logging zu diesem
+     * Zeitpunkt noch nicht konfiguriert ist.
+     *
+     * @return Konfiguriertes Profil oder {@link #DEFAULT}
+     */
+    public static LoggingProfile fromSystemProperty() {
+        if (!isSelectedBySystemProperty()) {
+            return DEFAULT;
+        }
+        return parse(System.getProperty(PROPERTY), System.err);
+    }
+
+    /**
+     * @param value    Wert der System-Property
+     * @param warnings Ziel fuer die Warnung bei unbekanntem Wert
+     * @return Passendes Profil oder {@link #DEFAULT}
+     */
+    static LoggingProfile parse(String value, PrintStream warnings) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            String accepted = Arrays.stream(values())
+                    .map(profile -> profile.name().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.joining(", "));
+            warnings.printf("WARNUNG: Unbekanntes Logging-Profil '%s' (-D%s), erlaubt: %s; verwende %s%n",
+                    value.trim(), PROPERTY, accepted, DEFAULT.name().toLowerCase(Locale.ROOT));
+            return DEFAULT;
+        }
+    }
+
+    /**
+     * Laedt dieses Profil in den globalen Logback-Kontext neu.
+     * Fehler werden auf {@code System.err} ausgegeben, da das Logging
+     * in diesem Moment selbst nicht verfuegbar ist.
+     */
+    public void apply() {
+        try {
+            configure((LoggerContext) LoggerFactory.getILoggerFactory());
+        } catch (Exception ex) {
+            System.err.println("Fehler beim Reinitialisieren von Logback: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Setzt den gegebenen Kontext zurueck und liest die Konfiguration dieses Profils ein.
+     *
+     * @param context Logback-Kontext
+     * @throws JoranException falls die Konfiguration fehlerhaft ist
+     */
+    public void configure(LoggerContext context) throws JoranException {
+        configure(context, Map.of());
+    }
+
+    /**
+     * Wie {@link #configure(LoggerContext)}, setzt aber vorab Kontext-Properties
+     * (z. B. {@code log.file} oder {@code log.maxFileSize}). Diese haben Vorrang
+     * vor gleichnamigen System-Properties.
+     *
+     * @param context    Logback-Kontext
+     * @param properties Zusaetzliche Properties fuer die Konfiguration
+     * @throws JoranException falls die Konfiguration fehlerhaft ist
+     */
+    public void configure(LoggerContext context, Map<String, String> properties) throws JoranException {
+        URL configUrl = LoggingProfile.class.getClassLoader().getResource(resource);
+        if (configUrl == null) {
+            throw new JoranException("Logback-Konfiguration nicht gefunden: " + resource);
+        }
+        context.reset(); // alte Konfiguration entfernen (leert auch asynchrone Puffer)
+        properties.forEach(context::putProperty);
+
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        configurator.doConfigure(configUrl);
+        new StatusPrinter2().printInCaseOfErrorsOrWarnings(context);
+    }
+}
@@ -0,0 +1,18 @@
+package dev.automation.assistant.util;
+
+/**
+ * Handle auf eine periodisch ausgefuehrte Aufgabe (z. B. einen Monitor-Tick),
+ * erzeugt ueber {@link TaskExecutors#schedulePeriodic(String, Runnable, long)}.
+ */
+public interface PeriodicTask {
+
+    /**
+     * Beendet die Aufgabe. Ein laufender Durchlauf wird noch abgeschlossen.
+     */
+    void cancel();
+
+    /**
+     * @return {@code true}, nachdem {@link #cancel()} aufgerufen wurde
+     */
+    boolean isCancelled();
+}
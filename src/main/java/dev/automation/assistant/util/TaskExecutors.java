@@ -0,0 +1,232 @@
+package dev.automation.assistant.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Zentrale Thread-Erzeugung fuer Monitore und Aktions-Handler.
+ * <p>
+ * Je nach {@link ExecutionMode} laufen Monitore und Handler auf virtuellen Threads
+ * (ab Java 21) oder auf einem gemeinsamen Pool von Plattform-Threads. Da das Projekt
+ * gegen Java 17 kompiliert wird, werden virtuelle Threads ausschliesslich per
+ * Reflection angesprochen.
+ * </p>
+ * <ul>
+ *     <li>Virtuell: Jeder Monitor ist ein eigener virtueller Thread mit Warte-Schleife.
+ *         Tausende gleichzeitige Wartevorgaenge belegen kaum Speicher.</li>
+ *     <li>Plattform: Monitore sind periodische Aufgaben auf einem gemeinsamen
+ *         {@link ScheduledExecutorService} mit einem Thread pro CPU-Kern. Waehrend
+ *         der Wartezeit wird kein Thread belegt.</li>
+ * </ul>
+ */
+public final class TaskExecutors {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskExecutors.class);
+
+    /** Fabrik fuer virtuelle Threads oder {@code null}, falls die JVM sie nicht unterstuetzt */
+    private static final VirtualThreadSupport VIRTUAL = VirtualThreadSupport.detect();
+
+    private static volatile boolean useVirtualThreads = VIRTUAL != null;
+    private static ScheduledExecutorService sharedScheduler;
+
+    private TaskExecutors() {
+        // utility class
+    }
+
+    /**
+     * Legt den Ausfuehrungsmodus fest. Sollte einmal beim Start aufgerufen werden;
+     * bereits laufende Monitore behalten ihren Modus.
+     *
+     * @param mode Gewuenschter Modus
+     */
+    public static synchronized void configure(ExecutionMode mode) {
+        switch (mode) {
+            case PLATFORM:
+                useVirtualThreads = false;
+                break;
+            case VIRTUAL:
+                if (VIRTUAL == null) {
+                    log.warn("Virtuelle Threads werden von dieser JVM ({}) nicht unterstuetzt – verwende Plattform-Pool",
+                            System.getProperty("java.version"));
+                }
+                useVirtualThreads = VIRTUAL != null;
+                break;
+            case AUTO:
+            default:
+                useVirtualThreads = VIRTUAL != null;
+                break;
+        }
+        log.info("Ausfuehrungsmodus {}: {}", mode, useVirtualThreads ? "virtuelle Threads" : "Plattform-Pool");
+    }
+
+    /**
+     * @return {@code true}, falls die laufende JVM virtuelle Threads unterstuetzt
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL != null;
+    }
+
+    /**
+     * @return {@code true}, falls Monitore und Handler aktuell auf virtuellen Threads laufen
+     */
+    public static boolean usesVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    /**
+     * Liefert eine Thread-Fabrik fuer Worker. Im Plattform-Modus werden Daemon-Threads erzeugt.
+     *
+     * @param prefix Namenspraefix der Threads
+     * @return Thread-Fabrik
+     */
+    public static ThreadFactory threadFactory(String prefix) {
+        return useVirtualThreads ? VIRTUAL.factory(prefix + "-") : platformThreadFactory(prefix);
+    }
+
+    /**
+     * Fuehrt eine Aufgabe wiederholt mit festem Abstand aus.
+     *
+     * @param name       Name fuer Thread und Logging
+     * @param tick       Auszufuehrender Durchlauf; Ausnahmen werden protokolliert
+     * @param intervalMs Abstand zwischen zwei Durchlaeufen in Millisekunden
+     * @return Handle zum Beenden der Aufgabe
+     */
+    public static PeriodicTask schedulePeriodic(String name, Runnable tick, long intervalMs) {
+        Runnable guarded = () -> {
+            try {
+                tick.run();
+            } catch (Exception ex) {
+                log.error("Fehler in periodischer Aufgabe '{}'", name, ex);
+            }
+        };
+        return useVirtualThreads
+                ? new VirtualPeriodicTask(name, guarded, intervalMs)
+                : new ScheduledPeriodicTask(scheduler().scheduleWithFixedDelay(guarded, 0, intervalMs, TimeUnit.MILLISECONDS));
+    }
+
+    private static synchronized ScheduledExecutorService scheduler() {
+        if (sharedScheduler == null) {
+            int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads, platformThreadFactory("Task-Scheduler"));
+            executor.setRemoveOnCancelPolicy(true);
+            sharedScheduler = Executors.unconfigurableScheduledExecutorService(executor);
+        }
+        return sharedScheduler;
+    }
+
+    private static ThreadFactory platformThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** Periodische Aufgabe auf dem gemeinsamen Plattform-Scheduler */
+    private static final class ScheduledPeriodicTask implements PeriodicTask {
+        private final ScheduledFuture<?> future;
+
+        private ScheduledPeriodicTask(ScheduledFuture<?> future) {
+            this.future = future;
+        }
+
+        @Override
+        public void cancel() {
+            future.cancel(false);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return future.isCancelled();
+        }
+    }
+
+    /** Periodische Aufgabe als Schleife auf einem eigenen virtuellen Thread */
+    private static final class VirtualPeriodicTask implements PeriodicTask {
+        private final Thread thread;
+        private volatile boolean cancelled;
+
+        private VirtualPeriodicTask(String name, Runnable tick, long intervalMs) {
+            thread = VIRTUAL.factory(name).newThread(() -> {
+                while (!cancelled) {
+                    tick.run();
+                    try {
+                        Thread.sleep(intervalMs);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            thread.start();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            thread.interrupt();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Zugriff auf {@code Thread.ofVirtual()} per Reflection (ab Java 21).
+     */
+    private static final class VirtualThreadSupport {
+        private final Method ofVirtual;
+        private final Method name;
+        private final Method nameWithCounter;
+        private final Method factory;
+
+        private VirtualThreadSupport(Method ofVirtual, Method name, Method nameWithCounter, Method factory) {
+            this.ofVirtual = ofVirtual;
+            this.name = name;
+            this.nameWithCounter = nameWithCounter;
+            this.factory = factory;
+        }
+
+        static VirtualThreadSupport detect() {
+            try {
+                Class<?> builder = Class.forName("java.lang.Thread$Builder");
+                VirtualThreadSupport support = new VirtualThreadSupport(
+                        Thread.class.getMethod("ofVirtual"),
+                        builder.getMethod("name", String.class),
+                        builder.getMethod("name", String.class, long.class),
+                        builder.getMethod("factory"));
+                // Probelauf: schlaegt auf Preview-JVMs ohne --enable-preview fehl
+                support.factory("probe").newThread(() -> { });
+                return support;
+            } catch (Throwable t) {
+                return null;
+            }
+        }
+
+        /**
+         * @param prefix Thread-Name; endet er auf "-", wird ein Zaehler angehaengt
+         */
+        ThreadFactory factory(String prefix) {
+            try {
+                Object builder = ofVirtual.invoke(null);
+                builder = prefix.endsWith("-")
+                        ? nameWithCounter.invoke(builder, prefix, 1L)
+                        : name.invoke(builder, prefix);
+                return (ThreadFactory) factory.invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Virtuelle Threads nicht verfuegbar", e);
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.sun.jna.platform.win32.WinDef.HWND;
 import com.sun.jna.platform.win32.WinDef.LPARAM;
 import com.sun.jna.platform.win32.WinDef.POINT;
 import com.sun.jna.platform.win32.WinDef.WPARAM;
+import dev.automation.assistant.platform.DirectUser32WindowBackend;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.sun.jna.platform.win32.WinDef.HWND;
@@ -23,6 +24,10 @@ public final class WindowsUtils {
     private static final Logger log = LoggerFactory.getLogger(WindowsUtils.class);
     private static final int BM_CLICK = 0x00F5; // Button Click Message
 
+    /** Direkt gemapptes, allokationsarmes Backend (nur 64-Bit-Windows), sonst {@code null} */
+    private static final DirectUser32WindowBackend DIRECT =
+            DirectUser32WindowBackend.isSupported() ? new DirectUser32WindowBackend() : null;
+
     private WindowsUtils() {}
 
     /**
@@ -57,7 +62,7 @@ public final class WindowsUtils {
         POINT point = new POINT();
         User32.INSTANCE.GetCursorPos(point);
 
-        HWND hwnd = User32Extra.INSTANCE.WindowFromPoint(point);
+        HWND hwnd = windowAt(point.x, point.y);
         HWND target = hwnd;
 
         if (hwnd == null) {
@@ -71,9 +76,7 @@ public final class WindowsUtils {
             target = hwnd;
 
             // Prüfen, ob ein Fenstertitel existiert
-            char[] buffer = new char[512];
-            User32.INSTANCE.GetWindowText(target, buffer, 512);
-            String title = Native.toString(buffer);
+            String title = getWindowTitle(target);
 
             if (title != null && !title.isBlank()) {
                 log.info("Fenster unter Cursor erkannt: '{}' ({})", title, target);
@@ -97,9 +100,7 @@ public final class WindowsUtils {
         }, Pointer.NULL);
 
         if (result[0] != null) {
-            char[] titleBuf = new char[512];
-            User32.INSTANCE.GetWindowText(result[0], titleBuf, 512);
-            String fallbackTitle = Native.toString(titleBuf);
+            String fallbackTitle = getWindowTitle(result[0]);
             log.info("Fenster erkannt (Fallback): '{}' ({})", fallbackTitle, result[0]);
             return result[0];
         }
@@ -155,6 +156,9 @@ public final class WindowsUtils {
      */
     public static String getWindowTitle(HWND hwnd) {
         if (hwnd == null) return null;
+        if (DIRECT != null) {
+            return DIRECT.getWindowTitle(handleOf(hwnd));
+        }
         char[] buffer = new char[512];
         User32.INSTANCE.GetWindowText(hwnd, buffer, 512);
         return Native.toString(buffer);
@@ -184,4 +188,29 @@ public final class WindowsUtils {
         return User32.INSTANCE.FindWindow(null, title);
     }
 
+    /**
+     * Liefert das Fenster oder Steuerelement an einer Bildschirmposition ({@code null}, falls keines).
+     */
+    public static HWND windowAt(int x, int y) {
+        if (DIRECT != null) {
+            return hwndOf(DIRECT.windowAt(x, y));
+        }
+        POINT point = new POINT(x, y);
+        return User32Extra.INSTANCE.WindowFromPoint(point);
+    }
+
+    /**
+     * Liefert den numerischen Wert eines Fensterhandles (0 fuer {@code null}).
+     */
+    public static long handleOf(HWND hwnd) {
+        return hwnd == null ? 0L : Pointer.nativeValue(hwnd.getPointer());
+    }
+
+    /**
+     * Erzeugt ein {@link HWND} aus einem numerischen Handle ({@code null} fuer 0).
+     */
+    public static HWND hwndOf(long handle) {
+        return handle == 0L ? null : new HWND(new Pointer(handle));
+    }
+
 }
@@ -0,0 +1,42 @@
+package dev.automation.assistant.vision;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bildpyramide eines Frames mit Integralbild pro Stufe.
+ * <p>
+ * Stufen werden erst bei Bedarf berechnet und fuer alle Templates eines Frames
+ * gemeinsam genutzt.
+ * </p>
+ */
+final class FramePyramid {
+
+    private final List<GrayImage> images = new ArrayList<>();
+    private final List<IntegralImage> integrals = new ArrayList<>();
+
+    FramePyramid(GrayImage base) {
+        images.add(base);
+    }
+
+    /**
+     * @return Bild der Stufe oder {@code null}, falls das Bild dafuer zu klein ist
+     */
+    synchronized GrayImage image(int level) {
+        while (images.size() <= level) {
+            GrayImage last = images.get(images.size() - 1);
+            if (last.getWidth() < 2 || last.getHeight() < 2) {
+                return null;
+            }
+            images.add(last.downsample());
+        }
+        return images.get(level);
+    }
+
+    synchronized IntegralImage integral(int level) {
+        while (integrals.size() <= level) {
+            integrals.add(new IntegralImage(image(integrals.size())));
+        }
+        return integrals.get(level);
+    }
+}
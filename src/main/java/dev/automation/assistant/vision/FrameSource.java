@@ -0,0 +1,17 @@
+package dev.automation.assistant.vision;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * Liefert Aufnahmen eines Bildschirmbereichs fuer den {@link ScreenRegionDetector}.
+ */
+@FunctionalInterface
+public interface FrameSource {
+
+    /**
+     * @param region Bereich in Bildschirmkoordinaten
+     * @return Aufnahme mit der Groesse des Bereichs
+     */
+    BufferedImage capture(Rectangle region);
+}
@@ -0,0 +1,106 @@
+package dev.automation.assistant.vision;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Graustufenbild als flaches {@code float}-Array (Zeile fuer Zeile).
+ * <p>
+ * Grundlage fuer {@link TemplateMatcher}: Farbbilder werden einmal in Luminanz
+ * umgerechnet, danach wird nur noch auf dem Array gerechnet.
+ * </p>
+ */
+public final class GrayImage {
+
+    private final int width;
+    private final int height;
+    private final float[] pixels;
+
+    GrayImage(int width, int height, float[] pixels) {
+        if (width <= 0 || height <= 0 || pixels.length != width * height) {
+            throw new IllegalArgumentException("Ungueltige Bildgroesse " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    /**
+     * Rechnet ein Farbbild in Luminanz (0..255) um. Fuer {@code TYPE_INT_RGB}/{@code TYPE_INT_ARGB}
+     * (z. B. aus {@code Robot.createScreenCapture}) wird direkt auf dem Raster gelesen.
+     *
+     * @param image Quellbild
+     * @return Graustufenbild gleicher Groesse
+     */
+    public static GrayImage of(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        float[] pixels = new float[width * height];
+        int[] direct = directPixels(image);
+        if (direct != null) {
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = luminance(direct[i]);
+            }
+        } else {
+            int[] row = new int[width];
+            for (int y = 0; y < height; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0; x < width; x++) {
+                    pixels[y * width + x] = luminance(row[x]);
+                }
+            }
+        }
+        return new GrayImage(width, height, pixels);
+    }
+
+    /**
+     * Liefert das Pixel-Array eines Bildes mit dichtem {@code int}-Raster, sonst {@code null}.
+     */
+    static int[] directPixels(BufferedImage image) {
+        int type = image.getType();
+        if ((type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)
+                && image.getRaster().getDataBuffer() instanceof DataBufferInt
+                && image.getRaster().getParent() == null) {
+            int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            return data.length == image.getWidth() * image.getHeight() ? data : null;
+        }
+        return null;
+    }
+
+    private static float luminance(int rgb) {
+        return (((rgb >> 16) & 0xFF) * 77 + ((rgb >> 8) & 0xFF) * 150 + (rgb & 0xFF) * 29) >> 8;
+    }
+
+    /**
+     * Halbiert das Bild (Mittelwert ueber 2x2-Bloecke) fuer die naechste Pyramidenstufe.
+     *
+     * @return Bild mit halber Breite und Hoehe (abgerundet)
+     */
+    public GrayImage downsample() {
+        int w = width / 2;
+        int h = height / 2;
+        float[] target = new float[w * h];
+        for (int y = 0; y < h; y++) {
+            int top = 2 * y * width;
+            int bottom = top + width;
+            for (int x = 0; x < w; x++) {
+                int sx = 2 * x;
+                target[y * w + x] = (pixels[top + sx] + pixels[top + sx + 1]
+                        + pixels[bottom + sx] + pixels[bottom + sx + 1]) * 0.25f;
+            }
+        }
+        return new GrayImage(w, h, target);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    float[] pixels() {
+        return pixels;
+    }
+}
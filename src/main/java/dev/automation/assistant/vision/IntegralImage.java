@@ -0,0 +1,59 @@
+package dev.automation.assistant.vision;
+
+/**
+ * Summen- und Quadratsummentabelle eines {@link GrayImage}.
+ * <p>
+ * Summe und Varianz eines beliebigen Rechtecks lassen sich damit in vier
+ * Zugriffen bestimmen, unabhaengig von der Rechteckgroesse. Der
+ * {@link TemplateMatcher} braucht so pro Position nur noch das Skalarprodukt
+ * mit dem Template zu berechnen.
+ * </p>
+ */
+final class IntegralImage {
+
+    private final int stride;
+    private final double[] sum;
+    private final double[] sumSq;
+
+    IntegralImage(GrayImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        float[] pixels = image.pixels();
+        stride = width + 1;
+        sum = new double[stride * (height + 1)];
+        sumSq = new double[stride * (height + 1)];
+        for (int y = 0; y < height; y++) {
+            double rowSum = 0;
+            double rowSumSq = 0;
+            int src = y * width;
+            int dst = (y + 1) * stride + 1;
+            for (int x = 0; x < width; x++) {
+                double value = pixels[src + x];
+                rowSum += value;
+                rowSumSq += value * value;
+                sum[dst + x] = sum[dst + x - stride] + rowSum;
+                sumSq[dst + x] = sumSq[dst + x - stride] + rowSumSq;
+            }
+        }
+    }
+
+    /**
+     * @return Summe der Pixel im Rechteck
+     */
+    double sum(int x, int y, int width, int height) {
+        return box(sum, x, y, width, height);
+    }
+
+    /**
+     * @return Summe der quadrierten Pixel im Rechteck
+     */
+    double sumOfSquares(int x, int y, int width, int height) {
+        return box(sumSq, x, y, width, height);
+    }
+
+    private double box(double[] table, int x, int y, int width, int height) {
+        int top = y * stride + x;
+        int bottom = (y + height) * stride + x;
+        return table[bottom + width] - table[bottom] - table[top + width] + table[top];
+    }
+}
@@ -0,0 +1,30 @@
+package dev.automation.assistant.vision;
+
+import java.awt.AWTException;
+import java.awt.Rectangle;
+import java.awt.Robot;
+import java.awt.image.BufferedImage;
+
+/**
+ * {@link FrameSource} ueber {@link Robot#createScreenCapture(Rectangle)}.
+ * <p>
+ * Der Robot wird erst bei der ersten Aufnahme erzeugt; ohne Bildschirm (headless)
+ * schlaegt diese mit {@link IllegalStateException} fehl.
+ * </p>
+ */
+public class RobotFrameSource implements FrameSource {
+
+    private Robot robot;
+
+    @Override
+    public synchronized BufferedImage capture(Rectangle region) {
+        if (robot == null) {
+            try {
+                robot = new Robot();
+            } catch (AWTException | RuntimeException e) {
+                throw new IllegalStateException("Bildschirmaufnahme nicht verfuegbar", e);
+            }
+        }
+        return robot.createScreenCapture(region);
+    }
+}
@@ -0,0 +1,126 @@
+package dev.automation.assistant.vision;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Erkennt registrierte Button-Bilder in einem Bildschirmbereich.
+ * <p>
+ * Fuer selbst gezeichnete Dialoge ohne Kindfenster, bei denen
+ * {@code WindowsUtils.sendVirtualClick} kein Ziel-Handle hat. Pro Aufruf von
+ * {@link #detect()} wird der Bereich aufgenommen; hat sich laut {@link TileHashGate}
+ * keine Kachel geaendert, wird das letzte Ergebnis ohne erneute Suche geliefert.
+ * Sonst wird die Bildpyramide einmal aufgebaut und fuer alle Templates genutzt.
+ * </p>
+ */
+public class ScreenRegionDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(ScreenRegionDetector.class);
+
+    /** Standard-Mindestkorrelation */
+    public static final double DEFAULT_THRESHOLD = 0.9;
+
+    private final FrameSource source;
+    private final Rectangle region;
+    private final TemplateMatcher matcher;
+    private final double threshold;
+    private final TileHashGate gate = new TileHashGate();
+    private final Map<String, Template> templates = new LinkedHashMap<>();
+
+    private List<TemplateMatch> lastMatches = List.of();
+    private boolean templatesChanged = true;
+    private long framesAnalyzed;
+    private long framesSkipped;
+
+    /**
+     * Erstellt einen Detektor fuer den Bildschirm ({@link RobotFrameSource}).
+     *
+     * @param region Ueberwachter Bereich in Bildschirmkoordinaten
+     */
+    public ScreenRegionDetector(Rectangle region) {
+        this(new RobotFrameSource(), region, new TemplateMatcher(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param source    Quelle der Aufnahmen
+     * @param region    Ueberwachter Bereich in Bildschirmkoordinaten
+     * @param matcher   Suche
+     * @param threshold Mindestkorrelation fuer einen Treffer
+     */
+    public ScreenRegionDetector(FrameSource source, Rectangle region, TemplateMatcher matcher, double threshold) {
+        this.source = source;
+        this.region = new Rectangle(region);
+        this.matcher = matcher;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Registriert ein Template (ersetzt ein gleichnamiges).
+     */
+    public synchronized void register(Template template) {
+        templates.put(template.getName(), template);
+        templatesChanged = true;
+    }
+
+    /**
+     * Entfernt ein Template.
+     *
+     * @return {@code true}, falls es registriert war
+     */
+    public synchronized boolean unregister(String name) {
+        boolean removed = templates.remove(name) != null;
+        templatesChanged |= removed;
+        return removed;
+    }
+
+    /**
+     * Nimmt den Bereich auf und sucht alle registrierten Templates.
+     *
+     * @return Treffer in Bildschirmkoordinaten (leer, falls nichts gefunden wurde)
+     */
+    public synchronized List<TemplateMatch> detect() {
+        BufferedImage frame = source.capture(region);
+        int changedTiles = gate.update(frame);
+        if (changedTiles == 0 && !templatesChanged) {
+            framesSkipped++;
+            return lastMatches;
+        }
+        templatesChanged = false;
+        framesAnalyzed++;
+
+        FramePyramid pyramid = new FramePyramid(GrayImage.of(frame));
+        List<TemplateMatch> matches = new ArrayList<>();
+        for (Template template : templates.values()) {
+            TemplateMatch match = matcher.find(pyramid, template, threshold);
+            if (match != null) {
+                matches.add(match.translate(region.x, region.y));
+            }
+        }
+        if (!matches.isEmpty()) {
+            log.debug("Bildsuche: {} Treffer nach {} geaenderten Kacheln: {}", matches.size(), changedTiles, matches);
+        }
+        lastMatches = List.copyOf(matches);
+        return lastMatches;
+    }
+
+    /**
+     * @return Frames, die tatsaechlich durchsucht wurden
+     */
+    public synchronized long getFramesAnalyzed() {
+        return framesAnalyzed;
+    }
+
+    /**
+     * @return Unveraenderte Frames, fuer die die Suche uebersprungen wurde
+     */
+    public synchronized long getFramesSkipped() {
+        return framesSkipped;
+    }
+}
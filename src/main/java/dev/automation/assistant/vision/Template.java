@@ -0,0 +1,128 @@
+package dev.automation.assistant.vision;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Vorberechnetes Suchbild (z. B. ein registrierter Button) fuer den {@link TemplateMatcher}.
+ * <p>
+ * Pro Pyramidenstufe wird das mittelwertfreie Template und seine Norm einmal bei der
+ * Registrierung berechnet. Die Stufen werden halbiert, solange das Template auf der
+ * groebsten Stufe noch mindestens {@value #MIN_LEVEL_SIZE} Pixel breit und hoch ist.
+ * </p>
+ */
+public final class Template {
+
+    /** Kleinste Kantenlaenge auf der groebsten Stufe */
+    static final int MIN_LEVEL_SIZE = 8;
+
+    /** Hoechstens so viele Halbierungen */
+    static final int MAX_LEVELS = 4;
+
+    private final String name;
+    private final List<Level> levels;
+
+    private Template(String name, List<Level> levels) {
+        this.name = name;
+        this.levels = levels;
+    }
+
+    /**
+     * Kompiliert ein Template.
+     *
+     * @param name  Bezeichnung (z. B. Regel-ID)
+     * @param image Ausschnitt des zu suchenden Buttons
+     * @return Template mit Pyramidenstufen
+     * @throws IllegalArgumentException falls das Bild einfarbig ist (keine Korrelation moeglich)
+     */
+    public static Template of(String name, BufferedImage image) {
+        return of(name, GrayImage.of(image));
+    }
+
+    /**
+     * Kompiliert ein Template aus einem Graustufenbild.
+     */
+    public static Template of(String name, GrayImage image) {
+        Objects.requireNonNull(name, "name");
+        List<Level> levels = new ArrayList<>();
+        GrayImage current = image;
+        while (true) {
+            Level level = Level.of(current);
+            if (level == null) {
+                break;
+            }
+            levels.add(level);
+            if (levels.size() >= MAX_LEVELS
+                    || current.getWidth() / 2 < MIN_LEVEL_SIZE || current.getHeight() / 2 < MIN_LEVEL_SIZE) {
+                break;
+            }
+            current = current.downsample();
+        }
+        if (levels.isEmpty()) {
+            throw new IllegalArgumentException("Template '" + name + "' ist einfarbig und nicht auffindbar");
+        }
+        return new Template(name, levels);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWidth() {
+        return levels.get(0).width;
+    }
+
+    public int getHeight() {
+        return levels.get(0).height;
+    }
+
+    /**
+     * @return Anzahl der Pyramidenstufen (mindestens 1)
+     */
+    int levelCount() {
+        return levels.size();
+    }
+
+    Level level(int index) {
+        return levels.get(index);
+    }
+
+    /** Mittelwertfreies Template einer Pyramidenstufe */
+    static final class Level {
+        final int width;
+        final int height;
+        final float[] zeroMean;
+        final double norm;
+
+        private Level(int width, int height, float[] zeroMean, double norm) {
+            this.width = width;
+            this.height = height;
+            this.zeroMean = zeroMean;
+            this.norm = norm;
+        }
+
+        /**
+         * @return Stufe oder {@code null}, falls das Bild keine Varianz hat
+         */
+        static Level of(GrayImage image) {
+            float[] pixels = image.pixels();
+            double mean = 0;
+            for (float value : pixels) {
+                mean += value;
+            }
+            mean /= pixels.length;
+            float[] zeroMean = new float[pixels.length];
+            double sumSq = 0;
+            for (int i = 0; i < pixels.length; i++) {
+                zeroMean[i] = (float) (pixels[i] - mean);
+                sumSq += (double) zeroMean[i] * zeroMean[i];
+            }
+            if (sumSq < 1e-6) {
+                return null;
+            }
+            return new Level(image.getWidth(), image.getHeight(), zeroMean, Math.sqrt(sumSq));
+        }
+    }
+}
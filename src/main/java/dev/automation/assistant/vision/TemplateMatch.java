@@ -0,0 +1,80 @@
+package dev.automation.assistant.vision;
+
+/**
+ * Fundstelle eines {@link Template}s.
+ * <p>
+ * Koordinaten beziehen sich auf das durchsuchte Bild bzw. bei
+ * {@link ScreenRegionDetector} auf den Bildschirm.
+ * </p>
+ */
+public final class TemplateMatch {
+
+    private final String name;
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    private final double score;
+
+    public TemplateMatch(String name, int x, int y, int width, int height, double score) {
+        this.name = name;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.score = score;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return Normalisierte Kreuzkorrelation (1.0 = identisch)
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * @return X-Koordinate der Mitte (Klickpunkt)
+     */
+    public int getCenterX() {
+        return x + width / 2;
+    }
+
+    /**
+     * @return Y-Koordinate der Mitte (Klickpunkt)
+     */
+    public int getCenterY() {
+        return y + height / 2;
+    }
+
+    /**
+     * @return Kopie mit um ({@code dx}, {@code dy}) verschobener Position
+     */
+    TemplateMatch translate(int dx, int dy) {
+        return new TemplateMatch(name, x + dx, y + dy, width, height, score);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TemplateMatch[%s at (%d, %d) %dx%d, score %.3f]", name, x, y, width, height, score);
+    }
+}
@@ -0,0 +1,287 @@
+package dev.automation.assistant.vision;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Sucht {@link Template}s per normalisierter Kreuzkorrelation (NCC) in einem Bild.
+ * <p>
+ * Ablauf (grob nach fein):
+ * </p>
+ * <ol>
+ *     <li>Auf der groebsten gemeinsamen Pyramidenstufe wird jede Position bewertet. Die Zeilen
+ *     werden per Fork/Join auf alle Kerne verteilt; jede Teilaufgabe liefert ihre besten
+ *     Kandidaten.</li>
+ *     <li>Pro feinerer Stufe wird nur noch die Umgebung (+/-{@value #REFINE_RADIUS} Pixel) der
+ *     hochskalierten Kandidaten untersucht.</li>
+ * </ol>
+ * <p>
+ * Mittelwert und Varianz des Bildausschnitts kommen aus einem {@link IntegralImage}; pro
+ * Position bleibt nur das Skalarprodukt mit dem mittelwertfreien Template.
+ * </p>
+ */
+public class TemplateMatcher {
+
+    /** Suchradius um hochskalierte Kandidaten auf feineren Stufen */
+    static final int REFINE_RADIUS = 2;
+
+    /** So viele Kandidaten werden von der groben Stufe weitergereicht */
+    private static final int CANDIDATES = 5;
+
+    /** Kandidaten auf der groben Stufe duerfen um diesen Betrag unter der Schwelle liegen */
+    private static final double COARSE_SLACK = 0.25;
+
+    /** Mindestanzahl Zeilen pro Fork/Join-Teilaufgabe */
+    private static final int MIN_ROWS_PER_TASK = 8;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Erstellt einen Matcher auf dem gemeinsamen Fork/Join-Pool.
+     */
+    public TemplateMatcher() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool Pool fuer die parallele Suche auf der groben Stufe
+     */
+    public TemplateMatcher(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sucht die beste Fundstelle eines Templates.
+     *
+     * @param frame     Durchsuchtes Bild
+     * @param template  Gesuchtes Template
+     * @param threshold Mindestkorrelation (z. B. 0.9)
+     * @return Fundstelle oder {@code null}, falls keine Position die Schwelle erreicht
+     */
+    public TemplateMatch find(GrayImage frame, Template template, double threshold) {
+        return find(new FramePyramid(frame), template, threshold);
+    }
+
+    TemplateMatch find(FramePyramid frame, Template template, double threshold) {
+        GrayImage base = frame.image(0);
+        if (base.getWidth() < template.getWidth() || base.getHeight() < template.getHeight()) {
+            return null;
+        }
+        int top = template.levelCount() - 1;
+        while (top > 0 && !fits(frame.image(top), template.level(top))) {
+            top--;
+        }
+
+        GrayImage coarse = frame.image(top);
+        Template.Level coarseLevel = template.level(top);
+        Candidates candidates = pool.invoke(new CoarseSearch(coarse, frame.integral(top), coarseLevel,
+                threshold - COARSE_SLACK, 0, coarse.getHeight() - coarseLevel.height + 1));
+
+        for (int level = top - 1; level >= 0; level--) {
+            candidates = refine(frame.image(level), frame.integral(level), template.level(level), candidates);
+        }
+
+        int best = candidates.best();
+        if (best < 0 || candidates.scores[best] < threshold) {
+            return null;
+        }
+        return new TemplateMatch(template.getName(), candidates.xs[best], candidates.ys[best],
+                template.getWidth(), template.getHeight(), candidates.scores[best]);
+    }
+
+    /**
+     * Referenzsuche ohne Pyramide und ohne Parallelisierung: bewertet jede Position der
+     * vollen Aufloesung. Fuer Tests und Benchmarks.
+     */
+    public TemplateMatch findExhaustive(GrayImage frame, Template template, double threshold) {
+        Template.Level level = template.level(0);
+        if (!fits(frame, level)) {
+            return null;
+        }
+        Candidates candidates = new CoarseSearch(frame, new IntegralImage(frame), level, threshold,
+                0, frame.getHeight() - level.height + 1).compute();
+        int best = candidates.best();
+        if (best < 0) {
+            return null;
+        }
+        return new TemplateMatch(template.getName(), candidates.xs[best], candidates.ys[best],
+                level.width, level.height, candidates.scores[best]);
+    }
+
+    private static boolean fits(GrayImage image, Template.Level level) {
+        return image != null && image.getWidth() >= level.width && image.getHeight() >= level.height;
+    }
+
+    private static Candidates refine(GrayImage image, IntegralImage integral, Template.Level level, Candidates coarse) {
+        Candidates refined = new Candidates(-1);
+        int maxX = image.getWidth() - level.width;
+        int maxY = image.getHeight() - level.height;
+        for (int i = 0; i < coarse.size; i++) {
+            int cx = coarse.xs[i] * 2;
+            int cy = coarse.ys[i] * 2;
+            double bestScore = -1;
+            int bestX = 0;
+            int bestY = 0;
+            for (int y = Math.max(0, cy - REFINE_RADIUS); y <= Math.min(maxY, cy + REFINE_RADIUS); y++) {
+                for (int x = Math.max(0, cx - REFINE_RADIUS); x <= Math.min(maxX, cx + REFINE_RADIUS); x++) {
+                    double score = score(image, integral, level, x, y);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        bestX = x;
+                        bestY = y;
+                    }
+                }
+            }
+            if (bestScore > -1) {
+                refined.offer(bestX, bestY, bestScore);
+            }
+        }
+        return refined;
+    }
+
+    /**
+     * Normalisierte Kreuzkorrelation des Templates an Position (x, y).
+     */
+    static double score(GrayImage image, IntegralImage integral, Template.Level level, int x, int y) {
+        int w = level.width;
+        int h = level.height;
+        double n = (double) w * h;
+        double sum = integral.sum(x, y, w, h);
+        double variance = integral.sumOfSquares(x, y, w, h) - sum * sum / n;
+        if (variance < 1e-6) {
+            return 0;
+        }
+        float[] pixels = image.pixels();
+        float[] template = level.zeroMean;
+        int stride = image.getWidth();
+        double dot = 0;
+        for (int row = 0; row < h; row++) {
+            int src = (y + row) * stride + x;
+            int tpl = row * w;
+            float rowDot = 0;
+            for (int col = 0; col < w; col++) {
+                rowDot += pixels[src + col] * template[tpl + col];
+            }
+            dot += rowDot;
+        }
+        return dot / (Math.sqrt(variance) * level.norm);
+    }
+
+    /** Parallele Vollsuche ueber einen Zeilenbereich der groben Stufe */
+    private static final class CoarseSearch extends RecursiveTask<Candidates> {
+        private static final long serialVersionUID = 1L;
+
+        private final GrayImage image;
+        private final IntegralImage integral;
+        private final Template.Level level;
+        private final double minScore;
+        private final int fromRow;
+        private final int toRow;
+
+        private CoarseSearch(GrayImage image, IntegralImage integral, Template.Level level, double minScore,
+                             int fromRow, int toRow) {
+            this.image = image;
+            this.integral = integral;
+            this.level = level;
+            this.minScore = minScore;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected Candidates compute() {
+            if (toRow - fromRow > MIN_ROWS_PER_TASK) {
+                int mid = (fromRow + toRow) >>> 1;
+                CoarseSearch upper = new CoarseSearch(image, integral, level, minScore, fromRow, mid);
+                CoarseSearch lower = new CoarseSearch(image, integral, level, minScore, mid, toRow);
+                upper.fork();
+                Candidates result = lower.compute();
+                result.merge(upper.join());
+                return result;
+            }
+            Candidates result = new Candidates(Math.max(level.width, level.height) / 2);
+            int maxX = image.getWidth() - level.width;
+            for (int y = fromRow; y < toRow; y++) {
+                for (int x = 0; x <= maxX; x++) {
+                    double score = score(image, integral, level, x, y);
+                    if (score >= minScore) {
+                        result.offer(x, y, score);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Die besten {@value #CANDIDATES} Positionen; Nachbarn innerhalb des
+     * Unterdrueckungsradius werden zu einem Kandidaten zusammengefasst.
+     */
+    private static final class Candidates {
+        final int[] xs = new int[CANDIDATES];
+        final int[] ys = new int[CANDIDATES];
+        final double[] scores = new double[CANDIDATES];
+        final int suppression;
+        int size;
+
+        /**
+         * @param suppression Radius, in dem nur der beste Kandidat bleibt (-1 = keine Unterdrueckung)
+         */
+        Candidates(int suppression) {
+            this.suppression = suppression;
+        }
+
+        void offer(int x, int y, double score) {
+            if (suppression >= 0) {
+                for (int i = 0; i < size; i++) {
+                    if (Math.abs(xs[i] - x) <= suppression && Math.abs(ys[i] - y) <= suppression) {
+                        if (score > scores[i]) {
+                            xs[i] = x;
+                            ys[i] = y;
+                            scores[i] = score;
+                        }
+                        return;
+                    }
+                }
+            }
+            int slot;
+            if (size < CANDIDATES) {
+                slot = size++;
+            } else {
+                slot = worst();
+                if (score <= scores[slot]) {
+                    return;
+                }
+            }
+            xs[slot] = x;
+            ys[slot] = y;
+            scores[slot] = score;
+        }
+
+        void merge(Candidates other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.xs[i], other.ys[i], other.scores[i]);
+            }
+        }
+
+        int best() {
+            int best = -1;
+            for (int i = 0; i < size; i++) {
+                if (best < 0 || scores[i] > scores[best]) {
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        private int worst() {
+            int worst = 0;
+            for (int i = 1; i < size; i++) {
+                if (scores[i] < scores[worst]) {
+                    worst = i;
+                }
+            }
+            return worst;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package dev.automation.assistant.vision;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Aenderungsfilter fuer aufeinanderfolgende Bildschirmaufnahmen.
+ * <p>
+ * Das Bild wird in Kacheln zerlegt, fuer jede Kachel wird ein 64-Bit-Hash ueber die
+ * Rohpixel gebildet und mit dem vorherigen Frame verglichen. Unveraenderte Frames
+ * (kein Kachel-Hash anders) koennen so ohne Template-Suche uebersprungen werden; das
+ * Hashen kostet nur einen linearen Durchlauf ueber die Pixel.
+ * </p>
+ */
+public class TileHashGate {
+
+    /** Standard-Kachelgroesse in Pixeln */
+    public static final int DEFAULT_TILE_SIZE = 32;
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final int tileSize;
+    private long[] hashes = new long[0];
+    private long[] previous = new long[0];
+    private int width = -1;
+    private int height = -1;
+    private int[] row = new int[0];
+
+    public TileHashGate() {
+        this(DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * @param tileSize Kantenlaenge einer Kachel in Pixeln
+     */
+    public TileHashGate(int tileSize) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Kachelgroesse muss positiv sein: " + tileSize);
+        }
+        this.tileSize = tileSize;
+    }
+
+    /**
+     * Hasht den Frame und vergleicht ihn mit dem vorherigen.
+     *
+     * @param frame Aktuelle Aufnahme
+     * @return Anzahl geaenderter Kacheln (alle Kacheln beim ersten Frame oder bei neuer Groesse)
+     */
+    public synchronized int update(BufferedImage frame) {
+        int tilesX = (frame.getWidth() + tileSize - 1) / tileSize;
+        int tilesY = (frame.getHeight() + tileSize - 1) / tileSize;
+        boolean resized = frame.getWidth() != width || frame.getHeight() != height;
+        if (resized) {
+            width = frame.getWidth();
+            height = frame.getHeight();
+            hashes = new long[tilesX * tilesY];
+            previous = new long[tilesX * tilesY];
+            row = new int[width];
+        } else {
+            long[] swap = previous;
+            previous = hashes;
+            hashes = swap;
+        }
+        hash(frame, tilesX);
+        if (resized) {
+            return hashes.length;
+        }
+        int changed = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            if (hashes[i] != previous[i]) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Vergisst den letzten Frame; der naechste gilt wieder als vollstaendig geaendert.
+     */
+    public synchronized void reset() {
+        width = -1;
+        height = -1;
+    }
+
+    private void hash(BufferedImage frame, int tilesX) {
+        Arrays.fill(hashes, FNV_OFFSET);
+        int[] direct = GrayImage.directPixels(frame);
+        for (int y = 0; y < height; y++) {
+            int[] pixels;
+            int offset;
+            if (direct != null) {
+                pixels = direct;
+                offset = y * width;
+            } else {
+                frame.getRGB(0, y, width, 1, row, 0, width);
+                pixels = row;
+                offset = 0;
+            }
+            int tileRow = (y / tileSize) * tilesX;
+            for (int tx = 0; tx < tilesX; tx++) {
+                int from = tx * tileSize;
+                int to = Math.min(width, from + tileSize);
+                long h = hashes[tileRow + tx];
+                for (int x = from; x < to; x++) {
+                    h = (h ^ pixels[offset + x]) * FNV_PRIME;
+                }
+                hashes[tileRow + tx] = h;
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package dev.automation.assistant.action;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer den {@link ActionDispatcher}.
+ */
+public class ActionDispatcherTest {
+
+    @Test
+    @DisplayName("ActionDispatcher: Maus-Aktionen werden nie gleichzeitig ausgefuehrt")
+    void testMouseLaneIsSerialized() {
+        ActionDispatcher dispatcher = new ActionDispatcher(4, 64, OverflowPolicy.BLOCK);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        for (int i = 0; i < 20; i++) {
+            dispatcher.submit(AutomationAction.mouse("klick-" + i, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(2);
+                running.decrementAndGet();
+            }));
+        }
+
+        assertTrue(dispatcher.shutdown(5_000));
+        assertEquals(1, maxRunning.get());
+        assertEquals(20, dispatcher.getCompleted());
+    }
+
+    @Test
+    @DisplayName("ActionDispatcher: Handle-Aktionen laufen parallel")
+    void testHandleLaneRunsInParallel() {
+        ActionDispatcher dispatcher = new ActionDispatcher(4, 64, OverflowPolicy.BLOCK);
+        CyclicBarrier barrier = new CyclicBarrier(4);
+
+        for (int i = 0; i < 4; i++) {
+            dispatcher.submit(AutomationAction.handle("send-" + i, () -> barrier.await(2, TimeUnit.SECONDS)));
+        }
+
+        assertTrue(dispatcher.shutdown(5_000));
+        assertEquals(4, dispatcher.getCompleted(), "Alle vier Aktionen muessen gleichzeitig die Barriere erreichen");
+        assertEquals(0, dispatcher.getFailed());
+    }
+
+    @Test
+    @DisplayName("ActionDispatcher: DROP_NEWEST verwirft neue Aktionen bei voller Warteschlange")
+    void testDropNewest() throws InterruptedException {
+        ActionDispatcher dispatcher = new ActionDispatcher(1, 2, OverflowPolicy.DROP_NEWEST);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+
+        dispatcher.submit(AutomationAction.handle("blocker", () -> {
+            started.countDown();
+            release.await();
+        }));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            int n = i;
+            dispatcher.submit(AutomationAction.handle("a-" + i, () -> executed.add(n)));
+        }
+
+        assertEquals(2, dispatcher.getQueueDepth());
+        assertEquals(3, dispatcher.getDropped());
+        release.countDown();
+        assertTrue(dispatcher.shutdown(5_000));
+        assertEquals(List.of(0, 1), executed);
+    }
+
+    @Test
+    @DisplayName("ActionDispatcher: DROP_OLDEST behaelt die neuesten Aktionen")
+    void testDropOldest() throws InterruptedException {
+        ActionDispatcher dispatcher = new ActionDispatcher(1, 2, OverflowPolicy.DROP_OLDEST);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+
+        dispatcher.submit(AutomationAction.handle("blocker", () -> {
+            started.countDown();
+            release.await();
+        }));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            int n = i;
+            dispatcher.submit(AutomationAction.handle("a-" + i, () -> executed.add(n)));
+        }
+
+        assertEquals(3, dispatcher.getDropped());
+        release.countDown();
+        assertTrue(dispatcher.shutdown(5_000));
+        assertEquals(List.of(3, 4), executed);
+    }
+
+    @Test
+    @DisplayName("ActionDispatcher: BLOCK haelt den Aufrufer bis Platz frei ist")
+    void testBlockBackpressure() throws InterruptedException {
+        ActionDispatcher dispatcher = new ActionDispatcher(1, 1, OverflowPolicy.BLOCK);
+        CountDownLatch started = new CountDownLatch(1);
+
+        dispatcher.submit(AutomationAction.handle("blocker", () -> {
+            started.countDown();
+            Thread.sleep(200);
+        }));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        dispatcher.submit(AutomationAction.handle("wartend", () -> { }));
+
+        long start = System.nanoTime();
+        dispatcher.submit(AutomationAction.handle("blockiert", () -> { }));
+        long blockedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(blockedMs >= 50, "Aufrufer haette blockiert werden muessen: " + blockedMs + " ms");
+        assertTrue(dispatcher.shutdown(5_000));
+        assertEquals(0, dispatcher.getDropped());
+        assertEquals(3, dispatcher.getCompleted());
+        assertTrue(dispatcher.getMaxDispatchLatencyNanos() > 0);
+    }
+
+    @Test
+    @DisplayName("ActionDispatcher: Fehler und verzoegerte Aktionen werden gezaehlt")
+    void testFailuresAndDelayedActions() throws InterruptedException {
+        ActionDispatcher dispatcher = new ActionDispatcher(2, 8, OverflowPolicy.BLOCK);
+        CountDownLatch delayed = new CountDownLatch(1);
+
+        dispatcher.submit(AutomationAction.handle("kaputt", () -> {
+            throw new IllegalStateException("Test");
+        }));
+        long start = System.nanoTime();
+        dispatcher.submitDelayed(AutomationAction.handle("spaeter", delayed::countDown), 50);
+
+        assertTrue(delayed.await(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 45);
+        assertTrue(dispatcher.shutdown(5_000));
+        assertEquals(1, dispatcher.getFailed());
+        assertEquals(1, dispatcher.getCompleted());
+        assertEquals(2, dispatcher.getSubmitted());
+    }
+}
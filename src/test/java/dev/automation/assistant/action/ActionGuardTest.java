@@ -0,0 +1,165 @@
+package dev.automation.assistant.action;
+
+import dev.automation.assistant.metrics.AutomationMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer {@link TokenBucket}, {@link CircuitBreaker} und {@link ActionGuard}.
+ * Die Zeit wird ueber die paketinternen Methoden mit festem Zeitstempel vorgegeben.
+ */
+public class ActionGuardTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("TokenBucket: Burst, Nachfuellen und Obergrenze")
+    void testTokenBucket() {
+        long now = System.nanoTime();
+        TokenBucket bucket = new TokenBucket(10, 3);
+        assertEquals(3, bucket.available(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now));
+
+        // 10/s: nach 100 ms genau ein neues Token
+        assertTrue(bucket.tryAcquire(now + 100 * MS));
+        assertFalse(bucket.tryAcquire(now + 100 * MS));
+
+        // Nach langer Pause nie mehr als der Burst
+        assertEquals(3, bucket.available(now + 10_000 * MS));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+    }
+
+    @Test
+    @DisplayName("TokenBucket: parallele Aufrufer erhalten zusammen genau den Burst")
+    void testTokenBucketConcurrent() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(0.001, 1000);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire()) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1000, granted.get());
+    }
+
+    @Test
+    @DisplayName("CircuitBreaker: oeffnet bei wiederholten Aktionen, Sperrzeit waechst exponentiell")
+    void testBreakerBackoff() {
+        AutomationMetrics metrics = new AutomationMetrics();
+        CircuitBreaker breaker = new CircuitBreaker("fehler", 3, 2, 1000, 100, 350, metrics);
+        long now = System.nanoTime() + 1000 * MS;
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire(now + i * MS));
+        }
+        assertFalse(breaker.tryAcquire(now + 3 * MS), "vierter Versuch oeffnet");
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(now + 50 * MS));
+        assertFalse(breaker.tryAcquire(now + 50 * MS));
+        assertEquals(1, breaker.getTrips());
+
+        // Nach 100 ms halb offen: ein Versuch erlaubt, der zweite oeffnet mit 200 ms
+        now += 103 * MS;
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(now));
+        assertTrue(breaker.tryAcquire(now));
+        assertFalse(breaker.tryAcquire(now + MS));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(now + 200 * MS));
+        assertNotEquals(CircuitBreaker.State.OPEN, breaker.getState(now + 202 * MS));
+
+        // Dritte Ausloesung: 400 ms, begrenzt auf 350 ms
+        now += 201 * MS;
+        assertTrue(breaker.tryAcquire(now));
+        assertFalse(breaker.tryAcquire(now));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(now + 349 * MS));
+        assertNotEquals(CircuitBreaker.State.OPEN, breaker.getState(now + 351 * MS));
+        assertEquals(3, metrics.getCircuitTrips());
+
+        // Ein ruhiges Fenster schliesst den Schalter und setzt die Sperrzeit zurueck
+        now += 351 * MS + 1000 * MS;
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(now));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire(now));
+        }
+        assertFalse(breaker.tryAcquire(now));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(now + 99 * MS));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(now + 1101 * MS));
+    }
+
+    @Test
+    @DisplayName("CircuitBreaker: Fehlschlaege oeffnen, altes Fenster verfaellt")
+    void testBreakerFailures() {
+        CircuitBreaker breaker = new CircuitBreaker("klick", 100, 2, 1000, 100, 1000, null);
+        long now = System.nanoTime() + 1000 * MS;
+
+        assertTrue(breaker.tryAcquire(now));
+        breaker.recordFailure(now);
+        // Naechstes Fenster: Zaehler beginnen neu
+        assertTrue(breaker.tryAcquire(now + 1500 * MS));
+        breaker.recordFailure(now + 1500 * MS);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(now + 1500 * MS));
+        breaker.recordFailure(now + 1600 * MS);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(now + 1600 * MS));
+        assertFalse(breaker.tryAcquire(now + 1650 * MS));
+    }
+
+    @Test
+    @DisplayName("ActionGuard: Regel- und Gesamtlimit, Sturm einer Regel sperrt nur diese")
+    void testGuard() {
+        AutomationMetrics metrics = new AutomationMetrics();
+        ActionGuard guard = new ActionGuard(3, 2, 5, 3, 1000, 1000, 5000, metrics);
+        long now = System.nanoTime() + 1000 * MS;
+
+        assertEquals(ActionGuard.Decision.ALLOWED, guard.tryAcquire("a", now));
+        assertEquals(ActionGuard.Decision.ALLOWED, guard.tryAcquire("a", now));
+        assertEquals(ActionGuard.Decision.RATE_LIMITED, guard.tryAcquire("a", now));
+        assertEquals(ActionGuard.Decision.ALLOWED, guard.tryAcquire("b", now));
+        // Gesamtlimit 3 erreicht
+        assertEquals(ActionGuard.Decision.RATE_LIMITED, guard.tryAcquire("c", now));
+        assertEquals(2, metrics.getRateLimited());
+
+        // Auch gedrosselte Versuche zaehlen fuer den Schutzschalter von "a"
+        guard.tryAcquire("a", now + MS);
+        guard.tryAcquire("a", now + 2 * MS);
+        assertEquals(ActionGuard.Decision.CIRCUIT_OPEN, guard.tryAcquire("a", now + 3 * MS));
+        assertEquals(ActionGuard.Decision.CIRCUIT_OPEN, guard.tryAcquire("a", now + 600 * MS));
+        assertEquals(ActionGuard.Decision.ALLOWED, guard.tryAcquire("b", now + 600 * MS));
+        assertEquals(1, metrics.getCircuitTrips());
+        assertEquals(2, metrics.getCircuitRejected());
+        assertEquals(CircuitBreaker.State.OPEN, guard.getState("a"));
+        assertEquals(1, metrics.getOpenCircuits());
+
+        guard.recordResult("b", false, now + 700 * MS);
+        guard.recordResult("b", false, now + 700 * MS);
+        guard.recordResult("b", false, now + 700 * MS);
+        assertEquals(ActionGuard.Decision.CIRCUIT_OPEN, guard.tryAcquire("b", now + 701 * MS));
+        assertEquals(2, metrics.getOpenCircuits());
+        assertEquals(CircuitBreaker.State.CLOSED, guard.getState("unbekannt"));
+    }
+}
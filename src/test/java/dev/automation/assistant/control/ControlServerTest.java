@@ -0,0 +1,335 @@
+package dev.automation.assistant.control;
+
+import dev.automation.assistant.daemon.AutomationDaemon;
+import dev.automation.assistant.daemon.DaemonConfig;
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import dev.automation.assistant.rules.AutomationRule;
+import dev.automation.assistant.rules.RuleStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer den {@link ControlServer} gegen localhost.
+ * <p>
+ * Die gesteuerte Anwendung ist ein einfacher Fake, damit nur Protokoll und Event-Loop
+ * geprueft werden. Nur die Pruefung ungueltiger Regeln laeuft gegen einen echten
+ * {@link AutomationDaemon} mit Regeljournal.
+ * </p>
+ */
+public class ControlServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FakeControl control;
+    private ControlServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        control = new FakeControl();
+        server = ControlServer.loopback(control, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Bindung: nur Loopback, freier Port")
+    void testBindsLoopback() {
+        assertTrue(server.isRunning());
+        assertTrue(server.getPort() > 0);
+    }
+
+    @Test
+    @DisplayName("Protokoll: Regeln pflegen, Ueberwachung steuern, Kennzahlen lesen")
+    void testCommands() throws IOException {
+        try (Client client = new Client(server.getPort())) {
+            assertEquals(List.of("OK PONG"), client.call("PING"));
+            assertEquals(List.of("OK 0"), client.call("RULES"));
+
+            assertEquals(List.of("OK hinzugefuegt"), client.call("ADD r1 prefix close 0 0 Speichern unter"));
+            assertEquals(List.of("OK hinzugefuegt"), client.call("ADD r2 EXACT CLICK_POSITION 10 20 Fehler"));
+            assertEquals(List.of("* r1\tPREFIX\tCLOSE\t0\t0\tSpeichern unter",
+                    "* r2\tEXACT\tCLICK_POSITION\t10\t20\tFehler", "OK 2"), client.call("RULES"));
+
+            assertEquals(List.of("OK entfernt"), client.call("REMOVE r1"));
+            assertTrue(client.call("REMOVE r1").get(0).startsWith("ERR "));
+            assertTrue(client.call("ADD r3 GLOB").get(0).startsWith("ERR "));
+            assertTrue(client.call("ADD r3 RAETSEL CLOSE 0 0 x").get(0).startsWith("ERR "));
+            assertTrue(client.call("FLIEG").get(0).startsWith("ERR "));
+            assertEquals(1, control.rules.size());
+
+            assertEquals(List.of("OK stopped"), client.call("STATUS"));
+            assertEquals(List.of("OK gestartet"), client.call("START"));
+            assertEquals(List.of("OK unveraendert"), client.call("start"));
+            assertEquals(List.of("OK running"), client.call("STATUS"));
+            assertEquals(List.of("OK gestoppt"), client.call("STOP"));
+
+            control.metrics.recordDetection(2_000_000);
+            control.metrics.recordAction(1_000_000, true);
+            List<String> stats = client.call("STATS");
+            assertEquals("OK " + (stats.size() - 1), stats.get(stats.size() - 1));
+            assertTrue(stats.contains("* detections 1"), stats.toString());
+            assertTrue(stats.contains("* actions 1"), stats.toString());
+            assertTrue(stats.contains("* controlClients 1"), stats.toString());
+
+            assertEquals(List.of("OK bye"), client.call("QUIT"));
+            assertEquals(-1, client.reader.read());
+        }
+    }
+
+    @Test
+    @DisplayName("Daemon: ungueltiger regulaerer Ausdruck wird abgewiesen und nicht gespeichert")
+    void testInvalidRegexNotPersisted() throws IOException {
+        Path journal = tempDir.resolve("rules.journal");
+        Properties props = new Properties();
+        props.setProperty(DaemonConfig.RULES_FILE, journal.toString());
+        DaemonConfig config = DaemonConfig.of(props, tempDir);
+
+        try (AutomationDaemon daemon = new AutomationDaemon(config, new InMemoryWindowBackend(), new AutomationMetrics());
+             ControlServer daemonServer = ControlServer.loopback(daemon, 0)) {
+            daemon.loadRules();
+            daemonServer.start();
+            try (Client client = new Client(daemonServer.getPort())) {
+                assertEquals(List.of("OK hinzugefuegt"), client.call("ADD gut REGEX CLOSE 0 0 ^Fehler$"));
+                assertTrue(client.call("ADD r REGEX CLOSE 0 0 [abc").get(0).startsWith("ERR "));
+                assertEquals(List.of("* gut\tREGEX\tCLOSE\t0\t0\t^Fehler$", "OK 1"), client.call("RULES"));
+                // Weitere Aenderungen bleiben moeglich
+                assertEquals(List.of("OK hinzugefuegt"), client.call("ADD neu EXACT CLOSE 0 0 Neu"));
+                assertEquals(List.of("OK entfernt"), client.call("REMOVE neu"));
+            }
+            assertEquals(1, daemon.getRuleIndex().size());
+        }
+
+        try (RuleStore store = RuleStore.open(journal)) {
+            assertNull(store.get("r"));
+            assertEquals(1, store.getRules().size());
+        }
+        try (AutomationDaemon restarted = new AutomationDaemon(config, new InMemoryWindowBackend(), new AutomationMetrics())) {
+            assertEquals(1, restarted.loadRules());
+        }
+    }
+
+    @Test
+    @DisplayName("Protokoll: mehrere Befehle in einem Paket und Umlaute")
+    void testPipelinedAndUtf8() throws IOException {
+        try (Client client = new Client(server.getPort())) {
+            client.out.write("PING\r\nADD u EXACT CLOSE 0 0 Datei öffnen – 📄\nRULES\n"
+                    .getBytes(StandardCharsets.UTF_8));
+            client.out.flush();
+            assertEquals(List.of("OK PONG"), client.readResponse());
+            assertEquals(List.of("OK hinzugefuegt"), client.readResponse());
+            assertEquals(List.of("* u\tEXACT\tCLOSE\t0\t0\tDatei öffnen – 📄", "OK 1"),
+                    client.readResponse());
+        }
+    }
+
+    @Test
+    @DisplayName("Schutz: zu lange Zeile beendet die Verbindung")
+    void testLineTooLong() throws IOException {
+        try (Client client = new Client(server.getPort())) {
+            client.out.write(new byte[ControlServer.MAX_LINE]);
+            client.out.flush();
+            assertTrue(client.readResponse().get(0).startsWith("ERR "));
+            assertEquals(-1, client.reader.read());
+        }
+        try (Client client = new Client(server.getPort())) {
+            assertEquals(List.of("OK PONG"), client.call("PING"));
+        }
+    }
+
+    @Test
+    @DisplayName("Gegendruck: ohne Abholen der Antworten werden keine weiteren Befehle ausgefuehrt")
+    void testBackpressure() throws Exception {
+        int rules = 100;
+        int pipelined = 1000;
+        try (Client client = new Client(server.getPort())) {
+            for (int i = 0; i < rules; i++) {
+                client.call("ADD r" + i + " EXACT CLOSE 0 0 " + "x".repeat(200));
+            }
+        }
+        long before = server.getCommands();
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(8192);
+            socket.setSoTimeout(10_000);
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+            socket.getOutputStream().write("RULES\n".repeat(pipelined).getBytes(StandardCharsets.UTF_8));
+            socket.getOutputStream().flush();
+            Thread.sleep(500);
+            assertTrue(server.getCommands() - before < pipelined,
+                    "Server fuehrt Befehle aus, obwohl der Client nicht liest");
+            try (Client other = new Client(server.getPort())) {
+                assertEquals(List.of("OK PONG"), other.call("PING"));
+            }
+
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            int answers = 0;
+            String line;
+            while (answers < pipelined && (line = reader.readLine()) != null) {
+                if (line.startsWith("OK ")) {
+                    assertEquals("OK " + rules, line);
+                    answers++;
+                }
+            }
+            assertEquals(pipelined, answers);
+        }
+    }
+
+    @Test
+    @DisplayName("Last: viele gleichzeitige Clients auf einem Event-Loop")
+    void testManyClients() throws Exception {
+        int clients = 50;
+        int requests = 100;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                results.add(pool.submit(() -> {
+                    int ok = 0;
+                    try (Client client = new Client(server.getPort())) {
+                        for (int i = 0; i < requests; i++) {
+                            if (client.call(i % 2 == 0 ? "PING" : "STATUS").get(0).startsWith("OK ")) {
+                                ok++;
+                            }
+                        }
+                    }
+                    return ok;
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(requests, result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.println(clients * requests + " Anfragen von " + clients + " Clients in " + elapsedMs + " ms");
+        assertTrue(server.getCommands() >= (long) clients * requests);
+    }
+
+    @Test
+    @DisplayName("Beenden: Port wird freigegeben, Verbindungen geschlossen")
+    void testClose() throws IOException {
+        int port = server.getPort();
+        try (Client client = new Client(port)) {
+            assertEquals(List.of("OK PONG"), client.call("PING"));
+            server.close();
+            assertFalse(server.isRunning());
+            assertEquals(-1, client.reader.read());
+        }
+        assertThrows(IOException.class, () -> new Socket(InetAddress.getLoopbackAddress(), port).close());
+    }
+
+    /** Blockierender Testclient fuer das Zeilenprotokoll */
+    private static final class Client implements AutoCloseable {
+        private final Socket socket;
+        private final OutputStream out;
+        private final BufferedReader reader;
+
+        private Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setSoTimeout(10_000);
+            out = socket.getOutputStream();
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        private List<String> call(String command) throws IOException {
+            out.write((command + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            return readResponse();
+        }
+
+        private List<String> readResponse() throws IOException {
+            List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                if (line.startsWith("OK") || line.startsWith("ERR")) {
+                    break;
+                }
+            }
+            return lines;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /** Gesteuerte Anwendung ohne Fensterzugriff */
+    private static final class FakeControl implements AutomationControl {
+        private final Map<String, AutomationRule> rules = new LinkedHashMap<>();
+        private final AutomationMetrics metrics = new AutomationMetrics();
+        private volatile boolean monitoring;
+
+        @Override
+        public synchronized List<AutomationRule> getRules() {
+            return new ArrayList<>(rules.values());
+        }
+
+        @Override
+        public synchronized void putRule(AutomationRule rule) {
+            rules.put(rule.getId(), rule);
+        }
+
+        @Override
+        public synchronized boolean removeRule(String id) {
+            return rules.remove(id) != null;
+        }
+
+        @Override
+        public boolean startMonitoring() {
+            boolean changed = !monitoring;
+            monitoring = true;
+            return changed;
+        }
+
+        @Override
+        public boolean stopMonitoring() {
+            boolean changed = monitoring;
+            monitoring = false;
+            return changed;
+        }
+
+        @Override
+        public boolean isMonitoring() {
+            return monitoring;
+        }
+
+        @Override
+        public AutomationMetrics getMetrics() {
+            return metrics;
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package dev.automation.assistant.daemon;
+
+import dev.automation.assistant.action.CircuitBreaker;
+import dev.automation.assistant.macro.MacroCompiler;
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.platform.InMemoryProcessBackend;
+import dev.automation.assistant.platform.InMemoryWindowActions;
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import dev.automation.assistant.rules.ActionType;
+import dev.automation.assistant.rules.AutomationRule;
+import dev.automation.assistant.rules.MatchType;
+import dev.automation.assistant.rules.RuleStore;
+import dev.automation.assistant.util.LoggingProfile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer den {@link AutomationDaemon} und seine {@link DaemonConfig}.
+ * <p>
+ * Misst die Startzeit bis zur ersten ausgefuehrten Regel und prueft in einer
+ * separaten JVM, dass der Pruefmodus weder AWT noch Swing laedt.
+ * </p>
+ */
+public class AutomationDaemonTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Konfiguration: relative Pfade, Standardwerte und ungueltige Werte")
+    void testConfig() throws IOException {
+        Path file = tempDir.resolve("daemon.properties");
+        Files.writeString(file, "rules.file=data/rules.journal\npoll.interval.ms=100\n", StandardCharsets.UTF_8);
+
+        DaemonConfig config = DaemonConfig.load(file);
+        assertEquals(tempDir.resolve("data/rules.journal").toAbsolutePath(), config.getRulesFile());
+        assertEquals(tempDir.resolve("logs/automation-daemon.log").toAbsolutePath(), config.getLogFile());
+        assertEquals(LoggingProfile.PRODUCTION, config.getLogProfile());
+        assertEquals(100, config.getPollIntervalMs());
+        assertEquals(4, config.getHandleWorkers());
+
+        Properties invalid = new Properties();
+        invalid.setProperty(DaemonConfig.POLL_INTERVAL_MS, "0");
+        assertThrows(IllegalArgumentException.class, () -> DaemonConfig.of(invalid, tempDir));
+        invalid.setProperty(DaemonConfig.POLL_INTERVAL_MS, "100");
+        invalid.setProperty(DaemonConfig.LOG_PROFILE, "laut");
+        assertThrows(IllegalArgumentException.class, () -> DaemonConfig.of(invalid, tempDir));
+        invalid.setProperty(DaemonConfig.LOG_PROFILE, "default");
+        invalid.setProperty(DaemonConfig.CONTROL_PORT, "70000");
+        assertThrows(IllegalArgumentException.class, () -> DaemonConfig.of(invalid, tempDir));
+        assertEquals(-1, config.getControlPort());
+    }
+
+    @Test
+    @DisplayName("Start: erste Regel wird kurz nach dem Start ausgefuehrt")
+    void testStartupToFirstAction() throws Exception {
+        Path rules = tempDir.resolve("rules.journal");
+        try (RuleStore store = RuleStore.open(rules)) {
+            store.put(AutomationRule.close("Fehler"));
+            store.put(AutomationRule.clickAt("Speichern?", 10, 20));
+        }
+        Properties props = new Properties();
+        props.setProperty(DaemonConfig.RULES_FILE, rules.toString());
+        props.setProperty(DaemonConfig.POLL_INTERVAL_MS, "20");
+        DaemonConfig config = DaemonConfig.of(props, tempDir);
+
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        backend.openWindow("Editor");
+        backend.openWindow("Fehler");
+
+        List<String> executed = new CopyOnWriteArrayList<>();
+        CountDownLatch firstAction = new CountDownLatch(1);
+        long start = System.nanoTime();
+        try (AutomationDaemon daemon = new AutomationDaemon(config, backend, new AutomationMetrics()) {
+            @Override
+            protected void executeRule(AutomationRule rule, long handle, String title) {
+                executed.add(rule.getId());
+                firstAction.countDown();
+            }
+        }) {
+            daemon.start();
+            assertTrue(firstAction.await(2, TimeUnit.SECONDS), "Keine Aktion nach dem Start");
+            long startupMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            System.out.println("Start bis zur ersten Aktion: " + startupMs + " ms");
+            assertTrue(startupMs < 1000, "Start dauerte " + startupMs + " ms");
+
+            assertTrue(daemon.isRunning());
+            assertEquals(2, daemon.getRuleIndex().size());
+            assertEquals(List.of("Fehler"), executed);
+        }
+    }
+
+    @Test
+    @DisplayName("Regeldatei: Aenderungen greifen ohne Neustart der Ueberwachung")
+    void testRuleFileHotReload() throws Exception {
+        Path ruleFile = tempDir.resolve("regeln.txt");
+        Files.writeString(ruleFile, "fehler | EXACT | CLOSE | 0 | 0 | Fehler\n", StandardCharsets.UTF_8);
+        try (RuleStore store = RuleStore.open(tempDir.resolve("rules.journal"))) {
+            store.put(AutomationRule.clickAt("Speichern?", 10, 20));
+        }
+        Properties props = new Properties();
+        props.setProperty(DaemonConfig.RULES_FILE, "rules.journal");
+        props.setProperty(DaemonConfig.RULES_WATCH_FILE, "regeln.txt");
+        props.setProperty(DaemonConfig.POLL_INTERVAL_MS, "20");
+        DaemonConfig config = DaemonConfig.of(props, tempDir);
+        assertEquals(ruleFile.toAbsolutePath(), config.getRulesWatchFile());
+
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        List<String> executed = new CopyOnWriteArrayList<>();
+        AutomationMetrics metrics = new AutomationMetrics();
+        try (AutomationDaemon daemon = new AutomationDaemon(config, backend, metrics) {
+            @Override
+            protected void executeRule(AutomationRule rule, long handle, String title) {
+                executed.add(rule.getId());
+            }
+        }) {
+            daemon.start();
+            assertEquals(2, daemon.getRuleIndex().size());
+
+            Files.writeString(ruleFile, "fehler | EXACT | CLOSE | 0 | 0 | Fehler\n"
+                    + "update | PREFIX | CLOSE | 0 | 0 | Update\n", StandardCharsets.UTF_8);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (daemon.getRuleIndex().size() != 3) {
+                assertTrue(System.currentTimeMillis() < deadline, "Regeldatei nicht neu geladen");
+                Thread.sleep(10);
+            }
+            assertTrue(daemon.isRunning());
+            assertTrue(metrics.getRuleReloads() >= 2);
+
+            backend.openWindow("Update verfuegbar");
+            deadline = System.currentTimeMillis() + 2000;
+            while (!executed.contains("update")) {
+                assertTrue(System.currentTimeMillis() < deadline, "Neue Regel wurde nicht angewendet");
+                Thread.sleep(10);
+            }
+
+            // Ungueltige Datei: bisheriger Stand bleibt aktiv
+            Files.writeString(ruleFile, "update | PREFIX | CLOSE | x | 0 | Update\n", StandardCharsets.UTF_8);
+            deadline = System.currentTimeMillis() + 5000;
+            while (metrics.getRuleReloadFailures() == 0) {
+                assertTrue(System.currentTimeMillis() < deadline, "Fehler nicht erkannt");
+                Thread.sleep(10);
+            }
+            assertEquals(3, daemon.getRuleIndex().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Makro-Regel: Regel aus dem Journal startet ihr Makro auf dem erkannten Fenster")
+    void testMacroRule() throws Exception {
+        Path rules = tempDir.resolve("rules.journal");
+        try (RuleStore store = RuleStore.open(rules)) {
+            store.put(AutomationRule.macro("speichern", MatchType.EXACT, "Speichern?",
+                    MacroCompiler.compile("keys \"ja{ENTER}\"; close")));
+        }
+        Properties props = new Properties();
+        props.setProperty(DaemonConfig.RULES_FILE, rules.toString());
+        props.setProperty(DaemonConfig.POLL_INTERVAL_MS, "10");
+        DaemonConfig config = DaemonConfig.of(props, tempDir);
+
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        InMemoryWindowActions actions = new InMemoryWindowActions(backend);
+        AutomationMetrics metrics = new AutomationMetrics();
+        try (AutomationDaemon daemon = new AutomationDaemon(config, backend, new InMemoryProcessBackend(),
+                actions, metrics)) {
+            daemon.start();
+            long dialog = backend.openWindow("Speichern?");
+            long deadline = System.currentTimeMillis() + 2000;
+            while (metrics.getActions() == 0) {
+                assertTrue(System.currentTimeMillis() < deadline, "Makro wurde nicht ausgefuehrt");
+                Thread.sleep(5);
+            }
+            assertEquals("ja\r", actions.getTypedText(dialog));
+            assertFalse(backend.isWindow(dialog));
+            assertEquals(1, actions.getCloses());
+            assertEquals(0, metrics.getFailures());
+        }
+    }
+
+    @Test
+    @DisplayName("Handle-Wiederverwendung: neuer Dialog desselben Prozesses mit altem Handle wird erneut behandelt")
+    void testReusedHandleSameProcess() throws Exception {
+        Path rules = tempDir.resolve("rules.journal");
+        try (RuleStore store = RuleStore.open(rules)) {
+            store.put(AutomationRule.close("Fehler"));
+        }
+        Properties props = new Properties();
+        props.setProperty(DaemonConfig.RULES_FILE, rules.toString());
+        props.setProperty(DaemonConfig.POLL_INTERVAL_MS, "10");
+        DaemonConfig config = DaemonConfig.of(props, tempDir);
+
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        List<Long> executed = new CopyOnWriteArrayList<>();
+        try (AutomationDaemon daemon = new AutomationDaemon(config, backend, new AutomationMetrics()) {
+            @Override
+            protected void executeRule(AutomationRule rule, long handle, String title) {
+                executed.add(handle);
+            }
+        }) {
+            daemon.start();
+            backend.openWindow(7, "Fehler");
+            backend.setProcessId(7, 100);
+            long deadline = System.currentTimeMillis() + 2000;
+            while (executed.isEmpty()) {
+                assertTrue(System.currentTimeMillis() < deadline, "Erster Dialog nicht behandelt");
+                Thread.sleep(5);
+            }
+
+            // Der Dialog schliesst, ein neuer Dialog desselben Prozesses und derselben Klasse erhaelt das Handle
+            backend.closeWindow(7);
+            Thread.sleep(100);
+            backend.openWindow(7, "Fehler");
+            backend.setProcessId(7, 100);
+            deadline = System.currentTimeMillis() + 2000;
+            while (executed.size() < 2) {
+                assertTrue(System.currentTimeMillis() < deadline, "Wiederverwendetes Handle wurde unterdrueckt");
+                Thread.sleep(5);
+            }
+            assertEquals(List.of(7L, 7L), executed);
+        }
+    }
+
+    @Test
+    @DisplayName("Drosselung: eine Dialogschleife loest nur wenige Aktionen aus")
+    void testActionStormIsThrottled() throws Exception {
+        Path rules = tempDir.resolve("rules.journal");
+        try (RuleStore store = RuleStore.open(rules)) {
+            store.put(AutomationRule.close("Fehler"));
+        }
+        Properties props = new Properties();
+        props.setProperty(DaemonConfig.RULES_FILE, rules.toString());
+        props.setProperty(DaemonConfig.POLL_INTERVAL_MS, "20");
+        props.setProperty(DaemonConfig.ACTION_RATE_RULE, "2");
+        props.setProperty(DaemonConfig.ACTION_BREAKER_REPEATS, "5");
+        DaemonConfig config = DaemonConfig.of(props, tempDir);
+
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        List<String> executed = new CopyOnWriteArrayList<>();
+        AutomationMetrics metrics = new AutomationMetrics();
+        try (AutomationDaemon daemon = new AutomationDaemon(config, backend, metrics) {
+            @Override
+            protected void executeRule(AutomationRule rule, long handle, String title) {
+                executed.add(title);
+            }
+        }) {
+            daemon.start();
+            for (int i = 0; i < 30; i++) {
+                backend.openWindow("Fehler");
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (executed.size() + metrics.getRateLimited() + metrics.getCircuitRejected() < 30) {
+                assertTrue(System.currentTimeMillis() < deadline, "Nicht alle Fenster verarbeitet");
+                Thread.sleep(10);
+            }
+            assertTrue(executed.size() <= 3, "Ausgefuehrt: " + executed.size());
+            assertEquals(1, metrics.getCircuitTrips());
+            assertEquals(1, metrics.getOpenCircuits());
+            assertEquals(CircuitBreaker.State.OPEN, daemon.getActionGuard().getState(AutomationRule.close("Fehler").getId()));
+        }
+    }
+
+    @Test
+    @DisplayName("Regelstand: ungueltiger Satz aendert nichts, gueltiger wird in einem Schritt geschrieben")
+    void testApplyRules() throws Exception {
+        Path journal = tempDir.resolve("rules.journal");
+        Properties props = new Properties();
+        props.setProperty(DaemonConfig.RULES_FILE, journal.toString());
+        DaemonConfig config = DaemonConfig.of(props, tempDir);
+        AutomationRule fehler = AutomationRule.close("Fehler");
+        AutomationRule update = AutomationRule.clickAt("Update", 1, 2);
+        AutomationRule broken = new AutomationRule("kaputt", MatchType.REGEX, "[abc", ActionType.CLOSE, 0, 0);
+
+        try (AutomationDaemon daemon = new AutomationDaemon(config, new InMemoryWindowBackend(),
+                new AutomationMetrics())) {
+            daemon.putRule(fehler);
+            assertThrows(IllegalArgumentException.class,
+                    () -> daemon.applyRules(true, List.of(update, broken), List.of()));
+            assertEquals(List.of(fehler), daemon.getRules());
+            assertEquals(1, daemon.getRuleIndex().size());
+
+            daemon.applyRules(true, List.of(update), List.of());
+            assertEquals(List.of(update), daemon.getRules());
+            assertEquals(1, daemon.getRuleIndex().size());
+        }
+        try (RuleStore store = RuleStore.open(journal)) {
+            assertEquals(List.of(update), store.getRules());
+            assertEquals(3, store.getJournalRecords());
+        }
+    }
+
+    @Test
+    @DisplayName("Steuerschnittstelle: Regeln ueber localhost pflegen und Ueberwachung steuern")
+    void testControlEndpoint() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(DaemonConfig.RULES_FILE, tempDir.resolve("rules.journal").toString());
+        props.setProperty(DaemonConfig.POLL_INTERVAL_MS, "20");
+        props.setProperty(DaemonConfig.CONTROL_PORT, "0");
+        DaemonConfig config = DaemonConfig.of(props, tempDir);
+        assertEquals("127.0.0.1", config.getControlBind());
+
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        CountDownLatch executed = new CountDownLatch(1);
+        try (AutomationDaemon daemon = new AutomationDaemon(config, backend, new AutomationMetrics()) {
+            @Override
+            protected void executeRule(AutomationRule rule, long handle, String title) {
+                executed.countDown();
+            }
+        }) {
+            daemon.start();
+            assertTrue(daemon.getControlPort() > 0);
+
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getControlPort())) {
+                socket.setSoTimeout(5000);
+                OutputStream out = socket.getOutputStream();
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+                out.write("ADD fehler EXACT CLOSE 0 0 Fehler\n".getBytes(StandardCharsets.UTF_8));
+                assertEquals("OK hinzugefuegt", in.readLine());
+                assertEquals(1, daemon.getRuleIndex().size());
+
+                backend.openWindow("Fehler");
+                assertTrue(executed.await(2, TimeUnit.SECONDS), "Neue Regel wurde nicht angewendet");
+
+                out.write("STOP\nSTATUS\nSTATS\n".getBytes(StandardCharsets.UTF_8));
+                assertEquals("OK gestoppt", in.readLine());
+                assertEquals("OK stopped", in.readLine());
+                assertFalse(daemon.isRunning());
+                assertEquals("* monitoring 0", in.readLine());
+                assertEquals("* detections 1", in.readLine());
+
+                out.write("START\nREMOVE fehler\n".getBytes(StandardCharsets.UTF_8));
+                String line;
+                while (!(line = in.readLine()).startsWith("OK ")) {
+                    assertTrue(line.startsWith("* "), line);
+                }
+                assertEquals("OK gestartet", in.readLine());
+                assertEquals("OK entfernt", in.readLine());
+                assertTrue(daemon.isRunning());
+                assertEquals(0, daemon.getRuleIndex().size());
+            }
+        }
+        try (RuleStore store = RuleStore.open(tempDir.resolve("rules.journal"))) {
+            assertEquals(0, store.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Pruefmodus: separate JVM startet ohne AWT/Swing")
+    void testCheckModeWithoutAwt() throws Exception {
+        Path config = tempDir.resolve("daemon.properties");
+        Files.writeString(config, "log.profile=default\n", StandardCharsets.UTF_8);
+
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+        ProcessBuilder builder = new ProcessBuilder(java.toString(), "-verbose:class",
+                "-cp", System.getProperty("java.class.path"),
+                AutomationDaemon.class.getName(), "--check", config.toString());
+        builder.redirectErrorStream(true);
+
+        long start = System.nanoTime();
+        Process process = builder.start();
+        List<String> output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8)
+                .lines().toList();
+        assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        String summary = output.stream().filter(l -> l.startsWith("Konfiguration OK")).findFirst().orElse("");
+        System.out.println("Pruefmodus in separater JVM: " + elapsedMs + " ms (" + summary + ")");
+        assertEquals(0, process.exitValue(), String.join("\n", output.subList(Math.max(0, output.size() - 20), output.size())));
+        assertFalse(summary.isEmpty());
+        assertTrue(output.stream().noneMatch(l -> l.contains(" java.awt.") || l.contains(" javax.swing.")),
+                "AWT/Swing wurde geladen");
+    }
+}
@@ -0,0 +1,272 @@
+package dev.automation.assistant.fleet;
+
+import dev.automation.assistant.control.AutomationControl;
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.rules.ActionType;
+import dev.automation.assistant.rules.AutomationRule;
+import dev.automation.assistant.rules.ControlSelector;
+import dev.automation.assistant.rules.MatchType;
+import dev.automation.assistant.rules.RuleSet;
+import dev.automation.assistant.rules.RuleStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer {@link FleetCoordinator} und {@link FleetAgent} mit mehreren Agenten
+ * im selben Prozess ueber Loopback.
+ */
+public class FleetTest {
+
+    @TempDir
+    Path tempDir;
+
+    private RuleStore store;
+    private FleetCoordinator coordinator;
+    private final List<FleetAgent> agents = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = RuleStore.open(tempDir.resolve("fleet.journal"));
+        store.put(AutomationRule.close("Fehler"));
+        coordinator = new FleetCoordinator(store, loopback(0), new AutomationMetrics());
+        coordinator.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        agents.forEach(FleetAgent::close);
+        coordinator.close();
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Verteilung: Startbestand und inkrementelle Diffs erreichen alle Agenten")
+    void testRulesReachAllAgents() throws Exception {
+        List<LocalRules> locals = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            LocalRules local = new LocalRules();
+            local.putRule(AutomationRule.close("Veraltet"));
+            locals.add(local);
+            startAgent("agent-" + i, coordinator.getPort(), local);
+        }
+        for (FleetAgent agent : agents) {
+            assertTrue(agent.awaitVersion(0, 5000));
+        }
+        awaitTrue(() -> agents.stream().allMatch(a -> a.getSnapshots() == 1), "Startbestand nicht uebernommen");
+        for (LocalRules local : locals) {
+            assertEquals(List.of(AutomationRule.close("Fehler")), local.getRules(), "Reset verwirft lokale Regeln");
+        }
+
+        AutomationRule control = AutomationRule.clickControl("Speichern?", new ControlSelector("Button", "&Ja", 6), 5, 5);
+        coordinator.putRule(control);
+        coordinator.putRule(AutomationRule.clickAt("Update", 100, 200));
+        coordinator.removeRule(AutomationRule.close("Fehler").getId());
+        long version = coordinator.getVersion();
+        assertEquals(3, version);
+
+        for (FleetAgent agent : agents) {
+            assertTrue(agent.awaitVersion(version, 5000), "Agent erreicht Version " + version + " nicht");
+            assertEquals(1, agent.getSnapshots());
+            assertTrue(agent.getDiffs() >= 1);
+        }
+        for (LocalRules local : locals) {
+            assertEquals(List.of(control, AutomationRule.clickAt("Update", 100, 200)), local.getRules());
+        }
+        awaitTrue(() -> coordinator.getAgents().stream().allMatch(s -> s.getAppliedVersion() == version),
+                "Versionen nicht bestaetigt");
+        assertEquals(5, coordinator.getAgents().size());
+        assertTrue(coordinator.getAgents().stream().allMatch(AgentStatus::isConnected));
+    }
+
+    @Test
+    @DisplayName("Ereignisse: gebuendelte Erkennungen und Aktionen werden pro Agent gezaehlt")
+    void testEventsAreAggregated() throws Exception {
+        FleetAgent first = startAgent("pc-1", coordinator.getPort(), new LocalRules());
+        FleetAgent second = startAgent("pc-2", coordinator.getPort(), new LocalRules());
+        awaitTrue(() -> first.isConnected() && second.isConnected(), "Agenten nicht verbunden");
+
+        for (int i = 0; i < 1000; i++) {
+            first.recordDetection("fehler", 2_000_000);
+            first.recordAction("fehler", 1_000_000, i % 10 != 0);
+        }
+        second.recordDetection("update", -1);
+        second.recordAction("update", 500_000, true);
+
+        awaitTrue(() -> coordinator.getAgent("pc-1") != null && coordinator.getAgent("pc-1").getActions() == 1000
+                && coordinator.getAgent("pc-2") != null && coordinator.getAgent("pc-2").getActions() == 1,
+                "Ereignisse nicht angekommen");
+        AgentStatus status = coordinator.getAgent("pc-1");
+        assertEquals(1000, status.getDetections());
+        assertEquals(100, status.getFailures());
+        assertEquals(0, first.getDroppedEvents());
+        assertEquals(2000, first.getSentEvents());
+
+        AutomationMetrics metrics = coordinator.getMetrics();
+        assertEquals(1001, metrics.getDetections());
+        assertEquals(1001, metrics.getActions());
+        assertEquals(100, metrics.getFailures());
+    }
+
+    @Test
+    @DisplayName("Wiederverbindung: neuer Koordinator liefert den Regelsatz erneut")
+    void testReconnectAfterCoordinatorRestart() throws Exception {
+        int port = coordinator.getPort();
+        LocalRules local = new LocalRules();
+        FleetAgent agent = startAgent("pc-1", port, local);
+        assertTrue(agent.awaitVersion(0, 5000));
+        awaitTrue(() -> agent.getSnapshots() == 1, "Startbestand nicht uebernommen");
+
+        coordinator.close();
+        awaitTrue(() -> !agent.isConnected(), "Trennung nicht erkannt");
+        store.put(AutomationRule.close("Neu"));
+        coordinator = new FleetCoordinator(store, loopback(port), new AutomationMetrics());
+        coordinator.start();
+
+        awaitTrue(() -> agent.getSnapshots() == 2, "Kein neuer Regelsatz nach Neustart");
+        assertEquals(List.of(AutomationRule.close("Fehler"), AutomationRule.close("Neu")), local.getRules());
+
+        coordinator.putRule(AutomationRule.close("Danach"));
+        assertTrue(agent.awaitVersion(1, 5000));
+        assertEquals(3, local.getRules().size());
+    }
+
+    @Test
+    @DisplayName("Ablehnung: ungueltiger Regelstand wird nicht bestaetigt, die Verbindung bleibt")
+    void testInvalidRulesRejected() throws Exception {
+        LocalRules local = new LocalRules();
+        FleetAgent agent = startAgent("pc-1", coordinator.getPort(), local);
+        assertTrue(agent.awaitVersion(0, 5000));
+        awaitTrue(() -> agent.getSnapshots() == 1, "Startbestand nicht uebernommen");
+
+        coordinator.putRule(new AutomationRule("kaputt", MatchType.REGEX, "[abc", ActionType.CLOSE, 0, 0));
+        awaitTrue(() -> agent.getRejected() == 1, "Ungueltiger Regelstand nicht abgelehnt");
+        assertEquals(0, agent.getVersion());
+        assertEquals(List.of(AutomationRule.close("Fehler")), local.getRules());
+        assertEquals(1, local.batches);
+
+        coordinator.removeRule("kaputt");
+        coordinator.putRule(AutomationRule.close("Danach"));
+        long version = coordinator.getVersion();
+        assertTrue(agent.awaitVersion(version, 5000), "Agent erreicht Version " + version + " nicht");
+        assertEquals(List.of(AutomationRule.close("Fehler"), AutomationRule.close("Danach")), local.getRules());
+        assertEquals(1, agent.getRejected());
+        assertEquals(1, agent.getSnapshots(), "Keine Wiederverbindung nach der Ablehnung");
+    }
+
+    @Test
+    @DisplayName("Last: hunderte Agenten an einem Koordinator")
+    void testManyAgents() throws Exception {
+        int count = 200;
+        List<LocalRules> locals = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LocalRules local = new LocalRules();
+            locals.add(local);
+            startAgent("agent-" + i, coordinator.getPort(), local);
+        }
+        awaitTrue(() -> coordinator.getAgents().size() == count, "Nicht alle Agenten verbunden");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            coordinator.putRule(AutomationRule.clickAt("Dialog " + i, i, i));
+        }
+        long version = coordinator.getVersion();
+        for (FleetAgent agent : agents) {
+            assertTrue(agent.awaitVersion(version, 20_000), "Agent erreicht Version " + version + " nicht");
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.println("50 Aenderungen an " + count + " Agenten verteilt in " + elapsedMs + " ms");
+        for (LocalRules local : locals) {
+            assertEquals(51, local.getRules().size());
+        }
+    }
+
+    private FleetAgent startAgent(String id, int port, LocalRules local) {
+        FleetAgent agent = new FleetAgent(id, loopback(port), local, 20, 50);
+        agents.add(agent);
+        agent.start();
+        return agent;
+    }
+
+    private static InetSocketAddress loopback(int port) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, message);
+            Thread.sleep(10);
+        }
+    }
+
+    /** Lokale Regeln eines Agenten ohne Fensterzugriff; Regelstaende werden wie im Daemon vorab kompiliert */
+    private static final class LocalRules implements AutomationControl {
+        private final Map<String, AutomationRule> rules = new LinkedHashMap<>();
+        private final AutomationMetrics metrics = new AutomationMetrics();
+        private int batches;
+
+        @Override
+        public synchronized List<AutomationRule> getRules() {
+            return new ArrayList<>(rules.values());
+        }
+
+        @Override
+        public synchronized void putRule(AutomationRule rule) {
+            rules.put(rule.getId(), rule);
+        }
+
+        @Override
+        public synchronized boolean removeRule(String id) {
+            return rules.remove(id) != null;
+        }
+
+        @Override
+        public synchronized void applyRules(boolean reset, List<AutomationRule> puts, List<String> removes) {
+            Map<String, AutomationRule> next = new LinkedHashMap<>(reset ? Map.of() : rules);
+            for (AutomationRule rule : puts) {
+                next.put(rule.getId(), rule);
+            }
+            next.keySet().removeAll(removes);
+            RuleSet.of(next.values());
+            rules.clear();
+            rules.putAll(next);
+            batches++;
+        }
+
+        @Override
+        public boolean startMonitoring() {
+            return false;
+        }
+
+        @Override
+        public boolean stopMonitoring() {
+            return false;
+        }
+
+        @Override
+        public boolean isMonitoring() {
+            return true;
+        }
+
+        @Override
+        public AutomationMetrics getMetrics() {
+            return metrics;
+        }
+    }
+}
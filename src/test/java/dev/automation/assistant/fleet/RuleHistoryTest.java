@@ -0,0 +1,122 @@
+package dev.automation.assistant.fleet;
+
+import dev.automation.assistant.macro.MacroCompiler;
+import dev.automation.assistant.rules.ActionType;
+import dev.automation.assistant.rules.AutomationRule;
+import dev.automation.assistant.rules.ControlSelector;
+import dev.automation.assistant.rules.MatchType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer die {@link RuleHistory} und die Regelkodierung im {@link FleetCodec}.
+ */
+public class RuleHistoryTest {
+
+    @Test
+    @DisplayName("Diff: pro Regel nur die letzte Aenderung seit dem Stand des Agenten")
+    void testDiffSince() {
+        RuleHistory history = new RuleHistory(List.of(AutomationRule.close("A")), 100);
+        long v1 = history.put(AutomationRule.close("B"));
+        long v2 = history.put(AutomationRule.clickAt("B", 1, 2));
+        long v3 = history.remove(AutomationRule.close("A").getId());
+        assertEquals(3, v3);
+        assertEquals(v3, history.put(AutomationRule.clickAt("B", 1, 2)), "Unveraenderte Regel erzeugt keine Version");
+        assertEquals(-1, history.remove("unbekannt"));
+
+        RuleHistory.Diff diff = history.diffSince(v1 - 1);
+        assertFalse(diff.reset);
+        assertEquals(List.of(AutomationRule.clickAt("B", 1, 2)), diff.puts);
+        assertEquals(List.of(AutomationRule.close("A").getId()), diff.removes);
+        assertEquals(3, diff.to);
+
+        RuleHistory.Diff partial = history.diffSince(v2);
+        assertTrue(partial.puts.isEmpty());
+        assertEquals(1, partial.removes.size());
+
+        RuleHistory.Diff current = history.diffSince(v3);
+        assertTrue(current.puts.isEmpty() && current.removes.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Reset: unbekannter oder zu alter Stand liefert den vollstaendigen Regelsatz")
+    void testResetBeyondHistory() {
+        RuleHistory history = new RuleHistory(List.of(), 2);
+        for (int i = 0; i < 5; i++) {
+            history.put(AutomationRule.close("Fenster " + i));
+        }
+        assertEquals(3, history.getFloor());
+
+        assertTrue(history.diffSince(-1).reset);
+        assertTrue(history.diffSince(2).reset);
+        assertEquals(5, history.diffSince(2).puts.size());
+        assertFalse(history.diffSince(3).reset);
+        assertEquals(2, history.diffSince(3).puts.size());
+        assertTrue(history.diffSince(99).reset);
+    }
+
+    @Test
+    @DisplayName("Kodierung: Regeln mit Selektor, Prozess, Makro, negativen Koordinaten und Umlauten")
+    void testRuleRoundTrip() throws Exception {
+        AutomationRule plain = new AutomationRule("r1", MatchType.GLOB, "Datei * öffnen", ActionType.CLICK_POSITION, -1920, 40);
+        AutomationRule control = AutomationRule.clickControl("Speichern?",
+                new ControlSelector("Button", "&Ja", 6), 10, 20);
+        AutomationRule process = new AutomationRule("r2", MatchType.EXACT, "Fehler", ActionType.CLOSE, 0, 0,
+                null, "Notepad.exe");
+        AutomationRule both = new AutomationRule("r3", MatchType.EXACT, "Speichern?", ActionType.CLICK_POSITION, 1, 2,
+                new ControlSelector("Button", "&Nein", 7), "winword.exe");
+        AutomationRule macro = new AutomationRule("r4", MatchType.EXACT, "Ersetzen?", ActionType.MACRO, 0, 0,
+                null, "winword.exe", MacroCompiler.compile("click Button \"&Ja\" 6; wait title \"Größe\" 2000"));
+
+        FleetCodec codec = new FleetCodec(16);
+        codec.begin(FleetCodec.RULES).putRule(plain).putRule(control).putRule(process).putRule(both).putRule(macro)
+                .putVarLong(Long.MAX_VALUE).end();
+        codec.begin(FleetCodec.ACK).putVarLong(7).end();
+
+        ByteBuffer in = codec.buffer();
+        in.flip();
+        ByteBuffer frame = FleetCodec.nextFrame(in);
+        assertEquals(FleetCodec.RULES, frame.get());
+        assertEquals(plain, FleetCodec.getRule(frame));
+        assertEquals(control, FleetCodec.getRule(frame));
+        assertEquals(process, FleetCodec.getRule(frame));
+        assertEquals("notepad.exe", process.getProcess());
+        assertEquals(both, FleetCodec.getRule(frame));
+        assertEquals(macro, FleetCodec.getRule(frame));
+        assertEquals(Long.MAX_VALUE, FleetCodec.getVarLong(frame));
+        assertFalse(frame.hasRemaining());
+
+        frame = FleetCodec.nextFrame(in);
+        assertEquals(FleetCodec.ACK, frame.get());
+        assertEquals(7, FleetCodec.getVarLong(frame));
+        assertNull(FleetCodec.nextFrame(in));
+    }
+
+    @Test
+    @DisplayName("Kodierung: unvollstaendige und ungueltige Frames")
+    void testPartialAndInvalidFrames() {
+        ByteBuffer in = ByteBuffer.allocate(16);
+        in.putInt(5).put(FleetCodec.ACK).put((byte) 1);
+        in.flip();
+        assertDoesNotThrow(() -> assertNull(FleetCodec.nextFrame(in)));
+        assertEquals(0, in.position());
+
+        ByteBuffer invalid = ByteBuffer.allocate(8);
+        invalid.putInt(FleetCodec.MAX_FRAME + 1);
+        invalid.flip();
+        assertThrows(ProtocolException.class, () -> FleetCodec.nextFrame(invalid));
+
+        FleetCodec codec = new FleetCodec(16);
+        codec.putString("r5").putByte(MatchType.EXACT.ordinal()).putString("A").putByte(ActionType.MACRO.ordinal())
+                .putZigZag(0).putZigZag(0).putByte(FleetCodec.RULE_MACRO).putString("oeffnen");
+        ByteBuffer rule = codec.buffer();
+        rule.flip();
+        assertThrows(ProtocolException.class, () -> FleetCodec.getRule(rule));
+    }
+}
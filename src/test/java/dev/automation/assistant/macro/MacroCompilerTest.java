@@ -0,0 +1,88 @@
+package dev.automation.assistant.macro;
+
+import dev.automation.assistant.platform.WindowActions;
+import dev.automation.assistant.rules.ControlSelector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer die Textdefinition von Makros im {@link MacroCompiler}.
+ */
+public class MacroCompilerTest {
+
+    @Test
+    @DisplayName("Compiler: alle Befehle, Kommentare, Trennzeichen und Konstanten")
+    void testCompile() {
+        Macro macro = MacroCompiler.compile(String.join("\n",
+                "# Speichern bestaetigen",
+                "click Button \"&Ja\" 6",
+                "wait window \"Speichern unter\" 2000; keys \"a\\\"b{ENTER}{TAB}{ESC}{{\"",
+                "",
+                "wait title \"Gespeichert\"; wait title 300; wait title",
+                "delay 50; close"));
+
+        assertEquals(8, macro.size());
+        assertEquals(Macro.OP_CLICK, macro.opAt(0));
+        assertEquals(new ControlSelector("Button", "&Ja", 6), macro.control(macro.argA(0)));
+
+        assertEquals(Macro.OP_WAIT_WINDOW, macro.opAt(1));
+        assertEquals("Speichern unter", macro.string(macro.argA(1)));
+        assertEquals(2000, macro.argB(1));
+
+        assertEquals(Macro.OP_KEYS, macro.opAt(2));
+        assertEquals("a\"b" + WindowActions.KEY_ENTER + WindowActions.KEY_TAB + WindowActions.KEY_ESCAPE + "{",
+                macro.string(macro.argA(2)));
+
+        assertEquals("Gespeichert", macro.string(macro.argA(3)));
+        assertEquals(MacroCompiler.DEFAULT_TIMEOUT_MS, macro.argB(3));
+        assertEquals(-1, macro.argA(4));
+        assertEquals(300, macro.argB(4));
+        assertEquals(-1, macro.argA(5));
+        assertEquals(MacroCompiler.DEFAULT_TIMEOUT_MS, macro.argB(5));
+
+        assertEquals(Macro.OP_DELAY, macro.opAt(6));
+        assertEquals(50, macro.argA(6));
+        assertEquals(Macro.OP_CLOSE, macro.opAt(7));
+    }
+
+    @Test
+    @DisplayName("Compiler: Mausschritte und Mausklick-Makro")
+    void testMouse() {
+        Macro macro = MacroCompiler.mouseClick(100, -20, 200);
+
+        assertEquals("move 100 -20; delay 200; press; delay 200; release", macro.getSource());
+        assertEquals(5, macro.size());
+        assertEquals(Macro.OP_MOVE, macro.opAt(0));
+        assertEquals(100, macro.argA(0));
+        assertEquals(-20, macro.argB(0));
+        assertEquals(Macro.OP_DELAY, macro.opAt(1));
+        assertEquals(Macro.OP_PRESS, macro.opAt(2));
+        assertEquals(Macro.OP_RELEASE, macro.opAt(4));
+        assertEquals(macro, MacroCompiler.compile(macro.getSource()));
+        assertEquals(macro.hashCode(), MacroCompiler.compile(macro.getSource()).hashCode());
+        assertNotEquals(macro, MacroCompiler.mouseClick(100, -20, 100));
+        assertError("Argumente", "move 100");
+        assertError("Argumente", "press 1");
+    }
+
+    @Test
+    @DisplayName("Compiler: Fehler nennen den Schritt")
+    void testErrors() {
+        assertError("Schritt 2", "close; oeffnen");
+        assertError("Argumente", "click Button \"&Ja\"");
+        assertError("controlId", "click Button Ja sechs");
+        assertError("Sondertaste", "keys \"{F13}\"");
+        assertError("nicht geschlossene Sondertaste", "keys \"{ENTER\"");
+        assertError("Anfuehrungszeichen", "keys \"offen");
+        assertError("negative Wartezeit", "delay -5");
+        assertError("'window' oder 'title'", "wait fenster \"A\"");
+        assertError("ohne Schritte", "# nur Kommentar\n;;");
+    }
+
+    private static void assertError(String expected, String source) {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> MacroCompiler.compile(source));
+        assertTrue(ex.getMessage().contains(expected), ex.getMessage());
+    }
+}
@@ -0,0 +1,211 @@
+package dev.automation.assistant.macro;
+
+import dev.automation.assistant.action.ActionGuard;
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.platform.InMemoryWindowActions;
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import dev.automation.assistant.service.AutomationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer die {@link MacroEngine} gegen einen simulierten Desktop aus
+ * {@link InMemoryWindowBackend} und {@link InMemoryWindowActions}.
+ */
+public class MacroEngineTest {
+
+    private final InMemoryWindowBackend desktop = new InMemoryWindowBackend();
+    private final InMemoryWindowActions actions = new InMemoryWindowActions(desktop);
+    private final MacroEngine engine = new MacroEngine(desktop, actions, 2, 5);
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    /** Lebende Threads der Makro-Engines */
+    private static long macroThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && thread.getName().startsWith("Macro-"))
+                .count();
+    }
+
+    @Test
+    @DisplayName("Dialog bestaetigen, Folgedialog ausfuellen, auf Titel warten und schliessen")
+    void testSaveDialog() throws InterruptedException {
+        long dialog = desktop.openWindow("Speichern?");
+        long yes = desktop.openControl(dialog, "Button", "&Ja", 6);
+        long[] saveAs = new long[1];
+        actions.onClick(yes, () -> {
+            desktop.closeWindow(dialog);
+            saveAs[0] = desktop.openWindow("Speichern unter");
+        });
+
+        MacroRun run = engine.start(MacroCompiler.compile(String.join("\n",
+                "click Button \"&Ja\" 6",
+                "wait window \"Speichern unter\" 2000",
+                "keys \"bericht.txt{ENTER}\"",
+                "wait title \"Gespeichert\" 2000",
+                "close")), dialog);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (actions.getTypedText(saveAs[0]).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals("bericht.txt\r", actions.getTypedText(saveAs[0]));
+        assertEquals(MacroRun.Status.RUNNING, run.getStatus());
+        desktop.setTitle(saveAs[0], "Gespeichert");
+
+        assertTrue(run.await(2, TimeUnit.SECONDS));
+        assertEquals(MacroRun.Status.DONE, run.getStatus(), run.toString());
+        assertFalse(desktop.isWindow(saveAs[0]));
+        assertEquals(1, actions.getClicks());
+        assertEquals(1, actions.getCloses());
+        assertEquals(0, engine.getInFlight());
+        assertEquals(1, engine.getCompleted());
+    }
+
+    @Test
+    @DisplayName("Fristen und feste Wartezeiten ohne schlafende Threads")
+    void testDeadlines() throws InterruptedException {
+        long window = desktop.openWindow("Fehler");
+        MacroRun timeout = engine.start(MacroCompiler.compile("wait window \"Nie\" 100"), window);
+        MacroRun delayed = engine.start(MacroCompiler.compile("delay 100; close"), window);
+
+        assertTrue(delayed.await(2, TimeUnit.SECONDS));
+        assertEquals(MacroRun.Status.DONE, delayed.getStatus());
+        long delayMs = TimeUnit.NANOSECONDS.toMillis(delayed.getElapsedNanos());
+        assertTrue(delayMs >= 100 && delayMs < 400, "delay dauerte " + delayMs + " ms");
+
+        assertTrue(timeout.await(2, TimeUnit.SECONDS));
+        assertEquals(MacroRun.Status.TIMED_OUT, timeout.getStatus());
+        assertEquals(0, timeout.getFailedStep());
+        long timeoutMs = TimeUnit.NANOSECONDS.toMillis(timeout.getElapsedNanos());
+        assertTrue(timeoutMs >= 100 && timeoutMs < 400, "Frist nach " + timeoutMs + " ms");
+        assertEquals(2, engine.getCompleted() + engine.getFailed());
+    }
+
+    @Test
+    @DisplayName("Mausklick: Bewegen, Druecken und Loslassen mit Pausen ohne schlafende Threads")
+    void testMouseClick() throws InterruptedException {
+        MacroRun run = engine.start(MacroCompiler.mouseClick(10, 20, 50), 0);
+
+        assertTrue(run.await(2, TimeUnit.SECONDS));
+        assertEquals(MacroRun.Status.DONE, run.getStatus(), run.toString());
+        assertEquals("move 10 20;press;release;", actions.getMouseEvents());
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(run.getElapsedNanos());
+        assertTrue(elapsedMs >= 100 && elapsedMs < 400, "Klick dauerte " + elapsedMs + " ms");
+    }
+
+    @Test
+    @DisplayName("Mausmakros laufen nacheinander, abgebrochene Wartende werden uebersprungen")
+    void testMouseSerialized() throws InterruptedException {
+        MacroRun first = engine.start(MacroCompiler.mouseClick(10, 20, 30), 0);
+        MacroRun skipped = engine.start(MacroCompiler.mouseClick(50, 60, 30), 0);
+        MacroRun second = engine.start(MacroCompiler.mouseClick(30, 40, 30), 0);
+        assertTrue(skipped.cancel());
+
+        assertTrue(second.await(2, TimeUnit.SECONDS));
+        assertEquals(MacroRun.Status.DONE, first.getStatus(), first.toString());
+        assertEquals(MacroRun.Status.DONE, second.getStatus(), second.toString());
+        assertEquals("move 10 20;press;release;move 30 40;press;release;", actions.getMouseEvents());
+        assertEquals(0, engine.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Fehlende Steuerelemente, geschlossene Fenster und Abbruch beenden den Lauf")
+    void testFailures() throws InterruptedException {
+        long dialog = desktop.openWindow("Frage");
+        MacroRun missing = engine.start(MacroCompiler.compile("click Button \"&Nein\" 7; close"), dialog);
+        assertTrue(missing.await(1, TimeUnit.SECONDS));
+        assertEquals(MacroRun.Status.FAILED, missing.getStatus());
+        assertEquals(0, missing.getFailedStep());
+        assertTrue(missing.getFailure().contains("nicht gefunden"), missing.getFailure());
+        assertTrue(desktop.isWindow(dialog));
+
+        MacroRun vanished = engine.start(MacroCompiler.compile("wait title 5000; close"), dialog);
+        desktop.closeWindow(dialog);
+        assertTrue(vanished.await(1, TimeUnit.SECONDS));
+        assertEquals(MacroRun.Status.FAILED, vanished.getStatus());
+
+        long other = desktop.openWindow("Warten");
+        MacroRun cancelled = engine.start(MacroCompiler.compile("delay 50; close"), other);
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+        Thread.sleep(100);
+        assertEquals(MacroRun.Status.CANCELLED, cancelled.getStatus());
+        assertTrue(desktop.isWindow(other), "nach Abbruch darf kein weiterer Schritt laufen");
+        assertEquals(0, engine.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Last: tausende wartende Makros teilen sich zwei Threads und eine Enumeration pro Pruefung")
+    void testThousandsInFlight() throws InterruptedException {
+        int count = 5000;
+        List<Long> windows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            windows.add(desktop.openWindow("Arbeitet " + i));
+        }
+        // Nach "wait window" wirken weitere Schritte auf das gefundene Fenster
+        Macro macro = MacroCompiler.compile("wait title \"Fertig\" 20000; keys \"ok\"; wait window \"Freigabe\" 20000");
+        List<MacroRun> runs = new ArrayList<>();
+        for (long window : windows) {
+            runs.add(engine.start(macro, window));
+        }
+        assertEquals(count, engine.getInFlight());
+        assertTrue(macroThreads() <= 2, "Makro-Threads: " + macroThreads());
+
+        for (long window : windows) {
+            desktop.setTitle(window, "Fertig");
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (engine.getWaiting() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        // Alle warten jetzt auf dasselbe Fenster; jede Pruefung enumeriert nur einmal
+        desktop.resetCounters();
+        long pollsBefore = engine.getPolls();
+        long release = desktop.openWindow("Freigabe");
+
+        for (MacroRun run : runs) {
+            assertTrue(run.await(10, TimeUnit.SECONDS));
+            assertEquals(MacroRun.Status.DONE, run.getStatus(), run.toString());
+        }
+        // Eine beim Zuruecksetzen bereits laufende Pruefung zaehlt noch nicht in pollsBefore
+        assertTrue(desktop.getEnumerateCalls() <= engine.getPolls() - pollsBefore + 1);
+        assertTrue(desktop.isWindow(release));
+        assertEquals("ok", actions.getTypedText(windows.get(count - 1)));
+        assertEquals(count, engine.getCompleted());
+        assertEquals(0, engine.getInFlight());
+        assertTrue(macroThreads() <= 2);
+    }
+
+    @Test
+    @DisplayName("AutomationService: Makro kehrt sofort zurueck und meldet das Ergebnis an die Kennzahlen")
+    void testAutomationService() throws InterruptedException {
+        AutomationMetrics metrics = new AutomationMetrics();
+        AutomationService service = new AutomationService(metrics, new ActionGuard(metrics), engine);
+        long window = desktop.openWindow("Fehler");
+
+        MacroRun run = service.runMacro("fehler", window, MacroCompiler.compile("delay 20; close"));
+        assertTrue(run.await(1, TimeUnit.SECONDS));
+        assertEquals(MacroRun.Status.DONE, run.getStatus());
+        assertFalse(desktop.isWindow(window));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (metrics.getActions() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, metrics.getActions());
+        assertEquals(0, metrics.getFailures());
+
+        assertThrows(IllegalStateException.class, () -> new AutomationService(metrics, new ActionGuard(metrics))
+                .runMacro("fehler", window, run.getMacro()));
+    }
+}
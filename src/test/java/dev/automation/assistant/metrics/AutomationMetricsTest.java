@@ -0,0 +1,131 @@
+package dev.automation.assistant.metrics;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.WinDef.HWND;
+import dev.automation.assistant.action.ActionDispatcher;
+import dev.automation.assistant.action.AutomationAction;
+import dev.automation.assistant.action.OverflowPolicy;
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import dev.automation.assistant.service.WindowMonitorService;
+import dev.automation.assistant.service.event.SimulatedWindowEventSource;
+import dev.automation.assistant.service.event.WindowEventType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer {@link LatencyHistogram} und {@link AutomationMetrics}.
+ * <p>
+ * Prueft die Genauigkeit der Perzentile, die Instrumentierung von
+ * Ueberwachung und Dispatcher sowie die Sichtbarkeit ueber JMX.
+ * </p>
+ */
+public class AutomationMetricsTest {
+
+    @Test
+    @DisplayName("Histogramm: Bucket-Grenzen umschliessen jeden Wert")
+    void testBucketBounds() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(value <= LatencyHistogram.upperBoundOf(bucket), "Wert " + value);
+            if (bucket > 0) {
+                assertTrue(value > LatencyHistogram.upperBoundOf(bucket - 1), "Wert " + value);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Histogramm: Perzentile mit weniger als 3,2 % relativem Fehler")
+    void testPercentileAccuracy() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMaxNanos());
+        assertWithin(5_000_000, histogram.percentile(50));
+        assertWithin(9_900_000, histogram.percentile(99));
+        assertWithin(10_000_000, histogram.percentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.percentile(99));
+    }
+
+    @Test
+    @DisplayName("Ereignismodus: Erkennungsverzoegerung und Duplikate werden erfasst")
+    void testDetectionInstrumentation() {
+        AutomationMetrics metrics = new AutomationMetrics();
+        SimulatedWindowEventSource source = new SimulatedWindowEventSource();
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        WindowMonitorService monitor = new WindowMonitorService(source, backend, metrics);
+        monitor.startMonitoring(new HWND(new Pointer(1)), "Fehler", found -> { });
+        // Erst nach dem Start oeffnen, sonst meldet bereits der Startscan das Fenster
+        backend.openWindow(2, "Fehler");
+
+        HWND popup = new HWND(new Pointer(2));
+        long appearedAt = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(20);
+        source.emit(WindowEventType.CREATED, popup, "Fehler", appearedAt);
+        source.emit(WindowEventType.SHOWN, popup, "Fehler", System.nanoTime());
+
+        assertEquals(1, metrics.getDetections());
+        assertEquals(1, metrics.getDuplicates());
+        assertTrue(metrics.getDetectionDelayMaxMicros() >= 20_000,
+                "Verzoegerung: " + metrics.getDetectionDelayMaxMicros() + " us");
+    }
+
+    @Test
+    @DisplayName("Dispatcher: Ausfuehrungsdauer und Fehler landen in den Metriken, interaktive Aufgaben nicht")
+    void testActionInstrumentation() throws InterruptedException {
+        AutomationMetrics metrics = new AutomationMetrics();
+        ActionDispatcher dispatcher = new ActionDispatcher(2, 16, OverflowPolicy.BLOCK, metrics);
+        dispatcher.submit(AutomationAction.handle("ok", () -> Thread.sleep(5)));
+        dispatcher.submit(AutomationAction.handle("fehler", () -> {
+            throw new IllegalStateException("absichtlich");
+        }));
+        // Interaktive Aufgaben der Oberflaeche zaehlen nicht als Aktion
+        dispatcher.submit(AutomationAction.interactive("auswahl", () -> Thread.sleep(500)));
+        assertTrue(dispatcher.shutdown(2000));
+
+        assertEquals(2, metrics.getActions());
+        assertEquals(1, metrics.getFailures());
+        assertTrue(metrics.getActionExecutionMaxMicros() >= 5_000);
+        assertTrue(metrics.getActionExecutionMaxMicros() < 500_000);
+    }
+
+    @Test
+    @DisplayName("JMX: Kennzahlen sind ueber den Plattform-MBeanServer lesbar")
+    void testMBeanRegistration() throws Exception {
+        AutomationMetrics metrics = new AutomationMetrics();
+        String name = "dev.automation.assistant:type=AutomationMetrics,name=test";
+        assertTrue(metrics.registerMBean(name));
+
+        metrics.recordRuleMatch(TimeUnit.MICROSECONDS.toNanos(40));
+        metrics.recordDetection(-1);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(name);
+        assertEquals(1L, server.getAttribute(objectName, "Detections"));
+        assertEquals(0L, server.getAttribute(objectName, "DetectionDelayMaxMicros"));
+        assertWithin(40, (Long) server.getAttribute(objectName, "RuleMatchP99Micros"));
+
+        server.invoke(objectName, "reset", null, null);
+        assertEquals(0L, server.getAttribute(objectName, "Detections"));
+        server.unregisterMBean(objectName);
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        double error = Math.abs(actual - expected) / (double) expected;
+        assertTrue(error < 0.032, "erwartet ~" + expected + ", erhalten " + actual);
+    }
+}
@@ -0,0 +1,72 @@
+package dev.automation.assistant.platform;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer den {@link ProcessIndex} gegen ein {@link InMemoryProcessBackend}.
+ */
+public class ProcessIndexTest {
+
+    @Test
+    @DisplayName("Treffer kommen aus dem Cache, Namen werden normalisiert")
+    void testCaching() {
+        InMemoryProcessBackend processes = new InMemoryProcessBackend();
+        processes.startProcess(100, "C:\\Windows\\System32\\Notepad.EXE");
+        ProcessIndex index = new ProcessIndex(processes);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("notepad.exe", index.executableOf(100, now));
+        }
+        assertEquals(1, processes.getOpenCalls());
+        assertEquals(1, processes.getImageNameReads());
+        assertEquals(999, index.getHits());
+        assertEquals(1, index.getMisses());
+
+        assertNull(index.executableOf(0, now));
+        assertEquals("winword.exe", ProcessIndex.normalize("/opt/office/WinWord.exe"));
+        assertNull(ProcessIndex.normalize("C:\\Programme\\"));
+    }
+
+    @Test
+    @DisplayName("Beendete Prozesse werden verworfen, die wiederverwendete ID liefert den neuen Namen")
+    void testExitAndReuse() {
+        InMemoryProcessBackend processes = new InMemoryProcessBackend();
+        processes.startProcess(100, "notepad.exe");
+        ProcessIndex index = new ProcessIndex(processes);
+        long now = System.nanoTime();
+        assertEquals("notepad.exe", index.executableOf(100, now));
+        assertEquals(1, processes.openReferences());
+
+        // Prozessende und neue Vergabe der ID; vor dem naechsten Abgleich gilt noch der Cache
+        assertTrue(processes.exitProcess(100));
+        processes.startProcess(100, "calc.exe");
+        assertEquals("notepad.exe", index.executableOf(100, now + 1));
+        assertEquals("calc.exe", index.executableOf(100, now + ProcessIndex.SWEEP_INTERVAL_NANOS * 2));
+        assertEquals(1, index.getEvictions());
+        assertEquals(1, processes.openReferences(), "Referenz des beendeten Prozesses muss geschlossen sein");
+
+        index.close();
+        assertEquals(0, index.size());
+        assertEquals(0, processes.openReferences());
+    }
+
+    @Test
+    @DisplayName("Nicht abfragbare Prozesse werden begrenzt lange als unbekannt gemerkt")
+    void testNegativeCache() {
+        InMemoryProcessBackend processes = new InMemoryProcessBackend();
+        ProcessIndex index = new ProcessIndex(processes);
+        long now = System.nanoTime();
+        assertNull(index.executableOf(42, now));
+        assertNull(index.executableOf(42, now + 1000));
+        assertEquals(1, processes.getOpenCalls());
+
+        processes.startProcess(42, "explorer.exe");
+        assertEquals("explorer.exe", index.executableOf(42, now + ProcessIndex.NEGATIVE_TTL_NANOS));
+        assertEquals(2, processes.getOpenCalls());
+        assertNull(index.executableOf(7, now + ProcessIndex.NEGATIVE_TTL_NANOS));
+    }
+}
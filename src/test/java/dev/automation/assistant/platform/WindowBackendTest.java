@@ -0,0 +1,117 @@
+package dev.automation.assistant.platform;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer die Sammelabfragen der {@link WindowBackend}-Schnittstelle.
+ * <p>
+ * Das direkt gemappte Windows-Backend wird hier nur auf seine Plattformpruefung
+ * getestet; die Aufruferseite laeuft gegen {@link InMemoryWindowBackend}.
+ * </p>
+ */
+public class WindowBackendTest {
+
+    @Test
+    @DisplayName("Sammelabfrage: Titel, Klasse, Rechteck und PID in einem Durchlauf")
+    void testQueryWindows() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        long editor = backend.openWindow("Editor");
+        backend.setClassName(editor, "Notepad");
+        backend.setBounds(editor, 10, 20, 410, 320);
+        backend.setProcessId(editor, 4711);
+        backend.openWindow("Fehler");
+
+        backend.resetCounters();
+        List<String> seen = new ArrayList<>();
+        backend.queryWindows(info -> {
+            seen.add(info.getTitle() + "|" + info.getClassName() + "|" + info.getWidth() + "x"
+                    + info.getHeight() + "|" + info.getProcessId());
+            return true;
+        });
+
+        assertEquals(List.of("Editor|Notepad|400x300|4711", "Fehler||0x0|0"), seen);
+        assertEquals(1, backend.getEnumerateCalls());
+        assertEquals(0, backend.getTitleReads(), "Keine Einzelabfragen im Sammeldurchlauf");
+        assertEquals(2, backend.getInfoReads());
+    }
+
+    @Test
+    @DisplayName("Sammelabfrage: WindowInfo wird wiederverwendet und Abbruch wird beachtet")
+    void testQueryReusesInfoAndStops() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        for (int i = 0; i < 10; i++) {
+            backend.openWindow("Fenster " + i);
+        }
+        List<WindowInfo> instances = new ArrayList<>();
+        backend.queryWindows(info -> {
+            instances.add(info);
+            return instances.size() < 3;
+        });
+
+        assertEquals(3, instances.size());
+        assertSame(instances.get(0), instances.get(2));
+    }
+
+    @Test
+    @DisplayName("Standardimplementierung: Sammelabfrage ueber Einzelaufrufe")
+    void testDefaultQueryWindows() {
+        InMemoryWindowBackend fake = new InMemoryWindowBackend();
+        long handle = fake.openWindow("Fehler");
+        fake.setClassName(handle, "#32770");
+
+        // Nur die Pflichtmethoden, damit die Default-Methoden greifen
+        WindowBackend minimal = new WindowBackend() {
+            @Override
+            public void enumerateWindows(WindowVisitor visitor) {
+                fake.enumerateWindows(visitor);
+            }
+
+            @Override
+            public String getWindowTitle(long h) {
+                return fake.getWindowTitle(h);
+            }
+
+            @Override
+            public boolean isWindow(long h) {
+                return fake.isWindow(h);
+            }
+        };
+
+        List<String> seen = new ArrayList<>();
+        minimal.queryWindows(info -> seen.add(Long.toHexString(info.getHandle()) + " " + info.getTitle()));
+        assertEquals(List.of(Long.toHexString(handle) + " Fehler"), seen);
+        assertEquals(0L, minimal.windowAt(1, 1));
+    }
+
+    @Test
+    @DisplayName("Fenster an Position: oberstes Fenster in Enumerationsreihenfolge")
+    void testWindowAt() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        long front = backend.openWindow("Dialog");
+        backend.setBounds(front, 100, 100, 200, 200);
+        long back = backend.openWindow("Hauptfenster");
+        backend.setBounds(back, 0, 0, 800, 600);
+
+        assertEquals(front, backend.windowAt(150, 150));
+        assertEquals(back, backend.windowAt(50, 50));
+        assertEquals(0L, backend.windowAt(900, 50));
+    }
+
+    @Test
+    @DisplayName("Plattform: direktes Mapping nur auf 64-Bit-Windows")
+    void testPlatformDefault() {
+        WindowBackend backend = WindowBackend.platformDefault();
+        if (DirectUser32WindowBackend.isSupported()) {
+            assertInstanceOf(DirectUser32WindowBackend.class, backend);
+        } else {
+            assertInstanceOf(User32WindowBackend.class, backend);
+            assertThrows(UnsupportedOperationException.class, DirectUser32WindowBackend::new);
+        }
+    }
+}
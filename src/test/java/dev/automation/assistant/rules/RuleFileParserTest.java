@@ -0,0 +1,125 @@
+package dev.automation.assistant.rules;
+
+import dev.automation.assistant.macro.MacroCompiler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer das Textformat der Regeldatei {@link RuleFileParser}.
+ */
+public class RuleFileParserTest {
+
+    @Test
+    @DisplayName("Parser: Felder, Kommentare, maskierte Trennzeichen und Steuerelemente")
+    void testParse() {
+        List<AutomationRule> rules = new RuleFileParser().parse(List.of(
+                "# Kommentar",
+                "",
+                "fehler    | EXACT  | CLOSE          |   0 |   0 | Fehler",
+                "speichern | prefix | click_position | 100 | 200 | Speichern unter",
+                "auswahl   | REGEX  | CLOSE          |   0 |   0 | ^(Ja\\|Nein)$",
+                "ja        | EXACT  | CLICK_POSITION |  10 |  20 | Speichern? | Button | &Ja | 6"));
+
+        assertEquals(List.of(
+                new AutomationRule("fehler", MatchType.EXACT, "Fehler", ActionType.CLOSE, 0, 0),
+                new AutomationRule("speichern", MatchType.PREFIX, "Speichern unter", ActionType.CLICK_POSITION, 100, 200),
+                new AutomationRule("auswahl", MatchType.REGEX, "^(Ja|Nein)$", ActionType.CLOSE, 0, 0),
+                new AutomationRule("ja", MatchType.EXACT, "Speichern?", ActionType.CLICK_POSITION, 10, 20,
+                        new ControlSelector("Button", "&Ja", 6))), rules);
+    }
+
+    @Test
+    @DisplayName("Parser: optionales Prozessfeld mit und ohne Steuerelement")
+    void testProcessField() {
+        List<AutomationRule> rules = new RuleFileParser().parse(List.of(
+                "editor | PREFIX | CLOSE          |  0 |  0 | Unbenannt  | Notepad.EXE",
+                "ja     | EXACT  | CLICK_POSITION | 10 | 20 | Speichern? | Button | &Ja | 6 | winword.exe"));
+
+        assertEquals(List.of(
+                new AutomationRule("editor", MatchType.PREFIX, "Unbenannt", ActionType.CLOSE, 0, 0, null, "notepad.exe"),
+                new AutomationRule("ja", MatchType.EXACT, "Speichern?", ActionType.CLICK_POSITION, 10, 20,
+                        new ControlSelector("Button", "&Ja", 6), "winword.exe")), rules);
+
+        RuleSet set = RuleSet.of(rules);
+        assertEquals(Set.of("notepad.exe", "winword.exe"), set.getExecutables());
+        assertEquals("editor", set.firstMatch("Unbenannt - Editor", "notepad.exe").getId());
+        assertNull(set.firstMatch("Unbenannt - Editor", "wordpad.exe"));
+        assertNull(set.firstMatch("Unbenannt - Editor", null));
+
+        RuleFileParser parser = new RuleFileParser();
+        assertError(parser, "Felder", "a | EXACT | CLOSE | 0 | 0 | A | Button | Ja");
+        assertError(parser, "Prozessname", "a | EXACT | CLOSE | 0 | 0 | A | C:\\Windows\\notepad.exe");
+    }
+
+    @Test
+    @DisplayName("Parser: Makrofeld mit und ohne Prozess")
+    void testMacroField() {
+        List<AutomationRule> rules = new RuleFileParser().parse(List.of(
+                "ersetzen | EXACT  | MACRO | 0 | 0 | Ersetzen? | click Button \"&Ja\" 6; wait title 2000",
+                "bericht  | PREFIX | macro | 0 | 0 | Speichern | keys \"a\\|b{ENTER}\"; close | WinWord.exe"));
+
+        assertEquals(List.of(
+                AutomationRule.macro("ersetzen", MatchType.EXACT, "Ersetzen?",
+                        MacroCompiler.compile("click Button \"&Ja\" 6; wait title 2000")),
+                new AutomationRule("bericht", MatchType.PREFIX, "Speichern", ActionType.MACRO, 0, 0, null,
+                        "winword.exe", MacroCompiler.compile("keys \"a|b{ENTER}\"; close"))), rules);
+
+        RuleFileParser parser = new RuleFileParser();
+        assertError(parser, "ohne Makrodefinition", "a | EXACT | MACRO | 0 | 0 | A");
+        assertError(parser, "ungueltiges Makro: Schritt 2", "a | EXACT | MACRO | 0 | 0 | A | close; oeffnen");
+        assertError(parser, "7 oder 8 Felder", "a | EXACT | MACRO | 0 | 0 | A | close | x.exe | y");
+    }
+
+    @Test
+    @DisplayName("Parser: Fehler nennen die Zeilennummer")
+    void testErrors() {
+        RuleFileParser parser = new RuleFileParser();
+        assertError(parser, "Zeile 2", "a | EXACT | CLOSE | 0 | 0 | A", "b | EXACT | CLOSE | 0 | 0");
+        assertError(parser, "Vergleichsart", "a | ENTHAELT | CLOSE | 0 | 0 | A");
+        assertError(parser, "Aktion", "a | EXACT | KLICKEN | 0 | 0 | A");
+        assertError(parser, "x", "a | EXACT | CLOSE | links | 0 | A");
+        assertError(parser, "regulaerer Ausdruck", "a | REGEX | CLOSE | 0 | 0 | (offen");
+        assertError(parser, "doppelte Regel-ID", "a | EXACT | CLOSE | 0 | 0 | A", "a | EXACT | CLOSE | 0 | 0 | B");
+        assertError(parser, "leere Regel-ID", " | EXACT | CLOSE | 0 | 0 | A");
+    }
+
+    @Test
+    @DisplayName("Parser: unveraenderte Zeilen werden nicht erneut zerlegt")
+    void testIncremental() {
+        RuleFileParser parser = new RuleFileParser();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lines.add("r" + i + " | EXACT | CLOSE | 0 | 0 | Fenster " + i);
+        }
+        parser.parse(lines);
+        assertEquals(100, parser.getLinesParsed());
+        assertEquals(0, parser.getLinesReused());
+
+        lines.set(50, "r50 | PREFIX | CLOSE | 0 | 0 | Fenster");
+        lines.add("neu | EXACT | CLOSE | 0 | 0 | Neu");
+        List<AutomationRule> rules = parser.parse(lines);
+        assertEquals(102, parser.getLinesParsed());
+        assertEquals(99, parser.getLinesReused());
+        assertEquals(101, rules.size());
+        assertEquals(MatchType.PREFIX, rules.get(50).getMatchType());
+
+        // Eine fehlerhafte Version aendert den gemerkten Stand nicht
+        lines.set(0, "kaputt");
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(lines));
+        lines.set(0, "r0 | EXACT | CLOSE | 0 | 0 | Fenster 0");
+        parser.parse(lines);
+        assertEquals(102, parser.getLinesParsed());
+        assertEquals(200, parser.getLinesReused());
+    }
+
+    private static void assertError(RuleFileParser parser, String expected, String... lines) {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> parser.parse(List.of(lines)));
+        assertTrue(ex.getMessage().contains(expected), ex.getMessage());
+    }
+}
@@ -0,0 +1,144 @@
+package dev.automation.assistant.rules;
+
+import dev.automation.assistant.metrics.AutomationMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer das Neuladen der Regeldatei {@link RuleFileWatcher}.
+ */
+public class RuleFileWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Watcher: Aenderungen der Datei werden ohne Neustart uebernommen")
+    void testReloadOnChange() throws Exception {
+        Path file = tempDir.resolve("regeln.txt");
+        write(file, "fehler | EXACT | CLOSE | 0 | 0 | Fehler");
+        AutomationMetrics metrics = new AutomationMetrics();
+        List<RuleSet> received = new CopyOnWriteArrayList<>();
+
+        try (RuleFileWatcher watcher = new RuleFileWatcher(file, metrics, received::add)) {
+            watcher.start();
+            assertEquals(1, watcher.current().size());
+            assertNotNull(watcher.current().firstMatch("Fehler"));
+            assertEquals(1, received.size());
+
+            write(file, "fehler | EXACT | CLOSE | 0 | 0 | Fehler",
+                    "update | PREFIX | CLICK_POSITION | 10 | 20 | Update");
+            awaitTrue(() -> watcher.current().size() == 2, "Aenderung nicht uebernommen");
+
+            AutomationRule update = watcher.current().firstMatch("Update verfuegbar");
+            assertEquals(new AutomationRule("update", MatchType.PREFIX, "Update", ActionType.CLICK_POSITION, 10, 20),
+                    update);
+            assertSame(watcher.current(), received.get(received.size() - 1));
+            assertEquals(2, watcher.getReloads());
+            assertEquals(2, metrics.getRuleReloads());
+            assertTrue(metrics.getRuleReloadMaxMicros() > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Watcher: ungueltige Datei laesst den bisherigen Regelsatz aktiv")
+    void testMalformedKeepsPrevious() throws Exception {
+        Path file = tempDir.resolve("regeln.txt");
+        write(file, "fehler | EXACT | CLOSE | 0 | 0 | Fehler");
+        AutomationMetrics metrics = new AutomationMetrics();
+
+        try (RuleFileWatcher watcher = new RuleFileWatcher(file, metrics, set -> { })) {
+            watcher.start();
+            RuleSet before = watcher.current();
+
+            write(file, "fehler | EXACT | CLOSE | 0 | 0 | Fehler", "kaputt | REGEX | CLOSE | 0 | 0 | (offen");
+            awaitTrue(() -> watcher.getFailures() == 1, "Fehler nicht erkannt");
+            assertSame(before, watcher.current());
+            assertTrue(watcher.getLastError().startsWith("Zeile 2"), watcher.getLastError());
+            assertEquals(1, metrics.getRuleReloadFailures());
+
+            write(file, "heile | EXACT | CLOSE | 0 | 0 | Heile");
+            awaitTrue(() -> watcher.current().get("heile") != null, "Korrektur nicht uebernommen");
+            assertNull(watcher.getLastError());
+            assertNull(watcher.current().get("fehler"));
+        }
+    }
+
+    @Test
+    @DisplayName("Watcher: Leser sehen waehrend des Austauschs immer einen vollstaendigen Stand")
+    void testConsistentSnapshots() throws Exception {
+        Path file = tempDir.resolve("regeln.txt");
+        write(file, version(0));
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong checks = new AtomicLong();
+        List<String> errors = new CopyOnWriteArrayList<>();
+
+        try (RuleFileWatcher watcher = new RuleFileWatcher(file, new AutomationMetrics(), set -> { })) {
+            watcher.start();
+            List<Thread> readers = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                Thread reader = new Thread(() -> {
+                    while (!stop.get()) {
+                        RuleSet set = watcher.current();
+                        AutomationRule rule = set.firstMatch("Dialog 7");
+                        // Index und Regeln muessen aus derselben Version stammen
+                        if (rule == null || rule != set.get(rule.getId()) || set.size() != 20) {
+                            errors.add(String.valueOf(rule));
+                        }
+                        checks.incrementAndGet();
+                    }
+                });
+                reader.start();
+                readers.add(reader);
+            }
+            for (int v = 1; v <= 20; v++) {
+                write(file, version(v));
+                watcher.reload();
+            }
+            stop.set(true);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            assertEquals(List.of(), errors);
+            assertTrue(checks.get() > 0);
+            assertEquals(20, watcher.current().firstMatch("Dialog 7").getX());
+        }
+    }
+
+    private static String[] version(int v) {
+        String[] lines = new String[20];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "r" + i + " | EXACT | CLICK_POSITION | " + v + " | 0 | Dialog " + i;
+        }
+        return lines;
+    }
+
+    private static void write(Path file, String... lines) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, List.of(lines), StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, message);
+            Thread.sleep(10);
+        }
+    }
+}
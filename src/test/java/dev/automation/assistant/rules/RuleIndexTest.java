@@ -0,0 +1,167 @@
+package dev.automation.assistant.rules;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests und Benchmark fuer den {@link RuleIndex}.
+ */
+public class RuleIndexTest {
+
+    @Test
+    @DisplayName("RuleIndex: Alle Regeltypen werden korrekt erkannt")
+    void testAllMatchTypes() {
+        RuleIndex index = RuleIndex.compile(List.of(
+                TitleRule.exact("exact", "Fehler"),
+                TitleRule.prefix("prefix", "Merge"),
+                TitleRule.contains("contains", "Warnung"),
+                TitleRule.glob("glob", "Noah ? - *.txt"),
+                TitleRule.regex("regex", "Job #\\d+ beendet")));
+
+        assertEquals(List.of("exact"), ids(index.match("Fehler")));
+        assertEquals(List.of(), ids(index.match("Fehler!")));
+        assertEquals(List.of("prefix"), ids(index.match("Merge Dateien")));
+        assertEquals(List.of("contains"), ids(index.match("System-Warnung 3")));
+        assertEquals(List.of("glob"), ids(index.match("Noah 4 - bericht.txt")));
+        assertEquals(List.of(), ids(index.match("Noah 42 - bericht.txt")));
+        assertEquals(List.of("regex"), ids(index.match("Job #17 beendet")));
+        assertEquals(List.of(), ids(index.match("Job #x beendet")));
+    }
+
+    @Test
+    @DisplayName("RuleIndex: Treffer in Prioritaetsreihenfolge und Glob-Sonderformen")
+    void testPriorityOrderAndGlobShapes() {
+        RuleIndex index = RuleIndex.compile(List.of(
+                TitleRule.glob("alles", "*"),
+                TitleRule.glob("praefix", "Merge*"),
+                TitleRule.glob("teil", "*Datei*"),
+                TitleRule.glob("suffix", "*.log"),
+                TitleRule.exact("exakt", "Merge Datei.log")));
+
+        assertEquals(List.of("alles", "praefix", "teil", "suffix", "exakt"), ids(index.match("Merge Datei.log")));
+        assertEquals("alles", index.firstMatch("irgendwas").getId());
+        assertEquals(List.of("alles"), ids(index.match("")));
+    }
+
+    @Test
+    @DisplayName("RuleIndex: Ergebnisse werden pro Titel zwischengespeichert")
+    void testMemoization() {
+        RuleIndex index = RuleIndex.compile(List.of(TitleRule.contains("c", "abc")));
+        List<TitleRule> first = index.match("xxabcxx");
+        List<TitleRule> second = index.match("xxabcxx");
+        assertSame(first, second);
+        assertEquals(1, index.getCacheMisses());
+        assertEquals(1, index.getCacheHits());
+    }
+
+    @Test
+    @DisplayName("RuleIndex: Ungueltiger Regex wird beim Kompilieren abgelehnt")
+    void testInvalidRegex() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RuleIndex.compile(List.of(TitleRule.regex("kaputt", "(offen"))));
+    }
+
+    @Test
+    @DisplayName("RuleIndex: Ergebnisse identisch mit linearem Vergleich")
+    void testAgainstLinearScan() {
+        Random random = new Random(7);
+        List<TitleRule> rules = randomRules(random, 500);
+        RuleIndex index = RuleIndex.compile(rules);
+
+        for (String title : randomTitles(random, 5_000)) {
+            List<String> expected = new ArrayList<>();
+            for (TitleRule rule : rules) {
+                if (linearMatches(rule, title)) {
+                    expected.add(rule.getId());
+                }
+            }
+            assertEquals(expected, ids(index.match(title)), "Titel: " + title);
+        }
+    }
+
+    @Test
+    @DisplayName("RuleIndex-Benchmark: 100k Titel gegen 5k Regeln")
+    void benchmarkHundredThousandTitles() {
+        Random random = new Random(42);
+        List<TitleRule> rules = randomRules(random, 5_000);
+        List<String> titles = randomTitles(random, 100_000);
+
+        long compileStart = System.nanoTime();
+        RuleIndex index = RuleIndex.compile(rules);
+        long compileMs = (System.nanoTime() - compileStart) / 1_000_000;
+
+        long matchStart = System.nanoTime();
+        long hits = 0;
+        for (String title : titles) {
+            hits += index.match(title).size();
+        }
+        long matchMs = (System.nanoTime() - matchStart) / 1_000_000;
+
+        System.out.printf("RuleIndex: %d Regeln kompiliert in %d ms, %d Titel in %d ms abgeglichen (%d Treffer, Cache %d/%d)%n",
+                rules.size(), compileMs, titles.size(), matchMs, hits, index.getCacheHits(), index.getCacheMisses());
+        assertTrue(hits > 0, "Benchmark sollte Treffer liefern");
+        assertTrue(matchMs < 10_000, "Abgleich zu langsam: " + matchMs + " ms");
+    }
+
+    private static final String[] WORDS = {
+            "Fehler", "Merge", "Datei", "Noah", "Warnung", "Speichern", "Bericht", "Launcher",
+            "Dialog", "Update", "Export", "Import", "Drucken", "Verbindung", "Server", "Job"};
+
+    private static List<TitleRule> randomRules(Random random, int count) {
+        List<TitleRule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(200);
+            String id = "r" + i;
+            switch (i % 20) {
+                case 0: rules.add(TitleRule.regex(id, Pattern.quote(word) + " \\(\\d+\\)")); break;
+                case 1: case 2: rules.add(TitleRule.glob(id, "*" + word + "?*")); break;
+                case 3: case 4: case 5: rules.add(TitleRule.contains(id, word)); break;
+                case 6: case 7: case 8: case 9: rules.add(TitleRule.prefix(id, word)); break;
+                default: rules.add(TitleRule.exact(id, word)); break;
+            }
+        }
+        return rules;
+    }
+
+    private static List<String> randomTitles(Random random, int count) {
+        List<String> titles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(200);
+            if (random.nextBoolean()) {
+                title = title + " (" + random.nextInt(50) + ")";
+            }
+            if (random.nextInt(4) == 0) {
+                title = WORDS[random.nextInt(WORDS.length)] + " - " + title;
+            }
+            titles.add(title);
+        }
+        return titles;
+    }
+
+    private static boolean linearMatches(TitleRule rule, String title) {
+        String p = rule.getPattern();
+        switch (rule.getType()) {
+            case EXACT: return title.equals(p);
+            case PREFIX: return title.startsWith(p);
+            case CONTAINS: return title.contains(p);
+            case GLOB: return Pattern.matches(p.replace(".", "\\.").replace("?", ".").replace("*", ".*"), title);
+            case REGEX: return Pattern.matches(p, title);
+            default: throw new IllegalStateException();
+        }
+    }
+
+    private static List<String> ids(List<TitleRule> rules) {
+        List<String> ids = new ArrayList<>();
+        for (TitleRule rule : rules) {
+            ids.add(rule.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,291 @@
+package dev.automation.assistant.rules;
+
+import dev.automation.assistant.macro.MacroCompiler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer das Regeljournal {@link RuleStore}.
+ */
+public class RuleStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("RuleStore: Regeln ueberleben einen Neustart")
+    void testPersistAndReload() throws IOException {
+        Path file = tempDir.resolve("rules.journal");
+        try (RuleStore store = RuleStore.open(file)) {
+            store.put(AutomationRule.clickAt("Fehler", 10, 20));
+            store.put(AutomationRule.close("Warnung"));
+            store.put(new AutomationRule("merge", MatchType.PREFIX, "Merge", ActionType.CLICK_POSITION, 5, 6));
+            store.put(AutomationRule.clickAt("Fehler", 30, 40));
+            assertTrue(store.remove("Warnung"));
+            assertFalse(store.remove("gibt es nicht"));
+        }
+
+        try (RuleStore store = RuleStore.open(file)) {
+            assertEquals(List.of(
+                    new AutomationRule("merge", MatchType.PREFIX, "Merge", ActionType.CLICK_POSITION, 5, 6),
+                    AutomationRule.clickAt("Fehler", 30, 40)), store.getRules());
+            assertEquals(5, store.getJournalRecords());
+        }
+    }
+
+    @Test
+    @DisplayName("RuleStore: Steuerelement-Selektor wird mitgespeichert")
+    void testControlSelectorRoundTrip() throws IOException {
+        Path file = tempDir.resolve("rules.journal");
+        AutomationRule rule = AutomationRule.clickControl("Speichern?", new ControlSelector("Button", "&Ja", 6), 10, 20);
+        try (RuleStore store = RuleStore.open(file)) {
+            store.put(AutomationRule.clickAt("Alt", 1, 2));
+            store.put(rule);
+        }
+        try (RuleStore store = RuleStore.open(file)) {
+            assertEquals(rule, store.get("Speichern?"));
+            assertNull(store.get("Alt").getControl());
+        }
+    }
+
+    @Test
+    @DisplayName("RuleStore: Prozesskriterium wird mitgespeichert, alte Datensaetze bleiben lesbar")
+    void testProcessRoundTrip() throws IOException {
+        Path file = tempDir.resolve("rules.journal");
+        AutomationRule process = new AutomationRule("editor", MatchType.PREFIX, "Unbenannt", ActionType.CLOSE, 0, 0,
+                null, "notepad.exe");
+        AutomationRule both = new AutomationRule("ja", MatchType.EXACT, "Speichern?", ActionType.CLICK_POSITION, 10, 20,
+                new ControlSelector("Button", "&Ja", 6), "winword.exe");
+        try (RuleStore store = RuleStore.open(file)) {
+            store.put(AutomationRule.clickAt("Alt", 1, 2));
+            store.put(process);
+            store.put(both);
+        }
+        try (RuleStore store = RuleStore.open(file)) {
+            assertEquals(process, store.get("editor"));
+            assertEquals(both, store.get("ja"));
+            assertNull(store.get("Alt").getProcess());
+        }
+    }
+
+    @Test
+    @DisplayName("RuleStore: Makro wird als Text gespeichert und beim Laden neu kompiliert")
+    void testMacroRoundTrip() throws IOException {
+        Path file = tempDir.resolve("rules.journal");
+        AutomationRule macro = AutomationRule.macro("ersetzen", MatchType.EXACT, "Ersetzen?",
+                MacroCompiler.compile("click Button \"&Ja\" 6; wait title 2000"));
+        AutomationRule both = new AutomationRule("speichern", MatchType.PREFIX, "Speichern", ActionType.MACRO, 0, 0,
+                null, "winword.exe", MacroCompiler.compile("keys \"bericht{ENTER}\"\nclose"));
+        try (RuleStore store = RuleStore.open(file)) {
+            store.put(macro);
+            store.put(both);
+            store.put(AutomationRule.close("Fehler"));
+        }
+        try (RuleStore store = RuleStore.open(file)) {
+            assertEquals(macro, store.get("ersetzen"));
+            assertNull(store.get("ersetzen").getProcess());
+            assertEquals(2, store.get("ersetzen").getMacro().size());
+            assertEquals(both, store.get("speichern"));
+            assertNull(store.get("Fehler").getMacro());
+        }
+    }
+
+    @Test
+    @DisplayName("RuleStore: Mehrere Aenderungen in einem Schritt, mit und ohne Reset")
+    void testApplyBatch() throws IOException {
+        Path file = tempDir.resolve("rules.journal");
+        try (RuleStore store = RuleStore.open(file)) {
+            store.put(AutomationRule.close("Alt"));
+            store.put(AutomationRule.clickAt("Eins", 1, 1));
+            store.put(AutomationRule.close("Fehler"));
+
+            store.apply(true, List.of(AutomationRule.clickAt("Eins", 2, 2), AutomationRule.close("Neu")),
+                    List.of(AutomationRule.close("Neu").getId(), "unbekannt"));
+            assertEquals(List.of(AutomationRule.clickAt("Eins", 2, 2)), store.getRules());
+            // 2 entfernte Altregeln, 2 gespeicherte, 1 entfernte neue
+            assertEquals(8, store.getJournalRecords());
+
+            store.apply(false, List.of(AutomationRule.close("Fehler")), List.of());
+            store.apply(false, List.of(), List.of("unbekannt"));
+            assertEquals(9, store.getJournalRecords());
+        }
+        try (RuleStore store = RuleStore.open(file)) {
+            assertEquals(List.of(AutomationRule.clickAt("Eins", 2, 2), AutomationRule.close("Fehler")),
+                    store.getRules());
+        }
+    }
+
+    @Test
+    @DisplayName("RuleStore: Abgeschnittener letzter Datensatz wird verworfen")
+    void testTornLastRecord() throws IOException {
+        Path file = tempDir.resolve("rules.journal");
+        try (RuleStore store = RuleStore.open(file)) {
+            store.put(AutomationRule.clickAt("Eins", 1, 1));
+            store.put(AutomationRule.clickAt("Zwei", 2, 2));
+        }
+        long intactSize = Files.size(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(intactSize - 3);
+        }
+
+        try (RuleStore store = RuleStore.open(file)) {
+            assertEquals(List.of(AutomationRule.clickAt("Eins", 1, 1)), store.getRules());
+            // Nach der Reparatur muss weiter angehaengt werden koennen
+            store.put(AutomationRule.clickAt("Drei", 3, 3));
+        }
+        try (RuleStore store = RuleStore.open(file)) {
+            assertEquals(2, store.size());
+            assertNotNull(store.get("Drei"));
+        }
+    }
+
+    @Test
+    @DisplayName("RuleStore: Beschaedigte Pruefsumme am Ende wird erkannt")
+    void testCorruptedChecksum() throws IOException {
+        Path file = tempDir.resolve("rules.journal");
+        try (RuleStore store = RuleStore.open(file)) {
+            store.put(AutomationRule.clickAt("Eins", 1, 1));
+            store.put(AutomationRule.clickAt("Zwei", 2, 2));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() - 1);
+            raf.write(0x7F);
+        }
+        try (RuleStore store = RuleStore.open(file)) {
+            assertEquals(List.of(AutomationRule.clickAt("Eins", 1, 1)), store.getRules());
+        }
+    }
+
+    @Test
+    @DisplayName("RuleStore: Kompaktierung verkleinert das Journal ohne Datenverlust")
+    void testCompaction() throws IOException {
+        Path file = tempDir.resolve("rules.journal");
+        try (RuleStore store = RuleStore.open(file)) {
+            for (int i = 0; i < 5_000; i++) {
+                store.put(AutomationRule.clickAt("Fenster " + (i % 10), i, i));
+            }
+            assertEquals(10, store.size());
+            assertTrue(store.getJournalRecords() < 1_100, "Journal sollte automatisch kompaktiert werden");
+            store.compact();
+            assertEquals(10, store.getJournalRecords());
+        }
+        try (RuleStore store = RuleStore.open(file)) {
+            assertEquals(10, store.size());
+            assertEquals(AutomationRule.clickAt("Fenster 9", 4_999, 4_999), store.get("Fenster 9"));
+        }
+    }
+
+    @Test
+    @DisplayName("RuleStore: Intakter, aber unbekannter Datensatz wird uebersprungen, spaetere bleiben erhalten")
+    void testUnknownRecordSkipped() throws IOException {
+        Path file = tempDir.resolve("rules.journal");
+        try (RuleStore store = RuleStore.open(file)) {
+            store.put(AutomationRule.clickAt("Eins", 1, 1));
+        }
+        // Datensatz mit gueltiger Pruefsumme und unbekannter Operation, z. B. aus einer neueren Version
+        CRC32 crc = new CRC32();
+        crc.update(new byte[]{9});
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length());
+            raf.writeInt(1);
+            raf.writeInt((int) crc.getValue());
+            raf.write(9);
+        }
+        try (RuleStore store = RuleStore.open(file)) {
+            store.put(AutomationRule.clickAt("Zwei", 2, 2));
+        }
+        try (RuleStore store = RuleStore.open(file)) {
+            assertEquals(List.of(AutomationRule.clickAt("Eins", 1, 1), AutomationRule.clickAt("Zwei", 2, 2)),
+                    store.getRules());
+            assertEquals(3, store.getJournalRecords());
+        }
+    }
+
+    @Test
+    @DisplayName("RuleStore: Fehlgeschlagene Kompaktierung laesst den Store benutzbar")
+    void testCompactionFailure() throws IOException {
+        Path file = tempDir.resolve("rules.journal");
+        // Ein Verzeichnis an Stelle der temporaeren Datei laesst jede Kompaktierung scheitern
+        Path blocker = Files.createDirectories(tempDir.resolve("rules.journal.tmp"));
+        Files.writeString(blocker.resolve("belegt"), "x");
+        try (RuleStore store = RuleStore.open(file)) {
+            store.put(AutomationRule.clickAt("Eins", 1, 1));
+            assertThrows(IOException.class, store::compact);
+            // Automatische Kompaktierungen scheitern ebenfalls, die Schreibvorgaenge nicht
+            for (int i = 0; i < 2_000; i++) {
+                store.put(AutomationRule.clickAt("Zwei", i, i));
+            }
+            assertEquals(2_001, store.getJournalRecords());
+            assertTrue(store.remove("Eins"));
+        }
+        RuleStore closed = RuleStore.open(file);
+        closed.close();
+        assertThrows(IOException.class, () -> closed.put(AutomationRule.clickAt("Drei", 3, 3)));
+
+        Files.delete(blocker.resolve("belegt"));
+        Files.delete(blocker);
+        try (RuleStore store = RuleStore.open(file)) {
+            assertEquals(List.of(AutomationRule.clickAt("Zwei", 1_999, 1_999)), store.getRules());
+            store.compact();
+            assertEquals(1, store.getJournalRecords());
+            store.put(AutomationRule.clickAt("Drei", 3, 3));
+        }
+        try (RuleStore store = RuleStore.open(file)) {
+            assertEquals(2, store.size());
+        }
+    }
+
+    @Test
+    @DisplayName("RuleStore: Nach gescheiterter Kompaktierung erst bei doppelter Journalgroesse erneut versuchen")
+    void testCompactionBackoff() throws IOException {
+        Path file = tempDir.resolve("rules.journal");
+        Path blocker = Files.createDirectories(tempDir.resolve("rules.journal.tmp"));
+        Files.writeString(blocker.resolve("belegt"), "x");
+        try (RuleStore store = RuleStore.open(file)) {
+            for (int i = 0; i < 1_024; i++) {
+                store.put(AutomationRule.clickAt("Eins", i, i));
+            }
+            Files.delete(blocker.resolve("belegt"));
+            Files.delete(blocker);
+            for (int i = 0; i < 1_023; i++) {
+                store.put(AutomationRule.clickAt("Eins", i, i));
+            }
+            assertEquals(2_047, store.getJournalRecords(), "kein erneuter Versuch vor 2048 Datensaetzen");
+            store.put(AutomationRule.clickAt("Eins", 0, 0));
+            assertEquals(1, store.getJournalRecords());
+        }
+    }
+
+    @Test
+    @DisplayName("RuleStore: 100k Regeln werden deutlich unter einer Sekunde geladen")
+    void testLoadHundredThousandRules() throws IOException {
+        Path file = tempDir.resolve("rules.journal");
+        try (RuleStore store = RuleStore.open(file)) {
+            for (int i = 0; i < 100_000; i++) {
+                store.put(new AutomationRule("regel-" + i, MatchType.PREFIX, "Dialog " + i, ActionType.CLICK_POSITION, i, -i));
+            }
+        }
+
+        // Aufwaermen, damit JIT-Effekte die Messung nicht verzerren
+        try (RuleStore warmup = RuleStore.open(file)) {
+            assertEquals(100_000, warmup.size());
+        }
+        long start = System.nanoTime();
+        try (RuleStore store = RuleStore.open(file)) {
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("RuleStore: 100000 Regeln in %d ms geladen%n", elapsedMs);
+            assertEquals(100_000, store.size());
+            assertTrue(elapsedMs < 1_000, "Laden zu langsam: " + elapsedMs + " ms");
+        }
+    }
+}
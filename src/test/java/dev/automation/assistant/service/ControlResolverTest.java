@@ -0,0 +1,136 @@
+package dev.automation.assistant.service;
+
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import dev.automation.assistant.rules.ControlSelector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer den {@link ControlResolver}.
+ */
+public class ControlResolverTest {
+
+    private static final ControlSelector YES = new ControlSelector("Button", "&Ja", 6);
+
+    /** Legt einen Speichern-Dialog mit drei Buttons in einer Gruppenbox an */
+    private static long openDialog(InMemoryWindowBackend backend) {
+        long dialog = backend.openWindow("Speichern?");
+        backend.setClassName(dialog, "#32770");
+        backend.openControl(dialog, "Static", "Aenderungen speichern?", 0xFFFF);
+        long group = backend.openControl(dialog, "Button", "Auswahl", 100);
+        backend.openControl(group, "Button", "&Ja", 6);
+        backend.openControl(group, "Button", "&Nein", 7);
+        backend.openControl(group, "Button", "Abbrechen", 2);
+        return dialog;
+    }
+
+    @Test
+    @DisplayName("Resolver: Steuerelement ueber ID, Klasse und Text finden")
+    void testResolveBySelector() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        long dialog = openDialog(backend);
+        ControlResolver resolver = new ControlResolver(backend);
+
+        long yes = resolver.resolve(dialog, YES);
+        assertEquals("&Ja", backend.getWindowTitle(yes));
+        long cancel = resolver.resolve(dialog, new ControlSelector("Button", "Abbrechen", 0));
+        assertEquals(2, backend.getControlId(cancel));
+        long no = resolver.resolve(dialog, new ControlSelector("", "", 7));
+        assertEquals("&Nein", backend.getWindowTitle(no));
+
+        assertEquals(0, resolver.resolve(dialog, new ControlSelector("Button", "Hilfe", 9)));
+        assertEquals(0, resolver.resolve(0, YES));
+    }
+
+    @Test
+    @DisplayName("Resolver: Wiederholter Zugriff prueft nur Elternkette, Klasse und ID statt neu zu enumerieren")
+    void testCachedHandleValidatedCheaply() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        long dialog = openDialog(backend);
+        ControlResolver resolver = new ControlResolver(backend);
+        long yes = resolver.resolve(dialog, YES);
+
+        backend.resetCounters();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(yes, resolver.resolve(dialog, YES));
+        }
+        assertEquals(0, backend.getChildEnumerations());
+        assertEquals(0, backend.getTitleReads());
+        // Zwei Elternschritte (Gruppenbox, Dialog), Klasse und Control-ID des Buttons;
+        // keine Klassen- oder Titelabfrage des Dialogs fuer die Cache-Signatur
+        assertEquals(4000, backend.getNativeCalls());
+        assertEquals(1000, resolver.getHandleHits());
+        assertEquals(1, resolver.getScans());
+    }
+
+    @Test
+    @DisplayName("Resolver: Wiederverwendetes Handle eines fremden Fensters ist kein Treffer")
+    void testRecycledHandleRejected() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        long dialog = openDialog(backend);
+        ControlResolver resolver = new ControlResolver(backend);
+        long yes = resolver.resolve(dialog, YES);
+        long group = backend.getParent(yes);
+
+        backend.closeWindow(yes);
+        backend.openWindow(yes, "Fremdes Fenster");
+        long recreated = backend.openControl(group, "Button", "&Ja", 6);
+
+        assertEquals(recreated, resolver.resolve(dialog, YES));
+        assertEquals(0, resolver.getHandleHits());
+        assertEquals(1, resolver.getPathHits());
+    }
+
+    @Test
+    @DisplayName("Resolver: Neue Dialoginstanz wird ueber den Control-ID-Pfad aufgeloest")
+    void testPathReuseForNewDialogInstance() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        ControlResolver resolver = new ControlResolver(backend);
+        long first = openDialog(backend);
+        resolver.resolve(first, YES);
+        backend.closeWindow(first);
+
+        long second = openDialog(backend);
+        backend.setBounds(second, 500, 500, 800, 700);
+        backend.resetCounters();
+        long yes = resolver.resolve(second, YES);
+
+        assertEquals("&Ja", backend.getWindowTitle(yes));
+        assertEquals(second, resolver.dialogOf(yes));
+        assertEquals(0, backend.getChildEnumerations(), "Pfad statt Enumeration");
+        assertEquals(1, resolver.getPathHits());
+    }
+
+    @Test
+    @DisplayName("Resolver: Ungueltiger Pfad fuehrt zu neuer Enumeration")
+    void testRescanWhenLayoutChanges() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        ControlResolver resolver = new ControlResolver(backend);
+        long first = openDialog(backend);
+        resolver.resolve(first, YES);
+        backend.closeWindow(first);
+
+        // Gleicher Dialog, aber Button ohne Gruppenbox
+        long second = backend.openWindow("Speichern?");
+        backend.setClassName(second, "#32770");
+        long yes = backend.openControl(second, "Button", "&Ja", 6);
+
+        assertEquals(yes, resolver.resolve(second, YES));
+        assertEquals(2, resolver.getScans());
+    }
+
+    @Test
+    @DisplayName("Resolver: Steuerelement unter dem Mauszeiger beschreiben")
+    void testDescribe() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        long dialog = openDialog(backend);
+        ControlResolver resolver = new ControlResolver(backend);
+        long yes = resolver.resolve(dialog, YES);
+
+        assertEquals(YES, resolver.describe(yes));
+        assertNull(resolver.describe(dialog), "Top-Level-Fenster ist kein Steuerelement");
+        assertNull(resolver.describe(0));
+    }
+}
@@ -0,0 +1,112 @@
+package dev.automation.assistant.service;
+
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer den {@link MultiTargetMonitor} gegen ein {@link InMemoryWindowBackend}.
+ */
+public class MultiTargetMonitorTest {
+
+    @Test
+    @DisplayName("MultiTargetMonitor: Treffer werden an das richtige Ziel gemeldet")
+    void testDispatchToMatchingTarget() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        MultiTargetMonitor monitor = new MultiTargetMonitor(backend, 100);
+
+        List<String> errors = new ArrayList<>();
+        List<String> merges = new ArrayList<>();
+        monitor.addTarget(MonitorTarget.exactTitle("Fehler", (h, t) -> errors.add(t)));
+        monitor.addTarget(new MonitorTarget("Merge", t -> t.startsWith("Merge"), (h, t) -> merges.add(t)));
+
+        backend.openWindow("Editor");
+        backend.openWindow("Fehler");
+        backend.openWindow("Merge 1");
+        backend.openWindow("Merge 2");
+
+        assertEquals(3, monitor.tick());
+        assertEquals(List.of("Fehler"), errors);
+        assertEquals(List.of("Merge 1", "Merge 2"), merges);
+    }
+
+    @Test
+    @DisplayName("MultiTargetMonitor: Offene Fenster werden nur einmal gemeldet, neue Instanzen erneut")
+    void testReportOncePerAppearance() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        MultiTargetMonitor monitor = new MultiTargetMonitor(backend, 100);
+        List<Long> hits = new ArrayList<>();
+        monitor.addTarget(MonitorTarget.exactTitle("Fehler", (h, t) -> hits.add(h)));
+
+        long first = backend.openWindow("Fehler");
+        monitor.tick();
+        monitor.tick();
+        assertEquals(List.of(first), hits);
+
+        long second = backend.openWindow("Fehler");
+        monitor.tick();
+        assertEquals(List.of(first, second), hits);
+
+        // Handle wird nach dem Schliessen wiederverwendet -> neues Fenster
+        backend.closeWindow(first);
+        monitor.tick();
+        backend.openWindow(first, "Fehler");
+        monitor.tick();
+        assertEquals(List.of(first, second, first), hits);
+    }
+
+    @Test
+    @DisplayName("MultiTargetMonitor: Native Aufrufe unabhaengig von der Zielanzahl")
+    void testNativeCallsConstantInTargets() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        for (int i = 0; i < 20; i++) {
+            backend.openWindow("Fenster " + i);
+        }
+
+        MultiTargetMonitor few = new MultiTargetMonitor(backend, 100);
+        few.addTarget(MonitorTarget.exactTitle("Fenster 1", (h, t) -> { }));
+        backend.resetCounters();
+        few.tick();
+        long callsFew = backend.getNativeCalls();
+
+        MultiTargetMonitor many = new MultiTargetMonitor(backend, 100);
+        for (int i = 0; i < 50; i++) {
+            many.addTarget(MonitorTarget.exactTitle("Fenster " + i, (h, t) -> { }));
+        }
+        backend.resetCounters();
+        many.tick();
+
+        assertEquals(callsFew, backend.getNativeCalls());
+        assertEquals(1, backend.getEnumerateCalls());
+        assertEquals(20, backend.getTitleReads());
+    }
+
+    @Test
+    @DisplayName("MultiTargetMonitor: Umbenennung und spaet registrierte Ziele")
+    void testTitleChangeAndLateTarget() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        MultiTargetMonitor monitor = new MultiTargetMonitor(backend, 100);
+        List<String> hits = new ArrayList<>();
+        monitor.addTarget(new MonitorTarget("Merge", t -> t.startsWith("Merge"), (h, t) -> hits.add(t)));
+
+        long window = backend.openWindow("Laden...");
+        monitor.tick();
+        backend.setTitle(window, "Merge 1");
+        monitor.tick();
+        backend.setTitle(window, "Merge 2");                     // passt weiterhin -> keine Meldung
+        monitor.tick();
+        assertEquals(List.of("Merge 1"), hits);
+
+        List<String> late = new ArrayList<>();
+        monitor.addTarget(MonitorTarget.exactTitle("Merge 2", (h, t) -> late.add(t)));
+        assertEquals(2, monitor.getTargetCount());
+        assertEquals(1, monitor.tick(), "Bereits offene Fenster werden fuer neue Ziele gemeldet");
+        monitor.tick();
+        assertEquals(List.of("Merge 2"), late);
+    }
+}
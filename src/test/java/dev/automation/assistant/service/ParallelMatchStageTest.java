@@ -0,0 +1,148 @@
+package dev.automation.assistant.service;
+
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer die {@link ParallelMatchStage} und ihren Einsatz im {@link MultiTargetMonitor}.
+ * Parallele und serielle Auswertung muessen identische, gleich geordnete Treffer liefern.
+ */
+public class ParallelMatchStageTest {
+
+    private static final String[] WORDS = {"Fehler", "Merge", "Datei", "Warnung", "Bericht", "Update"};
+
+    private static MonitorTarget[] targets() {
+        return new MonitorTarget[]{
+                MonitorTarget.exactTitle("Fehler 7", (h, t) -> { }),
+                new MonitorTarget("Merge", t -> t.startsWith("Merge"), (h, t) -> { }),
+                new MonitorTarget("Sieben", t -> t.endsWith("7"), (h, t) -> { })
+        };
+    }
+
+    private static List<Long> collect(ParallelMatchStage.Hits hits) {
+        List<Long> result = new ArrayList<>();
+        for (int i = 0; i < hits.size(); i++) {
+            result.add((long) hits.candidateAt(i) << 32 | hits.targetAt(i));
+        }
+        return result;
+    }
+
+    @Test
+    @DisplayName("Paralleler Abgleich liefert dieselben Treffer in derselben Reihenfolge wie seriell")
+    void testParallelEqualsSerial() {
+        Random random = new Random(11);
+        ParallelMatchStage.Batch batch = new ParallelMatchStage.Batch();
+        for (int i = 0; i < 20_000; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(20);
+            if (random.nextInt(10) == 0) {
+                batch.addRenamed(i, title, WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(20));
+            } else {
+                batch.add(i, title);
+            }
+        }
+        MonitorTarget[] targets = targets();
+
+        ParallelMatchStage serial = new ParallelMatchStage(1, 100);
+        ParallelMatchStage.Hits expected = new ParallelMatchStage.Hits();
+        int count = serial.evaluate(batch, targets, expected);
+        assertTrue(count > 1000);
+        assertEquals(0, serial.getParallelRuns());
+
+        try (ParallelMatchStage parallel = new ParallelMatchStage(4, 100)) {
+            ParallelMatchStage.Hits actual = new ParallelMatchStage.Hits();
+            for (int run = 0; run < 3; run++) {
+                assertEquals(count, parallel.evaluate(batch, targets, actual));
+                assertEquals(collect(expected), collect(actual));
+            }
+            assertEquals(3, parallel.getParallelRuns());
+        }
+    }
+
+    @Test
+    @DisplayName("Nach dem Schliessen wird der Pool bei Bedarf neu erzeugt")
+    void testReopenAfterClose() {
+        ParallelMatchStage.Batch batch = new ParallelMatchStage.Batch();
+        for (int i = 0; i < 1000; i++) {
+            batch.add(i, WORDS[i % WORDS.length] + " " + i % 20);
+        }
+        ParallelMatchStage.Hits expected = new ParallelMatchStage.Hits();
+        int count = new ParallelMatchStage(1, 100).evaluate(batch, targets(), expected);
+
+        ParallelMatchStage stage = new ParallelMatchStage(4, 100);
+        ParallelMatchStage.Hits actual = new ParallelMatchStage.Hits();
+        assertEquals(count, stage.evaluate(batch, targets(), actual));
+        stage.close();
+        assertEquals(count, stage.evaluate(batch, targets(), actual));
+        assertEquals(collect(expected), collect(actual));
+        assertEquals(2, stage.getParallelRuns());
+        stage.close();
+    }
+
+    @Test
+    @DisplayName("Unterhalb der Schwelle wird seriell abgeglichen, umbenannte Fenster nur bei neuem Treffer")
+    void testThresholdAndRename() {
+        ParallelMatchStage stage = new ParallelMatchStage(4, 1000);
+        ParallelMatchStage.Batch batch = new ParallelMatchStage.Batch();
+        batch.add(1, "Merge 1");
+        batch.addRenamed(2, "Merge 2", "Merge alt");
+        batch.addRenamed(3, "Fehler 7", "Fehler 6");
+        ParallelMatchStage.Hits hits = new ParallelMatchStage.Hits();
+
+        assertEquals(3, stage.evaluate(batch, targets(), hits));
+        assertEquals(List.of(1L, 2L << 32, 2L << 32 | 2), collect(hits));
+        assertEquals(0, stage.getParallelRuns());
+
+        assertEquals(0, stage.evaluate(batch, new MonitorTarget[0], hits));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelMatchStage(0, 1));
+    }
+
+    @Test
+    @DisplayName("MultiTargetMonitor: paralleler und serieller Monitor melden identisch auf dem Monitor-Thread")
+    void testMonitorDeterministic() {
+        List<String> serial = runMonitor(1);
+        List<String> parallel = runMonitor(4);
+        assertTrue(serial.size() > 500);
+        assertEquals(serial, parallel);
+    }
+
+    /** Fuehrt mehrere Ticks mit Fensterwechseln aus und protokolliert alle Meldungen */
+    private static List<String> runMonitor(int parallelism) {
+        Random random = new Random(5);
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        List<Long> handles = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            handles.add(backend.openWindow(WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(20)));
+        }
+        MultiTargetMonitor monitor = new MultiTargetMonitor(backend, 1000, new AutomationMetrics(), parallelism, 64);
+        List<String> reported = new ArrayList<>();
+        Thread caller = Thread.currentThread();
+        monitor.addTarget(new MonitorTarget("Merge", t -> t.startsWith("Merge"), (h, t) -> {
+            assertSame(caller, Thread.currentThread());
+            reported.add("Merge:" + h + ":" + t);
+        }));
+        monitor.addTarget(new MonitorTarget("Sieben", t -> t.endsWith("7"), (h, t) -> reported.add("7:" + h + ":" + t)));
+        monitor.tick();
+
+        for (int tick = 0; tick < 5; tick++) {
+            for (int i = 0; i < 200; i++) {
+                long handle = handles.get(random.nextInt(handles.size()));
+                backend.setTitle(handle, WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(20));
+            }
+            if (tick == 2) {
+                monitor.addTarget(MonitorTarget.exactTitle("Fehler 7", (h, t) -> reported.add("F:" + h)));
+            }
+            monitor.tick();
+        }
+        assertEquals(parallelism > 1, monitor.getMatchStage().getParallelRuns() > 0);
+        monitor.stop();
+        return reported;
+    }
+}
@@ -0,0 +1,85 @@
+package dev.automation.assistant.service;
+
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.platform.InMemoryProcessBackend;
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import dev.automation.assistant.platform.ProcessIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer den {@link ProcessPrefilter} im {@link MultiTargetMonitor}: Fenster fremder
+ * Prozesse werden ohne Titelabruf verworfen.
+ */
+public class ProcessPrefilterTest {
+
+    @Test
+    @DisplayName("Nur Fenster erlaubter Programme werden gelesen und gemeldet")
+    void testRejectsBeforeTitleRead() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        InMemoryProcessBackend processes = new InMemoryProcessBackend();
+        processes.startProcess(10, "C:\\Windows\\notepad.exe");
+        processes.startProcess(20, "C:\\Programme\\Browser\\browser.exe");
+        List<Long> notepad = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            long handle = backend.openWindow("Fehler " + i);
+            boolean editor = i % 10 == 0;
+            backend.setProcessId(handle, editor ? 10 : 20);
+            if (editor) {
+                notepad.add(handle);
+            }
+        }
+
+        AutomationMetrics metrics = new AutomationMetrics();
+        ProcessPrefilter prefilter = new ProcessPrefilter(backend, new ProcessIndex(processes), metrics);
+        prefilter.setExecutables(List.of("Notepad.exe"));
+        assertEquals(Set.of("notepad.exe"), prefilter.getExecutables());
+
+        MultiTargetMonitor monitor = new MultiTargetMonitor(backend, 100, metrics, 1, 512);
+        monitor.setWindowFilter(prefilter);
+        List<Long> hits = new ArrayList<>();
+        monitor.addTarget(new MonitorTarget("Fehler", t -> t.startsWith("Fehler"), (h, t) -> hits.add(h)));
+
+        backend.resetCounters();
+        assertEquals(100, monitor.tick());
+        assertEquals(notepad, hits);
+        assertEquals(100, backend.getTitleReads());
+        assertEquals(900, metrics.getPrefiltered());
+        // Pro Prozess genau ein OpenProcess, alles Weitere aus dem Cache
+        assertEquals(2, processes.getOpenCalls());
+
+        // Ohne Einschraenkung passieren alle Fenster und werden als hinzugekommen gemeldet
+        prefilter.setExecutables(null);
+        assertFalse(prefilter.isActive());
+        backend.resetCounters();
+        assertEquals(900, monitor.tick());
+        assertEquals(1000, backend.getTitleReads());
+        assertEquals(2, processes.getOpenCalls());
+    }
+
+    @Test
+    @DisplayName("Fenster unbekannter Prozesse werden bei aktivem Filter verworfen")
+    void testUnknownProcess() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        InMemoryProcessBackend processes = new InMemoryProcessBackend();
+        long handle = backend.openWindow("Fehler");
+        backend.setProcessId(handle, 99);
+        ProcessPrefilter prefilter = new ProcessPrefilter(backend, new ProcessIndex(processes), new AutomationMetrics());
+
+        assertTrue(prefilter.test(handle));
+        prefilter.setExecutables(Set.of("notepad.exe"));
+        assertFalse(prefilter.test(handle));
+        assertNull(prefilter.executableOf(handle));
+
+        processes.startProcess(99, "notepad.exe");
+        prefilter.setExecutables(Set.of("calc.exe", "notepad.exe"));
+        // Der negative Eintrag gilt noch; ein neues Fenster des Prozesses wird erst danach erkannt
+        assertFalse(prefilter.test(handle));
+    }
+}
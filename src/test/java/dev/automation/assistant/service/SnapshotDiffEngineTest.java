@@ -0,0 +1,122 @@
+package dev.automation.assistant.service;
+
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer den {@link SnapshotDiffEngine} gegen ein {@link InMemoryWindowBackend}.
+ */
+public class SnapshotDiffEngineTest {
+
+    /** Zeichnet alle Aenderungen als lesbare Zeilen auf */
+    private static final class Recorder implements WindowChangeListener {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onWindowAdded(long handle, String title) {
+            events.add("+" + title);
+        }
+
+        @Override
+        public void onWindowRemoved(long handle, String lastTitle) {
+            events.add("-" + lastTitle);
+        }
+
+        @Override
+        public void onTitleChanged(long handle, String oldTitle, String newTitle) {
+            events.add(oldTitle + "->" + newTitle);
+        }
+    }
+
+    @Test
+    @DisplayName("Diff: hinzugefuegte, entfernte und umbenannte Fenster werden exakt gemeldet")
+    void testPreciseEvents() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        SnapshotDiffEngine engine = new SnapshotDiffEngine(backend);
+        Recorder recorder = new Recorder();
+
+        long editor = backend.openWindow("Editor");
+        long dialog = backend.openWindow("Fehler");
+        assertEquals(2, engine.tick(recorder));
+        assertEquals(List.of("+Editor", "+Fehler"), recorder.events);
+
+        recorder.events.clear();
+        assertEquals(0, engine.tick(recorder), "Unveraenderter Zustand erzeugt keine Ereignisse");
+
+        backend.closeWindow(dialog);
+        backend.setTitle(editor, "Editor *");
+        backend.openWindow("Speichern?");
+        assertEquals(3, engine.tick(recorder));
+        assertEquals(List.of("Editor->Editor *", "-Fehler", "+Speichern?"), recorder.events);
+    }
+
+    @Test
+    @DisplayName("Diff: wechselnde Dialoge und zweite Instanz werden jeweils gemeldet")
+    void testAlternatingAndDuplicateDialogs() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        SnapshotDiffEngine engine = new SnapshotDiffEngine(backend);
+        engine.prime();
+        Recorder recorder = new Recorder();
+
+        long a = backend.openWindow("Dialog A");
+        engine.tick(recorder);
+        backend.closeWindow(a);
+        long b = backend.openWindow("Dialog B");
+        engine.tick(recorder);
+        backend.closeWindow(b);
+        backend.openWindow(a, "Dialog A");
+        backend.openWindow("Dialog A");
+        engine.tick(recorder);
+
+        // Ereignisse eines Ticks kommen in Handle-Reihenfolge: a < b < neue Instanz
+        assertEquals(List.of("+Dialog A", "-Dialog A", "+Dialog B", "+Dialog A", "-Dialog B", "+Dialog A"),
+                recorder.events);
+    }
+
+    @Test
+    @DisplayName("Diff: prime() und reset() steuern die Erstmeldung")
+    void testPrimeAndReset() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        backend.openWindow("Bereits offen");
+        SnapshotDiffEngine engine = new SnapshotDiffEngine(backend);
+        Recorder recorder = new Recorder();
+
+        engine.prime();
+        assertEquals(0, engine.tick(recorder));
+
+        engine.reset();
+        assertEquals(1, engine.tick(recorder));
+        assertEquals(List.of("+Bereits offen"), recorder.events);
+    }
+
+    @Test
+    @DisplayName("Diff: Schnappschuss ist sortiert und waechst ueber die Anfangskapazitaet")
+    void testSortedSnapshotGrowth() {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        // Absteigende Handles: Enumerationsreihenfolge entspricht nicht der Sortierung
+        for (int i = 1000; i > 0; i--) {
+            backend.openWindow(0x100000L + i * 8L, "Fenster " + i);
+        }
+        SnapshotDiffEngine engine = new SnapshotDiffEngine(backend);
+        Recorder recorder = new Recorder();
+
+        backend.resetCounters();
+        assertEquals(1000, engine.tick(recorder));
+        assertEquals(1 + 1000, backend.getNativeCalls(), "Ein EnumWindows plus ein Titel pro Fenster");
+
+        WindowSnapshot snapshot = engine.getSnapshot();
+        assertEquals(1000, snapshot.size());
+        for (int i = 1; i < snapshot.size(); i++) {
+            assertTrue(snapshot.handleAt(i - 1) < snapshot.handleAt(i));
+        }
+        assertEquals("Fenster 1", snapshot.titleAt(0));
+        assertEquals(0, snapshot.indexOf(0x100008L));
+        assertTrue(snapshot.indexOf(0x100004L) < 0);
+    }
+}
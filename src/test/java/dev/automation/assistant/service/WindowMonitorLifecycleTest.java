@@ -0,0 +1,215 @@
+package dev.automation.assistant.service;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.WinDef.HWND;
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import dev.automation.assistant.service.event.SimulatedWindowEventSource;
+import dev.automation.assistant.service.event.WindowEventListener;
+import dev.automation.assistant.service.event.WindowEventType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer den Lebenszyklus des {@link WindowMonitorService}: Start, Stopp, Pause,
+ * Fortsetzen, Umstellen und Neustart. Das Polling laeuft gegen ein
+ * {@link InMemoryWindowBackend}.
+ */
+public class WindowMonitorLifecycleTest {
+
+    private static HWND hwnd(long value) {
+        return new HWND(new Pointer(value));
+    }
+
+    private static WindowMonitorService polling(InMemoryWindowBackend backend, long intervalMs) {
+        return new WindowMonitorService(null, backend, new AutomationMetrics(), intervalMs);
+    }
+
+    /** Lebende Polling-Threads aller Dienste */
+    private static long monitorThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && thread.getName().startsWith("Window-Monitor-"))
+                .count();
+    }
+
+    @Test
+    @DisplayName("Stopp weckt das geparkte Polling sofort und ist in unter 50 ms fertig")
+    void testStopIsImmediate() throws InterruptedException {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        backend.openWindow(2, "Fehler");
+        WindowMonitorService monitor = polling(backend, WindowMonitorService.DEFAULT_POLL_INTERVAL_MS);
+        CountDownLatch detected = new CountDownLatch(1);
+        monitor.startMonitoring(hwnd(1), "Fehler", found -> detected.countDown());
+        // Erster Durchlauf ist erfolgt, der Thread wartet jetzt 5 s geparkt
+        assertTrue(detected.await(1, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        assertTrue(monitor.stopMonitoring(50, TimeUnit.MILLISECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMs < 50, "Stopp dauerte " + elapsedMs + " ms");
+        assertEquals(WindowMonitorService.State.STOPPED, monitor.getState());
+
+        // Idempotent
+        assertTrue(monitor.stopMonitoring());
+        assertFalse(monitor.isActive());
+    }
+
+    @Test
+    @DisplayName("Pause verwirft Fenster, Fortsetzen prueft sofort ohne auf das Intervall zu warten")
+    void testPauseResume() throws InterruptedException {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        WindowMonitorService monitor = polling(backend, WindowMonitorService.DEFAULT_POLL_INTERVAL_MS);
+        CountDownLatch detected = new CountDownLatch(1);
+        monitor.startMonitoring(hwnd(1), "Fehler", found -> detected.countDown());
+
+        assertTrue(monitor.pause());
+        assertFalse(monitor.pause());
+        assertEquals(WindowMonitorService.State.PAUSED, monitor.getState());
+        assertTrue(monitor.isActive());
+        backend.openWindow(2, "Fehler");
+        assertFalse(detected.await(100, TimeUnit.MILLISECONDS), "pausiert darf nichts gemeldet werden");
+
+        assertTrue(monitor.resume());
+        assertFalse(monitor.resume());
+        assertTrue(detected.await(1, TimeUnit.SECONDS), "Fortsetzen sollte sofort pruefen");
+        assertTrue(monitor.stopMonitoring());
+        assertFalse(monitor.pause());
+    }
+
+    @Test
+    @DisplayName("Umstellen meldet bereits offene Fenster mit dem neuen Titel sofort")
+    void testReconfigure() throws InterruptedException {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        backend.openWindow(2, "Fehler");
+        backend.openWindow(3, "Warnung");
+        WindowMonitorService monitor = polling(backend, WindowMonitorService.DEFAULT_POLL_INTERVAL_MS);
+        assertFalse(monitor.reconfigure(hwnd(1), "Warnung", found -> { }), "gestoppt nicht umstellbar");
+
+        List<HWND> errors = new CopyOnWriteArrayList<>();
+        CountDownLatch warned = new CountDownLatch(1);
+        List<HWND> warnings = new CopyOnWriteArrayList<>();
+        monitor.startMonitoring(hwnd(1), "Fehler", errors::add);
+        assertTrue(monitor.reconfigure(hwnd(1), "Warnung", found -> {
+            warnings.add(found);
+            warned.countDown();
+        }));
+        assertTrue(warned.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of(hwnd(3)), warnings);
+        assertTrue(errors.size() <= 1);
+        assertTrue(monitor.stopMonitoring());
+    }
+
+    @Test
+    @DisplayName("Ereignismodus: nach Stopp keine Meldungen, Neustart ohne erneute Registrierung")
+    void testEventRestart() {
+        AtomicInteger starts = new AtomicInteger();
+        SimulatedWindowEventSource source = new SimulatedWindowEventSource() {
+            @Override
+            public void start(WindowEventListener listener) {
+                starts.incrementAndGet();
+                super.start(listener);
+            }
+        };
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        // Ohne passenden Titel meldet die Suche beim Start nichts; nur Ereignisse zaehlen
+        backend.openWindow(2, "Laden");
+        WindowMonitorService monitor = new WindowMonitorService(source, backend, new AutomationMetrics());
+        List<HWND> reported = new CopyOnWriteArrayList<>();
+
+        monitor.startMonitoring(hwnd(1), "Fehler", reported::add);
+        assertTrue(monitor.stopMonitoring());
+        source.emit(WindowEventType.CREATED, 2, "Fehler");
+        assertTrue(reported.isEmpty());
+
+        monitor.startMonitoring(hwnd(1), "Fehler", reported::add);
+        assertTrue(monitor.pause());
+        source.emit(WindowEventType.CREATED, 2, "Fehler");
+        assertTrue(monitor.resume());
+        source.emit(WindowEventType.CREATED, 2, "Fehler");
+        assertEquals(List.of(hwnd(2)), reported);
+        assertEquals(1, starts.get());
+
+        monitor.close();
+        assertFalse(source.isStarted());
+    }
+
+    @Test
+    @DisplayName("Stresstest: tausende Start/Stopp-Zyklen hinterlassen keine Threads")
+    void testStartStopStress() {
+        long before = monitorThreads();
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        backend.openWindow(2, "Fehler");
+        WindowMonitorService monitor = polling(backend, 1);
+        for (int i = 0; i < 2000; i++) {
+            monitor.startMonitoring(hwnd(1), "Fehler", found -> { });
+            if ((i & 1) == 0) {
+                monitor.pause();
+                monitor.resume();
+            }
+            assertTrue(monitor.stopMonitoring(1, TimeUnit.SECONDS), "Zyklus " + i);
+        }
+        assertEquals(before, monitorThreads());
+    }
+
+    @Test
+    @DisplayName("Stresstest: parallele Zustandswechsel enden in einem sauberen Stopp")
+    void testConcurrentLifecycle() throws InterruptedException {
+        long before = monitorThreads();
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        backend.openWindow(2, "Fehler");
+        WindowMonitorService monitor = polling(backend, 1);
+        AtomicInteger failedStops = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 1000; i++) {
+                    switch (random.nextInt(5)) {
+                        case 0:
+                            monitor.startMonitoring(hwnd(1), "Fehler", found -> { });
+                            break;
+                        case 1:
+                            if (!monitor.stopMonitoring(1, TimeUnit.SECONDS)) {
+                                failedStops.incrementAndGet();
+                            }
+                            break;
+                        case 2:
+                            monitor.pause();
+                            break;
+                        case 3:
+                            monitor.resume();
+                            break;
+                        default:
+                            monitor.reconfigure(hwnd(1), random.nextBoolean() ? "Fehler" : "Warnung", found -> { });
+                            break;
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(monitor.stopMonitoring(1, TimeUnit.SECONDS));
+        assertEquals(0, failedStops.get());
+        assertEquals(before, monitorThreads());
+    }
+}
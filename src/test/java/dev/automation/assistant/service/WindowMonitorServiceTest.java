@@ -0,0 +1,149 @@
+package dev.automation.assistant.service;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.WinDef.HWND;
+import dev.automation.assistant.metrics.AutomationMetrics;
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import dev.automation.assistant.service.event.SimulatedWindowEventSource;
+import dev.automation.assistant.service.event.WindowEventType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer den {@link WindowMonitorService} im ereignisgesteuerten Modus.
+ * <p>
+ * Verwendet eine {@link SimulatedWindowEventSource} und laeuft daher
+ * ohne Windows-API.
+ * </p>
+ */
+public class WindowMonitorServiceTest {
+
+    private static HWND hwnd(long value) {
+        return new HWND(new Pointer(value));
+    }
+
+    /**
+     * Fake-Desktop, auf dem die Handles der simulierten Ereignisse existieren. Die Fenster
+     * tragen noch keinen gesuchten Titel, damit nur die Ereignisse Meldungen ausloesen.
+     */
+    private static InMemoryWindowBackend desktop(long... handles) {
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        for (long handle : handles) {
+            backend.openWindow(handle, "Laden");
+        }
+        return backend;
+    }
+
+    private static WindowMonitorService monitor(SimulatedWindowEventSource source, InMemoryWindowBackend backend) {
+        return new WindowMonitorService(source, backend, new AutomationMetrics());
+    }
+
+    @Test
+    @DisplayName("Ereignismodus: Callback feuert innerhalb weniger Millisekunden")
+    void testEventLatency() throws InterruptedException {
+        SimulatedWindowEventSource source = new SimulatedWindowEventSource();
+        WindowMonitorService monitor = monitor(source, desktop(42));
+
+        CountDownLatch detected = new CountDownLatch(1);
+        AtomicLong detectedAt = new AtomicLong();
+        monitor.startMonitoring(hwnd(1), "Fehler", found -> {
+            detectedAt.set(System.nanoTime());
+            detected.countDown();
+        });
+        assertTrue(source.isStarted(), "Ereignisquelle sollte gestartet sein");
+
+        long emittedAt = System.nanoTime();
+        source.emit(WindowEventType.CREATED, 42, "Fehler");
+
+        assertTrue(detected.await(1, TimeUnit.SECONDS), "Fenster sollte erkannt werden");
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(detectedAt.get() - emittedAt);
+        assertTrue(latencyMs < 50, "Latenz zu hoch: " + latencyMs + " ms");
+        source.close();
+    }
+
+    @Test
+    @DisplayName("Ereignismodus: Hauptfenster, fremde Titel und Duplikate werden ignoriert")
+    void testEventFiltering() {
+        SimulatedWindowEventSource source = new SimulatedWindowEventSource();
+        WindowMonitorService monitor = monitor(source, desktop(1, 2, 3));
+        List<HWND> reported = new CopyOnWriteArrayList<>();
+        monitor.startMonitoring(hwnd(1), "Fehler", reported::add);
+
+        source.emit(WindowEventType.SHOWN, 1, "Fehler");          // Hauptfenster
+        source.emit(WindowEventType.CREATED, 2, "Anderes");       // fremder Titel
+        source.emit(WindowEventType.CREATED, 3, "Fehler");
+        source.emit(WindowEventType.SHOWN, 3, "Fehler");          // Duplikat
+        source.emit(WindowEventType.DESTROYED, 4, "Fehler");      // kein Erscheinen
+        source.emit(WindowEventType.NAME_CHANGED, 2, "Fehler");   // Umbenennung
+
+        assertEquals(List.of(hwnd(3), hwnd(2)), reported);
+        source.close();
+    }
+
+    @Test
+    @DisplayName("Ereignismodus: abwechselnde Dialoge und zweite Instanz werden gemeldet")
+    void testAlternatingDialogs() {
+        SimulatedWindowEventSource source = new SimulatedWindowEventSource();
+        WindowMonitorService monitor = monitor(source, desktop(1, 2, 3));
+        List<HWND> reported = new CopyOnWriteArrayList<>();
+        monitor.startMonitoring(hwnd(1), "Fehler", reported::add);
+
+        source.emit(WindowEventType.CREATED, 2, "Fehler");
+        source.emit(WindowEventType.CREATED, 3, "Fehler");        // zweite Instanz
+        source.emit(WindowEventType.DESTROYED, 2, "Fehler");
+        source.emit(WindowEventType.CREATED, 2, "Fehler");        // Handle wiederverwendet
+        source.emit(WindowEventType.SHOWN, 3, "Fehler");          // weiterhin offen
+
+        assertEquals(List.of(hwnd(2), hwnd(3), hwnd(2)), reported);
+        source.close();
+    }
+
+    @Test
+    @DisplayName("Ereignismodus: recyceltes Handle ohne DESTROYED-Ereignis wird erneut gemeldet")
+    void testHandleReuseWithoutDestroyEvent() {
+        SimulatedWindowEventSource source = new SimulatedWindowEventSource();
+        InMemoryWindowBackend backend = desktop(1, 5);
+        backend.setProcessId(5, 100);
+        WindowMonitorService monitor = monitor(source, backend);
+        List<HWND> reported = new CopyOnWriteArrayList<>();
+        monitor.startMonitoring(hwnd(1), "Fehler", reported::add);
+
+        source.emit(WindowEventType.CREATED, 5, "Fehler");
+        // Fenster wird geschlossen, das Ereignis geht verloren; ein anderer Prozess erhaelt das Handle
+        backend.closeWindow(5);
+        backend.openWindow(5, "Fehler");
+        backend.setProcessId(5, 200);
+        source.emit(WindowEventType.SHOWN, 5, "Fehler");
+        source.emit(WindowEventType.SHOWN, 5, "Fehler");          // dasselbe neue Fenster
+
+        assertEquals(List.of(hwnd(5), hwnd(5)), reported);
+        source.close();
+    }
+
+    @Test
+    @DisplayName("Ereignismodus: beim Start und Umstellen bereits offene Fenster werden einmal gemeldet")
+    void testInitialScan() {
+        SimulatedWindowEventSource source = new SimulatedWindowEventSource();
+        InMemoryWindowBackend backend = desktop(1);
+        backend.openWindow(2, "Fehler");
+        backend.openWindow(3, "Warnung");
+        WindowMonitorService monitor = monitor(source, backend);
+        List<HWND> reported = new CopyOnWriteArrayList<>();
+
+        monitor.startMonitoring(hwnd(1), "Fehler", reported::add);
+        assertEquals(List.of(hwnd(2)), reported);
+        source.emit(WindowEventType.SHOWN, 2, "Fehler");          // bereits gemeldet
+
+        assertTrue(monitor.reconfigure(hwnd(1), "Warnung", reported::add));
+        assertEquals(List.of(hwnd(2), hwnd(3)), reported);
+        monitor.close();
+    }
+}
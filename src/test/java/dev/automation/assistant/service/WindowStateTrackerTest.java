@@ -0,0 +1,150 @@
+package dev.automation.assistant.service;
+
+import dev.automation.assistant.service.WindowStateTracker.Observation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer den {@link WindowStateTracker}.
+ */
+public class WindowStateTrackerTest {
+
+    private static final long SIG_A = WindowStateTracker.signature(100, "#32770");
+    private static final long SIG_B = WindowStateTracker.signature(200, "#32770");
+
+    @Test
+    @DisplayName("Tracker: neu, unveraendert, Titelwechsel und recyceltes Handle")
+    void testObservations() {
+        WindowStateTracker tracker = new WindowStateTracker();
+
+        assertEquals(Observation.NEW, tracker.observe(0x1234, SIG_A, "Fehler", 10));
+        long generation = tracker.generationOf(0x1234);
+        assertEquals(Observation.UNCHANGED, tracker.observe(0x1234, SIG_A, "Fehler", 20));
+        assertEquals(Observation.TITLE_CHANGED, tracker.observe(0x1234, SIG_A, "Fehler (2)", 30));
+        assertEquals(10, tracker.firstSeenNanos(0x1234));
+        assertEquals(generation, tracker.generationOf(0x1234));
+
+        assertEquals(Observation.REUSED, tracker.observe(0x1234, SIG_B, "Fehler", 40));
+        assertTrue(tracker.generationOf(0x1234) > generation);
+        assertEquals(40, tracker.firstSeenNanos(0x1234));
+        assertEquals(1, tracker.size());
+        assertEquals(-1, tracker.generationOf(0x9999));
+    }
+
+    @Test
+    @DisplayName("Tracker: Aktionen gelten pro Generation")
+    void testActionsPerGeneration() {
+        WindowStateTracker tracker = new WindowStateTracker();
+        tracker.observe(0x10, SIG_A, "Speichern?", 0);
+
+        assertTrue(tracker.markAction(0x10, 1));
+        assertFalse(tracker.markAction(0x10, 1), "Aktion darf nur einmal vermerkt werden");
+        assertTrue(tracker.isActionApplied(0x10, 1));
+        assertFalse(tracker.isActionApplied(0x10, 0));
+
+        tracker.observe(0x10, SIG_B, "Speichern?", 1);
+        assertFalse(tracker.isActionApplied(0x10, 1), "Neue Generation startet ohne Aktionen");
+        assertFalse(tracker.markAction(0x20, 1), "Unbekanntes Handle");
+    }
+
+    @Test
+    @DisplayName("Tracker: Entfernen mit Backward-Shift haelt Probe-Ketten intakt")
+    void testRemoveKeepsChains() {
+        WindowStateTracker tracker = new WindowStateTracker(1024);
+        Random random = new Random(11);
+        Set<Long> reference = new HashSet<>();
+        for (int round = 0; round < 200_000; round++) {
+            long handle = 4L * (1 + random.nextInt(2000));
+            if (random.nextBoolean()) {
+                tracker.observe(handle, SIG_A, "t", round);
+                reference.add(handle);
+            } else {
+                assertEquals(reference.remove(handle), tracker.remove(handle));
+            }
+        }
+        assertEquals(reference.size(), tracker.size());
+        for (long handle = 4; handle <= 8000; handle += 4) {
+            assertEquals(reference.contains(handle), tracker.contains(handle), "Handle " + handle);
+        }
+    }
+
+    @Test
+    @DisplayName("Tracker: schrittweises Aufraeumen mit begrenztem Budget")
+    void testIncrementalSweep() {
+        WindowStateTracker tracker = new WindowStateTracker();
+        for (long handle = 4; handle <= 400; handle += 4) {
+            tracker.observe(handle, SIG_A, "t", 0);
+        }
+        // Nur Handles mit Vielfachen von 8 sind noch offen
+        int removed = 0;
+        int calls = 0;
+        while (tracker.size() > 50) {
+            int step = tracker.sweep(16, handle -> handle % 8 == 0);
+            assertTrue(step <= 16);
+            removed += step;
+            calls++;
+        }
+        assertEquals(50, removed);
+        assertTrue(calls > 1, "Aufraeumen sollte auf mehrere Aufrufe verteilt sein");
+        assertEquals(50, tracker.getEvicted());
+        for (long handle = 8; handle <= 400; handle += 8) {
+            assertTrue(tracker.contains(handle));
+        }
+    }
+
+    @Test
+    @DisplayName("Tracker: Aufraeumen nach Verkleinerung durch Entfernen bleibt in der Tabelle")
+    void testSweepAfterShrinkingRemove() {
+        WindowStateTracker tracker = new WindowStateTracker();
+        for (long handle = 4; handle <= 400; handle += 4) {
+            tracker.observe(handle, SIG_A, "t", 0);
+        }
+        // Cursor weit in die grosse Tabelle schieben, ohne etwas zu entfernen
+        tracker.sweep(tracker.capacity() - 1, handle -> true);
+        for (long handle = 4; handle <= 392; handle += 4) {
+            tracker.remove(handle);
+        }
+        assertEquals(16, tracker.capacity());
+        assertEquals(2, tracker.sweep(16, handle -> false));
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    @DisplayName("Tracker: Speicher bleibt flach ueber Millionen Fensterlebenszyklen")
+    void testFlatMemoryOverMillionsOfLifetimes() {
+        WindowStateTracker tracker = new WindowStateTracker();
+        long[] open = new long[200];
+        long nextHandle = 0x10000;
+        for (int i = 0; i < open.length; i++) {
+            open[i] = nextHandle += 4;
+            tracker.observe(open[i], SIG_A, "Fenster", 0);
+        }
+        int peakCapacity = tracker.capacity();
+
+        // 2 Millionen Lebenszyklen: ein Fenster schliesst, ein neues oeffnet; ohne explizites remove
+        Random random = new Random(3);
+        Set<Long> openSet = new HashSet<>();
+        for (long h : open) {
+            openSet.add(h);
+        }
+        for (int i = 0; i < 2_000_000; i++) {
+            int slot = random.nextInt(open.length);
+            openSet.remove(open[slot]);
+            open[slot] = nextHandle += 4;
+            openSet.add(open[slot]);
+            tracker.observe(open[slot], SIG_A, "Fenster", i);
+            tracker.sweep(4, openSet::contains);
+            peakCapacity = Math.max(peakCapacity, tracker.capacity());
+        }
+
+        assertTrue(tracker.size() < 1000, "Groesse: " + tracker.size());
+        assertTrue(peakCapacity <= 4096, "Kapazitaet gewachsen auf " + peakCapacity);
+        assertTrue(tracker.getEvicted() > 1_990_000);
+    }
+}
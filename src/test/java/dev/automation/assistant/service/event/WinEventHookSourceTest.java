@@ -0,0 +1,24 @@
+package dev.automation.assistant.service.event;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer die Hook-Bereiche der {@link WinEventHookSource}; laeuft ohne Windows-API.
+ */
+public class WinEventHookSourceTest {
+
+    @Test
+    @DisplayName("Hooks decken nur behandelte Ereignisse ab, keine Fokus- oder Positionsereignisse")
+    void testHookRanges() {
+        int[][] ranges = WinEventHookSource.hookRanges();
+        assertArrayEquals(new int[][]{{0x8000, 0x8002}, {0x800C, 0x800C}}, ranges);
+        for (int[] range : ranges) {
+            for (int id = range[0]; id <= range[1]; id++) {
+                assertNotNull(WindowEventType.fromWinEventId(id), "unbehandelte ID " + Integer.toHexString(id));
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package dev.automation.assistant.trace;
+
+import dev.automation.assistant.service.event.WindowEventType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer den {@link TraceReplayer}.
+ */
+public class TraceReplayerTest {
+
+    private static final String TITLE = "Fehler";
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Sturm aus {@code dialogs} Fehlerdialogen im Abstand von 2 ms, dazwischen fremde Fenster
+     * und wechselnde Titel; Handles werden nach dem Schliessen wiederverwendet.
+     */
+    private Path storm(int dialogs) throws IOException {
+        Path file = tempDir.resolve("storm.trace");
+        try (WindowTraceWriter writer = new WindowTraceWriter(file)) {
+            long t = 0;
+            for (int i = 0; i < dialogs; i++) {
+                long handle = 0x10000 + (i % 64) * 4;
+                writer.write(WindowEventType.CREATED, t, handle, "");
+                writer.write(WindowEventType.SHOWN, t + 100_000, handle, TITLE);
+                writer.write(WindowEventType.NAME_CHANGED, t + 200_000, handle, TITLE);
+                writer.write(WindowEventType.SHOWN, t + 300_000, 0x90000 + i * 4L, "Editor");
+                writer.write(WindowEventType.DESTROYED, t + 1_000_000, handle, "");
+                t += 2_000_000;
+            }
+        }
+        return file;
+    }
+
+    @Test
+    @DisplayName("Replay: Sturm mit 1000-facher Geschwindigkeit ohne verpasste oder doppelte Fenster")
+    void testStormAtMaxSpeed() throws IOException {
+        Path trace = storm(5_000);
+
+        ReplayReport report = new TraceReplayer(1000).replay(trace, TITLE);
+
+        assertEquals(25_000, report.getEvents());
+        assertEquals(5_000, report.getExpectedWindows());
+        assertEquals(5_000, report.getDetectedWindows());
+        assertEquals(0, report.getMissedWindows());
+        assertEquals(0, report.getDuplicateDetections());
+        assertEquals(0, report.getUnexpectedDetections());
+        assertEquals(5_000, report.getDetectionLatency().getCount());
+        // 10 s Aufnahme, mit 1000x also rund 10 ms plus Verarbeitung
+        assertTrue(report.getTraceNanos() >= 9_990_000_000L);
+        assertTrue(report.getReplayNanos() < 2_000_000_000L, report.toString());
+    }
+
+    @Test
+    @DisplayName("Replay: Echtzeit haelt die Zeitabstaende der Aufnahme ein")
+    void testRealTimePacing() throws IOException {
+        Path file = tempDir.resolve("slow.trace");
+        try (WindowTraceWriter writer = new WindowTraceWriter(file)) {
+            writer.write(WindowEventType.SHOWN, 0, 4, TITLE);
+            writer.write(WindowEventType.SHOWN, 150_000_000, 8, TITLE);
+        }
+
+        ReplayReport realTime = new TraceReplayer(1).replay(file, TITLE);
+        ReplayReport fast = new TraceReplayer(100).replay(file, TITLE);
+
+        assertTrue(realTime.getReplayNanos() >= 150_000_000, realTime.toString());
+        assertTrue(fast.getReplayNanos() < realTime.getReplayNanos());
+        assertEquals(2, realTime.getDetectedWindows());
+        assertEquals(2, fast.getDetectedWindows());
+    }
+
+    @Test
+    @DisplayName("Replay: Wiederverwendetes Handle ohne Schliessen-Ereignis wird als verpasst gemeldet")
+    void testMissedWindowIsReported() throws IOException {
+        Path file = tempDir.resolve("reuse.trace");
+        try (WindowTraceWriter writer = new WindowTraceWriter(file)) {
+            writer.write(WindowEventType.SHOWN, 0, 4, TITLE);
+            // DESTROYED ging verloren; gleiches Handle, gleicher Prozess und Klasse
+            writer.write(WindowEventType.CREATED, 1_000_000, 4, "");
+            writer.write(WindowEventType.SHOWN, 1_100_000, 4, TITLE);
+            writer.write(WindowEventType.SHOWN, 2_000_000, 8, "Anderes Fenster");
+        }
+
+        ReplayReport report = new TraceReplayer(1000).replay(file, TITLE);
+
+        assertEquals(2, report.getExpectedWindows());
+        assertEquals(1, report.getMissedWindows());
+        assertTrue(report.toString().contains("verpasst=1"), report.toString());
+    }
+
+    @Test
+    @DisplayName("Replay: Ungueltige Geschwindigkeit wird abgelehnt")
+    void testSpeedBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new TraceReplayer(0.5));
+        assertThrows(IllegalArgumentException.class, () -> new TraceReplayer(1001));
+        assertThrows(IllegalArgumentException.class, () -> new TraceReplayer(Double.NaN));
+    }
+}
@@ -0,0 +1,107 @@
+package dev.automation.assistant.trace;
+
+import dev.automation.assistant.service.event.SimulatedWindowEventSource;
+import dev.automation.assistant.service.event.WindowEventType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer das Trace-Format ({@link WindowTraceWriter}, {@link WindowTraceReader})
+ * und die {@link RecordingWindowEventSource}.
+ */
+public class WindowTraceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Trace: Ereignisse, Zeitabstaende und Titel ueberleben Schreiben und Lesen")
+    void testRoundTrip() throws IOException {
+        Path file = tempDir.resolve("storm.trace");
+        long t0 = 5_000_000_000L;
+        try (WindowTraceWriter writer = new WindowTraceWriter(file)) {
+            writer.write(WindowEventType.CREATED, t0, 0x10010, "");
+            writer.write(WindowEventType.SHOWN, t0 + 1_500_000, 0x10010, "Fehler");
+            writer.write(WindowEventType.NAME_CHANGED, t0 + 2_000_000, 0x10010, "Fehler äöü");
+            writer.write(WindowEventType.DESTROYED, t0 + 1_000_000_000, 0x10010, "");
+            writer.write(WindowEventType.SHOWN, t0 + 1_000_010_000, 0xFFFFFFFFFFFF0000L, "Fehler");
+        }
+
+        List<String> events = new ArrayList<>();
+        long count = WindowTraceReader.read(file, (type, offset, handle, title) ->
+                events.add(type + "@" + offset / 1_000 + "us " + Long.toHexString(handle) + " '" + title + "'"));
+
+        assertEquals(5, count);
+        assertEquals(List.of(
+                "CREATED@0us 10010 ''",
+                "SHOWN@1500us 10010 'Fehler'",
+                "NAME_CHANGED@2000us 10010 'Fehler äöü'",
+                "DESTROYED@1000000us 10010 ''",
+                "SHOWN@1000010us ffffffffffff0000 'Fehler'"), events);
+    }
+
+    @Test
+    @DisplayName("Trace: Wiederkehrende Dialoge kosten nur wenige Bytes pro Ereignis")
+    void testCompactEncoding() throws IOException {
+        Path file = tempDir.resolve("compact.trace");
+        try (WindowTraceWriter writer = new WindowTraceWriter(file)) {
+            for (int i = 0; i < 10_000; i++) {
+                long handle = 0x20000 + (i % 50) * 4;
+                writer.write(WindowEventType.SHOWN, i * 3_000_000L, handle, "Speichern unter");
+                writer.write(WindowEventType.DESTROYED, i * 3_000_000L + 1_000_000, handle, "");
+            }
+        }
+        double bytesPerEvent = (Files.size(file) - 12) / 20_000.0;
+        assertTrue(bytesPerEvent <= 8, "Bytes pro Ereignis: " + bytesPerEvent);
+    }
+
+    @Test
+    @DisplayName("Trace: Abgeschnittenes letztes Ereignis wird ignoriert")
+    void testTruncatedTrace() throws IOException {
+        Path file = tempDir.resolve("torn.trace");
+        try (WindowTraceWriter writer = new WindowTraceWriter(file)) {
+            writer.write(WindowEventType.SHOWN, 0, 4, "Eins");
+            writer.write(WindowEventType.SHOWN, 1_000, 8, "Zweiter langer Titel");
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 5);
+        }
+        List<String> titles = new ArrayList<>();
+        assertEquals(1, WindowTraceReader.read(file, (type, offset, handle, title) -> titles.add(title)));
+        assertEquals(List.of("Eins"), titles);
+
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> WindowTraceReader.read(file, (type, offset, handle, title) -> { }));
+    }
+
+    @Test
+    @DisplayName("Aufnahme: Ereignisse werden weitergereicht und mitgeschrieben")
+    void testRecordingSource() throws IOException {
+        Path file = tempDir.resolve("recorded.trace");
+        SimulatedWindowEventSource simulated = new SimulatedWindowEventSource();
+        List<String> delivered = new ArrayList<>();
+        try (RecordingWindowEventSource recording =
+                     new RecordingWindowEventSource(simulated, new WindowTraceWriter(file))) {
+            recording.start((type, hwnd, title, timestamp) -> delivered.add(type + " " + title));
+            simulated.emit(WindowEventType.SHOWN, 0x40, "Fehler");
+            simulated.emit(WindowEventType.DESTROYED, 0x40, "");
+            assertEquals(2, recording.getRecordedEvents());
+        }
+
+        assertEquals(List.of("SHOWN Fehler", "DESTROYED "), delivered);
+        List<String> recorded = new ArrayList<>();
+        WindowTraceReader.read(file, (type, offset, handle, title) -> recorded.add(type + " " + handle));
+        assertEquals(List.of("SHOWN 64", "DESTROYED 64"), recorded);
+        assertFalse(simulated.isStarted(), "Quelle muss mitgeschlossen werden");
+    }
+}
@@ -0,0 +1,139 @@
+package dev.automation.assistant.ui;
+
+import dev.automation.assistant.metrics.AutomationMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer {@link EventRing}, {@link DashboardModel} und {@link DashboardPanel}.
+ * Das Panel wird nur ueber {@code refresh()} angesprochen und kommt ohne Bildschirm aus.
+ */
+public class DashboardTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("EventRing: neueste zuerst, aelteste werden ueberschrieben")
+    void testRingWrap() {
+        EventRing ring = new EventRing(3);
+        assertEquals(4, ring.capacity());
+        EventRing.Entry[] target = new EventRing.Entry[8];
+        assertEquals(0, ring.snapshot(target));
+
+        for (int i = 0; i < 10; i++) {
+            ring.add("e" + i);
+        }
+        assertEquals(10, ring.getSequence());
+        assertEquals(4, ring.snapshot(target));
+        assertEquals("e9", target[0].getText());
+        assertEquals("e6", target[3].getText());
+        assertNull(target[4]);
+
+        EventRing.Entry[] small = new EventRing.Entry[2];
+        assertEquals(2, ring.snapshot(small));
+        assertEquals(9, small[0].getSequence());
+        assertEquals(8, small[1].getSequence());
+        assertThrows(IllegalArgumentException.class, () -> new EventRing(0));
+    }
+
+    @Test
+    @DisplayName("EventRing: parallele Erzeuger verlieren keine Sequenznummern")
+    void testRingConcurrent() throws InterruptedException {
+        EventRing ring = new EventRing(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (int i = 0; i < 10_000; i++) {
+                    ring.add("x");
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        EventRing.Entry[] target = new EventRing.Entry[64];
+        start.countDown();
+        // Lesen waehrend geschrieben wird: nur gueltige, absteigende Eintraege
+        for (int i = 0; i < 200; i++) {
+            int count = ring.snapshot(target);
+            for (int j = 1; j < count; j++) {
+                assertTrue(target[j].getSequence() < target[j - 1].getSequence());
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, ring.getSequence());
+        assertEquals(64, ring.snapshot(target));
+        assertEquals(39_999, target[0].getSequence());
+    }
+
+    @Test
+    @DisplayName("DashboardModel: Raten aus Zaehlerdifferenzen und begrenzter Verlauf")
+    void testModelRates() {
+        AutomationMetrics metrics = new AutomationMetrics();
+        DashboardModel model = new DashboardModel(metrics, () -> 7, 16);
+        long now = System.nanoTime();
+        model.sample(now);
+        assertEquals(0, model.getDetectionsPerSecond());
+        assertEquals(7, model.getQueueDepth());
+
+        for (int i = 0; i < 50; i++) {
+            metrics.recordDetection(TimeUnit.MILLISECONDS.toNanos(2));
+        }
+        for (int i = 0; i < 10; i++) {
+            metrics.recordAction(TimeUnit.MILLISECONDS.toNanos(1), true);
+        }
+        model.sample(now + SECOND / 2);
+        assertEquals(100, model.getDetectionsPerSecond(), 0.001);
+        assertEquals(20, model.getActionsPerSecond(), 0.001);
+        assertTrue(model.getDetectionP99Micros() >= 1000);
+
+        double[] history = new double[DashboardModel.HISTORY];
+        assertEquals(2, model.copyHistory(0, history));
+        assertEquals(100, history[1], 0.001);
+
+        for (int i = 0; i < 3 * DashboardModel.HISTORY; i++) {
+            model.sample(now + SECOND + i * SECOND);
+        }
+        assertEquals(DashboardModel.HISTORY, model.copyHistory(1, history));
+        assertEquals(0, history[DashboardModel.HISTORY - 1]);
+        assertThrows(IllegalArgumentException.class, () -> model.copyHistory(3, history));
+    }
+
+    @Test
+    @DisplayName("DashboardPanel: Frames fassen beliebig viele Meldungen zusammen")
+    void testPanelCoalesces() {
+        DashboardModel model = new DashboardModel(new AutomationMetrics(), () -> 0, 256);
+        DashboardPanel panel = new DashboardPanel(model);
+        DashboardPanel.EventTableModel table = panel.getEventTable();
+        long reloads = table.getReloads();
+
+        for (int i = 0; i < 100_000; i++) {
+            model.post("Meldung " + i);
+        }
+        panel.refresh();
+        assertEquals("Meldung 99999", panel.getStatusText());
+        assertEquals(DashboardPanel.TABLE_ROWS, table.getRowCount());
+        assertEquals("Meldung 99999", table.getValueAt(0, 1));
+        assertEquals(reloads + 1, table.getReloads());
+
+        // Ohne neue Ereignisse wird die Tabelle nicht neu geladen
+        panel.refresh();
+        panel.refresh();
+        assertEquals(reloads + 1, table.getReloads());
+        assertEquals(3, panel.getFrames() - 1);
+    }
+}
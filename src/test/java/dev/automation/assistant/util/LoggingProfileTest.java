@@ -0,0 +1,120 @@
+package dev.automation.assistant.util;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.SizeAndTimeBasedRollingPolicy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer {@link LoggingProfile}.
+ * <p>
+ * Laedt das Produktionsprofil in einen eigenen {@link LoggerContext},
+ * damit die Logkonfiguration der Testlaeufe unberuehrt bleibt.
+ * </p>
+ */
+public class LoggingProfileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Profil: System-Property waehlt das Profil, unbekannte Werte fallen mit Warnung auf DEFAULT zurueck")
+    void testFromSystemProperty() {
+        String previous = System.getProperty(LoggingProfile.PROPERTY);
+        try {
+            System.clearProperty(LoggingProfile.PROPERTY);
+            assertFalse(LoggingProfile.isSelectedBySystemProperty());
+            assertEquals(LoggingProfile.DEFAULT, LoggingProfile.fromSystemProperty());
+
+            System.setProperty(LoggingProfile.PROPERTY, "production");
+            assertTrue(LoggingProfile.isSelectedBySystemProperty());
+            assertEquals(LoggingProfile.PRODUCTION, LoggingProfile.fromSystemProperty());
+
+            System.setProperty(LoggingProfile.PROPERTY, "unbekannt");
+            assertEquals(LoggingProfile.DEFAULT, LoggingProfile.fromSystemProperty());
+
+            ByteArrayOutputStream warnings = new ByteArrayOutputStream();
+            assertEquals(LoggingProfile.DEFAULT, LoggingProfile.parse(" prod ", new PrintStream(warnings, true)));
+            assertTrue(warnings.toString().contains("'prod'"), warnings.toString());
+            assertTrue(warnings.toString().contains("default, production"), warnings.toString());
+        } finally {
+            if (previous == null) {
+                System.clearProperty(LoggingProfile.PROPERTY);
+            } else {
+                System.setProperty(LoggingProfile.PROPERTY, previous);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Produktion: asynchroner Ringpuffer vor rollierender Datei mit Groessenlimit")
+    void testProductionPipeline() throws Exception {
+        Path logFile = tempDir.resolve("automation.log");
+        LoggerContext context = newContext();
+        LoggingProfile.PRODUCTION.configure(context, Map.of(
+                "log.file", logFile.toString(),
+                "log.queueSize", "1024",
+                "log.totalSizeCap", "50MB"));
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        AsyncAppender async = (AsyncAppender) root.getAppender("ASYNC");
+        assertNotNull(async);
+        assertEquals(1024, async.getQueueSize());
+        assertTrue(async.isNeverBlock());
+
+        RollingFileAppender<?> file = (RollingFileAppender<?>) async.getAppender("FILE");
+        assertNotNull(file);
+        SizeAndTimeBasedRollingPolicy<?> policy = (SizeAndTimeBasedRollingPolicy<?>) file.getRollingPolicy();
+        assertTrue(policy.getFileNamePattern().endsWith(".log.gz"));
+
+        context.getLogger("test").info("Produktionsprofil aktiv");
+        context.stop(); // leert den asynchronen Puffer
+
+        assertTrue(Files.readString(logFile).contains("Produktionsprofil aktiv"));
+    }
+
+    @Test
+    @DisplayName("Produktion: zu grosse Dateien werden rolliert und mit gzip komprimiert")
+    void testRolloverCompressesArchives() throws Exception {
+        Path logFile = tempDir.resolve("rolling.log");
+        // Bestehende Datei ueber dem Limit: die erste Groessenpruefung loest die Rotation aus
+        Files.writeString(logFile, "x".repeat(4096));
+
+        LoggerContext context = newContext();
+        LoggingProfile.PRODUCTION.configure(context, Map.of(
+                "log.file", logFile.toString(),
+                "log.maxFileSize", "1KB"));
+        context.getLogger("test").info("nach der Rotation");
+        context.stop(); // leert den Puffer und wartet auf laufende Kompressionen
+
+        assertEquals(1, countArchives(), "Kein komprimiertes Archiv erzeugt");
+        assertTrue(Files.size(logFile) < 4096);
+    }
+
+    private static LoggerContext newContext() {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter()); // sonst setzt SLF4J den Adapter
+        return context;
+    }
+
+    private long countArchives() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".log.gz")).count();
+        }
+    }
+}
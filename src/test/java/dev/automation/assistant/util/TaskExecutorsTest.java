@@ -0,0 +1,103 @@
+package dev.automation.assistant.util;
+
+import dev.automation.assistant.platform.InMemoryWindowBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer {@link TaskExecutors} und die Ausfuehrungsmodi.
+ */
+public class TaskExecutorsTest {
+
+    @AfterEach
+    void resetMode() {
+        TaskExecutors.configure(ExecutionMode.AUTO);
+    }
+
+    @Test
+    @DisplayName("TaskExecutors: 10k simulierte Monitore laufen gleichzeitig ohne Thread-Explosion")
+    void testTenThousandMonitors() throws InterruptedException {
+        TaskExecutors.configure(ExecutionMode.AUTO);
+        InMemoryWindowBackend backend = new InMemoryWindowBackend();
+        int monitors = 10_000;
+        long firstHandle = 0x100000;
+
+        int platformThreadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        CountDownLatch detected = new CountDownLatch(monitors);
+        List<PeriodicTask> tasks = new ArrayList<>(monitors);
+
+        for (int i = 0; i < monitors; i++) {
+            long handle = firstHandle + i * 4L;
+            boolean[] seen = new boolean[1];
+            tasks.add(TaskExecutors.schedulePeriodic("Monitor-" + i, () -> {
+                if (!seen[0] && backend.isWindow(handle)) {
+                    seen[0] = true;
+                    detected.countDown();
+                }
+            }, 10));
+        }
+
+        // Alle Monitore warten; jetzt erscheinen die Fenster
+        for (int i = 0; i < monitors; i++) {
+            backend.openWindow(firstHandle + i * 4L, "Dialog " + i);
+        }
+
+        boolean allDetected = detected.await(30, TimeUnit.SECONDS);
+        int platformThreadsDuring = ManagementFactory.getThreadMXBean().getThreadCount();
+        tasks.forEach(PeriodicTask::cancel);
+
+        assertTrue(allDetected, "Nicht alle Monitore haben ihr Fenster erkannt: " + detected.getCount() + " fehlen");
+        int growth = platformThreadsDuring - platformThreadsBefore;
+        System.out.printf("TaskExecutors: %d Monitore (%s), Plattform-Threads +%d%n",
+                monitors, TaskExecutors.usesVirtualThreads() ? "virtuell" : "Plattform-Pool", growth);
+        assertTrue(growth <= Runtime.getRuntime().availableProcessors() + 8,
+                "Zu viele Plattform-Threads erzeugt: +" + growth);
+        assertTrue(tasks.stream().allMatch(PeriodicTask::isCancelled));
+    }
+
+    @Test
+    @DisplayName("TaskExecutors: VIRTUAL faellt auf alten JVMs auf den Plattform-Pool zurueck")
+    void testVirtualFallback() throws InterruptedException {
+        TaskExecutors.configure(ExecutionMode.VIRTUAL);
+        assertEquals(TaskExecutors.isVirtualThreadSupported(), TaskExecutors.usesVirtualThreads());
+
+        ThreadFactory factory = TaskExecutors.threadFactory("Test-Worker");
+        CountDownLatch ran = new CountDownLatch(1);
+        Thread thread = factory.newThread(ran::countDown);
+        assertTrue(thread.getName().startsWith("Test-Worker-"));
+        thread.start();
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+
+        TaskExecutors.configure(ExecutionMode.PLATFORM);
+        assertFalse(TaskExecutors.usesVirtualThreads());
+        assertTrue(TaskExecutors.threadFactory("Plattform").newThread(() -> { }).isDaemon());
+    }
+
+    @Test
+    @DisplayName("ExecutionMode: Modus wird aus der System-Property gelesen")
+    void testModeFromProperty() {
+        String previous = System.getProperty(ExecutionMode.PROPERTY);
+        try {
+            System.setProperty(ExecutionMode.PROPERTY, "platform");
+            assertEquals(ExecutionMode.PLATFORM, ExecutionMode.fromSystemProperty());
+            System.setProperty(ExecutionMode.PROPERTY, "unbekannt");
+            assertEquals(ExecutionMode.AUTO, ExecutionMode.fromSystemProperty());
+        } finally {
+            if (previous == null) {
+                System.clearProperty(ExecutionMode.PROPERTY);
+            } else {
+                System.setProperty(ExecutionMode.PROPERTY, previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package dev.automation.assistant.vision;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer {@link ScreenRegionDetector} und {@link TileHashGate} mit simulierten Aufnahmen.
+ */
+public class ScreenRegionDetectorTest {
+
+    private static final BufferedImage BUTTON = VisionFixtures.blocks(40, 20, 5, 11);
+
+    @Test
+    @DisplayName("Detektor: Treffer in Bildschirmkoordinaten, unveraenderte Frames werden uebersprungen")
+    void testDetectAndSkipUnchangedFrames() {
+        BufferedImage screen = VisionFixtures.blocks(400, 300, 5, 2);
+        VisionFixtures.paste(screen, BUTTON, 210, 150);
+        AtomicReference<BufferedImage> current = new AtomicReference<>(screen);
+        ScreenRegionDetector detector = new ScreenRegionDetector(region -> current.get(),
+                new Rectangle(1000, 500, 400, 300), new TemplateMatcher(), 0.9);
+        detector.register(Template.of("ok", BUTTON));
+
+        List<TemplateMatch> first = detector.detect();
+        assertEquals(1, first.size());
+        assertEquals(1210, first.get(0).getX());
+        assertEquals(650, first.get(0).getY());
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(first, detector.detect());
+        }
+        assertEquals(1, detector.getFramesAnalyzed());
+        assertEquals(10, detector.getFramesSkipped());
+
+        // Dialog verschoben
+        BufferedImage moved = VisionFixtures.blocks(400, 300, 5, 2);
+        VisionFixtures.paste(moved, BUTTON, 30, 40);
+        current.set(moved);
+        List<TemplateMatch> second = detector.detect();
+        assertEquals(1030, second.get(0).getX());
+        assertEquals(540, second.get(0).getY());
+        assertEquals(2, detector.getFramesAnalyzed());
+
+        // Template entfernt: gleicher Frame, aber neue Suche
+        assertTrue(detector.unregister("ok"));
+        assertTrue(detector.detect().isEmpty());
+        assertEquals(3, detector.getFramesAnalyzed());
+    }
+
+    @Test
+    @DisplayName("Kachel-Hash: nur geaenderte Kacheln werden gezaehlt")
+    void testTileHashGate() {
+        TileHashGate gate = new TileHashGate(32);
+        BufferedImage frame = VisionFixtures.blocks(100, 70, 5, 4);
+
+        assertEquals(4 * 3, gate.update(frame), "Erster Frame gilt als vollstaendig geaendert");
+        assertEquals(0, gate.update(frame));
+
+        frame.setRGB(99, 69, frame.getRGB(99, 69) ^ 0x010101);
+        assertEquals(1, gate.update(frame));
+        assertEquals(0, gate.update(frame));
+
+        frame.setRGB(0, 0, frame.getRGB(0, 0) ^ 0x000001);
+        frame.setRGB(40, 40, frame.getRGB(40, 40) ^ 0x000001);
+        assertEquals(2, gate.update(frame));
+
+        gate.reset();
+        assertEquals(12, gate.update(frame));
+    }
+
+    @Test
+    @DisplayName("Kachel-Hash: Bilder ohne int-Raster werden zeilenweise gelesen")
+    void testTileHashGateWithOtherImageType() {
+        BufferedImage rgb = VisionFixtures.blocks(64, 64, 8, 5);
+        BufferedImage bgr = new BufferedImage(64, 64, BufferedImage.TYPE_3BYTE_BGR);
+        bgr.getGraphics().drawImage(rgb, 0, 0, null);
+
+        TileHashGate gate = new TileHashGate(32);
+        gate.update(bgr);
+        assertEquals(0, gate.update(bgr));
+        bgr.setRGB(33, 1, 0xFFFFFF);
+        assertEquals(1, gate.update(bgr));
+    }
+}
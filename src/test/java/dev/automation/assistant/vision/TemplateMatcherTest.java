@@ -0,0 +1,119 @@
+package dev.automation.assistant.vision;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests fuer {@link TemplateMatcher} auf {@link BufferedImage}-Fixtures (headless).
+ */
+public class TemplateMatcherTest {
+
+    private static final BufferedImage BUTTON = VisionFixtures.blocks(48, 24, 6, 42);
+
+    @Test
+    @DisplayName("Matcher: Button an ungerader Position exakt gefunden")
+    void testFindsTemplate() {
+        BufferedImage screen = VisionFixtures.blocks(800, 600, 5, 1);
+        VisionFixtures.paste(screen, BUTTON, 523, 311);
+        Template template = Template.of("ok", BUTTON);
+        assertTrue(template.levelCount() > 1, "Template sollte eine Pyramide haben");
+
+        TemplateMatch match = new TemplateMatcher().find(GrayImage.of(screen), template, 0.9);
+
+        assertNotNull(match);
+        assertEquals(523, match.getX());
+        assertEquals(311, match.getY());
+        assertEquals(523 + 24, match.getCenterX());
+        assertTrue(match.getScore() > 0.99, "Score " + match.getScore());
+    }
+
+    @Test
+    @DisplayName("Matcher: Pyramidensuche entspricht der Vollsuche")
+    void testPyramidMatchesExhaustive() {
+        TemplateMatcher matcher = new TemplateMatcher();
+        for (int seed = 0; seed < 5; seed++) {
+            BufferedImage screen = VisionFixtures.blocks(320, 240, 4, 100 + seed);
+            int x = 17 + seed * 53;
+            int y = 9 + seed * 41;
+            VisionFixtures.paste(screen, BUTTON, x, y);
+            GrayImage frame = GrayImage.of(screen);
+            Template template = Template.of("ok", BUTTON);
+
+            TemplateMatch pyramid = matcher.find(frame, template, 0.9);
+            TemplateMatch exhaustive = matcher.findExhaustive(frame, template, 0.9);
+            assertNotNull(pyramid, "Seed " + seed);
+            assertEquals(exhaustive.getX(), pyramid.getX());
+            assertEquals(exhaustive.getY(), pyramid.getY());
+            assertEquals(x, pyramid.getX());
+            assertEquals(y, pyramid.getY());
+        }
+    }
+
+    @Test
+    @DisplayName("Matcher: Kein Treffer, wenn der Button fehlt")
+    void testNoMatch() {
+        BufferedImage screen = VisionFixtures.blocks(400, 300, 5, 7);
+        Template template = Template.of("ok", BUTTON);
+        assertNull(new TemplateMatcher().find(GrayImage.of(screen), template, 0.9));
+
+        BufferedImage small = VisionFixtures.blocks(20, 20, 5, 7);
+        assertNull(new TemplateMatcher().find(GrayImage.of(small), template, 0.9));
+    }
+
+    @Test
+    @DisplayName("Matcher: Helligkeit und Kontrast aendern die Korrelation nicht")
+    void testIlluminationInvariance() {
+        BufferedImage screen = VisionFixtures.blocks(300, 200, 5, 3);
+        BufferedImage dimmed = new BufferedImage(BUTTON.getWidth(), BUTTON.getHeight(), BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < BUTTON.getHeight(); y++) {
+            for (int x = 0; x < BUTTON.getWidth(); x++) {
+                int rgb = BUTTON.getRGB(x, y);
+                int r = ((rgb >> 16) & 0xFF) / 2 + 40;
+                int g = ((rgb >> 8) & 0xFF) / 2 + 40;
+                int b = (rgb & 0xFF) / 2 + 40;
+                dimmed.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+        VisionFixtures.paste(screen, dimmed, 100, 60);
+
+        TemplateMatch match = new TemplateMatcher().find(GrayImage.of(screen), Template.of("ok", BUTTON), 0.9);
+        assertNotNull(match);
+        assertEquals(100, match.getX());
+        assertEquals(60, match.getY());
+    }
+
+    @Test
+    @DisplayName("Matcher: Ergebnis unabhaengig von der Anzahl Kerne")
+    void testParallelismIndependent() {
+        BufferedImage screen = VisionFixtures.blocks(1024, 768, 5, 9);
+        VisionFixtures.paste(screen, BUTTON, 901, 700);
+        GrayImage frame = GrayImage.of(screen);
+        Template template = Template.of("ok", BUTTON);
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool quad = new ForkJoinPool(4);
+        try {
+            TemplateMatch a = new TemplateMatcher(single).find(frame, template, 0.9);
+            TemplateMatch b = new TemplateMatcher(quad).find(frame, template, 0.9);
+            assertEquals(a.getX(), b.getX());
+            assertEquals(a.getY(), b.getY());
+            assertEquals(a.getScore(), b.getScore(), 1e-9);
+            assertEquals(901, b.getX());
+        } finally {
+            single.shutdown();
+            quad.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Template: Einfarbiges Bild wird abgelehnt")
+    void testFlatTemplateRejected() {
+        BufferedImage flat = new BufferedImage(30, 20, BufferedImage.TYPE_INT_RGB);
+        assertThrows(IllegalArgumentException.class, () -> Template.of("leer", flat));
+    }
+}
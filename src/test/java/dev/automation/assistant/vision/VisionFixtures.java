@@ -0,0 +1,42 @@
+package dev.automation.assistant.vision;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * Erzeugt reproduzierbare Testbilder fuer die Bildsuche.
+ */
+final class VisionFixtures {
+
+    private VisionFixtures() {}
+
+    /**
+     * Bild aus zufaellig gefaerbten Bloecken (naeherungsweise Bildschirminhalt mit Kanten).
+     */
+    static BufferedImage blocks(int width, int height, int blockSize, long seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(seed);
+        for (int by = 0; by < height; by += blockSize) {
+            for (int bx = 0; bx < width; bx += blockSize) {
+                int rgb = random.nextInt(0x1000000);
+                for (int y = by; y < Math.min(height, by + blockSize); y++) {
+                    for (int x = bx; x < Math.min(width, bx + blockSize); x++) {
+                        image.setRGB(x, y, rgb);
+                    }
+                }
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Kopiert {@code source} an Position (x, y) in {@code target}.
+     */
+    static void paste(BufferedImage target, BufferedImage source, int x, int y) {
+        for (int sy = 0; sy < source.getHeight(); sy++) {
+            for (int sx = 0; sx < source.getWidth(); sx++) {
+                target.setRGB(x + sx, y + sy, source.getRGB(sx, sy));
+            }
+        }
+    }
+}